@@ -0,0 +1,107 @@
+package tutorials.database;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the result set helpers of {@link DefaultDBHelper} over synthetic result sets.
+ * writeResultSet is measured through executeSQL on an in-memory connection, so the JDBC driver is not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DBHelperBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private final DefaultDBHelper dbHelper = new DefaultDBHelper();
+    private List<Map<String, Object>> resultSet;
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        resultSet = SyntheticData.rows(rows);
+        connection = SyntheticData.connection(SyntheticData.values(rows));
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> writeResultSet() {
+        return dbHelper.executeSQL(connection, "SELECT * FROM SYNTHETIC");
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Object>> fetchDBDataIntoMap() {
+        return dbHelper.fetchDBDataIntoMap("ID", resultSet);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Object>> fetchDBDataIntoMapWithCombKeys() {
+        return dbHelper.fetchDBDataIntoMapWithCombKeys(resultSet, "CODE", "ID");
+    }
+
+    @Benchmark
+    public Map<CompositeKey, Map<String, Object>> fetchDBDataIntoMapWithCompositeKey() {
+        return dbHelper.fetchDBDataIntoMapWithCompositeKey(resultSet, "CODE", "ID");
+    }
+
+    @Benchmark
+    public Map<String, List<Map<String, Object>>> fetchDBDataIntoMapListWithKey() {
+        return dbHelper.fetchDBDataIntoMapListWithKey("CODE", resultSet);
+    }
+
+    @Benchmark
+    public Map<CompositeKey, List<Map<String, Object>>> fetchDBDataIntoMapListWithCompositeKey() {
+        return dbHelper.fetchDBDataIntoMapListWithCompositeKey(resultSet, "CODE", "STATUS");
+    }
+
+    @Benchmark
+    public void normalizeDBData(Blackhole blackhole) {
+        for (Map<String, Object> row : resultSet) {
+            blackhole.consume(dbHelper.normalizeDBData(row, "NULL"));
+        }
+    }
+
+    @Benchmark
+    public void convertKeyTo(Blackhole blackhole) {
+        for (Map<String, Object> row : resultSet) {
+            blackhole.consume(dbHelper.convertKeyTo(row, true));
+        }
+    }
+
+    @Benchmark
+    public void keyCaseView(Blackhole blackhole) {
+        for (Map<String, Object> row : KeyCaseRows.view(resultSet, KeyCase.LOWER)) {
+            blackhole.consume(row.get("id"));
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> aggregate() {
+        return new Aggregation("CODE").aggregate(Aggregate.count(), Aggregate.sum("AMOUNT"), Aggregate.max("AMOUNT")).apply(resultSet);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> topAmounts() {
+        return new ResultSetSorter(SortKey.desc("AMOUNT").asNumbers(), SortKey.asc("ID")).top(resultSet, 100);
+    }
+}
@@ -0,0 +1,68 @@
+package tutorials.database;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link DBConnector#execute(String)} end to end against an in-memory H2 database,
+ * i.e. statement execution, fetching through the driver and writeResultSet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExecuteSQLBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    private DBConnector connector;
+    private String sql;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String dbName = "bench" + rows;
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + dbName + ";DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE SYNTHETIC (ID VARCHAR(20), CODE VARCHAR(10), NAME VARCHAR(40), "
+                    + "CREATED VARCHAR(20), AMOUNT VARCHAR(20), STATUS VARCHAR(10))");
+        }
+        connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", dbName, "");
+        connector.connect();
+        connector.executeBatch("INSERT INTO SYNTHETIC VALUES (?, ?, ?, ?, ?, ?)", Arrays.asList((Object[][]) SyntheticData.values(rows)), 10_000, false);
+        sql = "SELECT * FROM SYNTHETIC";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connector.close();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> executeSQL() {
+        return connector.execute(sql);
+    }
+}
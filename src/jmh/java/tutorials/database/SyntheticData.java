@@ -0,0 +1,97 @@
+package tutorials.database;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SyntheticData creates deterministic rows for the benchmarks, either as a result set list or as a JDBC
+ * connection whose queries return the rows from memory, so the helpers are measured without driver overhead.
+ */
+final class SyntheticData {
+
+    static final String[] COLUMNS = {"ID", "CODE", "NAME", "CREATED", "AMOUNT", "STATUS"};
+
+    private SyntheticData() {
+    }
+
+    static String[][] values(int rows) {
+        String[][] values = new String[rows][];
+        for (int i = 0; i < rows; i++) {
+            values[i] = new String[]{
+                    String.valueOf(i),
+                    "C" + (i % 1000),
+                    "name " + i,
+                    "2024-" + String.format("%02d-%02d", i % 12 + 1, i % 28 + 1) + " 10:15:00",
+                    i % 10 == 0 ? null : String.valueOf(i * 1.25),
+                    i % 3 == 0 ? "OPEN" : "DONE"};
+        }
+        return values;
+    }
+
+    static List<Map<String, Object>> rows(int rows) {
+        String[][] values = values(rows);
+        List<Map<String, Object>> result = new ArrayList<>(rows);
+        for (String[] row : values) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int c = 0; c < COLUMNS.length; c++) {
+                map.put(COLUMNS[c], row[c]);
+            }
+            result.add(map);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a connection whose statements return the given rows for every query.
+     */
+    static Connection connection(String[][] values) {
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> switch (method) {
+            case "getColumnCount" -> COLUMNS.length;
+            case "getColumnName", "getColumnLabel" -> COLUMNS[(Integer) args[0] - 1];
+            default -> throw new UnsupportedOperationException(method);
+        });
+        Statement statement = proxy(Statement.class, (method, args) -> switch (method) {
+            case "executeQuery" -> resultSet(values, metaData);
+            case "close" -> null;
+            default -> throw new UnsupportedOperationException(method);
+        });
+        return proxy(Connection.class, (method, args) -> switch (method) {
+            case "createStatement" -> statement;
+            case "close" -> null;
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private static ResultSet resultSet(String[][] values, ResultSetMetaData metaData) {
+        int[] row = {-1};
+        Map<String, Integer> indexByName = new LinkedHashMap<>();
+        for (int c = 0; c < COLUMNS.length; c++) {
+            indexByName.put(COLUMNS[c], c);
+        }
+        return proxy(ResultSet.class, (method, args) -> switch (method) {
+            case "next" -> ++row[0] < values.length;
+            case "getMetaData" -> metaData;
+            case "getString" -> args[0] instanceof Integer index
+                    ? values[row[0]][index - 1]
+                    : values[row[0]][indexByName.get((String) args[0])];
+            case "close" -> null;
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(SyntheticData.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args)));
+    }
+}
@@ -0,0 +1,118 @@
+package tutorials.database;
+
+import java.util.Objects;
+
+/**
+ * Aggregate describes one aggregate column of an {@link Aggregation}, e.g. the sum of a column per group.
+ *
+ * @param function the aggregate function
+ * @param column   the aggregated column, null only for the row count
+ * @param name     the column name of the aggregate in the result, e.g. SUM(AMOUNT)
+ */
+public record Aggregate(Function function, String column, String name) {
+
+    public Aggregate {
+        Objects.requireNonNull(function, "function");
+        if (column == null && function != Function.COUNT) {
+            throw new IllegalArgumentException(function + " requires a column");
+        }
+        if (name == null) {
+            name = switch (function) {
+                case COUNT -> "COUNT(" + (column == null ? "*" : column) + ")";
+                case COUNT_DISTINCT -> "COUNT(DISTINCT " + column + ")";
+                default -> function + "(" + column + ")";
+            };
+        }
+    }
+
+    /**
+     * Counts the rows of every group, like COUNT(*).
+     *
+     * @return the aggregate
+     */
+    public static Aggregate count() {
+        return new Aggregate(Function.COUNT, null, null);
+    }
+
+    /**
+     * Counts the non-null values of the given column.
+     *
+     * @param column the column
+     * @return the aggregate
+     */
+    public static Aggregate count(String column) {
+        return new Aggregate(Function.COUNT, column, null);
+    }
+
+    /**
+     * Counts the distinct non-null values of the given column.
+     *
+     * @param column the column
+     * @return the aggregate
+     */
+    public static Aggregate countDistinct(String column) {
+        return new Aggregate(Function.COUNT_DISTINCT, column, null);
+    }
+
+    /**
+     * Sums the values of the given column.
+     *
+     * @param column the numeric column
+     * @return the aggregate
+     */
+    public static Aggregate sum(String column) {
+        return new Aggregate(Function.SUM, column, null);
+    }
+
+    /**
+     * Averages the non-null values of the given column.
+     *
+     * @param column the numeric column
+     * @return the aggregate
+     */
+    public static Aggregate avg(String column) {
+        return new Aggregate(Function.AVG, column, null);
+    }
+
+    /**
+     * Finds the smallest value of the given column.
+     *
+     * @param column the column
+     * @return the aggregate
+     */
+    public static Aggregate min(String column) {
+        return new Aggregate(Function.MIN, column, null);
+    }
+
+    /**
+     * Finds the largest value of the given column.
+     *
+     * @param column the column
+     * @return the aggregate
+     */
+    public static Aggregate max(String column) {
+        return new Aggregate(Function.MAX, column, null);
+    }
+
+    /**
+     * Returns a copy with another result column name.
+     *
+     * @param name the column name of the aggregate in the result
+     * @return the renamed aggregate
+     */
+    public Aggregate as(String name) {
+        return new Aggregate(function, column, Objects.requireNonNull(name, "name"));
+    }
+
+    /**
+     * The aggregate functions.
+     */
+    public enum Function {
+        COUNT,
+        COUNT_DISTINCT,
+        SUM,
+        AVG,
+        MIN,
+        MAX
+    }
+}
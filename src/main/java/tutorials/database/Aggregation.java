@@ -0,0 +1,603 @@
+package tutorials.database;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Aggregation groups the rows of a result set by one or more columns and computes aggregates per group,
+ * like GROUP BY with COUNT, SUM, AVG, MIN, MAX and COUNT(DISTINCT) in SQL, but on rows already fetched.
+ * <p>
+ * Every group gets a number on its first row, and every aggregate keeps its state in primitive arrays indexed by
+ * that number, e.g. a long[] of counts and a double[] of sums, so a row costs one key lookup and no object per
+ * group and aggregate. Numeric values are read from Numbers or parsed from the Strings of
+ * {@link DBConnector#execute(String)}; the int, long and double columns of a {@link ColumnarResultSet} are read
+ * without boxing. Large inputs are split into ranges aggregated in parallel, and the partial groups are merged.
+ * <p>
+ * The result has one row per group in order of first appearance, with the group columns followed by the aggregates.
+ * Without group columns there is exactly one row, as in SQL. Sums of integral values are Longs, or BigDecimals beyond
+ * the long range; sums of BigDecimals and decimal Strings are exact BigDecimals, and sums with floats or doubles are
+ * Doubles. Averages divide the exact sum: they are BigDecimals for decimal values and Doubles otherwise. MIN and MAX
+ * return the original value and compare numbers as doubles. Nulls are skipped, and an aggregate over only nulls is
+ * null. The aggregation is immutable and thread-safe.
+ */
+public class Aggregation {
+
+    /**
+     * The smallest number of rows aggregated by one thread.
+     */
+    public static final int MIN_ROWS_PER_THREAD = 50_000;
+
+    private static final LoggerManager loggerManager = new LoggerManager(Aggregation.class);
+
+    private final String[] groupColumns;
+    private final Aggregate[] aggregates;
+    private final int parallelism;
+
+    /**
+     * Creates an aggregation grouping by the given columns, using all processors for large inputs.
+     *
+     * @param groupColumns the group columns, none for one group over all rows
+     */
+    public Aggregation(String... groupColumns) {
+        this(groupColumns.clone(), new Aggregate[0], Runtime.getRuntime().availableProcessors());
+    }
+
+    private Aggregation(String[] groupColumns, Aggregate[] aggregates, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.groupColumns = groupColumns;
+        this.aggregates = aggregates;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns a copy computing the given aggregates in addition to the current ones.
+     *
+     * @param aggregates the aggregates, e.g. {@link Aggregate#sum(String)}
+     * @return the changed aggregation
+     */
+    public Aggregation aggregate(Aggregate... aggregates) {
+        Aggregate[] all = Arrays.copyOf(this.aggregates, this.aggregates.length + aggregates.length);
+        System.arraycopy(aggregates, 0, all, this.aggregates.length, aggregates.length);
+        return new Aggregation(groupColumns, all, parallelism);
+    }
+
+    /**
+     * Returns a copy using at most the given number of threads.
+     *
+     * @param parallelism the maximum number of threads, 1 to aggregate on the calling thread only
+     * @return the changed aggregation
+     */
+    public Aggregation withParallelism(int parallelism) {
+        return new Aggregation(groupColumns, aggregates, parallelism);
+    }
+
+    /**
+     * Aggregates the given rows.
+     *
+     * @param rows the result set, e.g. from {@link DBConnector#execute(String)} or {@link DBConnector#executeColumnar}
+     * @return one row per group with the group columns and the aggregates
+     * @throws IllegalArgumentException if a SUM or AVG column holds a value that is not a number
+     */
+    public List<Map<String, Object>> apply(List<Map<String, Object>> rows) {
+        long start = System.nanoTime();
+        List<Map<String, Object>> source = rows instanceof RandomAccess ? rows : new ArrayList<>(rows);
+        int size = source.size();
+        int threads = Math.max(1, Math.min(parallelism, size / MIN_ROWS_PER_THREAD));
+        GroupTable table;
+        if (threads == 1) {
+            table = aggregate(source, 0, size);
+        } else {
+            List<GroupTable> partials = IntStream.range(0, threads).parallel()
+                    .mapToObj(part -> aggregate(source, (int) ((long) size * part / threads), (int) ((long) size * (part + 1) / threads)))
+                    .toList();
+            table = partials.get(0);
+            for (int part = 1; part < threads; part++) {
+                table.merge(partials.get(part));
+            }
+        }
+        if (groupColumns.length == 0 && table.keys.isEmpty()) {
+            table.group(CompositeKey.of());
+        }
+        List<Map<String, Object>> result = new ArrayList<>(table.keys.size());
+        for (int group = 0; group < table.keys.size(); group++) {
+            CompositeKey key = table.keys.get(group);
+            LinkedHashMap<String, Object> row = new LinkedHashMap<>((groupColumns.length + aggregates.length) * 4 / 3 + 1);
+            for (int i = 0; i < groupColumns.length; i++) {
+                row.put(groupColumns[i], key.get(i));
+            }
+            for (int a = 0; a < aggregates.length; a++) {
+                row.put(aggregates[a].name(), table.accumulators[a].result(group));
+            }
+            result.add(row);
+        }
+        loggerManager.debug(() -> String.format("Aggregated %d rows into %d groups on %d threads in %.1f ms",
+                size, result.size(), threads, (System.nanoTime() - start) / 1_000_000.0));
+        return result;
+    }
+
+    private GroupTable aggregate(List<Map<String, Object>> rows, int from, int to) {
+        GroupTable table = new GroupTable(newAccumulators());
+        Accumulator[] accumulators = table.accumulators;
+        if (rows instanceof ColumnarResultSet columnar) {
+            int[] keyColumns = new int[groupColumns.length];
+            for (int i = 0; i < groupColumns.length; i++) {
+                keyColumns[i] = columnar.getSchema().indexOf(groupColumns[i]);
+            }
+            ResultColumn[] columns = new ResultColumn[aggregates.length];
+            for (int a = 0; a < aggregates.length; a++) {
+                columns[a] = aggregates[a].column() == null ? null : columnar.getColumn(aggregates[a].column());
+            }
+            for (int row = from; row < to; row++) {
+                Object[] values = new Object[keyColumns.length];
+                for (int i = 0; i < keyColumns.length; i++) {
+                    values[i] = keyColumns[i] < 0 ? null : columnar.getValue(row, keyColumns[i]);
+                }
+                int group = table.group(CompositeKey.of(values));
+                for (int a = 0; a < accumulators.length; a++) {
+                    if (columns[a] == null) {
+                        accumulators[a].add(group, Boolean.TRUE);
+                    } else {
+                        accumulators[a].add(group, columns[a], row);
+                    }
+                }
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                Map<String, Object> row = rows.get(i);
+                int group = table.group(CompositeKey.fromRow(row, groupColumns));
+                for (int a = 0; a < accumulators.length; a++) {
+                    String column = aggregates[a].column();
+                    accumulators[a].add(group, column == null ? Boolean.TRUE : row.get(column));
+                }
+            }
+        }
+        return table;
+    }
+
+    private Accumulator[] newAccumulators() {
+        Accumulator[] accumulators = new Accumulator[aggregates.length];
+        for (int a = 0; a < aggregates.length; a++) {
+            String column = aggregates[a].column();
+            accumulators[a] = switch (aggregates[a].function()) {
+                case COUNT -> new CountAccumulator();
+                case COUNT_DISTINCT -> new DistinctAccumulator();
+                case SUM -> new SumAccumulator(column, false);
+                case AVG -> new SumAccumulator(column, true);
+                case MIN -> new ExtremeAccumulator(false);
+                case MAX -> new ExtremeAccumulator(true);
+            };
+        }
+        return accumulators;
+    }
+
+    /**
+     * Returns the value as double, or NaN if it is neither a Number nor a String holding a number.
+     */
+    static double numberOf(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String string && isNumeric(string)) {
+            try {
+                return Double.parseDouble(string);
+            } catch (NumberFormatException ex) {
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static boolean isNumeric(String string) {
+        boolean digit = false;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') {
+                return false;
+            }
+        }
+        return digit;
+    }
+
+    private static boolean isIntegral(String string) {
+        int length = string.length();
+        int start = length > 0 && (string.charAt(0) == '-' || string.charAt(0) == '+') ? 1 : 0;
+        if (length == start || length - start > 18) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The groups of one range of rows, numbered in order of first appearance, with their aggregate states.
+     */
+    private static final class GroupTable {
+        private final Map<CompositeKey, Integer> ids = new HashMap<>();
+        private final List<CompositeKey> keys = new ArrayList<>();
+        private final Accumulator[] accumulators;
+        private int capacity;
+
+        GroupTable(Accumulator[] accumulators) {
+            this.accumulators = accumulators;
+        }
+
+        int group(CompositeKey key) {
+            Integer id = ids.putIfAbsent(key, keys.size());
+            if (id != null) {
+                return id;
+            }
+            int group = keys.size();
+            keys.add(key);
+            if (group == capacity) {
+                capacity = Math.max(16, capacity * 2);
+                for (Accumulator accumulator : accumulators) {
+                    accumulator.ensure(capacity);
+                }
+            }
+            return group;
+        }
+
+        void merge(GroupTable other) {
+            for (int group = 0; group < other.keys.size(); group++) {
+                int target = group(other.keys.get(group));
+                for (int a = 0; a < accumulators.length; a++) {
+                    accumulators[a].merge(target, other.accumulators[a], group);
+                }
+            }
+        }
+    }
+
+    /**
+     * The state of one aggregate for all groups of a range, in arrays indexed by group number.
+     */
+    private abstract static class Accumulator {
+
+        abstract void ensure(int capacity);
+
+        abstract void add(int group, Object value);
+
+        void add(int group, ResultColumn column, int row) {
+            add(group, column.get(row));
+        }
+
+        abstract void merge(int group, Accumulator other, int otherGroup);
+
+        abstract Object result(int group);
+    }
+
+    private static final class CountAccumulator extends Accumulator {
+        private long[] counts = new long[0];
+
+        @Override
+        void ensure(int capacity) {
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        @Override
+        void add(int group, Object value) {
+            if (value != null) {
+                counts[group]++;
+            }
+        }
+
+        @Override
+        void add(int group, ResultColumn column, int row) {
+            if (!column.isNull(row)) {
+                counts[group]++;
+            }
+        }
+
+        @Override
+        void merge(int group, Accumulator other, int otherGroup) {
+            counts[group] += ((CountAccumulator) other).counts[otherGroup];
+        }
+
+        @Override
+        Object result(int group) {
+            return counts[group];
+        }
+    }
+
+    /**
+     * Sums integral values in a long, continuing in a BigDecimal on overflow, BigDecimals and decimal Strings exactly
+     * in a BigDecimal, and floats and doubles in a double, and counts them for the average.
+     */
+    private static final class SumAccumulator extends Accumulator {
+        private final String column;
+        private final boolean average;
+        private long[] longSums = new long[0];
+        private BigDecimal[] exactSums = new BigDecimal[0];
+        private double[] doubleSums = new double[0];
+        private long[] counts = new long[0];
+        private boolean[] decimal = new boolean[0];
+        private boolean[] inexact = new boolean[0];
+
+        SumAccumulator(String column, boolean average) {
+            this.column = column;
+            this.average = average;
+        }
+
+        @Override
+        void ensure(int capacity) {
+            longSums = Arrays.copyOf(longSums, capacity);
+            exactSums = Arrays.copyOf(exactSums, capacity);
+            doubleSums = Arrays.copyOf(doubleSums, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            decimal = Arrays.copyOf(decimal, capacity);
+            inexact = Arrays.copyOf(inexact, capacity);
+        }
+
+        @Override
+        void add(int group, Object value) {
+            if (value == null) {
+                return;
+            }
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                addLong(group, ((Number) value).longValue());
+            } else if (value instanceof BigDecimal number) {
+                addDecimal(group, number);
+            } else if (value instanceof BigInteger number) {
+                sumExact(group, new BigDecimal(number));
+                counts[group]++;
+            } else if (value instanceof String string && isIntegral(string)) {
+                addLong(group, Long.parseLong(string));
+            } else if (value instanceof String string && isNumeric(string)) {
+                addDecimal(group, parseDecimal(string));
+            } else {
+                double number = numberOf(value);
+                if (Double.isNaN(number) && !"NaN".equals(String.valueOf(value))) {
+                    throw new IllegalArgumentException("Value of " + column + " is not a number: " + value);
+                }
+                addDouble(group, number);
+            }
+        }
+
+        private BigDecimal parseDecimal(String string) {
+            try {
+                return new BigDecimal(string);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Value of " + column + " is not a number: " + string, ex);
+            }
+        }
+
+        @Override
+        void add(int group, ResultColumn column, int row) {
+            if (column.isNull(row)) {
+                return;
+            }
+            if (column instanceof ResultColumn.IntColumn ints) {
+                addLong(group, ints.getInt(row));
+            } else if (column instanceof ResultColumn.LongColumn longs) {
+                addLong(group, longs.getLong(row));
+            } else if (column instanceof ResultColumn.DoubleColumn doubles) {
+                addDouble(group, doubles.getDouble(row));
+            } else {
+                add(group, column.get(row));
+            }
+        }
+
+        private void addLong(int group, long value) {
+            sumLong(group, value);
+            counts[group]++;
+        }
+
+        private void sumLong(int group, long value) {
+            try {
+                longSums[group] = Math.addExact(longSums[group], value);
+            } catch (ArithmeticException ex) {
+                // an overflowing sum continues exactly in the BigDecimal
+                sumExact(group, BigDecimal.valueOf(value));
+            }
+        }
+
+        private void sumExact(int group, BigDecimal value) {
+            exactSums[group] = exactSums[group] == null ? value : exactSums[group].add(value);
+        }
+
+        private void addDecimal(int group, BigDecimal value) {
+            sumExact(group, value);
+            decimal[group] = true;
+            counts[group]++;
+        }
+
+        private void addDouble(int group, double value) {
+            doubleSums[group] += value;
+            inexact[group] = true;
+            counts[group]++;
+        }
+
+        @Override
+        void merge(int group, Accumulator other, int otherGroup) {
+            SumAccumulator sums = (SumAccumulator) other;
+            sumLong(group, sums.longSums[otherGroup]);
+            if (sums.exactSums[otherGroup] != null) {
+                sumExact(group, sums.exactSums[otherGroup]);
+            }
+            doubleSums[group] += sums.doubleSums[otherGroup];
+            decimal[group] |= sums.decimal[otherGroup];
+            inexact[group] |= sums.inexact[otherGroup];
+            counts[group] += sums.counts[otherGroup];
+        }
+
+        @Override
+        Object result(int group) {
+            long count = counts[group];
+            if (count == 0) {
+                return null;
+            }
+            if (exactSums[group] == null && !inexact[group] && !average) {
+                return longSums[group];
+            }
+            BigDecimal sum = BigDecimal.valueOf(longSums[group]);
+            if (exactSums[group] != null) {
+                sum = sum.add(exactSums[group]);
+            }
+            if (inexact[group]) {
+                double total = sum.doubleValue() + doubleSums[group];
+                return average ? total / count : total;
+            }
+            if (!average) {
+                return sum;
+            }
+            BigDecimal mean = sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128);
+            return decimal[group] ? (Object) mean : (Object) mean.doubleValue();
+        }
+    }
+
+    /**
+     * Keeps the smallest or largest value per group. Numbers are compared as doubles; once a group sees a value
+     * that is not a number, its values are compared as Comparables, or as Strings if their classes differ.
+     */
+    private static final class ExtremeAccumulator extends Accumulator {
+        private static final byte EMPTY = 0;
+        private static final byte NUMBER = 1;
+        private static final byte OBJECT = 2;
+
+        private final boolean max;
+        private Object[] best = new Object[0];
+        private double[] bestNumbers = new double[0];
+        private byte[] states = new byte[0];
+
+        ExtremeAccumulator(boolean max) {
+            this.max = max;
+        }
+
+        @Override
+        void ensure(int capacity) {
+            best = Arrays.copyOf(best, capacity);
+            bestNumbers = Arrays.copyOf(bestNumbers, capacity);
+            states = Arrays.copyOf(states, capacity);
+        }
+
+        @Override
+        void add(int group, Object value) {
+            if (value == null) {
+                return;
+            }
+            if (states[group] != OBJECT) {
+                double number = numberOf(value);
+                if (!Double.isNaN(number)) {
+                    if (states[group] == EMPTY || isBetter(number, bestNumbers[group])) {
+                        states[group] = NUMBER;
+                        bestNumbers[group] = number;
+                        best[group] = value;
+                    }
+                    return;
+                }
+            }
+            if (states[group] == EMPTY || isBetter(value, best[group])) {
+                best[group] = value;
+            }
+            states[group] = OBJECT;
+        }
+
+        @Override
+        void add(int group, ResultColumn column, int row) {
+            if (column.isNull(row) || states[group] == OBJECT) {
+                add(group, column.get(row));
+                return;
+            }
+            double number;
+            if (column instanceof ResultColumn.IntColumn ints) {
+                number = ints.getInt(row);
+            } else if (column instanceof ResultColumn.LongColumn longs) {
+                number = longs.getLong(row);
+            } else if (column instanceof ResultColumn.DoubleColumn doubles) {
+                number = doubles.getDouble(row);
+            } else {
+                add(group, column.get(row));
+                return;
+            }
+            if (states[group] == EMPTY || isBetter(number, bestNumbers[group])) {
+                states[group] = NUMBER;
+                bestNumbers[group] = number;
+                best[group] = column.get(row);
+            }
+        }
+
+        private boolean isBetter(double number, double current) {
+            return max ? number > current : number < current;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private boolean isBetter(Object value, Object current) {
+            int comparison = value instanceof Comparable comparable && value.getClass() == current.getClass()
+                    ? comparable.compareTo(current)
+                    : String.valueOf(value).compareTo(String.valueOf(current));
+            return max ? comparison > 0 : comparison < 0;
+        }
+
+        @Override
+        void merge(int group, Accumulator other, int otherGroup) {
+            ExtremeAccumulator extremes = (ExtremeAccumulator) other;
+            if (extremes.states[otherGroup] != EMPTY) {
+                add(group, extremes.best[otherGroup]);
+            }
+        }
+
+        @Override
+        Object result(int group) {
+            return best[group];
+        }
+    }
+
+    private static final class DistinctAccumulator extends Accumulator {
+        private Set<?>[] values = new Set<?>[0];
+
+        @Override
+        void ensure(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void add(int group, Object value) {
+            if (value == null) {
+                return;
+            }
+            if (values[group] == null) {
+                values[group] = new HashSet<>();
+            }
+            ((Set<Object>) values[group]).add(value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void merge(int group, Accumulator other, int otherGroup) {
+            Set<?> otherValues = ((DistinctAccumulator) other).values[otherGroup];
+            if (otherValues == null) {
+                return;
+            }
+            if (values[group] == null) {
+                values[group] = new HashSet<>(otherValues);
+            } else {
+                ((Set<Object>) values[group]).addAll(otherValues);
+            }
+        }
+
+        @Override
+        Object result(int group) {
+            return values[group] == null ? 0L : (long) values[group].size();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package tutorials.database;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * AsyncLogHandler is a {@link Handler} that hands log records to a bounded ring buffer and writes them to a file
+ * on a single background thread, so logging threads never wait for the disk.
+ * <p>
+ * The writer thread drains the buffer in batches and flushes the file once per batch. When the buffer is full,
+ * {@link OverflowPolicy#BLOCK} makes the logging thread wait for free space, while {@link OverflowPolicy#DROP}
+ * discards records below {@link Level#WARNING} and counts them; warnings and errors are only dropped if the writer
+ * thread has stopped.
+ * The number of dropped records is written to the file as soon as there is room again.
+ */
+public class AsyncLogHandler extends Handler {
+
+    /**
+     * What to do with a record when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Wait until the writer has made room.
+         */
+        BLOCK,
+        /**
+         * Discard records below WARNING.
+         */
+        DROP
+    }
+
+    /**
+     * The default number of buffered records.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final int MAX_BATCH = 512;
+
+    private final BlockingQueue<LogRecord> queue;
+    private final OverflowPolicy policy;
+    private final Writer writer;
+    private final Thread writerThread;
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong droppedTotal = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Creates a handler that appends to the given file.
+     *
+     * @param file     the log file
+     * @param capacity the number of records the buffer can hold
+     * @param policy   the behaviour when the buffer is full
+     * @throws IOException if the file cannot be opened
+     */
+    public AsyncLogHandler(Path file, int capacity, OverflowPolicy policy) throws IOException {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE), StandardCharsets.UTF_8), 1 << 16);
+        setFormatter(new SimpleFormatter());
+        this.writerThread = new Thread(this::writeLoop, "async-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        boolean accepted;
+        if (!writerThread.isAlive()) {
+            accepted = false;
+        } else if (policy == OverflowPolicy.BLOCK || record.getLevel().intValue() >= Level.WARNING.intValue()) {
+            accepted = put(record);
+        } else {
+            accepted = queue.offer(record);
+        }
+        if (accepted) {
+            enqueued.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+            droppedTotal.incrementAndGet();
+        }
+    }
+
+    /**
+     * Waits for free space as long as the writer thread is running. Records are dropped instead if the writer has
+     * stopped, e.g. after an error, so logging threads cannot hang on a buffer that is never drained.
+     */
+    private boolean put(LogRecord record) {
+        try {
+            while (!queue.offer(record, 100, TimeUnit.MILLISECONDS)) {
+                if (closed || !writerThread.isAlive()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Waits until all records published before this call have been written and flushed.
+     */
+    @Override
+    public void flush() {
+        long target = enqueued.get();
+        synchronized (processed) {
+            while (processed.get() < target && writerThread.isAlive()) {
+                try {
+                    processed.wait(100);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining records, stops the writer thread and closes the file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns whether the handler was closed, e.g. by {@link java.util.logging.LogManager#reset()}.
+     *
+     * @return true if records are no longer written
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the number of records discarded because the buffer was full.
+     *
+     * @return the number of dropped records
+     */
+    public long getDroppedCount() {
+        return droppedTotal.get();
+    }
+
+    /**
+     * Returns the number of records waiting to be written.
+     *
+     * @return the number of buffered records
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    private void writeLoop() {
+        List<LogRecord> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                LogRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                writeBatch(batch);
+                synchronized (processed) {
+                    processed.addAndGet(batch.size());
+                    processed.notifyAll();
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                reportError("Cannot close log file", ex, ErrorManager.CLOSE_FAILURE);
+            }
+        }
+    }
+
+    private void writeBatch(List<LogRecord> batch) {
+        try {
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                writer.write("... " + lost + " log records dropped, buffer full" + System.lineSeparator());
+            }
+            for (LogRecord record : batch) {
+                writer.write(getFormatter().format(record));
+            }
+            writer.flush();
+        } catch (IOException | RuntimeException ex) {
+            reportError("Cannot write log records", ex, ErrorManager.WRITE_FAILURE);
+        }
+    }
+}
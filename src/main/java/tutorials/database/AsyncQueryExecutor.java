@@ -0,0 +1,137 @@
+package tutorials.database;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * AsyncQueryExecutor runs queries concurrently, each on a virtual thread with its own connection.
+ * <p>
+ * A global semaphore limits how many queries run at the same time, so the database and the connection pool are not
+ * flooded. Every query borrows a connection from the connection manager and returns it afterwards; use a
+ * {@link PooledDBConnectionManager} to avoid opening a physical connection per query.
+ */
+public class AsyncQueryExecutor implements AutoCloseable {
+
+    /**
+     * The default number of queries running at the same time.
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+
+    private static final LoggerManager loggerManager = new LoggerManager(AsyncQueryExecutor.class);
+
+    private final IDBHelper dbHelper;
+    private final IDBConnectionManager connectionManager;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Creates an executor with the default concurrency limit.
+     *
+     * @param dbHelper          the helper used to execute the queries, must be thread-safe
+     * @param connectionManager the connection manager the connections are borrowed from
+     */
+    public AsyncQueryExecutor(IDBHelper dbHelper, IDBConnectionManager connectionManager) {
+        this(dbHelper, connectionManager, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param dbHelper          the helper used to execute the queries, must be thread-safe
+     * @param connectionManager the connection manager the connections are borrowed from
+     * @param maxConcurrency    the maximum number of queries running at the same time
+     */
+    public AsyncQueryExecutor(IDBHelper dbHelper, IDBConnectionManager connectionManager, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1: " + maxConcurrency);
+        }
+        this.dbHelper = dbHelper;
+        this.connectionManager = connectionManager;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    /**
+     * Executes the given SQL query asynchronously on its own connection.
+     *
+     * @param target the database to query
+     * @param sql    the SQL query to be executed
+     * @return a future completed with the rows, or completed exceptionally if the query fails
+     */
+    public CompletableFuture<List<Map<String, Object>>> executeAsync(DBTarget target, String sql) {
+        return CompletableFuture.supplyAsync(() -> execute(target, sql), executor);
+    }
+
+    /**
+     * Executes independent SQL queries concurrently, at most the configured number at a time.
+     *
+     * @param target the database to query
+     * @param sqls   the SQL queries to be executed
+     * @return one future per query, in the order of the given queries
+     */
+    public List<CompletableFuture<List<Map<String, Object>>>> invokeAll(DBTarget target, List<String> sqls) {
+        List<CompletableFuture<List<Map<String, Object>>>> futures = new ArrayList<>(sqls.size());
+        for (String sql : sqls) {
+            futures.add(executeAsync(target, sql));
+        }
+        return futures;
+    }
+
+    /**
+     * Executes independent SQL queries concurrently and waits for all of them.
+     *
+     * @param target the database to query
+     * @param sqls   the SQL queries to be executed
+     * @return the results in the order of the given queries
+     * @throws CompletionException if one of the queries fails
+     */
+    public List<List<Map<String, Object>>> executeAll(DBTarget target, List<String> sqls) {
+        List<CompletableFuture<List<Map<String, Object>>>> futures = invokeAll(target, sqls);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        List<List<Map<String, Object>>> results = new ArrayList<>(futures.size());
+        futures.forEach(future -> results.add(future.join()));
+        return results;
+    }
+
+    private List<Map<String, Object>> execute(DBTarget target, String sql) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException("Interrupted while waiting to execute SQL", ex);
+        }
+        Connection connection = null;
+        try {
+            connection = target.connect(connectionManager);
+            if (connection == null) {
+                throw new IllegalStateException("Connection to " + target + " is not established.");
+            }
+            loggerManager.trace(() -> "Execute SQL async: " + sql);
+            return dbHelper.executeSQL(connection, sql);
+        } finally {
+            connectionManager.closeConnection(connection);
+            permits.release();
+        }
+    }
+
+    /**
+     * Stops accepting new queries without waiting; the running ones finish on their threads.
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Stops accepting new queries and waits for the running ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,28 @@
+package tutorials.database;
+
+/**
+ * BatchResult summarizes a batched write done by the {@link BatchWriter}.
+ *
+ * @param rowsSubmitted the number of parameter rows sent to the database
+ * @param rowsAffected  the number of rows reported as affected by the driver; drivers that answer
+ *                      {@link java.sql.Statement#SUCCESS_NO_INFO} count one row per statement
+ * @param chunks        the number of executeBatch round trips
+ * @param elapsedNanos  the total time spent, in nanoseconds
+ */
+public record BatchResult(long rowsSubmitted, long rowsAffected, int chunks, long elapsedNanos) {
+
+    /**
+     * Returns the throughput of the batch.
+     *
+     * @return the submitted rows per second
+     */
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsSubmitted * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows (%d affected) in %d chunks, %.1f ms, %.0f rows/s",
+                rowsSubmitted, rowsAffected, chunks, elapsedNanos / 1_000_000.0, rowsPerSecond());
+    }
+}
@@ -0,0 +1,144 @@
+package tutorials.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+
+/**
+ * BatchWriter sends many parameter rows for one INSERT, UPDATE or DELETE template with addBatch/executeBatch,
+ * in chunks of a configurable size, instead of one round trip per row.
+ * <p>
+ * With per-chunk commits every chunk is committed on its own, so a failure only rolls back the current chunk.
+ * Without them the whole batch runs in one transaction that is committed at the end.
+ * The writer only manages the transaction of a connection in auto-commit mode, and switches auto-commit on again
+ * afterwards. On a connection that already has a transaction open, the rows are written into that transaction
+ * and committing or rolling it back is left to the caller.
+ */
+public class BatchWriter {
+
+    /**
+     * The default number of rows per executeBatch call.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private static final LoggerManager loggerManager = new LoggerManager(BatchWriter.class);
+
+    private final int chunkSize;
+    private final boolean commitPerChunk;
+
+    /**
+     * Creates a batch writer with the default chunk size that commits the whole batch at once.
+     */
+    public BatchWriter() {
+        this(DEFAULT_CHUNK_SIZE, false);
+    }
+
+    /**
+     * Creates a batch writer.
+     *
+     * @param chunkSize      the number of rows per executeBatch call
+     * @param commitPerChunk true to commit after every chunk, false to commit once at the end
+     */
+    public BatchWriter(int chunkSize, boolean commitPerChunk) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.commitPerChunk = commitPerChunk;
+    }
+
+    /**
+     * Executes the statement template once for every parameter row.
+     *
+     * @param connection the database connection
+     * @param sql        the statement template with ? placeholders
+     * @param rows       the parameter rows, each holding the values for the placeholders in order
+     * @return the batch result with row counts and throughput
+     */
+    public BatchResult write(Connection connection, String sql, Iterator<Object[]> rows) {
+        long start = System.nanoTime();
+        long rowsSubmitted = 0;
+        long rowsAffected = 0;
+        int chunks = 0;
+        boolean managed = getAutoCommit(connection);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (managed) {
+                connection.setAutoCommit(false);
+            }
+            int pending = 0;
+            while (rows.hasNext()) {
+                SQLUtils.bindParameters(statement, rows.next());
+                statement.addBatch();
+                rowsSubmitted++;
+                if (++pending == chunkSize) {
+                    rowsAffected += executeChunk(connection, statement, managed);
+                    chunks++;
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                rowsAffected += executeChunk(connection, statement, managed);
+                chunks++;
+            }
+            if (managed && !commitPerChunk) {
+                connection.commit();
+            }
+        } catch (SQLException ex) {
+            if (managed) {
+                rollback(connection);
+            }
+            throw new RuntimeException("Exception while executing batch after " + rowsSubmitted + " rows! " + ex.getMessage(), ex);
+        } catch (RuntimeException | Error ex) {
+            // e.g. from the row iterator; the rows of the open chunk must not be committed by restoring auto-commit
+            if (managed) {
+                rollback(connection);
+            }
+            throw ex;
+        } finally {
+            if (managed) {
+                restoreAutoCommit(connection);
+            }
+        }
+        BatchResult result = new BatchResult(rowsSubmitted, rowsAffected, chunks, System.nanoTime() - start);
+        loggerManager.info("Batch finished: " + result);
+        return result;
+    }
+
+    private boolean getAutoCommit(Connection connection) {
+        try {
+            return connection.getAutoCommit();
+        } catch (SQLException ex) {
+            throw new RuntimeException("Exception while reading auto-commit! " + ex.getMessage(), ex);
+        }
+    }
+
+    private long executeChunk(Connection connection, PreparedStatement statement, boolean managed) throws SQLException {
+        long affected = 0;
+        for (int count : statement.executeBatch()) {
+            affected += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        statement.clearBatch();
+        if (managed && commitPerChunk) {
+            connection.commit();
+        }
+        return affected;
+    }
+
+    private void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException ex) {
+            loggerManager.error("Exception while rolling back batch! " + ex.getMessage());
+        }
+    }
+
+    private void restoreAutoCommit(Connection connection) {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException ex) {
+            loggerManager.error("Exception while restoring auto-commit! " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package tutorials.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * BinaryExporter streams a result set into the length-prefixed binary row format of {@link BinaryRowWriter},
+ * optionally gzip-compressed. Values are read with the getter matching their JDBC type, see {@link ColumnReader},
+ * so numbers and dates keep their type and need less space than in CSV.
+ * <p>
+ * Uncompressed files are read back without copying through {@link BinaryRowReader#open}; {@link #read(Path)}
+ * also accepts compressed files.
+ */
+public class BinaryExporter implements ResultSetExporter {
+
+    private static final LoggerManager loggerManager = new LoggerManager(BinaryExporter.class);
+
+    private final Path target;
+    private final boolean gzip;
+
+    /**
+     * Creates an exporter.
+     *
+     * @param target the file to be written
+     * @param gzip   true to compress the file with gzip
+     */
+    public BinaryExporter(Path target, boolean gzip) {
+        this.target = target;
+        this.gzip = gzip;
+    }
+
+    @Override
+    public ExportStats export(ResultSet resultSet) throws SQLException {
+        long start = System.nanoTime();
+        ResultSetMetaData rsmd = resultSet.getMetaData();
+        String[] names = new String[rsmd.getColumnCount()];
+        ColumnReader[] readers = new ColumnReader[names.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = rsmd.getColumnName(i + 1);
+            readers[i] = ColumnReader.forSqlType(rsmd.getColumnType(i + 1));
+        }
+        Object[] values = new Object[names.length];
+        long rows;
+        try (BinaryRowWriter writer = new BinaryRowWriter(ResultSetExporter.openChannel(target, gzip), new ColumnSchema(names))) {
+            while (resultSet.next()) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = readers[i].read(resultSet, i + 1);
+                }
+                writer.write(values);
+            }
+            rows = writer.getRowCount();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Exception while writing rows " + target + "! " + ex.getMessage(), ex);
+        }
+        ExportStats stats = new ExportStats(target, rows, CsvExporter.size(target), System.nanoTime() - start);
+        loggerManager.info("Binary export finished: " + stats);
+        return stats;
+    }
+
+    /**
+     * Reads an exported file, compressed or not. Compressed files are unpacked into a temporary file first,
+     * which is deleted when the stream is closed.
+     *
+     * @param file the exported file
+     * @return the rows; the stream must be closed
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public static Stream<Map<String, Object>> read(Path file) {
+        try {
+            if (!isGzip(file)) {
+                return BinaryRowReader.open(file).stream();
+            }
+            Path unpacked = Files.createTempFile("export-", ".rows");
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 1 << 16)) {
+                Files.copy(in, unpacked, StandardCopyOption.REPLACE_EXISTING);
+                return BinaryRowReader.open(unpacked).stream().onClose(() -> deleteQuietly(unpacked));
+            } catch (IOException | RuntimeException ex) {
+                deleteQuietly(unpacked);
+                throw ex;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Exception while reading rows " + file + "! " + ex.getMessage(), ex);
+        }
+    }
+
+    private static boolean isGzip(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            loggerManager.warn("Exception while deleting " + file + "! " + ex.getMessage());
+        }
+    }
+}
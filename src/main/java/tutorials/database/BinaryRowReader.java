@@ -0,0 +1,275 @@
+package tutorials.database;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * BinaryRowReader reads a file written by {@link BinaryRowWriter} sequentially through a memory-mapped window.
+ * <p>
+ * The file is mapped in windows of {@value #WINDOW_SIZE} bytes that move forward with the rows, so files larger than
+ * the heap (and larger than 2 GB) can be read without copying them into heap buffers. {@link #advance()} positions
+ * the reader on the next row and only locates the values; {@link #get(int)} decodes a single value and
+ * {@link #getRaw(int)} returns the encoded bytes without copying, e.g. to compare or hash rows.
+ * As an iterator the reader returns every row as a map in column order.
+ */
+public class BinaryRowReader implements Iterator<Map<String, Object>>, AutoCloseable {
+
+    static final int WINDOW_SIZE = 64 << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private final ColumnSchema schema;
+    private final int[] valueOffsets;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private boolean onRow;
+
+    private BinaryRowReader(FileChannel channel, int windowSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        ensure(0, 2 * Integer.BYTES);
+        if (window.getInt(0) != BinaryRowWriter.MAGIC) {
+            throw new IOException("Not a binary row file");
+        }
+        String[] names = new String[window.getInt(Integer.BYTES)];
+        position = 2 * Integer.BYTES;
+        for (int i = 0; i < names.length; i++) {
+            ensure(position, Integer.BYTES);
+            int length = window.getInt(offset(position));
+            ensure(position, Integer.BYTES + length);
+            names[i] = decodeString(offset(position) + Integer.BYTES, length);
+            position += Integer.BYTES + length;
+        }
+        this.schema = new ColumnSchema(names);
+        this.valueOffsets = new int[names.length];
+    }
+
+    /**
+     * Opens the given file.
+     *
+     * @param file the file written by a {@link BinaryRowWriter}
+     * @return the reader, positioned before the first row
+     * @throws UncheckedIOException if the file cannot be read or has no valid header
+     */
+    public static BinaryRowReader open(Path file) {
+        return open(file, WINDOW_SIZE);
+    }
+
+    static BinaryRowReader open(Path file, int windowSize) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            return new BinaryRowReader(channel, windowSize);
+        } catch (IOException ex) {
+            closeQuietly(channel);
+            throw new UncheckedIOException("Exception while opening rows " + file + "! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Returns the columns of the rows.
+     *
+     * @return the schema
+     */
+    public ColumnSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Moves to the next row.
+     *
+     * @return true if there is a next row, false at the end of the file
+     */
+    public boolean advance() {
+        if (position >= size) {
+            onRow = false;
+            return false;
+        }
+        try {
+            ensure(position, Integer.BYTES);
+            int length = window.getInt(offset(position));
+            ensure(position, Integer.BYTES + length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Exception while reading rows! " + ex.getMessage(), ex);
+        }
+        int offset = offset(position) + Integer.BYTES;
+        for (int i = 0; i < valueOffsets.length; i++) {
+            valueOffsets[i] = offset;
+            offset += 1 + payloadSize(offset);
+        }
+        position = windowStart + offset;
+        onRow = true;
+        return true;
+    }
+
+    /**
+     * Returns whether the given value of the current row is null.
+     *
+     * @param column the zero-based column index
+     * @return true for SQL NULL
+     */
+    public boolean isNull(int column) {
+        return window.get(valueOffset(column)) == BinaryRowWriter.NULL;
+    }
+
+    /**
+     * Decodes the given value of the current row.
+     *
+     * @param column the zero-based column index
+     * @return the value, or null
+     */
+    public Object get(int column) {
+        int offset = valueOffset(column);
+        int payload = offset + 1;
+        return switch (window.get(offset)) {
+            case BinaryRowWriter.NULL -> null;
+            case BinaryRowWriter.STRING -> decodeString(payload + Integer.BYTES, window.getInt(payload));
+            case BinaryRowWriter.INT -> window.getInt(payload);
+            case BinaryRowWriter.LONG -> window.getLong(payload);
+            case BinaryRowWriter.DOUBLE -> window.getDouble(payload);
+            case BinaryRowWriter.BOOLEAN -> window.get(payload) != 0;
+            case BinaryRowWriter.DECIMAL -> new BigDecimal(decodeString(payload + Integer.BYTES, window.getInt(payload)));
+            case BinaryRowWriter.DATE -> LocalDate.ofEpochDay(window.getLong(payload));
+            case BinaryRowWriter.TIMESTAMP -> LocalDateTime.ofEpochSecond(window.getLong(payload), window.getInt(payload + Long.BYTES), ZoneOffset.UTC);
+            case BinaryRowWriter.TIME -> LocalTime.ofNanoOfDay(window.getLong(payload));
+            case BinaryRowWriter.INSTANT -> Instant.ofEpochSecond(window.getLong(payload), window.getInt(payload + Long.BYTES));
+            case BinaryRowWriter.BYTES -> {
+                byte[] bytes = new byte[window.getInt(payload)];
+                window.get(payload + Integer.BYTES, bytes);
+                yield bytes;
+            }
+            default -> throw new IllegalStateException("Unknown value type " + window.get(offset));
+        };
+    }
+
+    /**
+     * Returns the encoded bytes of the given value of the current row, type byte included, without copying.
+     * The buffer is only valid until the next call of {@link #advance()}.
+     *
+     * @param column the zero-based column index
+     * @return a read-only view of the encoded value
+     */
+    public ByteBuffer getRaw(int column) {
+        int offset = valueOffset(column);
+        return window.slice(offset, 1 + payloadSize(offset)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Decodes the current row into a map in column order.
+     *
+     * @return the row
+     */
+    public Map<String, Object> getRow() {
+        Map<String, Object> row = new LinkedHashMap<>(valueOffsets.length * 4 / 3 + 1);
+        for (int i = 0; i < valueOffsets.length; i++) {
+            row.put(schema.name(i), get(i));
+        }
+        return row;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < size;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (!advance()) {
+            throw new NoSuchElementException();
+        }
+        return getRow();
+    }
+
+    /**
+     * Returns the remaining rows as a stream that closes the reader when it is closed.
+     *
+     * @return the stream of rows
+     */
+    public Stream<Map<String, Object>> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Closes the file. The mapping is released by the garbage collector.
+     */
+    @Override
+    public void close() {
+        window = null;
+        closeQuietly(channel);
+    }
+
+    private int valueOffset(int column) {
+        if (!onRow) {
+            throw new IllegalStateException("Not positioned on a row");
+        }
+        return valueOffsets[column];
+    }
+
+    private int payloadSize(int offset) {
+        return switch (window.get(offset)) {
+            case BinaryRowWriter.NULL -> 0;
+            case BinaryRowWriter.BOOLEAN -> 1;
+            case BinaryRowWriter.INT -> Integer.BYTES;
+            case BinaryRowWriter.LONG, BinaryRowWriter.DOUBLE, BinaryRowWriter.DATE, BinaryRowWriter.TIME -> Long.BYTES;
+            case BinaryRowWriter.TIMESTAMP, BinaryRowWriter.INSTANT -> Long.BYTES + Integer.BYTES;
+            case BinaryRowWriter.STRING, BinaryRowWriter.DECIMAL, BinaryRowWriter.BYTES -> Integer.BYTES + window.getInt(offset + 1);
+            default -> throw new IllegalStateException("Unknown value type " + window.get(offset));
+        };
+    }
+
+    private String decodeString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        window.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int offset(long filePosition) {
+        return (int) (filePosition - windowStart);
+    }
+
+    private void ensure(long filePosition, int length) throws IOException {
+        if (window != null && filePosition >= windowStart && filePosition + length <= windowStart + window.capacity()) {
+            return;
+        }
+        if (filePosition + length > size) {
+            throw new IOException("Truncated binary row file at position " + filePosition);
+        }
+        long mapped = Math.max(length, Math.min(windowSize, size - filePosition));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, filePosition, mapped);
+        windowStart = filePosition;
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package tutorials.database;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * BinaryRowWriter writes rows in a compact, length-prefixed binary format to a channel, to be read back by
+ * {@link BinaryRowReader}.
+ * <p>
+ * The file starts with a header holding a magic number and the column names of the {@link ColumnSchema}.
+ * Every row follows as an int length and one tagged value per column: a type byte, then the value in a fixed size
+ * (numbers, dates, times) or length-prefixed (strings, decimals, byte arrays). Column names are not repeated per row.
+ * Values of other types are stored as their toString. Output is collected in a direct buffer and written to the
+ * channel in large blocks.
+ */
+public class BinaryRowWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x44425231;
+
+    static final byte NULL = 0;
+    static final byte STRING = 1;
+    static final byte INT = 2;
+    static final byte LONG = 3;
+    static final byte DOUBLE = 4;
+    static final byte BOOLEAN = 5;
+    static final byte DECIMAL = 6;
+    static final byte DATE = 7;
+    static final byte TIMESTAMP = 8;
+    static final byte TIME = 9;
+    static final byte INSTANT = 10;
+    static final byte BYTES = 11;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ColumnSchema schema;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private ByteBuffer row = ByteBuffer.allocate(1024);
+    private long rowCount;
+    private long bytesWritten;
+
+    /**
+     * Creates a writer and writes the header.
+     *
+     * @param channel the target channel, closed together with the writer
+     * @param schema  the columns of the rows to be written
+     * @throws UncheckedIOException if the header cannot be written
+     */
+    public BinaryRowWriter(WritableByteChannel channel, ColumnSchema schema) {
+        this.channel = channel;
+        this.schema = schema;
+        row.clear();
+        row.putInt(MAGIC);
+        row.putInt(schema.size());
+        for (int i = 0; i < schema.size(); i++) {
+            putString(schema.name(i));
+        }
+        row.flip();
+        append(row);
+    }
+
+    /**
+     * Writes a row, taking the values of the schema columns from the map.
+     *
+     * @param values the row
+     * @throws UncheckedIOException if the row cannot be written
+     */
+    public void write(Map<String, Object> values) {
+        row.clear();
+        row.putInt(0);
+        for (int i = 0; i < schema.size(); i++) {
+            putValue(values.get(schema.name(i)));
+        }
+        finishRow();
+    }
+
+    /**
+     * Writes a row.
+     *
+     * @param values the values in schema order
+     * @throws UncheckedIOException if the row cannot be written
+     */
+    public void write(Object[] values) {
+        if (values.length != schema.size()) {
+            throw new IllegalArgumentException("Expected " + schema.size() + " values, got " + values.length);
+        }
+        row.clear();
+        row.putInt(0);
+        for (Object value : values) {
+            putValue(value);
+        }
+        finishRow();
+    }
+
+    /**
+     * Returns the number of rows written so far.
+     *
+     * @return the number of rows
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of bytes written so far, including buffered bytes and the header.
+     *
+     * @return the number of bytes
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     *
+     * @throws UncheckedIOException if the bytes cannot be written
+     */
+    public void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Exception while writing rows! " + ex.getMessage(), ex);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Flushes the buffer and closes the channel.
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Exception while closing rows! " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private void finishRow() {
+        row.putInt(0, row.position() - Integer.BYTES);
+        row.flip();
+        append(row);
+        rowCount++;
+    }
+
+    private void append(ByteBuffer bytes) {
+        bytesWritten += bytes.remaining();
+        while (bytes.hasRemaining()) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int n = Math.min(bytes.remaining(), buffer.remaining());
+            buffer.put(buffer.position(), bytes, bytes.position(), n);
+            buffer.position(buffer.position() + n);
+            bytes.position(bytes.position() + n);
+        }
+    }
+
+    private void putValue(Object value) {
+        switch (value) {
+            case null -> put(NULL, 0);
+            case String s -> {
+                put(STRING, 0);
+                putString(s);
+            }
+            case Integer i -> put(INT, Integer.BYTES).putInt(i);
+            case Short s -> put(INT, Integer.BYTES).putInt(s);
+            case Byte b -> put(INT, Integer.BYTES).putInt(b);
+            case Long l -> put(LONG, Long.BYTES).putLong(l);
+            case Double d -> put(DOUBLE, Double.BYTES).putDouble(d);
+            case Float f -> put(DOUBLE, Double.BYTES).putDouble(f);
+            case Boolean b -> put(BOOLEAN, 1).put((byte) (b ? 1 : 0));
+            case BigDecimal d -> {
+                put(DECIMAL, 0);
+                putString(d.toString());
+            }
+            case LocalDate d -> put(DATE, Long.BYTES).putLong(d.toEpochDay());
+            case LocalDateTime t -> put(TIMESTAMP, Long.BYTES + Integer.BYTES).putLong(t.toEpochSecond(ZoneOffset.UTC)).putInt(t.getNano());
+            case LocalTime t -> put(TIME, Long.BYTES).putLong(t.toNanoOfDay());
+            case Instant t -> put(INSTANT, Long.BYTES + Integer.BYTES).putLong(t.getEpochSecond()).putInt(t.getNano());
+            case byte[] b -> {
+                put(BYTES, Integer.BYTES + b.length).putInt(b.length).put(b);
+            }
+            default -> {
+                put(STRING, 0);
+                putString(value.toString());
+            }
+        }
+    }
+
+    private ByteBuffer put(byte tag, int size) {
+        ensureCapacity(1 + size);
+        return row.put(tag);
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(Integer.BYTES + bytes.length);
+        row.putInt(bytes.length).put(bytes);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (row.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(row.capacity() * 2, row.position() + bytes));
+            row.flip();
+            larger.put(row);
+            row = larger;
+        }
+    }
+}
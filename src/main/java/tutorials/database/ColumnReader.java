@@ -0,0 +1,97 @@
+package tutorials.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+
+/**
+ * ColumnReader reads one column of the current row by index with the getter matching its type,
+ * instead of converting every value with getString.
+ * <p>
+ * Readers are chosen once per column from the result set metadata and then used for every row.
+ * SQL NULL is returned as null, also for numeric columns. Date and time columns are returned as java.time values.
+ */
+@FunctionalInterface
+public interface ColumnReader {
+
+    /**
+     * Reads the value of the given column of the current row.
+     *
+     * @param resultSet   the result set positioned on a row
+     * @param columnIndex the one-based JDBC column index
+     * @return the value, or null
+     * @throws SQLException if the value cannot be read
+     */
+    Object read(ResultSet resultSet, int columnIndex) throws SQLException;
+
+    /**
+     * Returns the reader for the given JDBC type.
+     *
+     * @param sqlType the JDBC type from {@link java.sql.Types}
+     * @return the reader
+     */
+    static ColumnReader forSqlType(int sqlType) {
+        return switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> (resultSet, index) -> {
+                int value = resultSet.getInt(index);
+                return resultSet.wasNull() ? null : value;
+            };
+            case Types.BIGINT -> (resultSet, index) -> {
+                long value = resultSet.getLong(index);
+                return resultSet.wasNull() ? null : value;
+            };
+            case Types.REAL, Types.FLOAT, Types.DOUBLE -> (resultSet, index) -> {
+                double value = resultSet.getDouble(index);
+                return resultSet.wasNull() ? null : value;
+            };
+            case Types.BIT, Types.BOOLEAN -> (resultSet, index) -> {
+                boolean value = resultSet.getBoolean(index);
+                return resultSet.wasNull() ? null : value;
+            };
+            case Types.DECIMAL, Types.NUMERIC -> ResultSet::getBigDecimal;
+            case Types.DATE -> (resultSet, index) -> resultSet.getObject(index, LocalDate.class);
+            case Types.TIME -> (resultSet, index) -> resultSet.getObject(index, LocalTime.class);
+            case Types.TIMESTAMP -> (resultSet, index) -> resultSet.getObject(index, LocalDateTime.class);
+            case Types.TIMESTAMP_WITH_TIMEZONE -> (resultSet, index) -> resultSet.getObject(index, OffsetDateTime.class);
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> ResultSet::getBytes;
+            case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR, Types.CLOB, Types.NCLOB ->
+                    ResultSet::getString;
+            default -> ResultSet::getObject;
+        };
+    }
+
+    /**
+     * Returns the reader that produces values of the given Java type, e.g. for a record component or a setter.
+     *
+     * @param type the target type
+     * @return the reader
+     */
+    static ColumnReader forJavaType(Class<?> type) {
+        if (type == long.class || type == Long.class) {
+            return forSqlType(Types.BIGINT);
+        } else if (type == int.class || type == Integer.class) {
+            return forSqlType(Types.INTEGER);
+        } else if (type == double.class || type == Double.class) {
+            return forSqlType(Types.DOUBLE);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return forSqlType(Types.BOOLEAN);
+        } else if (type == String.class) {
+            return ResultSet::getString;
+        } else if (type == Instant.class) {
+            return (resultSet, index) -> {
+                Timestamp timestamp = resultSet.getTimestamp(index);
+                return timestamp == null ? null : timestamp.toInstant();
+            };
+        } else if (type == Object.class) {
+            return ResultSet::getObject;
+        }
+        Class<?> boxed = type == float.class ? Float.class : type == short.class ? Short.class : type == byte.class ? Byte.class : type;
+        return (resultSet, index) -> resultSet.getObject(index, boxed);
+    }
+}
@@ -0,0 +1,172 @@
+package tutorials.database;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ColumnSchema holds the column names of a result set once, together with a name-to-index lookup.
+ * All rows of a {@link ColumnarResultSet} share the same schema instead of repeating the column names per row,
+ * so a {@link KeyCase} applied to the schema renames the columns of all rows at once.
+ * <p>
+ * A name that occurs more than once, e.g. in {@code SELECT a.ID, b.ID}, stands for its first column, like the key of
+ * a LinkedHashMap row: the later columns keep their index but are {@linkplain #isShadowed shadowed}, so map views of
+ * a row have every name once.
+ */
+public final class ColumnSchema {
+
+    private final String[] names;
+    private final Map<String, Integer> indexByName;
+    private final int distinctSize;
+    private final boolean ignoreCase;
+    private volatile Map<String, Integer> indexByUpperName;
+
+    /**
+     * Creates a schema with the given column names in select order.
+     *
+     * @param names the column names
+     */
+    public ColumnSchema(String... names) {
+        this(names.clone(), false);
+    }
+
+    private ColumnSchema(String[] names, boolean ignoreCase) {
+        this.names = names;
+        this.ignoreCase = ignoreCase;
+        this.indexByName = new HashMap<>(names.length * 4 / 3 + 1);
+        for (int i = 0; i < names.length; i++) {
+            indexByName.putIfAbsent(names[i], i);
+        }
+        this.distinctSize = indexByName.size();
+    }
+
+    /**
+     * Returns a schema with the column names converted by the given key case. The names are converted once here,
+     * so a result set using the returned schema has converted keys in every row without copying a row.
+     *
+     * @param keyCase the key case, {@link KeyCase#IGNORE} keeps the names and looks them up ignoring case
+     * @return the converted schema, or this schema if nothing changes
+     */
+    public ColumnSchema withKeyCase(KeyCase keyCase) {
+        return switch (keyCase) {
+            case PRESERVE -> this;
+            case IGNORE -> ignoreCase ? this : new ColumnSchema(names, true);
+            default -> {
+                String[] converted = new String[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    converted[i] = keyCase.apply(names[i]);
+                }
+                yield Arrays.equals(converted, names) && !ignoreCase ? this : new ColumnSchema(converted, false);
+            }
+        };
+    }
+
+    /**
+     * Returns whether {@link #indexOf} ignores the case of column names.
+     *
+     * @return true if the schema was created with {@link KeyCase#IGNORE}
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the number of columns
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the number of distinct column names, which is the size of a map view of a row.
+     *
+     * @return the number of columns that are not shadowed
+     */
+    public int distinctSize() {
+        return distinctSize;
+    }
+
+    /**
+     * Returns whether the column has the name of an earlier column, so a lookup by name never reaches it.
+     *
+     * @param index the zero-based column index
+     * @return true if an earlier column has the same name
+     */
+    public boolean isShadowed(int index) {
+        return distinctSize < names.length && indexByName.get(names[index]) != index;
+    }
+
+    /**
+     * Returns the name of the column at the given index.
+     *
+     * @param index the zero-based column index
+     * @return the column name
+     */
+    public String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the index of the given column. A schema created with {@link KeyCase#IGNORE} falls back to
+     * {@link #indexOfIgnoreCase} if there is no column with exactly this name.
+     *
+     * @param name the column name
+     * @return the zero-based column index, or -1 if the column does not exist
+     */
+    public int indexOf(Object name) {
+        Integer index = indexByName.get(name);
+        if (index == null && ignoreCase && name instanceof String string) {
+            return indexOfIgnoreCase(string);
+        }
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the index of the given column, ignoring case. The uppercase lookup is built on first use,
+     * so a lookup costs one case conversion of the given name and never one per column.
+     *
+     * @param name the column name in any case
+     * @return the zero-based index of the first matching column, or -1 if the column does not exist
+     */
+    public int indexOfIgnoreCase(String name) {
+        Map<String, Integer> upper = indexByUpperName;
+        if (upper == null) {
+            upper = new HashMap<>(names.length * 4 / 3 + 1);
+            for (int i = 0; i < names.length; i++) {
+                upper.putIfAbsent(names[i].toUpperCase(Locale.ROOT), i);
+            }
+            indexByUpperName = upper;
+        }
+        Integer index = upper.get(name.toUpperCase(Locale.ROOT));
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the column names in select order.
+     *
+     * @return an unmodifiable list of column names
+     */
+    public List<String> names() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ColumnSchema schema && ignoreCase == schema.ignoreCase && Arrays.equals(names, schema.names);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(names) * 31 + Boolean.hashCode(ignoreCase);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(names);
+    }
+}
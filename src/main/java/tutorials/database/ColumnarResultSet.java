@@ -0,0 +1,145 @@
+package tutorials.database;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * ColumnarResultSet is a compact, read-only container for query results.
+ * <p>
+ * The column names are stored once in a shared {@link ColumnSchema} and the values are stored per column in typed
+ * arrays ({@link ResultColumn}), so there is no map, no repeated key and no String conversion per cell.
+ * Each row is exposed as a lightweight {@link RowView}, which makes this class a drop-in
+ * {@code List<Map<String, Object>>} for the existing helpers such as
+ * {@link DBConnector#findLineWithDataInResultSet} and {@link DBConnector#fetchDBDataIntoMap}.
+ * <p>
+ * Unlike {@link DBConnector#execute(String)}, values keep their JDBC type (e.g. Integer, Long, BigDecimal),
+ * so lookups have to use values of the same type.
+ */
+public class ColumnarResultSet extends AbstractList<Map<String, Object>> implements RandomAccess {
+
+    private final ColumnSchema schema;
+    private final ResultColumn[] columns;
+    private final int rowCount;
+
+    /**
+     * Creates a result set from already filled columns.
+     *
+     * @param schema  the column schema
+     * @param columns the columns in schema order, all of the same size
+     */
+    public ColumnarResultSet(ColumnSchema schema, ResultColumn[] columns) {
+        if (schema.size() != columns.length) {
+            throw new IllegalArgumentException("Schema has " + schema.size() + " columns, but " + columns.length + " columns were given");
+        }
+        this.schema = schema;
+        this.columns = columns;
+        this.rowCount = columns.length == 0 ? 0 : columns[0].size();
+    }
+
+    /**
+     * Reads all remaining rows of the given result set into a new columnar result set.
+     *
+     * @param resultSet the result set to be read
+     * @return the columnar result set
+     * @throws SQLException if an SQL error occurs
+     */
+    public static ColumnarResultSet from(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData rsmd = resultSet.getMetaData();
+        int columnCount = rsmd.getColumnCount();
+        String[] names = new String[columnCount];
+        ResultColumn[] columns = new ResultColumn[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            names[i] = rsmd.getColumnLabel(i + 1);
+            columns[i] = ResultColumn.forSqlType(rsmd.getColumnType(i + 1));
+        }
+        while (resultSet.next()) {
+            for (int i = 0; i < columnCount; i++) {
+                columns[i].append(resultSet, i + 1);
+            }
+        }
+        for (ResultColumn column : columns) {
+            column.trimToSize();
+        }
+        return new ColumnarResultSet(new ColumnSchema(names), columns);
+    }
+
+    /**
+     * Returns the shared column schema.
+     *
+     * @return the column schema
+     */
+    public ColumnSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns a result set with the same columns and the column names converted by the given key case.
+     * Only the schema is converted, the columns are shared, so this costs nothing per row.
+     *
+     * @param keyCase the key case of the returned result set
+     * @return the result set with converted keys, or this result set if nothing changes
+     */
+    public ColumnarResultSet withKeyCase(KeyCase keyCase) {
+        ColumnSchema converted = schema.withKeyCase(keyCase);
+        return converted == schema ? this : new ColumnarResultSet(converted, columns);
+    }
+
+    /**
+     * Returns the column at the given index.
+     *
+     * @param index the zero-based column index
+     * @return the column
+     */
+    public ResultColumn getColumn(int index) {
+        return columns[index];
+    }
+
+    /**
+     * Returns the column with the given name.
+     *
+     * @param name the column name
+     * @return the column
+     * @throws IllegalArgumentException if the column does not exist
+     */
+    public ResultColumn getColumn(String name) {
+        int index = schema.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown column: " + name);
+        }
+        return columns[index];
+    }
+
+    /**
+     * Returns the value at the given position.
+     *
+     * @param row    the zero-based row index
+     * @param column the zero-based column index
+     * @return the value, or null
+     */
+    public Object getValue(int row, int column) {
+        return columns[column].get(row);
+    }
+
+    /**
+     * Returns a map view of the given row. The view is backed by the columns and is not modifiable.
+     *
+     * @param row the zero-based row index
+     * @return the row view
+     */
+    @Override
+    public Map<String, Object> get(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+        return new RowView(this, row);
+    }
+
+    @Override
+    public int size() {
+        return rowCount;
+    }
+}
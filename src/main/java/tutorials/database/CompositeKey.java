@@ -0,0 +1,82 @@
+package tutorials.database;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * CompositeKey is an immutable tuple of column values used as a map key for multi-column lookups.
+ * Values are compared element by element, so ("ab", "c") and ("a", "bc") are different keys.
+ * The hash code is computed once on construction.
+ */
+public final class CompositeKey {
+
+    private final Object[] values;
+    private final int hash;
+
+    private CompositeKey(Object[] values) {
+        this.values = values;
+        this.hash = Arrays.hashCode(values);
+    }
+
+    /**
+     * Creates a key from the given values. The array is copied.
+     *
+     * @param values the key values in column order, may contain null
+     * @return the key
+     */
+    public static CompositeKey of(Object... values) {
+        return new CompositeKey(values.clone());
+    }
+
+    /**
+     * Creates a key from the given columns of a row.
+     *
+     * @param row     the row
+     * @param columns the key columns
+     * @return the key
+     */
+    public static CompositeKey fromRow(Map<String, Object> row, String... columns) {
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = row.get(columns[i]);
+        }
+        return new CompositeKey(values);
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the value at the given position.
+     *
+     * @param index the zero-based position
+     * @return the value, may be null
+     */
+    public Object get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof CompositeKey key && hash == key.hash && Arrays.equals(values, key.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
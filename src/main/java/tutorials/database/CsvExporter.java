@@ -0,0 +1,117 @@
+package tutorials.database;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * CsvExporter streams a result set into a UTF-8 CSV file, optionally gzip-compressed.
+ * Values are read with getString, so they look like the values of {@link DBConnector#execute(String)}.
+ */
+public class CsvExporter implements ResultSetExporter {
+
+    private static final LoggerManager loggerManager = new LoggerManager(CsvExporter.class);
+
+    private final Path target;
+    private final CsvFormat format;
+    private final boolean gzip;
+
+    /**
+     * Creates an exporter with the default format and without compression.
+     *
+     * @param target the CSV file to be written
+     */
+    public CsvExporter(Path target) {
+        this(target, CsvFormat.defaults(), false);
+    }
+
+    /**
+     * Creates an exporter.
+     *
+     * @param target the CSV file to be written
+     * @param format the CSV layout
+     * @param gzip   true to compress the file with gzip
+     */
+    public CsvExporter(Path target, CsvFormat format, boolean gzip) {
+        this.target = target;
+        this.format = format;
+        this.gzip = gzip;
+    }
+
+    @Override
+    public ExportStats export(ResultSet resultSet) throws SQLException {
+        long start = System.nanoTime();
+        long rows = 0;
+        ResultSetMetaData rsmd = resultSet.getMetaData();
+        int columns = rsmd.getColumnCount();
+        StringBuilder line = new StringBuilder(256);
+        try (Writer writer = new BufferedWriter(Channels.newWriter(ResultSetExporter.openChannel(target, gzip), StandardCharsets.UTF_8), 1 << 16)) {
+            if (format.header()) {
+                for (int i = 1; i <= columns; i++) {
+                    appendValue(line, rsmd.getColumnName(i), i);
+                }
+                writer.append(line.append(format.lineSeparator()));
+            }
+            while (resultSet.next()) {
+                line.setLength(0);
+                for (int i = 1; i <= columns; i++) {
+                    appendValue(line, resultSet.getString(i), i);
+                }
+                writer.append(line.append(format.lineSeparator()));
+                rows++;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Exception while writing CSV " + target + "! " + ex.getMessage(), ex);
+        }
+        ExportStats stats = new ExportStats(target, rows, size(target), System.nanoTime() - start);
+        loggerManager.info("CSV export finished: " + stats);
+        return stats;
+    }
+
+    private void appendValue(StringBuilder line, String value, int column) {
+        if (column > 1) {
+            line.append(format.delimiter());
+        }
+        if (value == null) {
+            line.append(format.nullValue());
+        } else if (format.quoteMode() == CsvFormat.QuoteMode.ALL || (format.quoteMode() == CsvFormat.QuoteMode.MINIMAL && needsQuotes(value))) {
+            line.append(format.quote());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == format.quote()) {
+                    line.append(c);
+                }
+                line.append(c);
+            }
+            line.append(format.quote());
+        } else {
+            line.append(value);
+        }
+    }
+
+    private boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == format.delimiter() || c == format.quote() || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static long size(Path target) {
+        try {
+            return Files.size(target);
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+}
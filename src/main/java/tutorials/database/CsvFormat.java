@@ -0,0 +1,102 @@
+package tutorials.database;
+
+/**
+ * CsvFormat holds the layout used by the {@link CsvExporter}.
+ *
+ * @param delimiter     the character between values
+ * @param quote         the character around quoted values; quotes inside values are doubled
+ * @param quoteMode     which values are quoted
+ * @param lineSeparator the separator between rows
+ * @param header        true to write the column names as first row
+ * @param nullValue     the text written for SQL NULL, never quoted
+ */
+public record CsvFormat(char delimiter, char quote, QuoteMode quoteMode, String lineSeparator, boolean header, String nullValue) {
+
+    /**
+     * Which values are quoted.
+     */
+    public enum QuoteMode {
+        /**
+         * Quote every value.
+         */
+        ALL,
+        /**
+         * Quote values that contain the delimiter, the quote character or a line break.
+         */
+        MINIMAL,
+        /**
+         * Never quote; values are written as they are.
+         */
+        NONE
+    }
+
+    /**
+     * Returns the default format: comma separated, minimal double quoting, CRLF line separators as in RFC 4180,
+     * with header and an empty string for NULL.
+     *
+     * @return the default format
+     */
+    public static CsvFormat defaults() {
+        return new CsvFormat(',', '"', QuoteMode.MINIMAL, "\r\n", true, "");
+    }
+
+    /**
+     * Returns a copy of this format with the given delimiter.
+     *
+     * @param delimiter the character between values, e.g. ';' or '\t'
+     * @return the new format
+     */
+    public CsvFormat withDelimiter(char delimiter) {
+        return new CsvFormat(delimiter, quote, quoteMode, lineSeparator, header, nullValue);
+    }
+
+    /**
+     * Returns a copy of this format with the given quote character.
+     *
+     * @param quote the character around quoted values
+     * @return the new format
+     */
+    public CsvFormat withQuote(char quote) {
+        return new CsvFormat(delimiter, quote, quoteMode, lineSeparator, header, nullValue);
+    }
+
+    /**
+     * Returns a copy of this format with the given quote mode.
+     *
+     * @param quoteMode which values are quoted
+     * @return the new format
+     */
+    public CsvFormat withQuoteMode(QuoteMode quoteMode) {
+        return new CsvFormat(delimiter, quote, quoteMode, lineSeparator, header, nullValue);
+    }
+
+    /**
+     * Returns a copy of this format with the given line separator.
+     *
+     * @param lineSeparator the separator between rows
+     * @return the new format
+     */
+    public CsvFormat withLineSeparator(String lineSeparator) {
+        return new CsvFormat(delimiter, quote, quoteMode, lineSeparator, header, nullValue);
+    }
+
+    /**
+     * Returns a copy of this format with or without header row.
+     *
+     * @param header true to write the column names as first row
+     * @return the new format
+     */
+    public CsvFormat withHeader(boolean header) {
+        return new CsvFormat(delimiter, quote, quoteMode, lineSeparator, header, nullValue);
+    }
+
+    /**
+     * Returns a copy of this format with the given text for NULL.
+     *
+     * @param nullValue the text written for SQL NULL
+     * @return the new format
+     */
+    public CsvFormat withNullValue(String nullValue) {
+        return new CsvFormat(delimiter, quote, quoteMode, lineSeparator, header, nullValue);
+    }
+}
@@ -1,8 +1,15 @@
 package tutorials.database;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * DBConnector is the main class for managing database connections and executing SQL queries.
@@ -21,9 +28,27 @@ public class DBConnector {
     private String port;
     private String dbName;
     private String password;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private QueryResultCache resultCache;
+    private QueryMetrics queryMetrics;
+    private AsyncQueryExecutor asyncExecutor;
+    private FanOutQueryExecutor fanOutExecutor;
+    private KeyCase keyCase = KeyCase.PRESERVE;
+    private int asyncConcurrency = AsyncQueryExecutor.DEFAULT_MAX_CONCURRENCY;
+    private PreparedStatementCache statementCache = new PreparedStatementCache(DEFAULT_STATEMENT_CACHE_SIZE);
 
     private static final LoggerManager loggerManager = new LoggerManager(DBConnector.class);
 
+    /**
+     * The default number of rows fetched per round trip by {@link #stream(String)}.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /**
+     * The default number of prepared statements kept open per connection by {@link #execute(String, Object...)}.
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 50;
+
     public DBConnector() {
         this.dbHelper = new DefaultDBHelper();
         this.connectionManager = new DefaultDBConnectionManager();
@@ -32,9 +57,19 @@ public class DBConnector {
 
     // Konstruktor mit Dependency Injection
     public DBConnector(IDBHelper dbHelper, IDBConnectionManager connectionManager, SQLUtils sqlUtils) {
-        this.dbHelper = new DefaultDBHelper();
-        this.connectionManager = new DefaultDBConnectionManager();
-        this.sqlUtils = new SQLUtils();
+        this.dbHelper = dbHelper;
+        this.connectionManager = connectionManager;
+        this.sqlUtils = sqlUtils;
+    }
+
+    /**
+     * Creates a DBConnector that obtains its connections from the given connection manager,
+     * e.g. a shared {@link PooledDBConnectionManager}.
+     *
+     * @param connectionManager the connection manager to be used
+     */
+    public DBConnector(IDBConnectionManager connectionManager) {
+        this(new DefaultDBHelper(), connectionManager, new SQLUtils());
     }
 
     /**
@@ -56,6 +91,15 @@ public class DBConnector {
         this.password = password;
     }
 
+    /**
+     * Returns the configured database parameters as a DBTarget.
+     *
+     * @return the configured database target
+     */
+    public DBTarget getDBTarget() {
+        return new DBTarget(dbType, host, user, port, dbName, password);
+    }
+
     /**
      * Establishes a connection to the database using the configured parameters.
      */
@@ -64,15 +108,33 @@ public class DBConnector {
     }
 
     /**
-     * Closes the database connection.
+     * Closes the database connection. With a pooled connection manager the connection is returned to the pool.
+     * The executors of {@link #executeAsync} and {@link #fanOut} are shut down; queries still running on them
+     * finish on their own connections.
      */
     public void close() {
+        statementCache.clear();
         connectionManager.closeConnection(this.connection);
+        this.connection = null;
+        shutdownExecutors();
+    }
+
+    private synchronized void shutdownExecutors() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+            asyncExecutor = null;
+        }
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdown();
+            fanOutExecutor = null;
+        }
     }
 
     /**
      * Executes the given SQL query.
      *
+     * If a result cache is enabled, the result may come from the cache and is then unmodifiable.
+     *
      * @param sql the SQL query to be executed
      * @return a list of maps, each representing a row in the result set
      * @throws Error if the connection is not established
@@ -81,7 +143,448 @@ public class DBConnector {
         if (this.connection == null) {
             loggerManager.error("Connection is not established.");
         }
-        return dbHelper.executeSQL(this.connection, sql);
+        if (resultCache != null) {
+            return KeyCaseRows.view(executeCached(sql, null, (QueryTrace) null), keyCase);
+        }
+        return KeyCaseRows.view(load(sql, null), keyCase);
+    }
+
+    /**
+     * Executes the given parameterized SQL query. The statement is prepared once per connection and kept in an
+     * LRU cache, so repeated executions skip parsing and can reuse the server-side plan.
+     * If a result cache is enabled, the result may come from the cache and is then unmodifiable.
+     *
+     * @param sql    the SQL query with ? placeholders
+     * @param params the values for the placeholders, in order
+     * @return a list of maps, each representing a row in the result set
+     */
+    public List<Map<String, Object>> execute(String sql, Object... params) {
+        if (this.connection == null) {
+            loggerManager.error("Connection is not established.");
+        }
+        if (resultCache != null) {
+            return KeyCaseRows.view(executeCached(sql, null, (QueryTrace) null, params), keyCase);
+        }
+        return KeyCaseRows.view(load(sql, null, params), keyCase);
+    }
+
+    /**
+     * Runs the query on the database. Without a given trace the execution is recorded in its own trace
+     * if query metrics are enabled; a given trace is only filled and recorded by the caller.
+     */
+    private List<Map<String, Object>> load(String sql, QueryTrace trace, Object... params) {
+        if (trace == null && queryMetrics != null) {
+            QueryTrace own = queryMetrics.start(sql);
+            try {
+                return load(sql, own, params);
+            } catch (RuntimeException ex) {
+                own.fail();
+                throw ex;
+            } finally {
+                queryMetrics.record(own);
+            }
+        }
+        if (params.length == 0) {
+            return trace == null ? dbHelper.executeSQL(this.connection, sql) : dbHelper.executeSQLTraced(this.connection, sql, trace);
+        }
+        statementCache.bind(this.connection);
+        try {
+            PreparedStatement statement = statementCache.prepare(sql);
+            return trace == null ? dbHelper.executeSQL(statement, params) : dbHelper.executeSQLTraced(statement, trace, params);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Exception while preparing SQL! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Enables the given result cache for {@link #execute(String)} and {@link #execute(String, Object...)}.
+     * Cached results are unmodifiable. Pass null to disable caching.
+     *
+     * @param resultCache the result cache, may be shared between connectors
+     */
+    public void setResultCache(QueryResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Returns the result cache, e.g. to invalidate tables or to read its statistics.
+     *
+     * @return the result cache, or null if caching is disabled
+     */
+    public QueryResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Executes the given query through the result cache, using the given time to live if the result is not cached yet.
+     *
+     * @param sql    the SQL query, with ? placeholders if parameters are given
+     * @param ttl    the time to live of a new cache entry, null for the cache default
+     * @param params the values for the placeholders, in order
+     * @return the unmodifiable rows
+     */
+    public List<Map<String, Object>> executeCached(String sql, Duration ttl, Object... params) {
+        return KeyCaseRows.view(executeCached(sql, ttl, null, params), keyCase);
+    }
+
+    private List<Map<String, Object>> executeCached(String sql, Duration ttl, QueryTrace trace, Object... params) {
+        if (resultCache == null) {
+            loggerManager.error("Result cache is not enabled.");
+        }
+        QueryResultCache.CacheKey key = QueryResultCache.key(getDBTarget().toString(), sql, params);
+        List<Map<String, Object>> rows = resultCache.get(key);
+        if (rows == null) {
+            rows = load(sql, trace, params);
+            rows = ttl == null ? resultCache.put(key, rows) : resultCache.put(key, rows, ttl);
+        }
+        return rows;
+    }
+
+    /**
+     * Enables the given query metrics for {@link #execute(String)}, {@link #execute(String, Object...)} and
+     * {@link #connectExecuteClose}, which then record their phase latencies, rows and bytes per query fingerprint.
+     * Results served from the result cache are not recorded, except by connectExecuteClose. Pass null to disable.
+     *
+     * @param queryMetrics the query metrics, may be shared between connectors
+     */
+    public void setQueryMetrics(QueryMetrics queryMetrics) {
+        this.queryMetrics = queryMetrics;
+    }
+
+    /**
+     * Returns the query metrics, e.g. to take a snapshot or to register them over JMX.
+     *
+     * @return the query metrics, or null if they are disabled
+     */
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    /**
+     * Executes the given INSERT, UPDATE or DELETE template once for every parameter row, sent in JDBC batches of
+     * {@link BatchWriter#DEFAULT_CHUNK_SIZE} rows and committed as one transaction.
+     *
+     * @param sql  the statement template with ? placeholders
+     * @param rows the parameter rows, each holding the values for the placeholders in order
+     * @return the batch result with row counts and throughput
+     */
+    public BatchResult executeBatch(String sql, Iterable<Object[]> rows) {
+        return executeBatch(sql, rows.iterator(), BatchWriter.DEFAULT_CHUNK_SIZE, false);
+    }
+
+    /**
+     * Executes the given INSERT, UPDATE or DELETE template once for every parameter row, sent in JDBC batches.
+     *
+     * @param sql            the statement template with ? placeholders
+     * @param rows           the parameter rows, each holding the values for the placeholders in order
+     * @param chunkSize      the number of rows per executeBatch call
+     * @param commitPerChunk true to commit after every chunk, false to commit once at the end
+     * @return the batch result with row counts and throughput
+     */
+    public BatchResult executeBatch(String sql, Iterable<Object[]> rows, int chunkSize, boolean commitPerChunk) {
+        return executeBatch(sql, rows.iterator(), chunkSize, commitPerChunk);
+    }
+
+    /**
+     * Executes the given INSERT, UPDATE or DELETE template once for every parameter row of the stream,
+     * sent in JDBC batches. The stream is consumed lazily, so the rows do not need to fit in memory.
+     *
+     * @param sql            the statement template with ? placeholders
+     * @param rows           the parameter rows, each holding the values for the placeholders in order
+     * @param chunkSize      the number of rows per executeBatch call
+     * @param commitPerChunk true to commit after every chunk, false to commit once at the end
+     * @return the batch result with row counts and throughput
+     */
+    public BatchResult executeBatch(String sql, Stream<Object[]> rows, int chunkSize, boolean commitPerChunk) {
+        return executeBatch(sql, rows.iterator(), chunkSize, commitPerChunk);
+    }
+
+    private BatchResult executeBatch(String sql, Iterator<Object[]> rows, int chunkSize, boolean commitPerChunk) {
+        if (this.connection == null) {
+            loggerManager.error("Connection is not established.");
+        }
+        try {
+            return new BatchWriter(chunkSize, commitPerChunk).write(this.connection, sql, rows);
+        } finally {
+            if (resultCache != null) {
+                resultCache.invalidateTablesOf(sql);
+            }
+        }
+    }
+
+    /**
+     * Runs all statements of the given .sql file over the current connection in one transaction,
+     * batching consecutive non-query statements.
+     *
+     * @param filename the .sql file; parsed scripts are cached until the file is modified
+     * @return the script result with per-statement timings
+     */
+    public ScriptResult runScript(String filename) {
+        return runScript(filename, SQLScriptRunner.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Runs all statements of the given .sql file over the current connection in one transaction.
+     *
+     * @param filename  the .sql file; parsed scripts are cached until the file is modified
+     * @param batchSize the number of statements per executeBatch call; 1 executes and times every statement on its own
+     * @return the script result with per-statement timings
+     */
+    public ScriptResult runScript(String filename, int batchSize) {
+        if (this.connection == null) {
+            loggerManager.error("Connection is not established.");
+        }
+        try {
+            return new SQLScriptRunner(batchSize).run(this.connection, sqlUtils.getSQLScript(filename));
+        } finally {
+            if (resultCache != null) {
+                resultCache.invalidateAll();
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum number of prepared statements kept open for the current connection.
+     * Resizing the cache closes the currently cached statements and resets its statistics.
+     *
+     * @param statementCacheSize the maximum number of cached statements
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        statementCache.close();
+        statementCache = new PreparedStatementCache(statementCacheSize);
+    }
+
+    /**
+     * Returns the prepared statement cache, e.g. to read its hit and miss counts.
+     *
+     * @return the prepared statement cache
+     */
+    public PreparedStatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Executes the given SQL query asynchronously on a virtual thread, using its own connection from the
+     * connection manager, so it does not need {@link #connect()}. Construct the connector with a
+     * {@link PooledDBConnectionManager} to reuse connections between queries.
+     *
+     * @param sql the SQL query to be executed
+     * @return a future completed with the rows
+     */
+    public CompletableFuture<List<Map<String, Object>>> executeAsync(String sql) {
+        return getAsyncExecutor().executeAsync(getDBTarget(), sql);
+    }
+
+    /**
+     * Executes independent SQL queries concurrently, each on its own connection, with at most the configured
+     * number of queries running at the same time.
+     *
+     * @param sqls the SQL queries to be executed
+     * @return one future per query, in the order of the given queries
+     */
+    public List<CompletableFuture<List<Map<String, Object>>>> invokeAll(List<String> sqls) {
+        return getAsyncExecutor().invokeAll(getDBTarget(), sqls);
+    }
+
+    /**
+     * Sets the maximum number of queries run at the same time by {@link #executeAsync} and {@link #invokeAll}.
+     * Queries that are already running are not affected.
+     *
+     * @param asyncConcurrency the maximum number of concurrent queries
+     */
+    public synchronized void setAsyncConcurrency(int asyncConcurrency) {
+        this.asyncConcurrency = asyncConcurrency;
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+            asyncExecutor = null;
+        }
+    }
+
+    private synchronized AsyncQueryExecutor getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            asyncExecutor = new AsyncQueryExecutor(dbHelper, connectionManager, asyncConcurrency);
+        }
+        return asyncExecutor;
+    }
+
+    /**
+     * Executes the given SQL query on all given databases at the same time, each on its own connection from the
+     * connection manager, and concatenates the rows in the order of the targets. Targets that fail or do not
+     * finish within the timeout are reported in the result instead of failing the whole query.
+     *
+     * @param targets the databases with the same schema, e.g. shards
+     * @param sql     the SQL query to be executed
+     * @param timeout the time every target has to deliver its rows
+     * @return the rows of all completed targets and the outcome per target
+     */
+    public FanOutResult fanOut(List<DBTarget> targets, String sql, Duration timeout) {
+        return getFanOutExecutor().execute(targets, sql, timeout);
+    }
+
+    /**
+     * Executes the given SQL query on all given databases at the same time and streams the rows as they arrive.
+     * The stream must be closed, e.g. with try-with-resources, to cancel targets that are still running.
+     *
+     * @param targets  the databases with the same schema, e.g. shards
+     * @param sql      the SQL query to be executed
+     * @param timeout  the time every target has to deliver its rows
+     * @param listener called with the outcome of every target as soon as it ended
+     * @return a stream of the rows of all targets
+     */
+    public Stream<Map<String, Object>> fanOutStream(List<DBTarget> targets, String sql, Duration timeout,
+                                                    Consumer<FanOutResult.TargetOutcome> listener) {
+        return getFanOutExecutor().stream(targets, sql, timeout, listener);
+    }
+
+    private synchronized FanOutQueryExecutor getFanOutExecutor() {
+        if (fanOutExecutor == null) {
+            fanOutExecutor = new FanOutQueryExecutor(connectionManager, fetchSize);
+        }
+        return fanOutExecutor;
+    }
+
+    /**
+     * Creates a poller that fetches only the rows of the given query written since the last poll,
+     * using the default poll settings. The poller uses the held connection and must be closed before it.
+     *
+     * @param sql    the SQL query returning the rows to wait for
+     * @param column the monotonic column of the query, e.g. an id or an updated_at timestamp
+     * @return the poller, starting from the first row
+     */
+    public IncrementalPoller createPoller(String sql, String column) {
+        return createPoller(sql, column, PollSettings.defaults());
+    }
+
+    /**
+     * Creates a poller that fetches only the rows of the given query written since the last poll.
+     * The poller uses the held connection and must be closed before it.
+     *
+     * @param sql      the SQL query returning the rows to wait for
+     * @param column   the monotonic column of the query, e.g. an id or an updated_at timestamp
+     * @param settings the poll intervals and the timeout
+     * @return the poller, starting from the first row
+     */
+    public IncrementalPoller createPoller(String sql, String column, PollSettings settings) {
+        if (this.connection == null) {
+            loggerManager.error("Connection is not established.");
+        }
+        return new IncrementalPoller(this.connection, sql, column, settings);
+    }
+
+    /**
+     * Executes the given SQL query and returns the rows with typed values: every column is read by index with
+     * the getter matching its JDBC type instead of getString, and dates and timestamps as java.time values.
+     *
+     * @param sql the SQL query to be executed
+     * @return a list of maps with typed values, each representing a row in the result set
+     */
+    public List<Map<String, Object>> executeTyped(String sql) {
+        if (this.connection == null) {
+            loggerManager.error("Connection is not established.");
+        }
+        return KeyCaseRows.view(dbHelper.executeSQLTyped(this.connection, sql), keyCase);
+    }
+
+    /**
+     * Executes the given SQL query and maps every row to an instance of the given record or POJO class.
+     * Columns are matched to properties by name, ignoring case and underscores.
+     *
+     * @param sql  the SQL query to be executed
+     * @param type the record or POJO class
+     * @param <T>  the target type
+     * @return the mapped rows
+     */
+    public <T> List<T> query(String sql, Class<T> type) {
+        if (this.connection == null) {
+            loggerManager.error("Connection is not established.");
+        }
+        return dbHelper.executeSQL(this.connection, sql, type);
+    }
+
+    /**
+     * Executes the given SQL query and returns the result in a compact columnar container.
+     * The rows are read-only map views sharing one column schema, with values in their JDBC type.
+     *
+     * @param sql the SQL query to be executed
+     * @return the result as a columnar result set
+     */
+    public ColumnarResultSet executeColumnar(String sql) {
+        if (this.connection == null) {
+            loggerManager.error("Connection is not established.");
+        }
+        return dbHelper.executeSQLColumnar(this.connection, sql).withKeyCase(keyCase);
+    }
+
+    /**
+     * Sets the number of rows fetched per round trip by {@link #stream(String)} and {@link #fanOut}.
+     * Note that the MySQL driver only streams with {@link Integer#MIN_VALUE}.
+     *
+     * @param fetchSize the fetch size, 0 leaves the driver default
+     */
+    public synchronized void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdown();
+            fanOutExecutor = null;
+        }
+    }
+
+    /**
+     * Executes the given SQL query and streams the rows from a forward-only, read-only cursor
+     * using the configured fetch size. Only the rows currently being processed are held in memory.
+     * The stream must be closed, e.g. with try-with-resources, before the connection is closed.
+     *
+     * @param sql the SQL query to be executed
+     * @return a stream of maps, each representing a row in the result set
+     */
+    public Stream<Map<String, Object>> stream(String sql) {
+        return stream(sql, fetchSize);
+    }
+
+    /**
+     * Executes the given SQL query and streams the rows from a forward-only, read-only cursor.
+     * The stream must be closed, e.g. with try-with-resources, before the connection is closed.
+     *
+     * @param sql       the SQL query to be executed
+     * @param fetchSize the number of rows fetched per round trip
+     * @return a stream of maps, each representing a row in the result set
+     */
+    public Stream<Map<String, Object>> stream(String sql, int fetchSize) {
+        if (this.connection == null) {
+            loggerManager.error("Connection is not established.");
+        }
+        return dbHelper.streamSQL(this.connection, sql, fetchSize);
+    }
+
+    /**
+     * Executes the given SQL query and keeps at most the given number of rows in memory; further rows are written
+     * to a temporary binary file and read back through a memory-mapped file when iterated.
+     * The result must be closed to delete the temporary file.
+     *
+     * @param sql        the SQL query to be executed
+     * @param memoryRows the number of rows kept in memory, e.g. {@link SpillableResultSet#DEFAULT_MEMORY_ROWS}
+     * @return the rows, in memory and on disk
+     */
+    public SpillableResultSet executeSpillable(String sql, int memoryRows) {
+        if (this.connection == null) {
+            loggerManager.error("Connection is not established.");
+        }
+        return dbHelper.executeSQLSpillable(this.connection, sql, memoryRows, fetchSize);
+    }
+
+    /**
+     * Executes the given SQL query and streams the rows into a file while they are fetched,
+     * e.g. with a {@link CsvExporter} or a {@link BinaryExporter}.
+     *
+     * @param sql      the SQL query to be executed
+     * @param exporter the exporter writing the rows
+     * @return the export statistics with row count and throughput
+     */
+    public ExportStats export(String sql, ResultSetExporter exporter) {
+        if (this.connection == null) {
+            loggerManager.error("Connection is not established.");
+        }
+        return dbHelper.exportSQL(this.connection, sql, fetchSize, exporter);
     }
 
     /**
@@ -107,6 +610,18 @@ public class DBConnector {
         return dbHelper.findLineWithDataInResultSet(key, data, resultSet);
     }
 
+    /**
+     * Builds a hash index over the given columns of the result set. Use it instead of calling
+     * {@link #findLineWithDataInResultSet} in a loop: the index is built in one pass and every lookup is O(1).
+     *
+     * @param resultSet the result set to be indexed
+     * @param columns   the key columns, as they appear in the rows
+     * @return the index
+     */
+    public ResultSetIndex createIndex(List<Map<String, Object>> resultSet, String... columns) {
+        return ResultSetIndex.on(resultSet, columns);
+    }
+
     /**
      * Normalizes the values in the database result set to strings, converting nulls to "null".
      *
@@ -140,6 +655,22 @@ public class DBConnector {
         return dbHelper.formatDate(date, srcFormat, tarFormat);
     }
 
+    /**
+     * Formats the given date column of every row into the target format in one pass, replacing the values.
+     * Large result sets are converted in parallel; values that cannot be parsed are reported and left unchanged.
+     * Read-only rows, e.g. cached results, are rejected before any value is changed.
+     *
+     * @param dbData    the database result set; its rows must be modifiable
+     * @param column    the date column to be formatted
+     * @param srcFormat the source date format in the database
+     * @param tarFormat the target date format to be converted to
+     * @return the conversion report
+     * @throws IllegalArgumentException if a row is read-only
+     */
+    public DateConversionResult convertDateColumn(List<Map<String, Object>> dbData, String column, String srcFormat, String tarFormat) {
+        return dbHelper.convertDateColumn(dbData, column, srcFormat, tarFormat);
+    }
+
     /**
      * Fetches data in the database result set with the specified key into a mapped string map,
      * assuming a 1:1 relationship between keys and values.
@@ -176,8 +707,79 @@ public class DBConnector {
         return dbHelper.fetchDBDataIntoMapListWithKey(key, dbData);
     }
 
+    /**
+     * Fetches data in the database result set with the specified keys into a map with tuple keys,
+     * assuming a 1:1 relationship between key groups and values. Keys never collide, unlike the concatenated
+     * keys of {@link #fetchDBDataIntoMapWithCombKeys}.
+     *
+     * @param dbData the database result set to be fetched
+     * @param keys   the key group for mapping
+     * @return the rows by key tuple, look them up with {@link CompositeKey#of}
+     */
+    public Map<CompositeKey, Map<String, Object>> fetchDBDataIntoMapWithCompositeKey(List<Map<String, Object>> dbData, String... keys) {
+        return dbHelper.fetchDBDataIntoMapWithCompositeKey(dbData, keys);
+    }
+
+    /**
+     * Fetches data in the database result set with the specified keys into a map with tuple keys,
+     * assuming a 1:n relationship between key groups and values.
+     * <p>
+     * The groups are unmodifiable lists independent of {@code dbData}; they hold the same row maps, not copies of
+     * the rows.
+     *
+     * @param dbData the database result set to be fetched
+     * @param keys   the key group for mapping
+     * @return unmodifiable lists of rows by key tuple, in result set order
+     */
+    public Map<CompositeKey, List<Map<String, Object>>> fetchDBDataIntoMapListWithCompositeKey(List<Map<String, Object>> dbData, String... keys) {
+        return dbHelper.fetchDBDataIntoMapListWithCompositeKey(dbData, keys);
+    }
+
+    /**
+     * Sets the case of the column names in the results of {@link #execute(String)}, {@link #execute(String, Object...)},
+     * {@link #executeCached}, {@link #executeTyped} and {@link #executeColumnar}. The names are converted once
+     * per result, not per row: the rows become read-only views sharing the converted names.
+     *
+     * @param keyCase the key case, {@link KeyCase#PRESERVE} returns the rows as read
+     */
+    public void setKeyCase(KeyCase keyCase) {
+        this.keyCase = keyCase;
+    }
+
+    /**
+     * Returns the case of the column names in query results.
+     *
+     * @return the key case
+     */
+    public KeyCase getKeyCase() {
+        return keyCase;
+    }
+
+    /**
+     * Returns a read-only view on the given result set with the column names converted by the given key case,
+     * e.g. {@link KeyCase#IGNORE} for case-insensitive lookups. Unlike {@link #convertKeyTo} no row is copied.
+     *
+     * @param resultSet the result set to be viewed
+     * @param keyCase   the key case
+     * @return the view on the result set
+     */
+    public List<Map<String, Object>> withKeyCase(List<Map<String, Object>> resultSet, KeyCase keyCase) {
+        return KeyCaseRows.view(resultSet, keyCase);
+    }
+
+    /**
+     * Returns a read-only view on the given row that looks up column names ignoring case.
+     *
+     * @param dataMap the row to be viewed
+     * @return the case-insensitive view on the row
+     */
+    public Map<String, Object> ignoreKeyCase(Map<String, Object> dataMap) {
+        return KeyCaseRows.view(dataMap, KeyCase.IGNORE);
+    }
+
     /**
      * Converts the keys in the database result set to lowercase or uppercase.
+     * This copies the row; see {@link #withKeyCase} for a view on a whole result set.
      *
      * @param dataMap      the database result set to be converted
      * @param isToLowercase flag to convert keys to lowercase
@@ -201,11 +803,31 @@ public class DBConnector {
      */
     public List<Map<String, Object>> connectExecuteClose(String dbType, String host, String user, String port, String dbName, String password, String sql) {
         setDBConfig(dbType, host, user, port, dbName, password);
+        if (queryMetrics == null) {
+            connect();
+            try {
+                return execute(sql);
+            } finally {
+                close();
+            }
+        }
+        QueryTrace trace = queryMetrics.start(sql);
+        long start = System.nanoTime();
         connect();
+        trace.addPhase(QueryPhase.CONNECT, System.nanoTime() - start);
         try {
-            return execute(sql);
+            if (this.connection == null) {
+                loggerManager.error("Connection is not established.");
+            }
+            return KeyCaseRows.view(resultCache != null ? executeCached(sql, null, trace) : load(sql, trace), keyCase);
+        } catch (RuntimeException ex) {
+            trace.fail();
+            throw ex;
         } finally {
+            start = System.nanoTime();
             close();
+            trace.addPhase(QueryPhase.CLOSE, System.nanoTime() - start);
+            queryMetrics.record(trace);
         }
     }
 }
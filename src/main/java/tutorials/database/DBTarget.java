@@ -0,0 +1,37 @@
+package tutorials.database;
+
+import java.sql.Connection;
+
+/**
+ * DBTarget bundles the parameters that identify a database and the credentials to connect to it,
+ * as passed to {@link DBConnector#setDBConfig}.
+ *
+ * @param dbType   the type of the database (e.g., "mysql", "oracle-SID", "oracle-SN", "mssql", "h2")
+ * @param host     the host of the database server
+ * @param user     the username for the database connection
+ * @param port     the port number of the database server
+ * @param dbName   the name of the database or service name or service ID
+ * @param password the password for the database connection
+ */
+public record DBTarget(String dbType, String host, String user, String port, String dbName, String password) {
+
+    /**
+     * Opens a connection to this target with the given connection manager.
+     *
+     * @param connectionManager the connection manager to be used
+     * @return the connection, or null if it could not be established
+     */
+    public Connection connect(IDBConnectionManager connectionManager) {
+        return connectionManager.createConnection(dbType, host, user, port, dbName, password);
+    }
+
+    /**
+     * Returns the target without the password, so it can be logged safely.
+     *
+     * @return a description of the target
+     */
+    @Override
+    public String toString() {
+        return dbType + "://" + user + "@" + host + ":" + port + "/" + dbName;
+    }
+}
@@ -0,0 +1,150 @@
+package tutorials.database;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+
+/**
+ * DateColumnConverter reformats one date column of a whole result set from a source to a target pattern,
+ * replacing a call of {@link DBConnector#formatDate} per row.
+ * <p>
+ * The SimpleDateFormat patterns are compiled once by the {@link DateTimeFormatterRegistry}, every thread converts
+ * with its own copy of them.
+ * Strings are parsed with the source pattern like {@link DateTimeUtils#parseStringToZonedDateTime} does; java.time values and java.util/java.sql dates, as returned by
+ * {@link DBConnector#executeTyped}, are formatted directly without a round trip through toString.
+ * Result sets with at least {@value #PARALLEL_THRESHOLD} rows are converted in parallel chunks. Values that cannot be
+ * converted are left unchanged and reported in the {@link DateConversionResult} instead of aborting the conversion.
+ */
+public class DateColumnConverter {
+
+    /**
+     * The minimum number of rows for a parallel conversion.
+     */
+    public static final int PARALLEL_THRESHOLD = 10_000;
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private final SimpleDatePattern parser;
+    private final SimpleDatePattern formatter;
+
+    /**
+     * Creates a converter for English month and day names.
+     *
+     * @param srcPattern the pattern of the stored strings, e.g. "yyyy-MM-dd HH:mm:ss"
+     * @param tarPattern the pattern to convert to, e.g. "dd.MM.yyyy"
+     * @throws IllegalArgumentException if a pattern is invalid
+     */
+    public DateColumnConverter(String srcPattern, String tarPattern) {
+        this(srcPattern, tarPattern, Locale.ENGLISH);
+    }
+
+    /**
+     * Creates a converter.
+     *
+     * @param srcPattern the pattern of the stored strings
+     * @param tarPattern the pattern to convert to
+     * @param locale     the locale for month and day names
+     * @throws IllegalArgumentException if a pattern is invalid
+     */
+    public DateColumnConverter(String srcPattern, String tarPattern, Locale locale) {
+        this.parser = DateTimeFormatterRegistry.simpleDatePattern(srcPattern, locale);
+        this.formatter = DateTimeFormatterRegistry.simpleDatePattern(tarPattern, locale);
+    }
+
+    /**
+     * Converts the column in every row in place, replacing the values with the formatted strings.
+     * <p>
+     * The rows are checked before any value is converted, so read-only rows such as cached results or
+     * {@link KeyCaseRows} views are rejected without leaving the result set partly converted. Copy them into
+     * modifiable maps first.
+     *
+     * @param rows   the result set; rows must be modifiable
+     * @param column the date column
+     * @return the conversion report
+     * @throws IllegalArgumentException if a row with a value in the column is read-only
+     */
+    public DateConversionResult convert(List<Map<String, Object>> rows, String column) {
+        List<Map<String, Object>> list = rows instanceof RandomAccess ? rows : new ArrayList<>(rows);
+        checkModifiable(list, column);
+        int chunks = (list.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream chunkStream = IntStream.range(0, chunks);
+        if (list.size() >= PARALLEL_THRESHOLD) {
+            chunkStream = chunkStream.parallel();
+        }
+        // chunks are merged in order, so failures stay sorted by row
+        return chunkStream
+                .mapToObj(chunk -> convertChunk(list, column, chunk * CHUNK_SIZE, Math.min(list.size(), (chunk + 1) * CHUNK_SIZE)))
+                .reduce(DateColumnConverter::merge)
+                .orElse(new DateConversionResult(0, 0, List.of()));
+    }
+
+    /**
+     * Converts a single value.
+     *
+     * @param value the string or date value
+     * @return the formatted string
+     * @throws DateTimeException if the value cannot be parsed or formatted
+     */
+    public String convertValue(Object value) {
+        TemporalAccessor temporal = switch (value) {
+            case TemporalAccessor t -> t;
+            case java.sql.Timestamp t -> t.toLocalDateTime();
+            case java.sql.Date d -> d.toLocalDate();
+            case java.sql.Time t -> t.toLocalTime();
+            case java.util.Date d -> d.toInstant().atZone(ZoneId.systemDefault());
+            default -> parser.parse(value.toString());
+        };
+        return formatter.format(temporal);
+    }
+
+    /**
+     * Puts every value back unchanged, which read-only maps reject like any other put.
+     */
+    private static void checkModifiable(List<Map<String, Object>> rows, String column) {
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> row = rows.get(i);
+            Object value = row.get(column);
+            if (value != null) {
+                try {
+                    row.put(column, value);
+                } catch (UnsupportedOperationException ex) {
+                    throw new IllegalArgumentException("Row " + i + " is read-only, cannot convert " + column, ex);
+                }
+            }
+        }
+    }
+
+    private DateConversionResult convertChunk(List<Map<String, Object>> rows, String column, int from, int to) {
+        int converted = 0;
+        int nulls = 0;
+        List<DateConversionResult.Failure> failures = new ArrayList<>(0);
+        for (int i = from; i < to; i++) {
+            Map<String, Object> row = rows.get(i);
+            Object value = row.get(column);
+            if (value == null) {
+                nulls++;
+                continue;
+            }
+            try {
+                row.put(column, convertValue(value));
+                converted++;
+            } catch (DateTimeException | ArithmeticException | IllegalArgumentException ex) {
+                // out of range and malformed values are reported like unparseable ones, not thrown
+                failures.add(new DateConversionResult.Failure(i, value, String.valueOf(ex.getMessage())));
+            }
+        }
+        return new DateConversionResult(converted, nulls, failures);
+    }
+
+    private static DateConversionResult merge(DateConversionResult first, DateConversionResult second) {
+        List<DateConversionResult.Failure> failures = new ArrayList<>(first.failures());
+        failures.addAll(second.failures());
+        return new DateConversionResult(first.converted() + second.converted(), first.nulls() + second.nulls(), failures);
+    }
+}
@@ -0,0 +1,36 @@
+package tutorials.database;
+
+import java.util.List;
+
+/**
+ * DateConversionResult reports the conversion of a date column by the {@link DateColumnConverter}.
+ *
+ * @param converted the number of values that were converted
+ * @param nulls     the number of null values, which are left as they are
+ * @param failures  the values that could not be converted, in row order; they are left as they are
+ */
+public record DateConversionResult(int converted, int nulls, List<Failure> failures) {
+
+    public DateConversionResult {
+        failures = List.copyOf(failures);
+    }
+
+    /**
+     * Returns whether every non-null value was converted.
+     *
+     * @return true if there are no failures
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * Failure is a value that could not be converted.
+     *
+     * @param row    the index of the row in the result set
+     * @param value  the original value
+     * @param reason the parser message
+     */
+    public record Failure(int row, Object value, String reason) {
+    }
+}
@@ -0,0 +1,117 @@
+package tutorials.database;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * DateTimeFormatterRegistry hands out shared {@link DateTimeFormatter}s keyed by pattern, locale and zone.
+ * <p>
+ * DateTimeFormatters are immutable and thread-safe, so one instance per key can be used by all threads, instead of
+ * compiling the pattern (or creating a SimpleDateFormat) for every value. Lookups of cached formatters take no lock,
+ * so parallel conversions do not contend for the registry. The registry keeps at most {@value #MAX_ENTRIES}
+ * formatters and drops arbitrary ones when it is full, so patterns built from user input cannot grow it without bound.
+ * <p>
+ * SimpleDateFormat patterns, as used by {@link DateTimeUtils#formatSimpleDate}, are kept apart as compiled
+ * {@link SimpleDatePattern}s, since the same letters mean different things in DateTimeFormatter patterns.
+ */
+public final class DateTimeFormatterRegistry {
+
+    /**
+     * The maximum number of cached formatters.
+     */
+    public static final int MAX_ENTRIES = 256;
+
+    private static final Map<FormatterKey, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    private static final Map<FormatterKey, SimpleDatePattern> SIMPLE_DATE_PATTERNS = new ConcurrentHashMap<>();
+
+    private DateTimeFormatterRegistry() {
+    }
+
+    /**
+     * Returns the formatter for the given pattern in the default format locale, without zone.
+     *
+     * @param pattern the pattern, e.g. "yyyy-MM-dd"
+     * @return the shared formatter
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static DateTimeFormatter get(String pattern) {
+        return get(pattern, Locale.getDefault(Locale.Category.FORMAT), null);
+    }
+
+    /**
+     * Returns the formatter for the given pattern and locale, without zone.
+     *
+     * @param pattern the pattern, e.g. "dd MMM yyyy"
+     * @param locale  the locale for month and day names
+     * @return the shared formatter
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static DateTimeFormatter get(String pattern, Locale locale) {
+        return get(pattern, locale, null);
+    }
+
+    /**
+     * Returns the formatter for the given pattern, locale and zone.
+     *
+     * @param pattern the pattern, e.g. "yyyy-MM-dd HH:mm:ss"
+     * @param locale  the locale for month and day names
+     * @param zone    the override zone, needed to format {@link java.time.Instant}s; null for none
+     * @return the shared formatter
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static DateTimeFormatter get(String pattern, Locale locale, ZoneId zone) {
+        return lookup(FORMATTERS, new FormatterKey(pattern, locale, zone), key -> {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(key.pattern(), key.locale());
+            return key.zone() == null ? formatter : formatter.withZone(key.zone());
+        });
+    }
+
+    /**
+     * Returns the compiled SimpleDateFormat pattern for the given pattern and locale.
+     *
+     * @param pattern the SimpleDateFormat pattern, e.g. "dd.MM.yyyy"
+     * @param locale  the locale for month and day names
+     * @return the shared pattern
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    static SimpleDatePattern simpleDatePattern(String pattern, Locale locale) {
+        return lookup(SIMPLE_DATE_PATTERNS, new FormatterKey(pattern, locale, null),
+                key -> SimpleDatePattern.compile(key.pattern(), key.locale()));
+    }
+
+    /**
+     * Returns the cached value without locking, or compiles and caches it, dropping entries beyond
+     * {@value #MAX_ENTRIES}.
+     */
+    private static <V> V lookup(Map<FormatterKey, V> cache, FormatterKey key, Function<FormatterKey, V> compiler) {
+        V value = cache.get(key);
+        if (value == null) {
+            value = cache.computeIfAbsent(key, compiler);
+            Iterator<FormatterKey> keys = cache.keySet().iterator();
+            while (cache.size() > MAX_ENTRIES && keys.hasNext()) {
+                if (!keys.next().equals(key)) {
+                    keys.remove();
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of cached formatters.
+     *
+     * @return the number of cached formatters
+     */
+    public static int size() {
+        return FORMATTERS.size();
+    }
+
+    private record FormatterKey(String pattern, Locale locale, ZoneId zone) {
+    }
+}
@@ -1,8 +1,6 @@
 package tutorials.database;
 
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
@@ -15,16 +13,22 @@ public class DateTimeUtils {
     private static final LoggerManager loggerManager = new LoggerManager(DateTimeUtils.class);
 
     /**
-     * format simple date from old pattern to given pattern
+     * format simple date from old pattern to given pattern, both SimpleDateFormat patterns.
+     * Trailing text after the source pattern is ignored, e.g. the ".0" of a JDBC timestamp.
      *
      * @param dateString    date in string
      * @param srcPattern    original pattern
      * @param targetPattern given pattern
-     * @return formatted date string
+     * @return formatted date string, or null if the date cannot be parsed
      */
     public static String formatSimpleDate(String dateString, String srcPattern, String targetPattern) {
-        Date dd = parseStringToDate(dateString, srcPattern);
-        return formatDate(dd, targetPattern);
+        try {
+            ZonedDateTime date = parseStringToZonedDateTime(dateString, srcPattern, Locale.ENGLISH);
+            return DateTimeFormatterRegistry.simpleDatePattern(targetPattern, Locale.ENGLISH).format(date);
+        } catch (DateTimeException ex) {
+            loggerManager.error("String to Date" + ex.getMessage());
+            return null;
+        }
     }
 
     /**
@@ -35,14 +39,8 @@ public class DateTimeUtils {
      * @return date
      */
     public static Date parseStringToDate(String dateString, String pattern) {
-        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(pattern, Locale.ENGLISH);
-        Date date = null;
-        try {
-            date = simpleDateFormat.parse(dateString);
-        } catch (ParseException ex) {
-            loggerManager.error("String to Date" + ex.getMessage());
-        }
-        return date;
+        Instant instant = parseStringToInstant(dateString, pattern, Locale.ENGLISH);
+        return instant == null ? null : Date.from(instant);
     }
 
     /**
@@ -53,26 +51,41 @@ public class DateTimeUtils {
      * @return date
      */
     public static Instant parseStringToInstant(String dateString, String pattern, Locale locale) {
-        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(pattern, locale);
         Instant date = null;
         try {
-            date = simpleDateFormat.parse(dateString).toInstant();
-        } catch (ParseException ex) {
+            date = parseStringToZonedDateTime(dateString, pattern, locale).toInstant();
+        } catch (DateTimeException ex) {
             loggerManager.error("String to Date" + ex.getMessage());
         }
         return date;
     }
 
+    /**
+     * parse String to zoned date time with a SimpleDateFormat pattern, giving the result of SimpleDateFormat without
+     * creating one per call. Missing fields default to 1970-01-01 00:00, numbers may be shorter or longer than the
+     * pattern letters, S counts milliseconds, overflowing fields roll over like 2024-02-30 to 2024-03-01, and the
+     * result is converted to the system zone. Trailing text after the pattern is ignored.
+     *
+     * @param dateString date String
+     * @param pattern    SimpleDateFormat pattern, e.g. "dd.MM.yyyy HH:mm"
+     * @param locale     locale for month and day names
+     * @return zoned date time in the system zone
+     * @throws DateTimeException        if the string cannot be parsed
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static ZonedDateTime parseStringToZonedDateTime(String dateString, String pattern, Locale locale) {
+        return DateTimeFormatterRegistry.simpleDatePattern(pattern, locale).parse(dateString);
+    }
+
     /**
      * format date with given pattern
      *
-     * @param date    date
+     * @param date    date, also a java.sql.Date
      * @param pattern pattern
      * @return String of date
      */
     public static String formatDate(Date date, String pattern) {
-        SimpleDateFormat toFormat = new SimpleDateFormat(pattern, Locale.ENGLISH);
-        return toFormat.format(date);
+        return DateTimeFormatterRegistry.simpleDatePattern(pattern, Locale.ENGLISH).format(Instant.ofEpochMilli(date.getTime()));
     }
 
     /**
@@ -82,7 +95,7 @@ public class DateTimeUtils {
      * @return local date
      */
     public static LocalDate convertToLocalDate(Date date) {
-        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
     }
 
     /**
@@ -93,7 +106,7 @@ public class DateTimeUtils {
      */
     public static String getFormattedDateNow(String pattern) {
         LocalDate dt = LocalDate.now();
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(pattern);
+        DateTimeFormatter format = DateTimeFormatterRegistry.get(pattern);
         return dt.format(format);
     }
 
@@ -105,7 +118,7 @@ public class DateTimeUtils {
      */
     public static String getFormattedLocalTimeNow(String pattern) {
         LocalTime ldt = LocalDateTime.now().toLocalTime();
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(pattern);
+        DateTimeFormatter format = DateTimeFormatterRegistry.get(pattern);
         return ldt.format(format);
     }
 
@@ -118,7 +131,7 @@ public class DateTimeUtils {
     public static String getFormattedDateTimeNow(String pattern) {
         LocalDateTime dt = LocalDateTime.now();
         //DateTimeFormatter format = DateTimeFormatter.ofPattern("MM-dd_hh-mm-ss");
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(pattern);
+        DateTimeFormatter format = DateTimeFormatterRegistry.get(pattern);
         return dt.format(format);
     }
 
@@ -132,7 +145,7 @@ public class DateTimeUtils {
     public static String getFormattedDate(LocalDate ld, String pattern) {
         //LocalDate dt = LocalDate.now();
         //DateTimeFormatter format = DateTimeFormatter.ofPattern("MM-dd_hh-mm-ss");
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(pattern);
+        DateTimeFormatter format = DateTimeFormatterRegistry.get(pattern);
         return ld.format(format);
     }
 
@@ -144,7 +157,7 @@ public class DateTimeUtils {
      * @return string
      */
     public static String getFormattedDateUS(LocalDate ld, String pattern) {
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(pattern, Locale.US);
+        DateTimeFormatter format = DateTimeFormatterRegistry.get(pattern, Locale.US);
         return ld.format(format);
     }
 
@@ -166,7 +179,7 @@ public class DateTimeUtils {
      * @return string
      */
     public static String formatLocalDateTime(LocalDateTime ldt, String pattern) {
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(pattern);
+        DateTimeFormatter format = DateTimeFormatterRegistry.get(pattern);
         return ldt.format(format);
     }
 
@@ -295,7 +308,7 @@ public class DateTimeUtils {
      */
     public static String getFormattedLocalTimestamp(String pattern) {
         LocalDateTime date = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
+        DateTimeFormatter formatter = DateTimeFormatterRegistry.get(pattern);
         return date.format(formatter);
     }
 
@@ -347,7 +360,7 @@ public class DateTimeUtils {
      */
     public static String getFormattedLocalDatestamp(String pattern) {
         LocalDate date = LocalDate.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
+        DateTimeFormatter formatter = DateTimeFormatterRegistry.get(pattern);
         return date.format(formatter);
     }
 
@@ -481,7 +494,7 @@ public class DateTimeUtils {
     public static List<String> getTimestamps(String timestampString, int mins) {
         ArrayList<String> times = new ArrayList<>(mins);
         LocalDateTime result = LocalDateTime.parse(timestampString);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy, HH:mm", Locale.ENGLISH);
+        DateTimeFormatter formatter = DateTimeFormatterRegistry.get("dd MMM yyyy, HH:mm", Locale.ENGLISH);
         for (int i = 0; i < mins; i++) {
             times.add(formatter.format(result.plusMinutes(i - 2)));
         }
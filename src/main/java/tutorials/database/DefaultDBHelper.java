@@ -3,6 +3,7 @@ package tutorials.database;
 import java.sql.*;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * DefaultDBHelper provides the default implementation of the IDBHelper interface,
@@ -10,18 +11,12 @@ import java.util.stream.Collectors;
  */
 public class DefaultDBHelper implements IDBHelper {
 
-    private Connection connection;
-    private List<Map<String, Object>> results;
-    private Map<String, Map<String, Object>> dbMap;
-    private Map<String, List<Map<String, Object>>> dbMapList;
-
     private static final LoggerManager loggerManager = new LoggerManager(DefaultDBHelper.class);
 
     /**
-     * Default constructor initializing the connection to null.
+     * Default constructor. The helper keeps no state, so one instance can be shared between threads.
      */
     public DefaultDBHelper() {
-        this.connection = null;
     }
 
     /**
@@ -33,44 +28,296 @@ public class DefaultDBHelper implements IDBHelper {
      */
     @Override
     public List<Map<String, Object>> executeSQL(Connection connection, String sql) throws RuntimeException {
-        this.connection = connection;
-        results = new ArrayList<>();
+        return executeSQLTraced(connection, sql, null);
+    }
+
+    /**
+     * Executes the given SQL query and adds the execute, fetch and map times, the rows and the materialized bytes
+     * to the given trace, see {@link QueryMetrics}.
+     *
+     * @param connection the database connection to use for executing the query
+     * @param sql the SQL query to be executed
+     * @param trace the trace of the execution, null to skip the measurement
+     * @return a list of maps, each representing a row in the result set
+     */
+    @Override
+    public List<Map<String, Object>> executeSQLTraced(Connection connection, String sql, QueryTrace trace) {
+        List<Map<String, Object>> results;
+        long start = trace == null ? 0 : System.nanoTime();
         try (Statement statement = connection.createStatement();
              ResultSet resultSet = statement.executeQuery(sql)) {
-            loggerManager.trace("Execute SQL: " + sql);
-            results = writeResultSet(resultSet);
+            if (trace != null) {
+                trace.addPhase(QueryPhase.EXECUTE, System.nanoTime() - start);
+            }
+            loggerManager.trace(() -> "Execute SQL: " + sql);
+            results = writeResultSet(resultSet, trace);
         } catch (SQLException ex) {
             throw new RuntimeException("Exception while executing SQL! " + ex.getMessage());
         }
         return results;
     }
 
+    /**
+     * Executes the given prepared statement with the given parameters. The statement is left open,
+     * so it can be reused, e.g. from a {@link PreparedStatementCache}.
+     *
+     * @param statement the prepared statement to be executed
+     * @param params the values for the ? placeholders, in order
+     * @return a list of maps, each representing a row in the result set
+     */
+    @Override
+    public List<Map<String, Object>> executeSQL(PreparedStatement statement, Object... params) {
+        return executeSQLTraced(statement, null, params);
+    }
+
+    /**
+     * Executes the given prepared statement with the given parameters and adds the execute, fetch and map times,
+     * the rows and the materialized bytes to the given trace. The statement is left open.
+     *
+     * @param statement the prepared statement to be executed
+     * @param trace the trace of the execution, null to skip the measurement
+     * @param params the values for the ? placeholders, in order
+     * @return a list of maps, each representing a row in the result set
+     */
+    @Override
+    public List<Map<String, Object>> executeSQLTraced(PreparedStatement statement, QueryTrace trace, Object... params) {
+        try {
+            long start = trace == null ? 0 : System.nanoTime();
+            SQLUtils.bindParameters(statement, params);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (trace != null) {
+                    trace.addPhase(QueryPhase.EXECUTE, System.nanoTime() - start);
+                }
+                return writeResultSet(resultSet, trace);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Exception while executing SQL! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Executes the given SQL query and reads every column by index with the getter matching its JDBC type,
+     * e.g. getLong for BIGINT or getBigDecimal for DECIMAL, instead of getString. Dates and timestamps are
+     * returned as java.time values.
+     *
+     * @param connection the database connection to use for executing the query
+     * @param sql the SQL query to be executed
+     * @return a list of maps with typed values, each representing a row in the result set
+     */
+    @Override
+    public List<Map<String, Object>> executeSQLTyped(Connection connection, String sql) {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            loggerManager.trace(() -> "Execute SQL typed: " + sql);
+            ResultSetMetaData rsmd = resultSet.getMetaData();
+            int columns = rsmd.getColumnCount();
+            String[] names = new String[columns];
+            ColumnReader[] readers = new ColumnReader[columns];
+            for (int i = 0; i < columns; i++) {
+                names[i] = rsmd.getColumnName(i + 1);
+                readers[i] = ColumnReader.forSqlType(rsmd.getColumnType(i + 1));
+            }
+            List<Map<String, Object>> results = new ArrayList<>();
+            while (resultSet.next()) {
+                LinkedHashMap<String, Object> row = new LinkedHashMap<>(columns * 4 / 3 + 1);
+                for (int i = 0; i < columns; i++) {
+                    row.put(names[i], readers[i].read(resultSet, i + 1));
+                }
+                results.add(row);
+            }
+            return results;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Exception while executing SQL! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Executes the given SQL query and maps every row to an instance of the given record or POJO class.
+     * The mapper is compiled once per type and column list, see {@link RowMapper}.
+     *
+     * @param connection the database connection to use for executing the query
+     * @param sql the SQL query to be executed
+     * @param type the record or POJO class
+     * @param <T> the target type
+     * @return the mapped rows
+     */
+    @Override
+    public <T> List<T> executeSQL(Connection connection, String sql, Class<T> type) {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            loggerManager.trace(() -> "Execute SQL into " + type.getSimpleName() + ": " + sql);
+            RowMapper<T> mapper = RowMapper.forShape(type, resultSet.getMetaData());
+            List<T> results = new ArrayList<>();
+            while (resultSet.next()) {
+                results.add(mapper.map(resultSet));
+            }
+            return results;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Exception while executing SQL! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Executes the given SQL query and stores the result column by column with typed values.
+     *
+     * @param connection the database connection to use for executing the query
+     * @param sql the SQL query to be executed
+     * @return the result as a columnar result set, whose rows are map views
+     */
+    @Override
+    public ColumnarResultSet executeSQLColumnar(Connection connection, String sql) {
+        try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            loggerManager.trace(() -> "Execute SQL columnar: " + sql);
+            return ColumnarResultSet.from(resultSet);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Exception while executing SQL! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Executes the given SQL query on a forward-only, read-only cursor and returns the rows as a lazy stream.
+     * Rows are fetched from the database in chunks of the given fetch size while the stream is consumed,
+     * so memory use does not depend on the number of rows. The stream must be closed to release the cursor.
+     *
+     * @param connection the database connection to use for executing the query
+     * @param sql the SQL query to be executed
+     * @param fetchSize the number of rows fetched per round trip, 0 leaves the driver default
+     * @return a stream of maps, each representing a row in the result set
+     */
+    @Override
+    public Stream<Map<String, Object>> streamSQL(Connection connection, String sql, int fetchSize) {
+        Statement statement = null;
+        try {
+            statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            loggerManager.trace(() -> "Stream SQL: " + sql);
+            ResultSet resultSet = statement.executeQuery(sql);
+            resultSet.setFetchSize(fetchSize);
+            return new ResultSetIterator(statement, resultSet).stream();
+        } catch (SQLException ex) {
+            closeQuietly(statement);
+            throw new RuntimeException("Exception while executing SQL! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Executes the given SQL query and keeps the first rows in memory, spilling all further rows to a temporary file.
+     * Use this instead of {@link #executeSQL(Connection, String)} for results that may not fit into the heap.
+     * The returned container must be closed to delete the temporary file.
+     *
+     * @param connection the database connection to use for executing the query
+     * @param sql the SQL query to be executed
+     * @param memoryRows the number of rows kept in memory
+     * @param fetchSize the number of rows fetched per round trip, 0 leaves the driver default
+     * @return the rows, in memory and on disk
+     */
+    @Override
+    public SpillableResultSet executeSQLSpillable(Connection connection, String sql, int memoryRows, int fetchSize) {
+        try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            loggerManager.trace(() -> "Execute SQL spillable: " + sql);
+            try (ResultSet resultSet = statement.executeQuery(sql)) {
+                return SpillableResultSet.from(resultSet, memoryRows);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Exception while executing SQL! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Executes the given SQL query on a forward-only, read-only cursor and writes the rows with the given exporter
+     * while they are fetched, so memory use does not depend on the number of rows.
+     *
+     * @param connection the database connection to use for executing the query
+     * @param sql the SQL query to be executed
+     * @param fetchSize the number of rows fetched per round trip, 0 leaves the driver default
+     * @param exporter the exporter writing the rows, e.g. a {@link CsvExporter}
+     * @return the export statistics
+     */
+    @Override
+    public ExportStats exportSQL(Connection connection, String sql, int fetchSize, ResultSetExporter exporter) {
+        try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            loggerManager.trace(() -> "Export SQL: " + sql);
+            try (ResultSet resultSet = statement.executeQuery(sql)) {
+                return exporter.export(resultSet);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Exception while executing SQL! " + ex.getMessage(), ex);
+        }
+    }
+
+    private void closeQuietly(Statement statement) {
+        if (statement != null) {
+            try {
+                statement.close();
+            } catch (SQLException ex) {
+                loggerManager.warn("Exception while closing statement! " + ex.getMessage());
+            }
+        }
+    }
+
     /**
      * Writes the result set into a list of maps, where each map represents a row.
+     * With a query trace, the time spent in next() is added as fetch time and the rest of every row as map time.
      *
      * @param resultSet the result set to be processed
+     * @param queryTrace the trace of the execution, or null
      * @return a list of maps representing the result set
      * @throws SQLException if an SQL error occurs
      */
-    private List<Map<String, Object>> writeResultSet(ResultSet resultSet) throws SQLException {
-        results = new ArrayList<>();
+    private List<Map<String, Object>> writeResultSet(ResultSet resultSet, QueryTrace queryTrace) throws SQLException {
+        List<Map<String, Object>> results = new ArrayList<>();
         ResultSetMetaData rsmd = resultSet.getMetaData();
         int columns = rsmd.getColumnCount();
+        // checked once per result set, so disabled tracing costs nothing per cell
+        boolean trace = loggerManager.isTraceEnabled();
+        boolean timed = queryTrace != null;
+        long fetchNanos = 0;
+        long mapNanos = 0;
+        long mark = timed ? System.nanoTime() : 0;
         while (resultSet.next()) {
-            loggerManager.trace("Table Line: ----------------------------------------");
+            long fetched = 0;
+            if (timed) {
+                fetched = System.nanoTime();
+                fetchNanos += fetched - mark;
+            }
+            if (trace) {
+                loggerManager.trace("Table Line: ----------------------------------------");
+            }
             LinkedHashMap<String, Object> row = new LinkedHashMap<>(columns);
+            long rowBytes = 0;
             for (int i = 1; i <= columns; i++) {
                 String colName = rsmd.getColumnName(i);
-                row.put(colName, resultSet.getString(colName));
-                loggerManager.trace("Column: " + colName + ": " + row.get(colName));
+                String value = resultSet.getString(colName);
+                row.put(colName, value);
+                if (timed) {
+                    rowBytes += QueryTrace.sizeOf(value);
+                }
+                if (trace) {
+                    loggerManager.trace("Column: " + colName + ": " + value);
+                }
             }
             results.add(row);
+            if (timed) {
+                queryTrace.addRow(rowBytes);
+                mark = System.nanoTime();
+                mapNanos += mark - fetched;
+            }
+        }
+        if (timed) {
+            queryTrace.addPhase(QueryPhase.FETCH, fetchNanos + System.nanoTime() - mark);
+            queryTrace.addPhase(QueryPhase.MAP, mapNanos);
         }
         return results;
     }
 
     /**
      * Finds a line in the result set that contains the specified key-value pair.
+     * The key is resolved once against the first row: the uppercase key, the key as given, or else the first column
+     * with this name in any case, so results with lowercase keys are found as well. A {@link ColumnarResultSet}
+     * is scanned column-wise without creating a row view per row.
      *
      * @param key the column or key of the data
      * @param data the value of the data to be matched
@@ -79,10 +326,48 @@ public class DefaultDBHelper implements IDBHelper {
      */
     @Override
     public Map<String, Object> findLineWithDataInResultSet(String key, Object data, List<Map<String, Object>> resultSet) {
-        return resultSet.stream()
-                .filter(line -> line.containsKey(key.toUpperCase()) && Objects.equals(line.get(key.toUpperCase()), data))
-                .findAny()
-                .orElse(Collections.emptyMap());
+        if (resultSet.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String upper = key.toUpperCase();
+        if (resultSet instanceof ColumnarResultSet columnar) {
+            ColumnSchema schema = columnar.getSchema();
+            int column = schema.indexOf(upper);
+            if (column < 0) {
+                column = schema.indexOfIgnoreCase(key);
+            }
+            if (column >= 0) {
+                for (int row = 0; row < columnar.size(); row++) {
+                    if (Objects.equals(columnar.getValue(row, column), data)) {
+                        return columnar.get(row);
+                    }
+                }
+            }
+            return Collections.emptyMap();
+        }
+        String column = resolveColumn(resultSet.get(0), upper, key);
+        for (Map<String, Object> line : resultSet) {
+            Object value = line.get(column);
+            if (Objects.equals(value, data) && (value != null || line.containsKey(column))) {
+                return line;
+            }
+        }
+        return Collections.emptyMap();
+    }
+
+    private String resolveColumn(Map<String, Object> row, String upper, String key) {
+        if (row.containsKey(upper)) {
+            return upper;
+        }
+        if (row.containsKey(key)) {
+            return key;
+        }
+        for (String name : row.keySet()) {
+            if (name.equalsIgnoreCase(key)) {
+                return name;
+            }
+        }
+        return upper;
     }
 
     /**
@@ -129,6 +414,21 @@ public class DefaultDBHelper implements IDBHelper {
         }
     }
 
+    /**
+     * Format a whole DB date column into the given format, with one shared parser and formatter.
+     *
+     * @param dbData    DB result set whose rows are updated in place; read-only rows are rejected before any change.
+     * @param column    Date column to be formatted.
+     * @param srcFormat Source date format in DB.
+     * @param tarFormat Target date format to be converted to.
+     * @return Report with the number of converted values and the values that could not be converted.
+     * @throws IllegalArgumentException if a row is read-only.
+     */
+    @Override
+    public DateConversionResult convertDateColumn(List<Map<String, Object>> dbData, String column, String srcFormat, String tarFormat) {
+        return new DateColumnConverter(srcFormat, tarFormat).convert(dbData, column);
+    }
+
     /**
      * Fetch Data in DB Result Set with key into mapped string map, in case key : values in 1 : 1 relationship.
      *
@@ -138,7 +438,7 @@ public class DefaultDBHelper implements IDBHelper {
      */
     @Override
     public Map<String, Map<String, Object>> fetchDBDataIntoMap(String key, List<Map<String, Object>> dbData) {
-        dbMap = new HashMap<>(dbData.size());
+        Map<String, Map<String, Object>> dbMap = new HashMap<>(dbData.size());
         dbData.forEach(row -> {
             Object keyValue = row.get(key);
             if (keyValue != null) {
@@ -152,6 +452,7 @@ public class DefaultDBHelper implements IDBHelper {
 
     /**
      * Fetch Data in DB Result Set with keys into mapped string map, in case keys (group) : values in 1 : 1 relationship.
+     * The key values are concatenated, so ("ab", "c") and ("a", "bc") collide; see {@link #fetchDBDataIntoMapWithCompositeKey}.
      *
      * @param dbData DB result set to be fetched.
      * @param keys   Key group for mapping.
@@ -159,7 +460,7 @@ public class DefaultDBHelper implements IDBHelper {
      */
     @Override
     public Map<String, Map<String, Object>> fetchDBDataIntoMapWithCombKeys(List<Map<String, Object>> dbData, String... keys) {
-        dbMap = new HashMap<>(dbData.size());
+        Map<String, Map<String, Object>> dbMap = new HashMap<>(dbData.size());
         dbData.forEach(row -> {
             StringBuilder builder = new StringBuilder();
             for (String key : keys) {
@@ -184,14 +485,42 @@ public class DefaultDBHelper implements IDBHelper {
      */
     @Override
     public Map<String, List<Map<String, Object>>> fetchDBDataIntoMapListWithKey(String key, List<Map<String, Object>> dbData) {
-        dbMapList = new HashMap<>(dbData.size());
+        Map<String, List<Map<String, Object>>> dbMapList = new HashMap<>(dbData.size());
         dbData.forEach(row -> {
             String uniqueKey = String.valueOf(row.get(key));
-            dbMapList.computeIfAbsent(uniqueKey, k -> new LinkedList<>()).add(row);
+            dbMapList.computeIfAbsent(uniqueKey, k -> new ArrayList<>(2)).add(row);
         });
         return dbMapList;
     }
 
+    /**
+     * Fetch Data in DB Result Set with keys into a map with tuple keys, in case keys (group) : values in 1 : 1 relationship.
+     * Unlike {@link #fetchDBDataIntoMapWithCombKeys}, the key values are not concatenated, so keys never collide and
+     * null values are kept. Look rows up with {@link CompositeKey#of}.
+     *
+     * @param dbData DB result set to be fetched.
+     * @param keys   Key group for mapping.
+     * @return Mapped rows by key tuple, later rows replace earlier ones with the same key.
+     */
+    @Override
+    public Map<CompositeKey, Map<String, Object>> fetchDBDataIntoMapWithCompositeKey(List<Map<String, Object>> dbData, String... keys) {
+        return RowGroups.unique(dbData, keys);
+    }
+
+    /**
+     * Fetch Data in DB Result Set with keys into a map with tuple keys, in case keys (group) : values in 1 : n relationship.
+     * Every group is an unmodifiable list in result set order, backed by an array of exactly its rows instead of list
+     * nodes, and independent of dbData.
+     *
+     * @param dbData DB result set to be fetched.
+     * @param keys   Key group for mapping.
+     * @return Unmodifiable lists of rows by key tuple.
+     */
+    @Override
+    public Map<CompositeKey, List<Map<String, Object>>> fetchDBDataIntoMapListWithCompositeKey(List<Map<String, Object>> dbData, String... keys) {
+        return RowGroups.group(dbData, keys);
+    }
+
     /**
      * Convert DB Keys to lowercase or uppercase.
      *
@@ -0,0 +1,78 @@
+package tutorials.database;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DiffResult summarizes the comparison of an expected and an actual result set done by {@link ResultSetDiff}.
+ *
+ * @param expectedRows the number of expected rows
+ * @param actualRows   the number of actual rows
+ * @param added        the number of rows only in the actual result
+ * @param removed      the number of rows only in the expected result
+ * @param changed      the number of rows in both results with different values
+ * @param duplicates   the number of rows whose key was already seen on the same side; they are not compared
+ * @param spilledRows  the number of rows written to partition files, 0 if the diff was done in memory
+ * @param elapsedNanos the total time spent, in nanoseconds
+ * @param differences  the differing rows, empty if they were passed to a listener instead
+ */
+public record DiffResult(long expectedRows, long actualRows, long added, long removed, long changed, long duplicates,
+                         long spilledRows, long elapsedNanos, List<RowDiff> differences) {
+
+    /**
+     * Returns whether both results contain the same rows.
+     *
+     * @return true if no row was added, removed or changed and no key was duplicated
+     */
+    public boolean isEqual() {
+        return added == 0 && removed == 0 && changed == 0 && duplicates == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d expected, %d actual rows: %d added, %d removed, %d changed, %d duplicates in %.1f ms",
+                expectedRows, actualRows, added, removed, changed, duplicates, elapsedNanos / 1_000_000.0);
+    }
+
+    /**
+     * The kind of a row difference.
+     */
+    public enum Type {
+        ADDED,
+        REMOVED,
+        CHANGED
+    }
+
+    /**
+     * One differing row.
+     *
+     * @param type     the kind of difference
+     * @param key      the values of the key columns
+     * @param expected the expected row, null if the row was added
+     * @param actual   the actual row, null if the row was removed
+     * @param columns  the differing columns of a changed row, otherwise empty
+     */
+    public record RowDiff(Type type, CompositeKey key, Map<String, Object> expected, Map<String, Object> actual,
+                          List<ColumnDiff> columns) {
+
+        @Override
+        public String toString() {
+            return type + " " + key + (type == Type.CHANGED ? " " + columns : "");
+        }
+    }
+
+    /**
+     * One differing column of a changed row. A column missing in one of the rows has the value null there.
+     *
+     * @param column   the column name
+     * @param expected the expected value
+     * @param actual   the actual value
+     */
+    public record ColumnDiff(String column, Object expected, Object actual) {
+
+        @Override
+        public String toString() {
+            return column + ": " + expected + " -> " + actual;
+        }
+    }
+}
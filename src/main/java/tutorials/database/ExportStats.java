@@ -0,0 +1,38 @@
+package tutorials.database;
+
+import java.nio.file.Path;
+
+/**
+ * ExportStats summarizes an export done by a {@link ResultSetExporter}.
+ *
+ * @param target       the written file
+ * @param rows         the number of exported rows
+ * @param bytes        the size of the written file, after compression if enabled
+ * @param elapsedNanos the total time spent, in nanoseconds
+ */
+public record ExportStats(Path target, long rows, long bytes, long elapsedNanos) {
+
+    /**
+     * Returns the row throughput of the export.
+     *
+     * @return the exported rows per second
+     */
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Returns the byte throughput of the export.
+     *
+     * @return the written megabytes per second
+     */
+    public double megabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1_000_000_000.0 / elapsedNanos / (1 << 20);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d rows, %d bytes in %.1f ms, %.0f rows/s, %.1f MB/s",
+                target, rows, bytes, elapsedNanos / 1_000_000.0, rowsPerSecond(), megabytesPerSecond());
+    }
+}
@@ -0,0 +1,367 @@
+package tutorials.database;
+
+import tutorials.database.FanOutResult.Status;
+import tutorials.database.FanOutResult.TargetOutcome;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * FanOutQueryExecutor runs the same SQL query against several databases with the same schema, e.g. shards,
+ * and gathers the rows. Every target is queried on a virtual thread with its own connection, all at the same time.
+ * <p>
+ * Every target has to finish within the given timeout, counted from the start of the fan-out. The timeout is passed
+ * to the driver as query timeout and checked between rows; a target that does not finish in time is cancelled and
+ * reported as timed out, while the other targets are still gathered. Failing targets are reported the same way,
+ * so a single unreachable shard does not fail the whole query.
+ */
+public class FanOutQueryExecutor implements AutoCloseable {
+
+    /**
+     * The number of rows buffered between the targets and the consumer of {@link #stream}.
+     */
+    public static final int QUEUE_CAPACITY = 4096;
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final LoggerManager loggerManager = new LoggerManager(FanOutQueryExecutor.class);
+
+    private final IDBConnectionManager connectionManager;
+    private final int fetchSize;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Creates an executor with the default fetch size.
+     *
+     * @param connectionManager the connection manager the connections are borrowed from
+     */
+    public FanOutQueryExecutor(IDBConnectionManager connectionManager) {
+        this(connectionManager, DBConnector.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param connectionManager the connection manager the connections are borrowed from
+     * @param fetchSize         the number of rows fetched per round trip, 0 leaves the driver default
+     */
+    public FanOutQueryExecutor(IDBConnectionManager connectionManager, int fetchSize) {
+        this.connectionManager = connectionManager;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Runs the query on all targets and waits until every target has completed, failed or timed out.
+     * Only rows of completed targets are part of the result, so a timed out target never contributes a partial result.
+     *
+     * @param targets the databases to query
+     * @param sql     the SQL query to be executed
+     * @param timeout the time every target has to deliver its rows
+     * @return the rows in the order of the targets, and the outcome per target
+     */
+    public FanOutResult execute(List<DBTarget> targets, String sql, Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        List<TargetQuery> queries = new ArrayList<>(targets.size());
+        List<List<Map<String, Object>>> rowsPerTarget = new ArrayList<>(targets.size());
+        List<Future<TargetOutcome>> futures = new ArrayList<>(targets.size());
+        for (DBTarget target : targets) {
+            TargetQuery query = new TargetQuery(target, sql, start, deadline);
+            List<Map<String, Object>> rows = new ArrayList<>();
+            queries.add(query);
+            rowsPerTarget.add(rows);
+            futures.add(executor.submit(() -> {
+                TargetOutcome outcome = query.run(rows::add);
+                query.finish();
+                return outcome;
+            }));
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<TargetOutcome> outcomes = new ArrayList<>(targets.size());
+        for (int i = 0; i < queries.size(); i++) {
+            TargetOutcome outcome = await(queries.get(i), futures.get(i), deadline);
+            if (outcome.isSuccess()) {
+                rows.addAll(rowsPerTarget.get(i));
+            } else {
+                loggerManager.warn("Fan-out query did not complete on " + outcome);
+            }
+            outcomes.add(outcome);
+        }
+        return new FanOutResult(rows, outcomes);
+    }
+
+    /**
+     * Runs the query on all targets and streams the rows in the order they arrive, so rows of different targets
+     * are interleaved and memory use does not depend on the number of rows. Rows already streamed from a target
+     * that fails or times out later are not taken back. The timeout includes the time a target waits for a slow
+     * consumer. Closing the stream cancels the targets that are still running.
+     *
+     * @param targets  the databases to query
+     * @param sql      the SQL query to be executed
+     * @param timeout  the time every target has to deliver its rows
+     * @param listener called on the consuming thread with the outcome of every target as soon as it ended
+     * @return a stream of the rows of all targets
+     */
+    public Stream<Map<String, Object>> stream(List<DBTarget> targets, String sql, Duration timeout, Consumer<TargetOutcome> listener) {
+        long start = System.nanoTime();
+        MergedRows merged = new MergedRows(start + timeout.toNanos(), listener);
+        for (DBTarget target : targets) {
+            TargetQuery query = new TargetQuery(target, sql, start, merged.deadline);
+            merged.queries.add(query);
+            query.future = executor.submit(() -> {
+                TargetOutcome outcome = query.run(merged::put);
+                if (query.finish()) {
+                    merged.putOutcome(outcome);
+                }
+                return outcome;
+            });
+        }
+        Spliterator<Map<String, Object>> spliterator = Spliterators.spliteratorUnknownSize(merged, Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(merged::close);
+    }
+
+    private TargetOutcome await(TargetQuery query, Future<TargetOutcome> future, long deadline) {
+        try {
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                if (query.finish()) {
+                    query.cancel(future);
+                    return query.outcome(Status.TIMED_OUT, null);
+                }
+                // the target has ended in the meantime
+                return future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            query.cancel(future);
+            throw new RuntimeException("Interrupted while waiting for fan-out query on " + query.target, ex);
+        } catch (ExecutionException ex) {
+            return query.outcome(Status.FAILED, ex.getCause());
+        }
+    }
+
+    /**
+     * Stops accepting new queries without waiting; the running ones finish on their threads.
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Stops accepting new queries and waits for the running ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * The query on one target. The first of the worker and the waiting thread to call {@link #finish()}
+     * reports the outcome.
+     */
+    private final class TargetQuery {
+        private final DBTarget target;
+        private final String sql;
+        private final long start;
+        private final long deadline;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile Statement statement;
+        private volatile boolean cancelled;
+        private volatile long rows;
+        private Future<TargetOutcome> future;
+
+        TargetQuery(DBTarget target, String sql, long start, long deadline) {
+            this.target = target;
+            this.sql = sql;
+            this.start = start;
+            this.deadline = deadline;
+        }
+
+        TargetOutcome run(Consumer<Map<String, Object>> sink) {
+            Connection connection = null;
+            try {
+                connection = target.connect(connectionManager);
+                if (connection == null) {
+                    throw new IllegalStateException("Connection to " + target + " is not established.");
+                }
+                try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    this.statement = statement;
+                    statement.setFetchSize(fetchSize);
+                    statement.setQueryTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime() + 999_999_999)));
+                    loggerManager.trace(() -> "Execute SQL on " + target + ": " + sql);
+                    try (ResultSetIterator iterator = new ResultSetIterator(statement, statement.executeQuery(sql))) {
+                        while (iterator.hasNext()) {
+                            if (cancelled) {
+                                return outcome(Status.CANCELLED, null);
+                            }
+                            if (System.nanoTime() - deadline > 0) {
+                                return outcome(Status.TIMED_OUT, null);
+                            }
+                            sink.accept(iterator.next());
+                            rows++;
+                        }
+                    }
+                }
+                return outcome(Status.COMPLETED, null);
+            } catch (SQLTimeoutException ex) {
+                return outcome(Status.TIMED_OUT, ex);
+            } catch (SQLException | RuntimeException ex) {
+                if (cancelled) {
+                    return outcome(Status.CANCELLED, null);
+                }
+                return outcome(System.nanoTime() - deadline > 0 ? Status.TIMED_OUT : Status.FAILED, ex);
+            } finally {
+                statement = null;
+                connectionManager.closeConnection(connection);
+            }
+        }
+
+        boolean finish() {
+            return finished.compareAndSet(false, true);
+        }
+
+        void cancel(Future<TargetOutcome> future) {
+            cancelled = true;
+            Statement running = statement;
+            if (running != null) {
+                try {
+                    running.cancel();
+                } catch (SQLException ex) {
+                    loggerManager.warn("Exception while cancelling query on " + target + "! " + ex.getMessage());
+                }
+            }
+            future.cancel(true);
+        }
+
+        TargetOutcome outcome(Status status, Throwable error) {
+            return new TargetOutcome(target, status, rows, System.nanoTime() - start, error);
+        }
+    }
+
+    /**
+     * Hands the rows from the target threads to the consuming thread through a bounded queue. Every target ends
+     * with its outcome in the queue, unless the consumer reported it as timed out before.
+     */
+    private static final class MergedRows implements Iterator<Map<String, Object>> {
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final List<TargetQuery> queries = new ArrayList<>();
+        private final long deadline;
+        private final Consumer<TargetOutcome> listener;
+        private volatile boolean closed;
+        private int ended;
+        private Map<String, Object> next;
+
+        MergedRows(long deadline, Consumer<TargetOutcome> listener) {
+            this.deadline = deadline;
+            this.listener = listener;
+        }
+
+        void put(Map<String, Object> row) {
+            offer(row);
+        }
+
+        void putOutcome(TargetOutcome outcome) {
+            try {
+                offer(outcome);
+            } catch (CancellationException ex) {
+                // the consumer has closed the stream and does not wait for outcomes anymore
+            }
+        }
+
+        private void offer(Object element) {
+            try {
+                while (!queue.offer(element, POLL_NANOS, TimeUnit.NANOSECONDS)) {
+                    if (closed) {
+                        throw new CancellationException("Fan-out stream is closed");
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while handing over rows");
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean hasNext() {
+            while (next == null && !closed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timeOutRunningTargets();
+                }
+                if (ended == queries.size()) {
+                    break;
+                }
+                Object element;
+                try {
+                    element = queue.poll(remaining > 0 ? remaining : POLL_NANOS, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    throw new RuntimeException("Interrupted while waiting for fan-out rows", ex);
+                }
+                if (element instanceof TargetOutcome outcome) {
+                    ended++;
+                    listener.accept(outcome);
+                } else if (element != null) {
+                    next = (Map<String, Object>) element;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map<String, Object> row = next;
+            next = null;
+            return row;
+        }
+
+        private void timeOutRunningTargets() {
+            for (TargetQuery query : queries) {
+                if (query.finish()) {
+                    query.cancel(query.future);
+                    ended++;
+                    listener.accept(query.outcome(Status.TIMED_OUT, null));
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+            for (TargetQuery query : queries) {
+                if (query.finish()) {
+                    query.cancel(query.future);
+                }
+            }
+            queue.clear();
+        }
+    }
+}
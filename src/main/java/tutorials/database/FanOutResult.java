@@ -0,0 +1,75 @@
+package tutorials.database;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FanOutResult holds the concatenated rows of a query run against several databases by the
+ * {@link FanOutQueryExecutor}, together with the outcome of every target.
+ *
+ * @param rows     the rows of all completed targets, in the order of the targets
+ * @param outcomes the outcome per target, in the order of the targets
+ */
+public record FanOutResult(List<Map<String, Object>> rows, List<TargetOutcome> outcomes) {
+
+    /**
+     * Returns whether every target delivered all of its rows.
+     *
+     * @return true if no target failed, timed out or was cancelled
+     */
+    public boolean isComplete() {
+        return outcomes.stream().allMatch(TargetOutcome::isSuccess);
+    }
+
+    /**
+     * Returns the outcomes of the targets that did not complete.
+     *
+     * @return the failed, timed out and cancelled targets
+     */
+    public List<TargetOutcome> failures() {
+        return outcomes.stream().filter(outcome -> !outcome.isSuccess()).toList();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows from %d of %d targets", rows.size(), outcomes.size() - failures().size(), outcomes.size());
+    }
+
+    /**
+     * How the query ended on one target.
+     */
+    public enum Status {
+        COMPLETED,
+        FAILED,
+        TIMED_OUT,
+        CANCELLED
+    }
+
+    /**
+     * The outcome of the query on one target.
+     *
+     * @param target       the database
+     * @param status       how the query ended
+     * @param rows         the number of rows read from the target, including rows of an incomplete target that
+     *                     were already streamed
+     * @param elapsedNanos the time from the start of the fan-out until the target ended, in nanoseconds
+     * @param error        the exception of a failed target, otherwise null
+     */
+    public record TargetOutcome(DBTarget target, Status status, long rows, long elapsedNanos, Throwable error) {
+
+        /**
+         * Returns whether the target delivered all of its rows.
+         *
+         * @return true if the status is {@link Status#COMPLETED}
+         */
+        public boolean isSuccess() {
+            return status == Status.COMPLETED;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s, %d rows in %.1f ms%s", target, status, rows, elapsedNanos / 1_000_000.0,
+                    error == null ? "" : " (" + error.getMessage() + ")");
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package tutorials.database;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * HashJoin joins two result sets by their key columns, e.g. rows of one table from Oracle and of another from MSSQL
+ * fetched with two {@link DBConnector} instances, instead of matching them in nested loops.
+ * <p>
+ * The rows of the build side are put into a hash map by key and the rows of the other side are streamed against it,
+ * so the join runs in linear time and only the build side is held in memory. Lists are built on the smaller side,
+ * streams and iterators on the right side. If the build side has more rows than the memory limit, both sides are hash
+ * partitioned by key into temporary files written with {@link BinaryRowWriter} and joined one partition at a time,
+ * partitions that are still too large are partitioned again.
+ * <p>
+ * Keys are compared with equals, so both sides need the same value types, e.g. the Strings of
+ * {@link DBConnector#execute(String)}; keys containing null never match, as in SQL. A joined row holds the left
+ * columns followed by the right columns; a right key column with the same name as its left key column is left out,
+ * any other right column whose name is taken gets the right prefix. Rows joined from partition files have the value
+ * types of {@link BinaryRowReader}. The join is immutable and thread-safe; the with methods return changed copies.
+ */
+public class HashJoin {
+
+    /**
+     * The default number of build rows held in memory before the inputs are partitioned to disk.
+     */
+    public static final int DEFAULT_MEMORY_ROWS = 1_000_000;
+
+    /**
+     * The default number of partitions the inputs are split into when they do not fit into memory.
+     */
+    public static final int DEFAULT_PARTITIONS = 64;
+
+    /**
+     * The default prefix of right columns whose name is already used by a left column.
+     */
+    public static final String DEFAULT_RIGHT_PREFIX = "RIGHT_";
+
+    private static final int MAX_DEPTH = 3;
+    private static final LoggerManager loggerManager = new LoggerManager(HashJoin.class);
+
+    private final String[] leftKeys;
+    private final String[] rightKeys;
+    private final Set<String> sharedKeys;
+    private final String rightPrefix;
+    private final int memoryRows;
+    private final int partitions;
+    private final Path tempDirectory;
+
+    /**
+     * Creates a join on key columns with the same names on both sides.
+     *
+     * @param keyColumns the columns identifying matching rows
+     */
+    public HashJoin(String... keyColumns) {
+        this(keyColumns.clone(), keyColumns.clone(), DEFAULT_RIGHT_PREFIX, DEFAULT_MEMORY_ROWS, DEFAULT_PARTITIONS, null);
+    }
+
+    private HashJoin(String[] leftKeys, String[] rightKeys, String rightPrefix, int memoryRows, int partitions, Path tempDirectory) {
+        if (leftKeys.length == 0 || leftKeys.length != rightKeys.length) {
+            throw new IllegalArgumentException("Both sides need the same, non-zero number of key columns: "
+                    + leftKeys.length + ", " + rightKeys.length);
+        }
+        if (memoryRows < 1 || partitions < 2) {
+            throw new IllegalArgumentException("memoryRows must be positive and partitions at least 2: " + memoryRows + ", " + partitions);
+        }
+        this.leftKeys = leftKeys;
+        this.rightKeys = rightKeys;
+        this.sharedKeys = new HashSet<>();
+        for (int i = 0; i < leftKeys.length; i++) {
+            if (leftKeys[i].equals(rightKeys[i])) {
+                sharedKeys.add(rightKeys[i]);
+            }
+        }
+        this.rightPrefix = rightPrefix;
+        this.memoryRows = memoryRows;
+        this.partitions = partitions;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Returns a copy matching the left key columns against differently named right key columns.
+     *
+     * @param rightKeys the key columns of the right side, in the order of the left key columns
+     * @return the changed join
+     */
+    public HashJoin withRightKeys(String... rightKeys) {
+        return new HashJoin(leftKeys, rightKeys.clone(), rightPrefix, memoryRows, partitions, tempDirectory);
+    }
+
+    /**
+     * Returns a copy with another prefix for right columns whose name is already used by a left column.
+     *
+     * @param rightPrefix the prefix
+     * @return the changed join
+     */
+    public HashJoin withRightPrefix(String rightPrefix) {
+        return new HashJoin(leftKeys, rightKeys, rightPrefix, memoryRows, partitions, tempDirectory);
+    }
+
+    /**
+     * Returns a copy with another memory limit.
+     *
+     * @param memoryRows the number of build rows held in memory before partitioning to disk
+     * @return the changed join
+     */
+    public HashJoin withMemoryRows(int memoryRows) {
+        return new HashJoin(leftKeys, rightKeys, rightPrefix, memoryRows, partitions, tempDirectory);
+    }
+
+    /**
+     * Returns a copy with another number of partitions.
+     *
+     * @param partitions the number of partitions per level
+     * @return the changed join
+     */
+    public HashJoin withPartitions(int partitions) {
+        return new HashJoin(leftKeys, rightKeys, rightPrefix, memoryRows, partitions, tempDirectory);
+    }
+
+    /**
+     * Returns a copy that writes its partition files into the given directory.
+     *
+     * @param tempDirectory the directory, null for the default temporary directory
+     * @return the changed join
+     */
+    public HashJoin withTempDirectory(Path tempDirectory) {
+        return new HashJoin(leftKeys, rightKeys, rightPrefix, memoryRows, partitions, tempDirectory);
+    }
+
+    /**
+     * Joins two result sets, building the hash map on the smaller one.
+     *
+     * @param type  the join type
+     * @param left  the left rows
+     * @param right the right rows
+     * @return the joined rows
+     */
+    public List<Map<String, Object>> join(Type type, List<Map<String, Object>> left, List<Map<String, Object>> right) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        join(type, left.iterator(), right.iterator(), left.size() < right.size(), result::add);
+        return result;
+    }
+
+    /**
+     * Joins two row streams, e.g. from {@link DBConnector#stream(String)}, building the hash map on the right one.
+     * The streams are not closed.
+     *
+     * @param type  the join type
+     * @param left  the left rows
+     * @param right the right rows, preferably the smaller side
+     * @return the joined rows
+     */
+    public List<Map<String, Object>> join(Type type, Stream<Map<String, Object>> left, Stream<Map<String, Object>> right) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        join(type, left.iterator(), right.iterator(), false, result::add);
+        return result;
+    }
+
+    /**
+     * Joins two row sequences, building the hash map on the right one, and passes every joined row to the listener
+     * instead of collecting them, so the size of the result does not matter either.
+     *
+     * @param type     the join type
+     * @param left     the left rows
+     * @param right    the right rows, preferably the smaller side
+     * @param listener called with every joined row
+     * @return the number of joined rows
+     * @throws UncheckedIOException if the partition files cannot be written or read
+     */
+    public long join(Type type, Iterator<Map<String, Object>> left, Iterator<Map<String, Object>> right,
+                     Consumer<Map<String, Object>> listener) {
+        return join(type, left, right, false, listener);
+    }
+
+    private long join(Type type, Iterator<Map<String, Object>> left, Iterator<Map<String, Object>> right, boolean buildLeft,
+                      Consumer<Map<String, Object>> listener) {
+        long start = System.nanoTime();
+        Run run = new Run(type, buildLeft, listener);
+        Iterator<Map<String, Object>> observedRight = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return right.hasNext();
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                Map<String, Object> row = right.next();
+                if (run.rightColumns == null) {
+                    run.rightColumns = row.keySet().toArray(new String[0]);
+                }
+                return row;
+            }
+        };
+        if (buildLeft) {
+            run.join(left, observedRight, 0);
+        } else {
+            run.join(observedRight, left, 0);
+        }
+        loggerManager.debug(() -> String.format("%s join of %d rows on %s side, %d rows spilled, in %.1f ms",
+                type, run.rows, buildLeft ? "left" : "right", run.spilledRows, (System.nanoTime() - start) / 1_000_000.0));
+        return run.rows;
+    }
+
+    private static boolean hasNull(CompositeKey key) {
+        for (int i = 0; i < key.size(); i++) {
+            if (key.get(i) == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The kind of join.
+     */
+    public enum Type {
+        /**
+         * Only pairs of matching rows.
+         */
+        INNER,
+        /**
+         * Pairs of matching rows, and every left row without a match with null right columns.
+         */
+        LEFT,
+        /**
+         * The left rows without a match, unchanged.
+         */
+        ANTI
+    }
+
+    /**
+     * The build rows of one key, and whether a probe row matched them.
+     */
+    private static final class Bucket {
+        private final Map<String, Object> first;
+        private List<Map<String, Object>> more;
+        private boolean matched;
+
+        Bucket(Map<String, Object> first) {
+            this.first = first;
+        }
+
+        void add(Map<String, Object> row) {
+            if (more == null) {
+                more = new ArrayList<>(2);
+            }
+            more.add(row);
+        }
+
+        void forEach(Consumer<Map<String, Object>> action) {
+            action.accept(first);
+            if (more != null) {
+                more.forEach(action);
+            }
+        }
+    }
+
+    /**
+     * The state of one join call.
+     */
+    private final class Run {
+        private final Type type;
+        private final boolean buildLeft;
+        private final Consumer<Map<String, Object>> listener;
+        private final String[] buildKeys;
+        private final String[] probeKeys;
+        private String[] rightColumns;
+        private long rows;
+        private long spilledRows;
+
+        Run(Type type, boolean buildLeft, Consumer<Map<String, Object>> listener) {
+            this.type = type;
+            this.buildLeft = buildLeft;
+            this.listener = listener;
+            this.buildKeys = buildLeft ? leftKeys : rightKeys;
+            this.probeKeys = buildLeft ? rightKeys : leftKeys;
+        }
+
+        void join(Iterator<Map<String, Object>> build, Iterator<Map<String, Object>> probe, int depth) {
+            Map<CompositeKey, Bucket> table = new HashMap<>();
+            List<Map<String, Object>> nullKeys = new ArrayList<>();
+            long count = 0;
+            while (build.hasNext()) {
+                Map<String, Object> row = build.next();
+                if (count >= memoryRows && depth < MAX_DEPTH) {
+                    loggerManager.info("Build rows exceed " + memoryRows + ", partitioning the join to disk");
+                    try (PartitionSpiller partitioned = new PartitionSpiller("join-", tempDirectory, partitions, depth)) {
+                        Consumer<Map<String, Object>> addBuild = buildRow -> partitioned.add(PartitionSpiller.BUILD, buildKeys, buildRow);
+                        table.values().forEach(bucket -> bucket.forEach(addBuild));
+                        nullKeys.forEach(addBuild);
+                        table = null;
+                        addBuild.accept(row);
+                        build.forEachRemaining(addBuild);
+                        probe.forEachRemaining(probeRow -> partitioned.add(PartitionSpiller.PROBE, probeKeys, probeRow));
+                        join(partitioned, depth);
+                    }
+                    return;
+                }
+                count++;
+                CompositeKey key = CompositeKey.fromRow(row, buildKeys);
+                if (hasNull(key)) {
+                    nullKeys.add(row);
+                    continue;
+                }
+                Bucket bucket = table.get(key);
+                if (bucket == null) {
+                    table.put(key, new Bucket(row));
+                } else {
+                    bucket.add(row);
+                }
+            }
+            probe(table, nullKeys, probe);
+        }
+
+        /**
+         * Joins the partitions one at a time, each of them is partitioned again if its build side is still too large.
+         */
+        private void join(PartitionSpiller partitioned, int depth) {
+            spilledRows += partitioned.finish();
+            for (int p = 0; p < partitions; p++) {
+                if (partitioned.getRowCount(PartitionSpiller.PROBE, p) > 0
+                        || buildLeft && partitioned.getRowCount(PartitionSpiller.BUILD, p) > 0) {
+                    try (BinaryRowReader build = partitioned.open(PartitionSpiller.BUILD, p);
+                         BinaryRowReader probe = partitioned.open(PartitionSpiller.PROBE, p)) {
+                        join(build == null ? Collections.emptyIterator() : build,
+                                probe == null ? Collections.emptyIterator() : probe, depth + 1);
+                    }
+                }
+                partitioned.delete(p);
+            }
+        }
+
+        private void probe(Map<CompositeKey, Bucket> table, List<Map<String, Object>> nullKeys, Iterator<Map<String, Object>> probe) {
+            while (probe.hasNext()) {
+                Map<String, Object> row = probe.next();
+                CompositeKey key = CompositeKey.fromRow(row, probeKeys);
+                Bucket bucket = hasNull(key) ? null : table.get(key);
+                if (buildLeft) {
+                    if (bucket != null) {
+                        bucket.matched = true;
+                        if (type != Type.ANTI) {
+                            bucket.forEach(leftRow -> emit(merge(leftRow, row)));
+                        }
+                    }
+                } else if (bucket == null) {
+                    emitUnmatched(row);
+                } else if (type != Type.ANTI) {
+                    bucket.forEach(rightRow -> emit(merge(row, rightRow)));
+                }
+            }
+            if (buildLeft && type != Type.INNER) {
+                for (Bucket bucket : table.values()) {
+                    if (!bucket.matched) {
+                        bucket.forEach(this::emitUnmatched);
+                    }
+                }
+                nullKeys.forEach(this::emitUnmatched);
+            }
+        }
+
+        private void emitUnmatched(Map<String, Object> left) {
+            if (type == Type.ANTI) {
+                emit(left);
+            } else if (type == Type.LEFT) {
+                emit(merge(left, null));
+            }
+        }
+
+        private void emit(Map<String, Object> row) {
+            rows++;
+            listener.accept(row);
+        }
+
+        /**
+         * Appends the right columns to a copy of the left row, or nulls for them if there is no right row.
+         */
+        private Map<String, Object> merge(Map<String, Object> left, Map<String, Object> right) {
+            int rightSize = rightColumns == null ? 0 : rightColumns.length;
+            LinkedHashMap<String, Object> row = new LinkedHashMap<>((left.size() + rightSize) * 4 / 3 + 1);
+            row.putAll(left);
+            if (right == null) {
+                for (int i = 0; i < rightSize; i++) {
+                    put(row, left, rightColumns[i], null);
+                }
+            } else {
+                for (Map.Entry<String, Object> entry : right.entrySet()) {
+                    put(row, left, entry.getKey(), entry.getValue());
+                }
+            }
+            return row;
+        }
+
+        private void put(Map<String, Object> row, Map<String, Object> left, String column, Object value) {
+            if (!sharedKeys.contains(column)) {
+                row.put(left.containsKey(column) ? rightPrefix + column : column, value);
+            }
+        }
+    }
+}
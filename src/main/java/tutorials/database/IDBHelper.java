@@ -1,8 +1,10 @@
 package tutorials.database;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * IDBHelper defines the methods for database operations such as executing SQL queries,
@@ -10,12 +12,24 @@ import java.util.Map;
  */
 public interface IDBHelper {
     List<Map<String, Object>> executeSQL(Connection connection, String sql);
+    List<Map<String, Object>> executeSQL(PreparedStatement statement, Object... params);
+    List<Map<String, Object>> executeSQLTraced(Connection connection, String sql, QueryTrace trace);
+    List<Map<String, Object>> executeSQLTraced(PreparedStatement statement, QueryTrace trace, Object... params);
+    List<Map<String, Object>> executeSQLTyped(Connection connection, String sql);
+    <T> List<T> executeSQL(Connection connection, String sql, Class<T> type);
+    ColumnarResultSet executeSQLColumnar(Connection connection, String sql);
+    Stream<Map<String, Object>> streamSQL(Connection connection, String sql, int fetchSize);
+    SpillableResultSet executeSQLSpillable(Connection connection, String sql, int memoryRows, int fetchSize);
+    ExportStats exportSQL(Connection connection, String sql, int fetchSize, ResultSetExporter exporter);
     Map<String, Object> findLineWithDataInResultSet(String key, Object data, List<Map<String, Object>> resultSet);
     Map<String, String> normalizeDBData(Map<String, Object> dbData);
     Map<String, String> normalizeDBData(Map<String, Object> dbData, String replaceNull);
     String formatDate(Object date, String srcFormat, String tarFormat);
+    DateConversionResult convertDateColumn(List<Map<String, Object>> dbData, String column, String srcFormat, String tarFormat);
     Map<String, Map<String, Object>> fetchDBDataIntoMap(String key, List<Map<String, Object>> dbData);
     Map<String, Map<String, Object>> fetchDBDataIntoMapWithCombKeys(List<Map<String, Object>> dbData, String... keys);
     Map<String, List<Map<String, Object>>> fetchDBDataIntoMapListWithKey(String key, List<Map<String, Object>> dbData);
+    Map<CompositeKey, Map<String, Object>> fetchDBDataIntoMapWithCompositeKey(List<Map<String, Object>> dbData, String... keys);
+    Map<CompositeKey, List<Map<String, Object>>> fetchDBDataIntoMapListWithCompositeKey(List<Map<String, Object>> dbData, String... keys);
     Map<String, Object> convertKeyTo(Map<String, Object> dataMap, boolean isToLowercase);
 }
\ No newline at end of file
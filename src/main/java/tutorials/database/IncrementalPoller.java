@@ -0,0 +1,232 @@
+package tutorials.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * IncrementalPoller waits for rows written by another process, e.g. a back-end job, without rerunning the whole query.
+ * <p>
+ * The poller remembers the largest value of a monotonic column, e.g. an id or an updated_at timestamp, as high-water
+ * mark and only fetches rows above it: the query is wrapped into
+ * {@code SELECT * FROM (<sql>) polled WHERE <column> > ? ORDER BY <column>} and prepared once on the held connection,
+ * so every poll is a single execution of the same statement. Values are read with getString, so the rows look like
+ * the rows of {@link DBConnector#execute(String)}; only the mark is kept in its JDBC type to bind it again.
+ * <p>
+ * A poll never ends inside a group of rows with the same column value: once {@link PollSettings#maxRowsPerPoll()}
+ * rows are read, the rows with the value of the last one are still added, otherwise the next poll would skip them.
+ * Rows with a NULL column value are excluded, as they have no place above or below any mark.
+ * <p>
+ * Rows with the same column value that become visible after a poll already moved the mark past them are not seen,
+ * so the column should be unique, or at least be written in commit order.
+ */
+public class IncrementalPoller implements AutoCloseable {
+
+    private static final LoggerManager loggerManager = new LoggerManager(IncrementalPoller.class);
+
+    private final Connection connection;
+    private final String sql;
+    private final String column;
+    private final PollSettings settings;
+    private PreparedStatement firstStatement;
+    private PreparedStatement nextStatement;
+    private Object highWaterMark;
+    private int markIndex;
+
+    /**
+     * Creates a poller starting from the first row of the query.
+     *
+     * @param connection the connection kept open while polling
+     * @param sql        the SQL query returning the rows to wait for
+     * @param column     the monotonic column of the query, e.g. an id or an updated_at timestamp
+     * @param settings   the poll intervals and the timeout
+     */
+    public IncrementalPoller(Connection connection, String sql, String column, PollSettings settings) {
+        this.connection = connection;
+        this.sql = sql.strip().replaceAll(";+$", "");
+        this.column = column;
+        this.settings = settings;
+    }
+
+    /**
+     * Starts polling after the given value, rows with this value or below are skipped.
+     *
+     * @param highWaterMark the last value already seen, null to start from the first row
+     * @return this poller
+     */
+    public IncrementalPoller startFrom(Object highWaterMark) {
+        this.highWaterMark = highWaterMark;
+        return this;
+    }
+
+    /**
+     * Starts polling after the rows present now, so only rows written from now on are delivered.
+     *
+     * @return this poller
+     */
+    public IncrementalPoller startFromLatest() {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT MAX(" + column + ") FROM (" + sql + ") polled");
+             ResultSet resultSet = statement.executeQuery()) {
+            highWaterMark = resultSet.next() ? resultSet.getObject(1) : null;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Exception while reading high-water mark! " + ex.getMessage(), ex);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the largest value of the monotonic column seen so far.
+     *
+     * @return the high-water mark, null if no row was seen yet
+     */
+    public Object getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Fetches the rows above the high-water mark, at most {@link PollSettings#maxRowsPerPoll()} of them plus the
+     * remaining rows with the same column value as the last one, and moves the mark to the last one.
+     *
+     * @return the new rows in the order of the monotonic column, empty if there are none
+     */
+    public List<Map<String, Object>> poll() {
+        try {
+            PreparedStatement statement;
+            if (highWaterMark == null) {
+                if (firstStatement == null) {
+                    firstStatement = prepare("SELECT * FROM (" + sql + ") polled WHERE " + column + " IS NOT NULL ORDER BY " + column);
+                }
+                statement = firstStatement;
+            } else {
+                if (nextStatement == null) {
+                    nextStatement = prepare("SELECT * FROM (" + sql + ") polled WHERE " + column + " > ? ORDER BY " + column);
+                }
+                statement = nextStatement;
+                statement.setObject(1, highWaterMark);
+            }
+            return fetch(statement);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Exception while polling SQL! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Polls until a new row matches the given condition or the timeout of the settings has passed.
+     * After a poll without rows the pause grows by the backoff factor up to the maximum interval; after new rows
+     * it starts at the minimum interval again, and a full poll is followed by the next one without pause.
+     * An interrupt stops the polling like a timeout and keeps the interrupt flag set.
+     *
+     * @param listener called with the new rows of every poll that returned some, before the condition is checked
+     * @param stopWhen the condition a new row has to match
+     * @return the number of polls and rows and the matching row, if any
+     */
+    public PollResult run(Consumer<List<Map<String, Object>>> listener, Predicate<Map<String, Object>> stopWhen) {
+        long start = System.nanoTime();
+        long deadline = start + settings.timeout().toNanos();
+        long minNanos = settings.minInterval().toNanos();
+        long maxNanos = settings.maxInterval().toNanos();
+        long interval = minNanos;
+        long polls = 0;
+        long rows = 0;
+        while (true) {
+            List<Map<String, Object>> newRows = poll();
+            polls++;
+            long pause;
+            if (newRows.isEmpty()) {
+                pause = interval;
+                interval = (long) Math.min(maxNanos, interval * settings.backoffFactor());
+            } else {
+                rows += newRows.size();
+                listener.accept(newRows);
+                for (Map<String, Object> row : newRows) {
+                    if (stopWhen.test(row)) {
+                        return new PollResult(polls, rows, highWaterMark, row, System.nanoTime() - start);
+                    }
+                }
+                pause = newRows.size() >= settings.maxRowsPerPoll() ? 0 : minNanos;
+                interval = minNanos;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.min(pause, remaining));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        PollResult result = new PollResult(polls, rows, highWaterMark, null, System.nanoTime() - start);
+        loggerManager.warn("Polling " + column + " timed out: " + result);
+        return result;
+    }
+
+    private PreparedStatement prepare(String pollSql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(pollSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        // no setMaxRows, the rows with the same value as the last one of a full poll are read as well
+        statement.setFetchSize(settings.maxRowsPerPoll());
+        return statement;
+    }
+
+    private List<Map<String, Object>> fetch(PreparedStatement statement) throws SQLException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            ResultSetMetaData rsmd = resultSet.getMetaData();
+            int columnCount = rsmd.getColumnCount();
+            String[] names = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                names[i] = rsmd.getColumnName(i + 1);
+            }
+            if (markIndex == 0) {
+                markIndex = resultSet.findColumn(column);
+            }
+            int maxRows = settings.maxRowsPerPoll();
+            Object lastMark = null;
+            while (resultSet.next()) {
+                Object mark = resultSet.getObject(markIndex);
+                if (rows.size() >= maxRows && !mark.equals(lastMark)) {
+                    break;
+                }
+                LinkedHashMap<String, Object> row = new LinkedHashMap<>(columnCount * 4 / 3 + 1);
+                for (int i = 0; i < columnCount; i++) {
+                    row.put(names[i], resultSet.getString(i + 1));
+                }
+                lastMark = mark;
+                rows.add(row);
+            }
+            if (lastMark != null) {
+                highWaterMark = lastMark;
+            }
+        }
+        loggerManager.debug(() -> "Polled " + rows.size() + " rows above " + column + " = " + highWaterMark);
+        return rows;
+    }
+
+    /**
+     * Closes the prepared statements. The connection stays open.
+     */
+    @Override
+    public void close() {
+        for (PreparedStatement statement : new PreparedStatement[]{firstStatement, nextStatement}) {
+            if (statement != null) {
+                try {
+                    statement.close();
+                } catch (SQLException ex) {
+                    loggerManager.warn("Exception while closing statement! " + ex.getMessage());
+                }
+            }
+        }
+        firstStatement = null;
+        nextStatement = null;
+    }
+}
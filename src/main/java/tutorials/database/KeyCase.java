@@ -0,0 +1,40 @@
+package tutorials.database;
+
+import java.util.Locale;
+
+/**
+ * KeyCase is the normalization applied to the column names of a result, see {@link DBConnector#setKeyCase(KeyCase)}.
+ * It is applied once to the column names of a result, not to every row.
+ */
+public enum KeyCase {
+    /**
+     * The column names as returned by the driver.
+     */
+    PRESERVE,
+    /**
+     * Lowercase column names.
+     */
+    LOWER,
+    /**
+     * Uppercase column names.
+     */
+    UPPER,
+    /**
+     * The column names as returned by the driver, but looked up ignoring case.
+     */
+    IGNORE;
+
+    /**
+     * Converts the given column name.
+     *
+     * @param name the column name
+     * @return the converted column name
+     */
+    public String apply(String name) {
+        return switch (this) {
+            case LOWER -> name.toLowerCase(Locale.ROOT);
+            case UPPER -> name.toUpperCase(Locale.ROOT);
+            default -> name;
+        };
+    }
+}
@@ -0,0 +1,189 @@
+package tutorials.database;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * KeyCaseRows is a read-only view on a result set whose column names are converted by a {@link KeyCase}.
+ * <p>
+ * Instead of copying every row into a new map like {@link DefaultDBHelper#convertKeyTo}, the column names of the
+ * first row are converted once into a {@link ColumnSchema} shared by all rows, together with the original names.
+ * Every row is a small map view translating a key through the schema to the original key. The view of a row is
+ * created and its column names checked against the shared schema on its first access only, later accesses return
+ * the same view, so reading a value costs one lookup. A {@link ColumnarResultSet} only gets a converted schema.
+ * All rows of the view are expected to have the same columns, like the rows of one query.
+ */
+final class KeyCaseRows extends AbstractList<Map<String, Object>> implements RandomAccess {
+
+    private final List<Map<String, Object>> rows;
+    private final KeyCase keyCase;
+    // the rows are immutable views, so a race only creates an equal view twice
+    private final Row[] views;
+    private volatile Names names;
+
+    private KeyCaseRows(List<Map<String, Object>> rows, KeyCase keyCase) {
+        this.rows = rows;
+        this.keyCase = keyCase;
+        this.views = new Row[rows.size()];
+    }
+
+    /**
+     * Returns a view on the given rows with the column names converted by the given key case.
+     *
+     * @param rows    the result set
+     * @param keyCase the key case
+     * @return the view, or the given rows if the key case is {@link KeyCase#PRESERVE}
+     */
+    static List<Map<String, Object>> view(List<Map<String, Object>> rows, KeyCase keyCase) {
+        if (keyCase == KeyCase.PRESERVE) {
+            return rows;
+        }
+        if (rows instanceof ColumnarResultSet columnar) {
+            return columnar.withKeyCase(keyCase);
+        }
+        return new KeyCaseRows(rows instanceof RandomAccess ? rows : new ArrayList<>(rows), keyCase);
+    }
+
+    /**
+     * Returns a view on a single row with the column names converted by the given key case.
+     *
+     * @param row     the row
+     * @param keyCase the key case
+     * @return the view, or the given row if the key case is {@link KeyCase#PRESERVE}
+     */
+    static Map<String, Object> view(Map<String, Object> row, KeyCase keyCase) {
+        if (keyCase == KeyCase.PRESERVE) {
+            return row;
+        }
+        return new Row(row, Names.of(row, keyCase));
+    }
+
+    @Override
+    public Map<String, Object> get(int index) {
+        Row view = views[index];
+        if (view == null) {
+            Map<String, Object> row = rows.get(index);
+            Names shared = names;
+            if (shared == null) {
+                shared = Names.of(row, keyCase);
+                names = shared;
+            }
+            // a row of another shape, e.g. from a hand-made list, gets its own names
+            view = new Row(row, shared.matches(row) ? shared : Names.of(row, keyCase));
+            views[index] = view;
+        }
+        return view;
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * The converted column names and the original names at the same positions.
+     */
+    private record Names(ColumnSchema schema, String[] originals) {
+
+        static Names of(Map<String, Object> row, KeyCase keyCase) {
+            String[] originals = row.keySet().toArray(new String[0]);
+            return new Names(new ColumnSchema(originals).withKeyCase(keyCase), originals);
+        }
+
+        /**
+         * Checks that the row has the original names in the same order; the rows of one query share the name
+         * instances, so the comparison is mostly a reference check.
+         */
+        boolean matches(Map<String, Object> row) {
+            if (row.size() != originals.length) {
+                return false;
+            }
+            int column = 0;
+            for (String name : row.keySet()) {
+                String original = originals[column++];
+                if (name != original && !name.equals(original)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * One row, read through the original column names.
+     */
+    private static final class Row extends AbstractMap<String, Object> {
+        private final Map<String, Object> row;
+        private final Names names;
+
+        Row(Map<String, Object> row, Names names) {
+            this.row = row;
+            this.names = names;
+        }
+
+        @Override
+        public Object get(Object key) {
+            int column = names.schema().indexOf(key);
+            return column < 0 ? null : row.get(names.originals()[column]);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return names.schema().indexOf(key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return names.schema().distinctSize();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            ColumnSchema schema = names.schema();
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int column = skipShadowed(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return column < schema.size();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int current = column;
+                            column = skipShadowed(column + 1);
+                            return new SimpleImmutableEntry<>(schema.name(current), row.get(names.originals()[current]));
+                        }
+
+                        // names that collide after the conversion, e.g. "id" and "ID" in lower case, are kept once
+                        private int skipShadowed(int from) {
+                            while (from < schema.size() && schema.isShadowed(from)) {
+                                from++;
+                            }
+                            return from;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return schema.distinctSize();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package tutorials.database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram counts durations in logarithmic buckets, so it needs a fixed amount of memory however many values
+ * are recorded. Every power of two is split into eight linear sub-buckets, which bounds the error of the reported
+ * percentiles to 12.5 percent. Minimum, maximum and sum are exact.
+ * <p>
+ * Recording is lock-free and can be done from many threads at once.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos the duration in nanoseconds, negative values are counted as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        total.add(value);
+        if (value < min.get()) {
+            min.accumulateAndGet(value, Math::min);
+        }
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the count
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the recorded values and percentiles. Values recorded while the snapshot is taken may be partly included.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            n += copy[i];
+        }
+        if (n == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0, 0);
+        }
+        long maxValue = max.get();
+        return new Snapshot(n, total.sum(), min.get(), maxValue,
+                percentile(copy, n, 0.50, maxValue), percentile(copy, n, 0.95, maxValue), percentile(copy, n, 0.99, maxValue));
+    }
+
+    /**
+     * Discards all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+    }
+
+    private static long percentile(long[] counts, long n, double quantile, long maxValue) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * The values of a histogram at one point in time. All durations are in nanoseconds.
+     *
+     * @param count      the number of recorded durations
+     * @param totalNanos the sum of all durations
+     * @param minNanos   the shortest duration
+     * @param maxNanos   the longest duration
+     * @param p50Nanos   the median
+     * @param p95Nanos   the 95th percentile
+     * @param p99Nanos   the 99th percentile
+     */
+    public record Snapshot(long count, long totalNanos, long minNanos, long maxNanos, long p50Nanos, long p95Nanos, long p99Nanos) {
+
+        /**
+         * Returns the mean duration.
+         *
+         * @return the mean in nanoseconds, 0 if nothing was recorded
+         */
+        public long meanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.3f ms p50=%.3f ms p95=%.3f ms p99=%.3f ms max=%.3f ms",
+                    count, meanNanos() / 1_000_000.0, p50Nanos / 1_000_000.0, p95Nanos / 1_000_000.0,
+                    p99Nanos / 1_000_000.0, maxNanos / 1_000_000.0);
+        }
+    }
+}
@@ -1,9 +1,54 @@
 package tutorials.database;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
 import java.util.logging.*;
 
+/**
+ * LoggerManager wraps a {@link Logger} for one class of the tutorials.database package.
+ * <p>
+ * All instances share one configuration, set up on the package logger on first use and again after a
+ * {@link LogManager#reset()}: a console handler and an {@link AsyncLogHandler} that appends to app.log from a
+ * background thread. The configuration is read from system
+ * properties: {@value #LEVEL_PROPERTY} (default INFO), {@value #FILE_PROPERTY} (default app.log),
+ * {@value #CAPACITY_PROPERTY} (default {@value AsyncLogHandler#DEFAULT_CAPACITY}) and {@value #OVERFLOW_PROPERTY}
+ * (BLOCK or DROP, default BLOCK). Use the {@link Supplier} overloads for messages that are expensive to build,
+ * they are only evaluated if the level is enabled.
+ */
 public class LoggerManager {
+
+    /**
+     * The system property with the log level, e.g. FINE for debug or FINER for trace output.
+     */
+    public static final String LEVEL_PROPERTY = "tutorials.database.log.level";
+
+    /**
+     * The system property with the log file.
+     */
+    public static final String FILE_PROPERTY = "tutorials.database.log.file";
+
+    /**
+     * The system property with the number of buffered log records.
+     */
+    public static final String CAPACITY_PROPERTY = "tutorials.database.log.capacity";
+
+    /**
+     * The system property with the overflow policy of the log buffer.
+     */
+    public static final String OVERFLOW_PROPERTY = "tutorials.database.log.overflow";
+
+    // LogManager only keeps weak references to loggers, so the configured package logger is held here
+    private static final Logger packageLogger = Logger.getLogger(LoggerManager.class.getPackageName());
+
+    // the file handler of the current configuration, closed by LogManager.reset() or at shutdown
+    private static volatile AsyncLogHandler fileHandler;
+    private static boolean shutdown;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(LoggerManager::closeFileHandler, "async-log-shutdown"));
+    }
+
     private final Logger logger;
 
     /**
@@ -18,29 +63,84 @@ public class LoggerManager {
     }
 
     /**
-     * Initializes the logger with handlers and formatting.
+     * Configures the shared package logger with handlers and formatting, unless this has already been done.
+     * The configuration is repeated if the handlers were closed and removed, e.g. by {@link LogManager#reset()},
+     * so every logger of the package writes to the new handlers again.
      */
-    private void initializeLogger() {
-        try {
-            // Reset any previous configuration
-            LogManager.getLogManager().reset();
-            logger.setLevel(Level.ALL);
-
-            // Console Handler
-            ConsoleHandler consoleHandler = new ConsoleHandler();
-            consoleHandler.setLevel(Level.ALL);
-            consoleHandler.setFormatter(new SimpleFormatter());
-            logger.addHandler(consoleHandler);
-
-            // File Handler
-            FileHandler fileHandler = new FileHandler("app.log", true);
-            fileHandler.setLevel(Level.ALL);
-            fileHandler.setFormatter(new SimpleFormatter());
-            logger.addHandler(fileHandler);
+    private static synchronized void initializeLogger() {
+        if (shutdown || !isReset()) {
+            return;
+        }
+        for (Handler handler : packageLogger.getHandlers()) {
+            packageLogger.removeHandler(handler);
+            handler.close();
+        }
+        Level level = Level.parse(System.getProperty(LEVEL_PROPERTY, "INFO"));
+        packageLogger.setLevel(level);
+        packageLogger.setUseParentHandlers(false);
+
+        // Console Handler
+        ConsoleHandler consoleHandler = new ConsoleHandler();
+        consoleHandler.setLevel(Level.ALL);
+        consoleHandler.setFormatter(new SimpleFormatter());
+        packageLogger.addHandler(consoleHandler);
 
+        // File Handler
+        try {
+            AsyncLogHandler handler = new AsyncLogHandler(Path.of(System.getProperty(FILE_PROPERTY, "app.log")),
+                    Integer.getInteger(CAPACITY_PROPERTY, AsyncLogHandler.DEFAULT_CAPACITY),
+                    AsyncLogHandler.OverflowPolicy.valueOf(System.getProperty(OVERFLOW_PROPERTY, "BLOCK")));
+            handler.setLevel(Level.ALL);
+            packageLogger.addHandler(handler);
+            fileHandler = handler;
         } catch (IOException e) {
-            logger.log(Level.SEVERE, "Error setting up logger: {0}", e.toString());
+            fileHandler = null;
+            packageLogger.log(Level.SEVERE, "Error setting up logger: {0}", e.toString());
+        }
+    }
+
+    /**
+     * Returns whether the configuration is missing or its file handler was closed. Without a file handler, e.g.
+     * because the file could not be opened, only removed handlers count as a reset.
+     */
+    private static boolean isReset() {
+        AsyncLogHandler handler = fileHandler;
+        return handler == null ? packageLogger.getHandlers().length == 0 : handler.isClosed();
+    }
+
+    private static synchronized void closeFileHandler() {
+        shutdown = true;
+        if (fileHandler != null) {
+            fileHandler.close();
+        }
+    }
+
+    /**
+     * Returns the logger, configuring the package logger again first if it was reset since the last call.
+     */
+    private Logger logger() {
+        if (isReset()) {
+            initializeLogger();
         }
+        return logger;
+    }
+
+    /**
+     * Returns whether debug messages are logged.
+     *
+     * @return true if debug is enabled
+     */
+    public boolean isDebugEnabled() {
+        return logger().isLoggable(Level.FINE);
+    }
+
+    /**
+     * Returns whether trace messages are logged.
+     *
+     * @return true if trace is enabled
+     */
+    public boolean isTraceEnabled() {
+        return logger().isLoggable(Level.FINER);
     }
 
     /**
@@ -49,7 +149,16 @@ public class LoggerManager {
      * @param msg the message to log
      */
     public void debug(String msg) {
-        logger.log(Level.FINE, msg);
+        logger().log(Level.FINE, msg);
+    }
+
+    /**
+     * Log a debug message that is only built if debug is enabled.
+     *
+     * @param msg the supplier of the message to log
+     */
+    public void debug(Supplier<String> msg) {
+        logger().log(Level.FINE, msg);
     }
 
     /**
@@ -58,7 +167,16 @@ public class LoggerManager {
      * @param msg the message to log
      */
     public void trace(String msg) {
-        logger.log(Level.FINER, msg);
+        logger().log(Level.FINER, msg);
+    }
+
+    /**
+     * Log a trace message that is only built if trace is enabled.
+     *
+     * @param msg the supplier of the message to log
+     */
+    public void trace(Supplier<String> msg) {
+        logger().log(Level.FINER, msg);
     }
 
     /**
@@ -67,7 +185,16 @@ public class LoggerManager {
      * @param msg the message to log
      */
     public void info(String msg) {
-        logger.log(Level.INFO, msg);
+        logger().log(Level.INFO, msg);
+    }
+
+    /**
+     * Log an info message that is only built if info is enabled.
+     *
+     * @param msg the supplier of the message to log
+     */
+    public void info(Supplier<String> msg) {
+        logger().log(Level.INFO, msg);
     }
 
     /**
@@ -76,7 +203,7 @@ public class LoggerManager {
      * @param msg the message to log
      */
     public void warn(String msg) {
-        logger.log(Level.WARNING, msg);
+        logger().log(Level.WARNING, msg);
     }
 
     /**
@@ -85,7 +212,7 @@ public class LoggerManager {
      * @param msg the message to log
      */
     public void error(String msg) {
-        logger.log(Level.SEVERE, msg);
+        logger().log(Level.SEVERE, msg);
     }
 
     /**
@@ -95,7 +222,16 @@ public class LoggerManager {
      * @param throwable the exception to log
      */
     public void error(String msg, Throwable throwable) {
-        logger.log(Level.SEVERE, msg, throwable);
+        logger().log(Level.SEVERE, msg, throwable);
+    }
+
+    /**
+     * Waits until all log records published so far have been written.
+     */
+    public void flush() {
+        for (Handler handler : packageLogger.getHandlers()) {
+            handler.flush();
+        }
     }
 
     /**
@@ -104,6 +240,6 @@ public class LoggerManager {
      * @return the {@link Logger} instance
      */
     public synchronized Logger getLogger() {
-        return logger;
+        return logger();
     }
 }
@@ -0,0 +1,175 @@
+package tutorials.database;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * PartitionSpiller is one level of partition files for {@link HashJoin} and {@link ResultSetDiff}: the rows of the
+ * build and the probe side are hash partitioned by key into temporary files written with {@link BinaryRowWriter},
+ * one file per partition and side, created when the first row arrives.
+ * <p>
+ * Rows are added until {@link #finish()}, after which the partitions are read back one at a time and deleted with
+ * {@link #delete(int)}. {@link #close()} deletes the files that are left, e.g. after a failure.
+ */
+final class PartitionSpiller implements AutoCloseable {
+    static final int BUILD = 0;
+    static final int PROBE = 1;
+
+    private static final LoggerManager loggerManager = new LoggerManager(PartitionSpiller.class);
+
+    private final String prefix;
+    private final Path tempDirectory;
+    private final int partitions;
+    private final int depth;
+    private final Path[] files;
+    private final BinaryRowWriter[] writers;
+    private final long[] rowCounts;
+
+    /**
+     * @param prefix        prefix of the partition file names
+     * @param tempDirectory the directory for the partition files, {@code null} for the default temporary directory
+     * @param partitions    the number of partitions per side
+     * @param depth         the partitioning level, 0 for the first one
+     */
+    PartitionSpiller(String prefix, Path tempDirectory, int partitions, int depth) {
+        this.prefix = prefix;
+        this.tempDirectory = tempDirectory;
+        this.partitions = partitions;
+        this.depth = depth;
+        this.files = new Path[2 * partitions];
+        this.writers = new BinaryRowWriter[2 * partitions];
+        this.rowCounts = new long[2 * partitions];
+    }
+
+    /**
+     * Spreads the key hash differently per partitioning level, so a partition split again does not end up in
+     * a single sub-partition.
+     */
+    static int partitionOf(CompositeKey key, int depth, int partitions) {
+        int hash = key.hashCode() + depth * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, partitions);
+    }
+
+    /**
+     * Writes the row to the file of its key's partition on the given side.
+     *
+     * @param side       {@link #BUILD} or {@link #PROBE}
+     * @param keyColumns the key columns of that side
+     * @param row        the row
+     * @throws UncheckedIOException if the partition file cannot be created or written
+     */
+    void add(int side, String[] keyColumns, Map<String, Object> row) {
+        int index = index(side, partitionOf(CompositeKey.fromRow(row, keyColumns), depth, partitions));
+        if (writers[index] == null) {
+            create(index, new ColumnSchema(row.keySet().toArray(new String[0])));
+        }
+        writers[index].write(row);
+    }
+
+    private void create(int index, ColumnSchema schema) {
+        try {
+            files[index] = tempDirectory == null ? Files.createTempFile(prefix, ".rows") : Files.createTempFile(tempDirectory, prefix, ".rows");
+            writers[index] = new BinaryRowWriter(FileChannel.open(files[index], StandardOpenOption.WRITE), schema);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Exception while creating partition file! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Closes the writers, after which the partitions can be read.
+     *
+     * @return the number of rows written to all partition files
+     */
+    long finish() {
+        long spilledRows = 0;
+        for (int i = 0; i < writers.length; i++) {
+            if (writers[i] != null) {
+                rowCounts[i] = writers[i].getRowCount();
+                spilledRows += rowCounts[i];
+                writers[i].close();
+                writers[i] = null;
+            }
+        }
+        return spilledRows;
+    }
+
+    /**
+     * Returns the number of rows in a partition of one side, 0 before {@link #finish()}.
+     */
+    long getRowCount(int side, int partition) {
+        return rowCounts[index(side, partition)];
+    }
+
+    /**
+     * Opens a reader on a partition of one side, or returns {@code null} if no row was written to it.
+     */
+    BinaryRowReader open(int side, int partition) {
+        Path file = files[index(side, partition)];
+        return file == null ? null : BinaryRowReader.open(file);
+    }
+
+    /**
+     * Performs the action for every row of a partition of one side.
+     */
+    void forEachRow(int side, int partition, Consumer<Map<String, Object>> action) {
+        try (BinaryRowReader reader = open(side, partition)) {
+            if (reader != null) {
+                reader.forEachRemaining(action);
+            }
+        }
+    }
+
+    /**
+     * Deletes the files of a partition on both sides once it has been read.
+     */
+    void delete(int partition) {
+        deleteFile(index(BUILD, partition));
+        deleteFile(index(PROBE, partition));
+    }
+
+    private int index(int side, int partition) {
+        return side * partitions + partition;
+    }
+
+    private void deleteFile(int index) {
+        if (files[index] == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(files[index]);
+        } catch (IOException ex) {
+            loggerManager.warn("Exception while deleting partition file " + files[index] + "! " + ex.getMessage());
+            files[index].toFile().deleteOnExit();
+        }
+        files[index] = null;
+    }
+
+    /**
+     * Closes the writers and deletes the files that are left, e.g. after a failure.
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < writers.length; i++) {
+            if (writers[i] != null) {
+                try {
+                    writers[i].close();
+                } catch (UncheckedIOException ex) {
+                    loggerManager.warn("Exception while closing partition file! " + ex.getMessage());
+                }
+                writers[i] = null;
+            }
+            deleteFile(i);
+        }
+    }
+}
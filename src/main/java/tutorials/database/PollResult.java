@@ -0,0 +1,30 @@
+package tutorials.database;
+
+import java.util.Map;
+
+/**
+ * PollResult summarizes a run of the {@link IncrementalPoller}.
+ *
+ * @param polls         the number of queries run
+ * @param rows          the number of new rows delivered to the listener
+ * @param highWaterMark the largest value of the monotonic column seen, null if no row was seen yet
+ * @param matchedRow    the first row matching the stop condition, null if the poller timed out
+ * @param elapsedNanos  the total time spent, in nanoseconds
+ */
+public record PollResult(long polls, long rows, Object highWaterMark, Map<String, Object> matchedRow, long elapsedNanos) {
+
+    /**
+     * Returns whether a row matched the stop condition before the timeout.
+     *
+     * @return true if a row matched, false if the poller timed out
+     */
+    public boolean isMatched() {
+        return matchedRow != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s after %d polls, %d rows up to %s in %.1f ms",
+                isMatched() ? "matched" : "timed out", polls, rows, highWaterMark, elapsedNanos / 1_000_000.0);
+    }
+}
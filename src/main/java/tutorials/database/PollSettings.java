@@ -0,0 +1,92 @@
+package tutorials.database;
+
+import java.time.Duration;
+
+/**
+ * PollSettings holds the timing parameters of the {@link IncrementalPoller}.
+ *
+ * @param minInterval    the pause after a poll that returned rows, and the first pause after an empty poll
+ * @param maxInterval    the longest pause between two polls
+ * @param backoffFactor  the factor the pause grows by after every empty poll
+ * @param timeout        how long {@link IncrementalPoller#run} polls before it gives up
+ * @param maxRowsPerPoll the maximum number of rows fetched by one poll, the rest follows with the next poll;
+ *                       rows with the same mark as the last one are always fetched with it
+ */
+public record PollSettings(Duration minInterval,
+                           Duration maxInterval,
+                           double backoffFactor,
+                           Duration timeout,
+                           int maxRowsPerPoll) {
+
+    public PollSettings {
+        if (backoffFactor < 1) {
+            throw new IllegalArgumentException("backoffFactor must be at least 1: " + backoffFactor);
+        }
+        if (maxRowsPerPoll < 1) {
+            throw new IllegalArgumentException("maxRowsPerPoll must be at least 1: " + maxRowsPerPoll);
+        }
+        if (minInterval.compareTo(maxInterval) > 0) {
+            throw new IllegalArgumentException("minInterval must not exceed maxInterval: " + minInterval + " > " + maxInterval);
+        }
+    }
+
+    /**
+     * Returns the default settings: pauses from 100 ms doubling up to 5 s, a timeout of 60 s
+     * and at most 10000 rows per poll.
+     *
+     * @return the default poll settings
+     */
+    public static PollSettings defaults() {
+        return new PollSettings(Duration.ofMillis(100), Duration.ofSeconds(5), 2.0, Duration.ofSeconds(60), 10_000);
+    }
+
+    /**
+     * Returns a copy of these settings with the given minimum interval.
+     *
+     * @param minInterval the pause after a poll that returned rows
+     * @return the new settings
+     */
+    public PollSettings withMinInterval(Duration minInterval) {
+        return new PollSettings(minInterval, maxInterval, backoffFactor, timeout, maxRowsPerPoll);
+    }
+
+    /**
+     * Returns a copy of these settings with the given maximum interval.
+     *
+     * @param maxInterval the longest pause between two polls
+     * @return the new settings
+     */
+    public PollSettings withMaxInterval(Duration maxInterval) {
+        return new PollSettings(minInterval, maxInterval, backoffFactor, timeout, maxRowsPerPoll);
+    }
+
+    /**
+     * Returns a copy of these settings with the given backoff factor.
+     *
+     * @param backoffFactor the factor the pause grows by after every empty poll, 1 for a fixed interval
+     * @return the new settings
+     */
+    public PollSettings withBackoffFactor(double backoffFactor) {
+        return new PollSettings(minInterval, maxInterval, backoffFactor, timeout, maxRowsPerPoll);
+    }
+
+    /**
+     * Returns a copy of these settings with the given timeout.
+     *
+     * @param timeout how long to poll before giving up
+     * @return the new settings
+     */
+    public PollSettings withTimeout(Duration timeout) {
+        return new PollSettings(minInterval, maxInterval, backoffFactor, timeout, maxRowsPerPoll);
+    }
+
+    /**
+     * Returns a copy of these settings with the given maximum number of rows per poll.
+     *
+     * @param maxRowsPerPoll the maximum number of rows fetched by one poll
+     * @return the new settings
+     */
+    public PollSettings withMaxRowsPerPoll(int maxRowsPerPoll) {
+        return new PollSettings(minInterval, maxInterval, backoffFactor, timeout, maxRowsPerPoll);
+    }
+}
@@ -0,0 +1,134 @@
+package tutorials.database;
+
+import java.time.Duration;
+
+/**
+ * PoolSettings holds the tuning parameters of the {@link PooledDBConnectionManager}.
+ *
+ * @param maxPoolSize             the maximum number of connections per database target
+ * @param borrowTimeout           how long a caller waits for a free connection before giving up, not negative
+ * @param idleTimeout             how long an unused connection may stay in the pool before it is evicted, positive
+ * @param maxLifetime             the maximum age of a physical connection, regardless of usage, positive
+ * @param validationTimeout       the timeout for {@link java.sql.Connection#isValid(int)} when a connection is borrowed,
+ *                                not negative
+ * @param leakDetectionThreshold  how long a connection may be borrowed before it is reported as a possible leak,
+ *                                {@link Duration#ZERO} disables leak detection, not negative
+ * @param housekeepingInterval    the interval of the background task that evicts idle connections and detects leaks,
+ *                                at least 1 ms
+ */
+public record PoolSettings(int maxPoolSize,
+                           Duration borrowTimeout,
+                           Duration idleTimeout,
+                           Duration maxLifetime,
+                           Duration validationTimeout,
+                           Duration leakDetectionThreshold,
+                           Duration housekeepingInterval) {
+
+    public PoolSettings {
+        if (maxPoolSize < 1) {
+            throw new IllegalArgumentException("maxPoolSize must be at least 1: " + maxPoolSize);
+        }
+        requireNotNegative("borrowTimeout", borrowTimeout);
+        requirePositive("idleTimeout", idleTimeout);
+        requirePositive("maxLifetime", maxLifetime);
+        requireNotNegative("validationTimeout", validationTimeout);
+        requireNotNegative("leakDetectionThreshold", leakDetectionThreshold);
+        // the interval is scheduled in milliseconds, shorter ones would reach the scheduler as 0
+        if (housekeepingInterval == null || housekeepingInterval.toMillis() < 1) {
+            throw new IllegalArgumentException("housekeepingInterval must be at least 1 ms: " + housekeepingInterval);
+        }
+    }
+
+    private static void requireNotNegative(String name, Duration duration) {
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException(name + " must not be negative: " + duration);
+        }
+    }
+
+    private static void requirePositive(String name, Duration duration) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException(name + " must be positive: " + duration);
+        }
+    }
+
+    /**
+     * Returns the default settings: 10 connections per target, 30 s borrow timeout, 10 min idle timeout,
+     * 30 min max lifetime, 5 s validation timeout, 60 s leak detection and housekeeping every 30 s.
+     *
+     * @return the default pool settings
+     */
+    public static PoolSettings defaults() {
+        return new PoolSettings(10,
+                Duration.ofSeconds(30),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(30),
+                Duration.ofSeconds(5),
+                Duration.ofSeconds(60),
+                Duration.ofSeconds(30));
+    }
+
+    /**
+     * Returns a copy of these settings with the given maximum pool size.
+     *
+     * @param maxPoolSize the maximum number of connections per database target
+     * @return the new settings
+     */
+    public PoolSettings withMaxPoolSize(int maxPoolSize) {
+        return new PoolSettings(maxPoolSize, borrowTimeout, idleTimeout, maxLifetime, validationTimeout, leakDetectionThreshold, housekeepingInterval);
+    }
+
+    /**
+     * Returns a copy of these settings with the given borrow timeout.
+     *
+     * @param borrowTimeout how long a caller waits for a free connection
+     * @return the new settings
+     * @throws IllegalArgumentException if the timeout is null or negative
+     */
+    public PoolSettings withBorrowTimeout(Duration borrowTimeout) {
+        return new PoolSettings(maxPoolSize, borrowTimeout, idleTimeout, maxLifetime, validationTimeout, leakDetectionThreshold, housekeepingInterval);
+    }
+
+    /**
+     * Returns a copy of these settings with the given idle timeout.
+     *
+     * @param idleTimeout how long an unused connection may stay in the pool
+     * @return the new settings
+     * @throws IllegalArgumentException if the timeout is null, zero or negative
+     */
+    public PoolSettings withIdleTimeout(Duration idleTimeout) {
+        return new PoolSettings(maxPoolSize, borrowTimeout, idleTimeout, maxLifetime, validationTimeout, leakDetectionThreshold, housekeepingInterval);
+    }
+
+    /**
+     * Returns a copy of these settings with the given maximum connection lifetime.
+     *
+     * @param maxLifetime the maximum age of a physical connection
+     * @return the new settings
+     * @throws IllegalArgumentException if the lifetime is null, zero or negative
+     */
+    public PoolSettings withMaxLifetime(Duration maxLifetime) {
+        return new PoolSettings(maxPoolSize, borrowTimeout, idleTimeout, maxLifetime, validationTimeout, leakDetectionThreshold, housekeepingInterval);
+    }
+
+    /**
+     * Returns a copy of these settings with the given leak detection threshold.
+     *
+     * @param leakDetectionThreshold how long a connection may be borrowed before it is reported, zero disables it
+     * @return the new settings
+     * @throws IllegalArgumentException if the threshold is null or negative
+     */
+    public PoolSettings withLeakDetectionThreshold(Duration leakDetectionThreshold) {
+        return new PoolSettings(maxPoolSize, borrowTimeout, idleTimeout, maxLifetime, validationTimeout, leakDetectionThreshold, housekeepingInterval);
+    }
+
+    /**
+     * Returns a copy of these settings with the given housekeeping interval.
+     *
+     * @param housekeepingInterval the interval of the eviction and leak detection task, at least 1 ms
+     * @return the new settings
+     * @throws IllegalArgumentException if the interval is null or shorter than 1 ms
+     */
+    public PoolSettings withHousekeepingInterval(Duration housekeepingInterval) {
+        return new PoolSettings(maxPoolSize, borrowTimeout, idleTimeout, maxLifetime, validationTimeout, leakDetectionThreshold, housekeepingInterval);
+    }
+}
@@ -0,0 +1,376 @@
+package tutorials.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PooledDBConnectionManager is an IDBConnectionManager that keeps physical connections open and hands them out again,
+ * instead of opening a new connection for every query.
+ * <p>
+ * There is one bounded pool per (dbType, host, port, dbName, user). Physical connections are created by a delegate
+ * manager (by default {@link DefaultDBConnectionManager}). The connections handed out are proxies: closing them, either
+ * directly or through {@link #closeConnection(Connection)}, returns the physical connection to the pool.
+ * Connections are validated on borrow, evicted after an idle timeout or a maximum lifetime, and connections that are
+ * borrowed for longer than the leak detection threshold are reported together with the stack trace of the borrower.
+ */
+public class PooledDBConnectionManager implements IDBConnectionManager, AutoCloseable {
+
+    private static final LoggerManager loggerManager = new LoggerManager(PooledDBConnectionManager.class);
+
+    private final IDBConnectionManager physicalConnectionManager;
+    private final PoolSettings settings;
+    private final Map<PoolKey, ConnectionPool> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    /**
+     * Creates a pooled connection manager with the default settings, creating physical connections with the
+     * {@link DefaultDBConnectionManager}.
+     */
+    public PooledDBConnectionManager() {
+        this(new DefaultDBConnectionManager(), PoolSettings.defaults());
+    }
+
+    /**
+     * Creates a pooled connection manager with the given settings.
+     *
+     * @param settings the pool settings
+     */
+    public PooledDBConnectionManager(PoolSettings settings) {
+        this(new DefaultDBConnectionManager(), settings);
+    }
+
+    /**
+     * Creates a pooled connection manager.
+     *
+     * @param physicalConnectionManager the manager used to open and close the physical connections
+     * @param settings                  the pool settings
+     */
+    public PooledDBConnectionManager(IDBConnectionManager physicalConnectionManager, PoolSettings settings) {
+        this.physicalConnectionManager = physicalConnectionManager;
+        this.settings = settings;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = settings.housekeepingInterval().toMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeeping, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection for the given database target from the pool. A new physical connection is opened
+     * if no idle connection is available and the pool is not exhausted.
+     *
+     * @param dbType   the type of the database (e.g., "mysql", "oracle-SID", "oracle-SN", "mssql")
+     * @param host     the host of the database server
+     * @param user     the username for the database connection
+     * @param port     the port number of the database server
+     * @param dbName   the name of the database or service name or service ID
+     * @param password the password for the database connection
+     * @return a pooled Connection, or null if the pool is exhausted or the connection could not be opened
+     */
+    @Override
+    public Connection createConnection(String dbType, String host, String user, String port, String dbName, String password) {
+        if (closed) {
+            loggerManager.error("Connection pool is already closed!");
+            return null;
+        }
+        PoolKey key = new PoolKey(dbType, host, port, dbName, user);
+        return pools.computeIfAbsent(key, ConnectionPool::new).borrow(password);
+    }
+
+    /**
+     * Returns the given connection to its pool. Connections that were not handed out by this manager
+     * are closed by the physical connection manager.
+     *
+     * @param connection the database connection to be returned or closed
+     */
+    @Override
+    public void closeConnection(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        if (Proxy.isProxyClass(connection.getClass()) && Proxy.getInvocationHandler(connection) instanceof Lease lease) {
+            lease.release();
+        } else {
+            physicalConnectionManager.closeConnection(connection);
+        }
+    }
+
+    /**
+     * Returns the number of idle connections over all pools.
+     *
+     * @return the number of idle connections
+     */
+    public int getIdleCount() {
+        return pools.values().stream().mapToInt(pool -> pool.idle.size()).sum();
+    }
+
+    /**
+     * Returns the number of borrowed connections over all pools.
+     *
+     * @return the number of borrowed connections
+     */
+    public int getActiveCount() {
+        return pools.values().stream().mapToInt(pool -> pool.borrowed.size()).sum();
+    }
+
+    /**
+     * Stops the housekeeping task and closes all idle connections. Borrowed connections are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        pools.values().forEach(ConnectionPool::closeIdle);
+    }
+
+    private void housekeeping() {
+        try {
+            pools.values().forEach(ConnectionPool::evictAndDetectLeaks);
+        } catch (RuntimeException ex) {
+            loggerManager.error("Exception during connection pool housekeeping! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Identifies a pool. The password is deliberately not part of the key, so it is never logged with it.
+     */
+    private record PoolKey(String dbType, String host, String port, String dbName, String user) {
+        @Override
+        public String toString() {
+            return dbType + "://" + user + "@" + host + ":" + port + "/" + dbName;
+        }
+    }
+
+    /**
+     * The bounded pool of one database target.
+     */
+    private final class ConnectionPool {
+        private final PoolKey key;
+        private final Semaphore permits;
+        private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+        private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+
+        ConnectionPool(PoolKey key) {
+            this.key = key;
+            this.permits = new Semaphore(settings.maxPoolSize(), true);
+        }
+
+        Connection borrow(String password) {
+            try {
+                if (!permits.tryAcquire(settings.borrowTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                    loggerManager.error("Timeout while waiting for a pooled connection to " + key
+                            + " (max pool size " + settings.maxPoolSize() + ")");
+                    return null;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                loggerManager.error("Interrupted while waiting for a pooled connection to " + key);
+                return null;
+            }
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                Connection physical = physicalConnectionManager.createConnection(
+                        key.dbType(), key.host(), key.user(), key.port(), key.dbName(), password);
+                if (physical == null) {
+                    permits.release();
+                    return null;
+                }
+                pooled = new PooledConnection(this, physical);
+                loggerManager.debug("Opened pooled connection to " + key);
+            }
+            borrowed.add(pooled);
+            return pooled.lend();
+        }
+
+        private PooledConnection takeIdle() {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (pooled.isExpired(System.nanoTime())) {
+                    pooled.destroy();
+                } else if (!pooled.isValid()) {
+                    loggerManager.warn("Discarding invalid pooled connection to " + key);
+                    pooled.destroy();
+                } else {
+                    return pooled;
+                }
+            }
+            return null;
+        }
+
+        void giveBack(PooledConnection pooled) {
+            borrowed.remove(pooled);
+            if (closed || pooled.isExpired(System.nanoTime()) || !pooled.resetState()) {
+                pooled.destroy();
+            } else {
+                idle.offerFirst(pooled);
+            }
+            permits.release();
+        }
+
+        void evictAndDetectLeaks() {
+            long now = System.nanoTime();
+            for (PooledConnection pooled : idle) {
+                if (pooled.isExpired(now) && idle.remove(pooled)) {
+                    pooled.destroy();
+                }
+            }
+            long leakThreshold = settings.leakDetectionThreshold().toNanos();
+            if (leakThreshold > 0) {
+                for (PooledConnection pooled : borrowed) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt > leakThreshold) {
+                        pooled.leakReported = true;
+                        loggerManager.error("Possible connection leak: connection to " + key + " borrowed for more than "
+                                + settings.leakDetectionThreshold().toMillis() + " ms", pooled.borrowSite);
+                    }
+                }
+            }
+        }
+
+        void closeIdle() {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                pooled.destroy();
+            }
+        }
+    }
+
+    /**
+     * Wraps one physical connection while it lives in the pool.
+     */
+    private final class PooledConnection {
+        private final ConnectionPool pool;
+        private final Connection physical;
+        private final long createdAt = System.nanoTime();
+        private volatile long lastUsedAt = createdAt;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+        private volatile Lease lease;
+
+        PooledConnection(ConnectionPool pool, Connection physical) {
+            this.pool = pool;
+            this.physical = physical;
+        }
+
+        Connection lend() {
+            borrowedAt = System.nanoTime();
+            leakReported = false;
+            borrowSite = settings.leakDetectionThreshold().isZero() ? null : new Throwable("Connection borrowed here");
+            lease = new Lease(this);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, lease);
+        }
+
+        void giveBack() {
+            lease = null;
+            lastUsedAt = System.nanoTime();
+            borrowSite = null;
+            pool.giveBack(this);
+        }
+
+        boolean isExpired(long now) {
+            return now - createdAt > settings.maxLifetime().toNanos()
+                    || (lease == null && now - lastUsedAt > settings.idleTimeout().toNanos());
+        }
+
+        boolean isValid() {
+            try {
+                return physical.isValid((int) Math.max(1, settings.validationTimeout().toSeconds()));
+            } catch (SQLException ex) {
+                return false;
+            }
+        }
+
+        /**
+         * Rolls back uncommitted work and restores auto-commit, so the next borrower gets a clean connection.
+         */
+        boolean resetState() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                return true;
+            } catch (SQLException ex) {
+                loggerManager.warn("Exception while resetting pooled connection! " + ex.getMessage());
+                return false;
+            }
+        }
+
+        void destroy() {
+            physicalConnectionManager.closeConnection(physical);
+        }
+    }
+
+    /**
+     * The handler behind the connection proxy of one borrow. It forwards all calls to the physical connection,
+     * except close(), which returns the connection to the pool. After that the proxy is unusable, even if the
+     * physical connection has been lent to someone else in the meantime.
+     */
+    private static final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        // written under the lock, read without it by invoke() on other threads
+        private volatile boolean released;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        synchronized void release() {
+            if (!released) {
+                released = true;
+                pooled.giveBack();
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    release();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return released || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + pooled.pool.key + "]";
+                }
+                default -> {
+                    if (released) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package tutorials.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PreparedStatementCache keeps the most recently used PreparedStatements of one connection open, so repeated
+ * parameterized queries reuse the already parsed statement and its server-side plan.
+ * <p>
+ * The cache is bound to one connection at a time. Binding it to another connection, or closing it, closes all
+ * cached statements. The hit and miss counters are kept across rebinds. The cache is not thread-safe, like the
+ * {@link DBConnector} that owns it.
+ */
+public class PreparedStatementCache implements AutoCloseable {
+
+    private static final LoggerManager loggerManager = new LoggerManager(PreparedStatementCache.class);
+
+    private final int maxSize;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private Connection connection;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates an empty cache holding at most the given number of statements.
+     *
+     * @param maxSize the maximum number of cached statements, at least 1
+     */
+    public PreparedStatementCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > PreparedStatementCache.this.maxSize) {
+                    evictionCount++;
+                    closeStatement(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Binds the cache to the given connection. If it was bound to another connection, its statements are closed first.
+     *
+     * @param connection the connection the statements are prepared on
+     */
+    public void bind(Connection connection) {
+        if (this.connection != connection) {
+            clear();
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * Returns the cached statement for the given SQL, preparing it on the bound connection if necessary.
+     *
+     * @param sql the SQL statement with ? placeholders
+     * @return an open PreparedStatement, owned by the cache
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        if (connection == null) {
+            throw new IllegalStateException("PreparedStatementCache is not bound to a connection");
+        }
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null && !statement.isClosed()) {
+            hitCount++;
+            statement.clearParameters();
+            return statement;
+        }
+        missCount++;
+        statement = connection.prepareStatement(sql);
+        statements.put(sql, statement);
+        return statement;
+    }
+
+    /**
+     * Returns the number of lookups that found an open statement in the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that had to prepare a new statement.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of statements closed because the cache was full.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of currently cached statements.
+     *
+     * @return the number of cached statements
+     */
+    public int size() {
+        return statements.size();
+    }
+
+    /**
+     * Closes all cached statements and unbinds the connection. The counters are kept.
+     */
+    public void clear() {
+        statements.values().forEach(PreparedStatementCache::closeStatement);
+        statements.clear();
+        connection = null;
+    }
+
+    /**
+     * Closes all cached statements.
+     */
+    @Override
+    public void close() {
+        clear();
+    }
+
+    private static void closeStatement(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ex) {
+            loggerManager.warn("Exception while closing prepared statement! " + ex.getMessage());
+        }
+    }
+}
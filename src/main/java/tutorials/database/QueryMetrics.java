@@ -0,0 +1,353 @@
+package tutorials.database;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * QueryMetrics records latency histograms per {@link QueryPhase}, rows fetched and bytes materialized for every
+ * query fingerprint, i.e. the SQL with literals replaced by ? and whitespace collapsed, so executions that only
+ * differ in their values are counted together.
+ * <p>
+ * Queries slower than the slow query threshold are logged as warnings with their phase timings. The statistics
+ * can be read with {@link #snapshot()} or over JMX after {@link #registerMBean(String)}.
+ * <p>
+ * The number of fingerprints is bounded; queries beyond the bound are counted under {@link #OTHER}.
+ * The metrics are thread-safe and can be shared between several {@link DBConnector} instances.
+ */
+public class QueryMetrics implements QueryMetricsMXBean {
+
+    /**
+     * The default time above which a query is logged as slow.
+     */
+    public static final Duration DEFAULT_SLOW_QUERY_THRESHOLD = Duration.ofSeconds(1);
+
+    /**
+     * The default number of distinct fingerprints that are tracked.
+     */
+    public static final int DEFAULT_MAX_FINGERPRINTS = 1000;
+
+    /**
+     * The fingerprint under which queries are counted once the maximum number of fingerprints is reached.
+     */
+    public static final String OTHER = "<other>";
+
+    private static final Pattern LITERAL_LIST = Pattern.compile("\\(\\?(?:, ?\\?)+\\)");
+    private static final int MAX_LOGGED_SQL = 1000;
+    private static final LoggerManager loggerManager = new LoggerManager(QueryMetrics.class);
+
+    private final int maxFingerprints;
+    private final Map<String, FingerprintStats> statsByFingerprint = new ConcurrentHashMap<>();
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder slowQueryCount = new LongAdder();
+    private volatile long slowQueryThresholdNanos;
+    private ObjectName objectName;
+
+    /**
+     * Creates metrics with the default slow query threshold and fingerprint bound.
+     */
+    public QueryMetrics() {
+        this(DEFAULT_SLOW_QUERY_THRESHOLD, DEFAULT_MAX_FINGERPRINTS);
+    }
+
+    /**
+     * Creates metrics.
+     *
+     * @param slowQueryThreshold the time above which a query is logged as slow
+     * @param maxFingerprints    the number of distinct fingerprints that are tracked
+     */
+    public QueryMetrics(Duration slowQueryThreshold, int maxFingerprints) {
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    /**
+     * Starts the trace of one query execution.
+     *
+     * @param sql the SQL query
+     * @return the trace to be filled and passed to {@link #record(QueryTrace)}
+     */
+    public QueryTrace start(String sql) {
+        return new QueryTrace(sql);
+    }
+
+    /**
+     * Adds a finished execution to the statistics of its fingerprint and logs it if it was slow.
+     *
+     * @param trace the trace of the execution
+     */
+    public void record(QueryTrace trace) {
+        long elapsed = trace.elapsedNanos();
+        String fingerprint = fingerprint(trace.getSql());
+        FingerprintStats stats = statsByFingerprint.get(fingerprint);
+        if (stats == null) {
+            stats = statsByFingerprint.size() < maxFingerprints
+                    ? statsByFingerprint.computeIfAbsent(fingerprint, FingerprintStats::new)
+                    : statsByFingerprint.computeIfAbsent(OTHER, FingerprintStats::new);
+        }
+        stats.add(trace, elapsed);
+        queryCount.increment();
+        if (elapsed > slowQueryThresholdNanos) {
+            slowQueryCount.increment();
+            loggerManager.warn(slowQueryMessage(trace, elapsed));
+        }
+    }
+
+    /**
+     * Returns the statistics of all fingerprints, the ones with the most total time first.
+     *
+     * @return the statistics
+     */
+    public List<QueryStatistics> snapshot() {
+        List<QueryStatistics> snapshot = new ArrayList<>(statsByFingerprint.size());
+        statsByFingerprint.values().forEach(stats -> snapshot.add(stats.snapshot()));
+        snapshot.sort(Comparator.comparingLong((QueryStatistics stats) -> stats.total().totalNanos()).reversed());
+        return snapshot;
+    }
+
+    /**
+     * Returns the statistics of the fingerprint of the given query.
+     *
+     * @param sql the SQL query, literals do not need to match
+     * @return the statistics, or null if no such query was recorded
+     */
+    public QueryStatistics snapshot(String sql) {
+        FingerprintStats stats = statsByFingerprint.get(fingerprint(sql));
+        return stats == null ? null : stats.snapshot();
+    }
+
+    @Override
+    public List<QueryStatistics> getQueries() {
+        return snapshot();
+    }
+
+    @Override
+    public long getQueryCount() {
+        return queryCount.sum();
+    }
+
+    @Override
+    public long getSlowQueryCount() {
+        return slowQueryCount.sum();
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return Duration.ofNanos(slowQueryThresholdNanos).toMillis();
+    }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long slowQueryThresholdMillis) {
+        setSlowQueryThreshold(Duration.ofMillis(slowQueryThresholdMillis));
+    }
+
+    /**
+     * Sets the time above which a query is logged as slow.
+     *
+     * @param slowQueryThreshold the threshold
+     */
+    public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+    }
+
+    /**
+     * Discards all statistics.
+     */
+    @Override
+    public void reset() {
+        statsByFingerprint.clear();
+        queryCount.reset();
+        slowQueryCount.reset();
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server as {@code tutorials.database:type=QueryMetrics,name=<name>}.
+     *
+     * @param name the name distinguishing several metrics instances
+     * @return the object name of the registered MBean
+     */
+    public synchronized ObjectName registerMBean(String name) {
+        unregisterMBean();
+        try {
+            ObjectName objectName = new ObjectName("tutorials.database:type=QueryMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+            return objectName;
+        } catch (JMException ex) {
+            throw new RuntimeException("Exception while registering query metrics MBean! " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Removes the MBean registered by {@link #registerMBean(String)}, if any.
+     */
+    public synchronized void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException ex) {
+            loggerManager.warn("Exception while unregistering query metrics MBean! " + ex.getMessage());
+        }
+        objectName = null;
+    }
+
+    /**
+     * Replaces string and numeric literals by ?, collapses lists of literals and whitespace outside of quoted
+     * identifiers and drops a trailing semicolon.
+     */
+    static String fingerprint(String sql) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = builder.length() > 0;
+                i++;
+                continue;
+            }
+            if (pendingSpace) {
+                if (c != ',' && c != ')' && builder.charAt(builder.length() - 1) != '(') {
+                    builder.append(' ');
+                }
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+                builder.append('?');
+            } else if (c == '"') {
+                int end = skipQuoted(sql, i, '"');
+                builder.append(sql, i, end);
+                i = end;
+            } else if (Character.isDigit(c) && !isIdentifierEnd(builder)) {
+                while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                builder.append('?');
+            } else {
+                builder.append(c);
+                i++;
+            }
+        }
+        int end = builder.length();
+        while (end > 0 && builder.charAt(end - 1) == ';') {
+            end--;
+        }
+        builder.setLength(end);
+        return LITERAL_LIST.matcher(builder).replaceAll("(?)");
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isIdentifierEnd(StringBuilder builder) {
+        if (builder.length() == 0) {
+            return false;
+        }
+        char last = builder.charAt(builder.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$' || last == '"';
+    }
+
+    private static String slowQueryMessage(QueryTrace trace, long elapsed) {
+        StringBuilder message = new StringBuilder("Slow query: ")
+                .append(String.format("%.1f ms (", elapsed / 1_000_000.0));
+        for (QueryPhase phase : QueryPhase.values()) {
+            message.append(phase.name().toLowerCase()).append(' ')
+                    .append(String.format("%.1f", trace.getPhaseNanos(phase) / 1_000_000.0))
+                    .append(phase.ordinal() < QueryPhase.values().length - 1 ? ", " : " ms), ");
+        }
+        message.append(trace.getRows()).append(" rows, ").append(trace.getBytes()).append(" bytes")
+                .append(trace.isFailed() ? ", failed" : "").append(": ");
+        String sql = trace.getSql();
+        message.append(sql.length() > MAX_LOGGED_SQL ? sql.substring(0, MAX_LOGGED_SQL) + "..." : sql);
+        return message.toString();
+    }
+
+    private static final class FingerprintStats {
+        private final String fingerprint;
+        private final EnumMap<QueryPhase, LatencyHistogram> phases = new EnumMap<>(QueryPhase.class);
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        FingerprintStats(String fingerprint) {
+            this.fingerprint = fingerprint;
+            for (QueryPhase phase : QueryPhase.values()) {
+                phases.put(phase, new LatencyHistogram());
+            }
+        }
+
+        void add(QueryTrace trace, long elapsed) {
+            total.record(elapsed);
+            for (QueryPhase phase : QueryPhase.values()) {
+                long nanos = trace.getPhaseNanos(phase);
+                if (nanos > 0) {
+                    phases.get(phase).record(nanos);
+                }
+            }
+            if (trace.isFailed()) {
+                failures.increment();
+            }
+            rows.add(trace.getRows());
+            bytes.add(trace.getBytes());
+        }
+
+        QueryStatistics snapshot() {
+            Map<QueryPhase, LatencyHistogram.Snapshot> phaseSnapshots = new EnumMap<>(QueryPhase.class);
+            phases.forEach((phase, histogram) -> phaseSnapshots.put(phase, histogram.snapshot()));
+            LatencyHistogram.Snapshot totalSnapshot = total.snapshot();
+            return new QueryStatistics(fingerprint, totalSnapshot.count(), failures.sum(), rows.sum(), bytes.sum(),
+                    totalSnapshot, phaseSnapshots);
+        }
+    }
+
+    /**
+     * A snapshot of the statistics of one query fingerprint. Phases are only counted in executions that went
+     * through them, e.g. connect and close only for {@link DBConnector#connectExecuteClose}.
+     *
+     * @param fingerprint the SQL with literals replaced by ?
+     * @param executions  the number of recorded executions
+     * @param failures    the number of executions that threw an exception
+     * @param rows        the number of fetched rows
+     * @param bytes       the estimated size of the materialized values, in bytes
+     * @param total       the latency of whole executions
+     * @param phases      the latency per phase
+     */
+    public record QueryStatistics(String fingerprint, long executions, long failures, long rows, long bytes,
+                                  LatencyHistogram.Snapshot total, Map<QueryPhase, LatencyHistogram.Snapshot> phases) {
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d executions (%d failed), %d rows, %d bytes, %s",
+                    fingerprint, executions, failures, rows, bytes, total);
+        }
+    }
+}
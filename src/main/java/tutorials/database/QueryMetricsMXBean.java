@@ -0,0 +1,15 @@
+package tutorials.database;
+
+import java.util.List;
+
+/**
+ * The JMX view of {@link QueryMetrics}, registered with {@link QueryMetrics#registerMBean(String)}.
+ */
+public interface QueryMetricsMXBean {
+    List<QueryMetrics.QueryStatistics> getQueries();
+    long getQueryCount();
+    long getSlowQueryCount();
+    long getSlowQueryThresholdMillis();
+    void setSlowQueryThresholdMillis(long slowQueryThresholdMillis);
+    void reset();
+}
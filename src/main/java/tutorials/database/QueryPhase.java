@@ -0,0 +1,17 @@
+package tutorials.database;
+
+/**
+ * The phases of a query whose latency is recorded by {@link QueryMetrics}.
+ */
+public enum QueryPhase {
+    /** Obtaining the connection from the connection manager. */
+    CONNECT,
+    /** Sending the statement until the driver returns the result set. */
+    EXECUTE,
+    /** Moving the cursor, including the driver round trips for further rows. */
+    FETCH,
+    /** Reading the column values and building the row maps. */
+    MAP,
+    /** Closing or returning the connection. */
+    CLOSE
+}
@@ -0,0 +1,298 @@
+package tutorials.database;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * QueryResultCache keeps the results of repeated queries, e.g. on reference data tables, in memory.
+ * <p>
+ * Entries are keyed by the connection target, the normalized SQL and the parameters. Every entry expires after its
+ * time to live. The cache is bounded by the estimated memory weight of the cached rows and evicts the least recently
+ * used entries first. Entries are tagged with the tables named in their SQL, so {@link #invalidateTable(String)}
+ * drops everything that read a changed table. Cached rows are unmodifiable and shared between callers.
+ * <p>
+ * The cache is thread-safe and can be shared between several {@link DBConnector} instances.
+ */
+public class QueryResultCache {
+
+    private static final Pattern TABLE_PATTERN = Pattern.compile(
+            "\\b(?:FROM|JOIN|INTO|UPDATE)\\s+([\\w.$\"`\\[\\]]+)", Pattern.CASE_INSENSITIVE);
+    private static final long ROW_OVERHEAD = 64;
+    private static final long CELL_OVERHEAD = 48;
+
+    private final long maxWeight;
+    private final Duration defaultTtl;
+    private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Set<CacheKey>> keysByTable = new HashMap<>();
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long expirationCount;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxWeight  the maximum estimated size of all cached results, in bytes
+     * @param defaultTtl the time to live of entries that are stored without an explicit one
+     */
+    public QueryResultCache(long maxWeight, Duration defaultTtl) {
+        this.maxWeight = maxWeight;
+        this.defaultTtl = defaultTtl;
+    }
+
+    /**
+     * Builds the cache key of a query.
+     *
+     * @param target the connection target, see {@link DBTarget#toString()}
+     * @param sql    the SQL query
+     * @param params the query parameters, may be empty
+     * @return the cache key
+     */
+    public static CacheKey key(String target, String sql, Object... params) {
+        return new CacheKey(target, normalizeSql(sql), Arrays.asList(params.clone()));
+    }
+
+    /**
+     * Returns the cached rows for the given key, or null if there is no live entry.
+     *
+     * @param key the cache key
+     * @return the cached rows, or null
+     */
+    public synchronized List<Map<String, Object>> get(CacheKey key) {
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (entry.expiresAt - System.nanoTime() <= 0) {
+            remove(key);
+            expirationCount++;
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.rows;
+    }
+
+    /**
+     * Stores a result with the default time to live.
+     *
+     * @param key  the cache key
+     * @param rows the rows to be cached
+     * @return the unmodifiable cached rows
+     */
+    public List<Map<String, Object>> put(CacheKey key, List<Map<String, Object>> rows) {
+        return put(key, rows, defaultTtl);
+    }
+
+    /**
+     * Stores a result. The entry is tagged with the tables referenced in the SQL of the key.
+     * Results heavier than the whole cache are returned but not stored.
+     *
+     * @param key  the cache key
+     * @param rows the rows to be cached
+     * @param ttl  the time to live of the entry
+     * @return the unmodifiable cached rows
+     */
+    public List<Map<String, Object>> put(CacheKey key, List<Map<String, Object>> rows, Duration ttl) {
+        List<Map<String, Object>> frozen = freeze(rows);
+        long entryWeight = estimateWeight(key, frozen);
+        if (entryWeight > maxWeight) {
+            return frozen;
+        }
+        Set<String> tables = tablesOf(key.sql());
+        synchronized (this) {
+            remove(key);
+            entries.put(key, new CacheEntry(frozen, System.nanoTime() + ttl.toNanos(), entryWeight, tables));
+            tables.forEach(table -> keysByTable.computeIfAbsent(table, t -> new HashSet<>()).add(key));
+            weight += entryWeight;
+            evictToMaxWeight();
+        }
+        return frozen;
+    }
+
+    /**
+     * Drops all entries whose SQL reads or writes the given table.
+     *
+     * @param table the table name, case-insensitive, with or without schema
+     * @return the number of dropped entries
+     */
+    public synchronized int invalidateTable(String table) {
+        Set<CacheKey> keys = keysByTable.remove(normalizeTable(table));
+        if (keys == null) {
+            return 0;
+        }
+        new ArrayList<>(keys).forEach(this::remove);
+        return keys.size();
+    }
+
+    /**
+     * Drops all entries whose SQL references one of the tables of the given statement,
+     * e.g. after an INSERT, UPDATE or DELETE.
+     *
+     * @param sql the statement that changed data
+     */
+    public void invalidateTablesOf(String sql) {
+        tablesOf(sql).forEach(this::invalidateTable);
+    }
+
+    /**
+     * Drops all entries. The statistics are kept.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        keysByTable.clear();
+        weight = 0;
+    }
+
+    /**
+     * Returns a snapshot of the cache statistics.
+     *
+     * @return the statistics
+     */
+    public synchronized Statistics getStatistics() {
+        return new Statistics(hitCount, missCount, evictionCount, expirationCount, entries.size(), weight);
+    }
+
+    private void evictToMaxWeight() {
+        Iterator<Map.Entry<CacheKey, CacheEntry>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            Map.Entry<CacheKey, CacheEntry> entry = eldest.next();
+            eldest.remove();
+            untag(entry.getKey(), entry.getValue());
+            weight -= entry.getValue().weight;
+            evictionCount++;
+        }
+    }
+
+    private void remove(CacheKey key) {
+        CacheEntry entry = entries.remove(key);
+        if (entry != null) {
+            untag(key, entry);
+            weight -= entry.weight;
+        }
+    }
+
+    private void untag(CacheKey key, CacheEntry entry) {
+        for (String table : entry.tables) {
+            Set<CacheKey> keys = keysByTable.get(table);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTable.remove(table);
+            }
+        }
+    }
+
+    private static List<Map<String, Object>> freeze(List<Map<String, Object>> rows) {
+        List<Map<String, Object>> frozen = new ArrayList<>(rows.size());
+        rows.forEach(row -> frozen.add(Collections.unmodifiableMap(row)));
+        return Collections.unmodifiableList(frozen);
+    }
+
+    private static long estimateWeight(CacheKey key, List<Map<String, Object>> rows) {
+        long total = 2L * key.sql().length() + CELL_OVERHEAD;
+        for (Map<String, Object> row : rows) {
+            total += ROW_OVERHEAD;
+            for (Object value : row.values()) {
+                total += CELL_OVERHEAD + (value instanceof CharSequence text ? 2L * text.length() : 0);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Collapses whitespace outside of quoted literals and drops a trailing semicolon,
+     * so formatting differences do not produce different cache keys.
+     */
+    static String normalizeSql(String sql) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                pendingSpace = builder.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                builder.append(' ');
+                pendingSpace = false;
+            }
+            if (quote == 0 && (c == '\'' || c == '"')) {
+                quote = c;
+            } else if (c == quote) {
+                quote = 0;
+            }
+            builder.append(c);
+        }
+        int end = builder.length();
+        while (end > 0 && builder.charAt(end - 1) == ';') {
+            end--;
+        }
+        builder.setLength(end);
+        return builder.toString();
+    }
+
+    static Set<String> tablesOf(String sql) {
+        Set<String> tables = new HashSet<>();
+        Matcher matcher = TABLE_PATTERN.matcher(sql);
+        while (matcher.find()) {
+            tables.add(normalizeTable(matcher.group(1)));
+        }
+        return tables;
+    }
+
+    private static String normalizeTable(String table) {
+        String name = table.replaceAll("[\"`\\[\\]]", "").toUpperCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(dot + 1);
+    }
+
+    /**
+     * Identifies a cached query result.
+     *
+     * @param target the connection target
+     * @param sql    the normalized SQL
+     * @param params the query parameters
+     */
+    public record CacheKey(String target, String sql, List<Object> params) {
+    }
+
+    private record CacheEntry(List<Map<String, Object>> rows, long expiresAt, long weight, Set<String> tables) {
+    }
+
+    /**
+     * A snapshot of the cache statistics.
+     *
+     * @param hitCount        the number of lookups answered from the cache
+     * @param missCount       the number of lookups without a live entry
+     * @param evictionCount   the number of entries dropped to stay within the weight bound
+     * @param expirationCount the number of entries dropped because their time to live had passed
+     * @param entryCount      the number of cached entries
+     * @param weight          the estimated size of all cached entries, in bytes
+     */
+    public record Statistics(long hitCount, long missCount, long evictionCount, long expirationCount, int entryCount, long weight) {
+
+        /**
+         * Returns the share of lookups answered from the cache.
+         *
+         * @return the hit rate between 0 and 1
+         */
+        public double hitRate() {
+            long lookups = hitCount + missCount;
+            return lookups == 0 ? 0 : (double) hitCount / lookups;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package tutorials.database;
+
+/**
+ * QueryTrace collects the phase timings, row count and materialized bytes of one query execution
+ * until they are recorded by {@link QueryMetrics#record(QueryTrace)}.
+ * <p>
+ * A trace belongs to a single execution and is not thread-safe.
+ */
+public final class QueryTrace {
+
+    private final String sql;
+    private final long startNanos = System.nanoTime();
+    private final long[] phaseNanos = new long[QueryPhase.values().length];
+    private long rows;
+    private long bytes;
+    private boolean failed;
+
+    QueryTrace(String sql) {
+        this.sql = sql;
+    }
+
+    /**
+     * Adds time spent in the given phase.
+     *
+     * @param phase the phase
+     * @param nanos the time in nanoseconds
+     */
+    public void addPhase(QueryPhase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    /**
+     * Counts one fetched row and the estimated size of its materialized values.
+     *
+     * @param rowBytes the estimated size of the row values, in bytes
+     */
+    public void addRow(long rowBytes) {
+        rows++;
+        bytes += rowBytes;
+    }
+
+    /**
+     * Marks the execution as failed.
+     */
+    public void fail() {
+        failed = true;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getPhaseNanos(QueryPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Returns the wall-clock time since the trace was started.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Estimates the heap size of a materialized value, counting two bytes per character of text.
+     */
+    static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            return 2L * text.length();
+        }
+        if (value instanceof byte[] data) {
+            return data.length;
+        }
+        return 8;
+    }
+}
@@ -0,0 +1,247 @@
+package tutorials.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * ResultColumn stores all values of one result set column in a typed array.
+ * Integer and floating point columns are kept in primitive arrays with a null bitmap, everything else in an
+ * object array holding the value returned by the matching {@link ColumnReader}.
+ */
+public abstract class ResultColumn {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    protected int size;
+
+    /**
+     * Creates an empty column suited to the given JDBC type.
+     *
+     * @param sqlType the JDBC type from {@link java.sql.Types}
+     * @return an empty column
+     */
+    public static ResultColumn forSqlType(int sqlType) {
+        return switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> new IntColumn();
+            case Types.BIGINT -> new LongColumn();
+            case Types.REAL, Types.FLOAT, Types.DOUBLE -> new DoubleColumn();
+            default -> new ObjectColumn(ColumnReader.forSqlType(sqlType));
+        };
+    }
+
+    /**
+     * Appends the value of the given column of the current row.
+     *
+     * @param resultSet   the result set positioned on a row
+     * @param columnIndex the one-based JDBC column index
+     * @throws SQLException if the value cannot be read
+     */
+    public abstract void append(ResultSet resultSet, int columnIndex) throws SQLException;
+
+    /**
+     * Returns the value at the given row, boxed, or null.
+     *
+     * @param row the zero-based row index
+     * @return the value
+     */
+    public abstract Object get(int row);
+
+    /**
+     * Returns whether the value at the given row is SQL NULL.
+     *
+     * @param row the zero-based row index
+     * @return true if the value is null
+     */
+    public abstract boolean isNull(int row);
+
+    /**
+     * Returns the number of values in this column.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Shrinks the backing array to the number of values.
+     */
+    public abstract void trimToSize();
+
+    protected static int grow(int capacity) {
+        return capacity < INITIAL_CAPACITY ? INITIAL_CAPACITY : capacity + (capacity >> 1);
+    }
+
+    /**
+     * Column of TINYINT, SMALLINT or INTEGER values.
+     */
+    public static final class IntColumn extends ResultColumn {
+        private int[] values = new int[0];
+        private final BitSet nulls = new BitSet();
+
+        @Override
+        public void append(ResultSet resultSet, int columnIndex) throws SQLException {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(size));
+            }
+            values[size] = resultSet.getInt(columnIndex);
+            if (resultSet.wasNull()) {
+                nulls.set(size);
+            }
+            size++;
+        }
+
+        /**
+         * Returns the primitive value at the given row, 0 if it is null.
+         *
+         * @param row the zero-based row index
+         * @return the value
+         */
+        public int getInt(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        public boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        @Override
+        public void trimToSize() {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Column of BIGINT values.
+     */
+    public static final class LongColumn extends ResultColumn {
+        private long[] values = new long[0];
+        private final BitSet nulls = new BitSet();
+
+        @Override
+        public void append(ResultSet resultSet, int columnIndex) throws SQLException {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(size));
+            }
+            values[size] = resultSet.getLong(columnIndex);
+            if (resultSet.wasNull()) {
+                nulls.set(size);
+            }
+            size++;
+        }
+
+        /**
+         * Returns the primitive value at the given row, 0 if it is null.
+         *
+         * @param row the zero-based row index
+         * @return the value
+         */
+        public long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        public boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        @Override
+        public void trimToSize() {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Column of REAL, FLOAT or DOUBLE values.
+     */
+    public static final class DoubleColumn extends ResultColumn {
+        private double[] values = new double[0];
+        private final BitSet nulls = new BitSet();
+
+        @Override
+        public void append(ResultSet resultSet, int columnIndex) throws SQLException {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(size));
+            }
+            values[size] = resultSet.getDouble(columnIndex);
+            if (resultSet.wasNull()) {
+                nulls.set(size);
+            }
+            size++;
+        }
+
+        /**
+         * Returns the primitive value at the given row, 0 if it is null.
+         *
+         * @param row the zero-based row index
+         * @return the value
+         */
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        public boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        @Override
+        public void trimToSize() {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Column of values read with an object getter such as getString or getBigDecimal.
+     */
+    public static final class ObjectColumn extends ResultColumn {
+        private final ColumnReader reader;
+        private Object[] values = new Object[0];
+
+        ObjectColumn(ColumnReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public void append(ResultSet resultSet, int columnIndex) throws SQLException {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(size));
+            }
+            values[size++] = reader.read(resultSet, columnIndex);
+        }
+
+        @Override
+        public Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        public boolean isNull(int row) {
+            return values[row] == null;
+        }
+
+        @Override
+        public void trimToSize() {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package tutorials.database;
+
+import tutorials.database.DiffResult.ColumnDiff;
+import tutorials.database.DiffResult.RowDiff;
+import tutorials.database.DiffResult.Type;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * ResultSetDiff compares an expected and an actual result set by their key columns and reports added, removed and
+ * changed rows with the differing columns.
+ * <p>
+ * The expected rows are put into a hash map by key and the actual rows are probed against it, so the diff runs in
+ * linear time and only the expected side is held in memory; the actual side may be a stream of any length. If the
+ * expected side has more rows than the memory limit, both sides are hash partitioned by key into temporary files
+ * written with {@link BinaryRowWriter} and the partitions are compared one at a time. Partitions that are still too
+ * large are partitioned again, so inputs of tens of millions of rows need memory for only a fraction of them.
+ * <p>
+ * All rows of one side must have the same columns, and keys should be unique per side. Values are compared with
+ * equals, decimals by value. Rows compared from partition files have the value types of {@link BinaryRowReader}.
+ * The diff is immutable and thread-safe; the with methods return changed copies.
+ */
+public class ResultSetDiff {
+
+    /**
+     * The default number of expected rows held in memory before the inputs are partitioned to disk.
+     */
+    public static final int DEFAULT_MEMORY_ROWS = 1_000_000;
+
+    /**
+     * The default number of partitions the inputs are split into when they do not fit into memory.
+     */
+    public static final int DEFAULT_PARTITIONS = 64;
+
+    private static final int MAX_DEPTH = 3;
+    private static final Map<String, Object> MATCHED = Collections.unmodifiableMap(new HashMap<>());
+    private static final LoggerManager loggerManager = new LoggerManager(ResultSetDiff.class);
+
+    private final String[] keyColumns;
+    private final Set<String> ignoredColumns;
+    private final int memoryRows;
+    private final int partitions;
+    private final Path tempDirectory;
+
+    /**
+     * Creates a diff that compares all columns and holds up to {@link #DEFAULT_MEMORY_ROWS} rows in memory.
+     *
+     * @param keyColumns the columns identifying a row in both results
+     */
+    public ResultSetDiff(String... keyColumns) {
+        this(keyColumns.clone(), Set.of(), DEFAULT_MEMORY_ROWS, DEFAULT_PARTITIONS, null);
+    }
+
+    private ResultSetDiff(String[] keyColumns, Set<String> ignoredColumns, int memoryRows, int partitions, Path tempDirectory) {
+        if (keyColumns.length == 0) {
+            throw new IllegalArgumentException("At least one key column is required");
+        }
+        if (memoryRows < 1 || partitions < 2) {
+            throw new IllegalArgumentException("memoryRows must be positive and partitions at least 2: " + memoryRows + ", " + partitions);
+        }
+        this.keyColumns = keyColumns;
+        this.ignoredColumns = ignoredColumns;
+        this.memoryRows = memoryRows;
+        this.partitions = partitions;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Returns a copy that does not compare the given columns, e.g. timestamps of the load.
+     *
+     * @param columns the columns to be ignored
+     * @return the changed diff
+     */
+    public ResultSetDiff ignoring(String... columns) {
+        return new ResultSetDiff(keyColumns, Set.of(columns), memoryRows, partitions, tempDirectory);
+    }
+
+    /**
+     * Returns a copy with another memory limit.
+     *
+     * @param memoryRows the number of expected rows held in memory before partitioning to disk
+     * @return the changed diff
+     */
+    public ResultSetDiff withMemoryRows(int memoryRows) {
+        return new ResultSetDiff(keyColumns, ignoredColumns, memoryRows, partitions, tempDirectory);
+    }
+
+    /**
+     * Returns a copy with another number of partitions.
+     *
+     * @param partitions the number of partitions per level
+     * @return the changed diff
+     */
+    public ResultSetDiff withPartitions(int partitions) {
+        return new ResultSetDiff(keyColumns, ignoredColumns, memoryRows, partitions, tempDirectory);
+    }
+
+    /**
+     * Returns a copy that writes its partition files into the given directory.
+     *
+     * @param tempDirectory the directory, null for the default temporary directory
+     * @return the changed diff
+     */
+    public ResultSetDiff withTempDirectory(Path tempDirectory) {
+        return new ResultSetDiff(keyColumns, ignoredColumns, memoryRows, partitions, tempDirectory);
+    }
+
+    /**
+     * Compares two result sets, e.g. from {@link DBConnector#execute(String)} or a {@link SpillableResultSet}.
+     *
+     * @param expected the expected rows
+     * @param actual   the actual rows
+     * @return the summary with all differing rows
+     */
+    public DiffResult diff(Iterable<Map<String, Object>> expected, Iterable<Map<String, Object>> actual) {
+        return collect(expected.iterator(), actual.iterator());
+    }
+
+    /**
+     * Compares two row streams, e.g. from {@link DBConnector#stream(String)}. The streams are not closed.
+     *
+     * @param expected the expected rows
+     * @param actual   the actual rows
+     * @return the summary with all differing rows
+     */
+    public DiffResult diff(Stream<Map<String, Object>> expected, Stream<Map<String, Object>> actual) {
+        return collect(expected.iterator(), actual.iterator());
+    }
+
+    private DiffResult collect(Iterator<Map<String, Object>> expected, Iterator<Map<String, Object>> actual) {
+        List<RowDiff> differences = new ArrayList<>();
+        DiffResult result = diff(expected, actual, differences::add);
+        return new DiffResult(result.expectedRows(), result.actualRows(), result.added(), result.removed(), result.changed(),
+                result.duplicates(), result.spilledRows(), result.elapsedNanos(), differences);
+    }
+
+    /**
+     * Compares two row sequences and passes every differing row to the listener instead of collecting them,
+     * so the number of differences does not matter either. Removed rows are reported after the actual rows
+     * of their partition were matched.
+     *
+     * @param expected the expected rows
+     * @param actual   the actual rows
+     * @param listener called with every differing row
+     * @return the summary, without differing rows
+     * @throws UncheckedIOException if the partition files cannot be written or read
+     */
+    public DiffResult diff(Iterator<Map<String, Object>> expected, Iterator<Map<String, Object>> actual, Consumer<RowDiff> listener) {
+        Counts counts = new Counts(listener);
+        long start = System.nanoTime();
+        Map<CompositeKey, Map<String, Object>> build = new HashMap<>();
+        while (expected.hasNext()) {
+            Map<String, Object> row = expected.next();
+            counts.expectedRows++;
+            if (build.size() >= memoryRows) {
+                loggerManager.info("Expected rows exceed " + memoryRows + ", partitioning the diff to disk");
+                try (PartitionSpiller partitioned = newPartitions(0)) {
+                    build.values().forEach(expectedRow -> partitioned.add(PartitionSpiller.BUILD, keyColumns, expectedRow));
+                    build = null;
+                    partitioned.add(PartitionSpiller.BUILD, keyColumns, row);
+                    while (expected.hasNext()) {
+                        partitioned.add(PartitionSpiller.BUILD, keyColumns, expected.next());
+                        counts.expectedRows++;
+                    }
+                    while (actual.hasNext()) {
+                        partitioned.add(PartitionSpiller.PROBE, keyColumns, actual.next());
+                        counts.actualRows++;
+                    }
+                    diff(partitioned, 0, counts);
+                }
+                return counts.result(System.nanoTime() - start);
+            }
+            if (build.putIfAbsent(CompositeKey.fromRow(row, keyColumns), row) != null) {
+                counts.duplicates++;
+            }
+        }
+        probe(build, new CountingIterator(actual, counts), counts);
+        return counts.result(System.nanoTime() - start);
+    }
+
+    /**
+     * Matches the actual rows against the expected rows by key. Matched expected rows are replaced by a marker,
+     * which keeps the map nodes and detects duplicate actual keys; the remaining expected rows were removed.
+     */
+    private void probe(Map<CompositeKey, Map<String, Object>> build, Iterator<Map<String, Object>> actual, Counts counts) {
+        while (actual.hasNext()) {
+            Map<String, Object> row = actual.next();
+            CompositeKey key = CompositeKey.fromRow(row, keyColumns);
+            Map<String, Object> expectedRow = build.get(key);
+            if (expectedRow == null) {
+                counts.report(new RowDiff(Type.ADDED, key, null, row, List.of()));
+            } else if (expectedRow == MATCHED) {
+                counts.duplicates++;
+            } else {
+                build.put(key, MATCHED);
+                List<ColumnDiff> columns = compare(expectedRow, row);
+                if (!columns.isEmpty()) {
+                    counts.report(new RowDiff(Type.CHANGED, key, expectedRow, row, columns));
+                }
+            }
+        }
+        build.forEach((key, expectedRow) -> {
+            if (expectedRow != MATCHED) {
+                counts.report(new RowDiff(Type.REMOVED, key, expectedRow, null, List.of()));
+            }
+        });
+    }
+
+    private List<ColumnDiff> compare(Map<String, Object> expected, Map<String, Object> actual) {
+        List<ColumnDiff> columns = null;
+        boolean missing = false;
+        for (Map.Entry<String, Object> entry : expected.entrySet()) {
+            String column = entry.getKey();
+            Object actualValue = actual.get(column);
+            if (actualValue == null && !missing) {
+                missing = !actual.containsKey(column);
+            }
+            if (!valuesEqual(entry.getValue(), actualValue) && isCompared(column)) {
+                columns = add(columns, new ColumnDiff(column, entry.getValue(), actualValue));
+            }
+        }
+        // with the same size and no expected column missing, both rows have the same columns
+        if (missing || actual.size() != expected.size()) {
+            for (Map.Entry<String, Object> entry : actual.entrySet()) {
+                if (entry.getValue() != null && !expected.containsKey(entry.getKey()) && isCompared(entry.getKey())) {
+                    columns = add(columns, new ColumnDiff(entry.getKey(), null, entry.getValue()));
+                }
+            }
+        }
+        return columns == null ? List.of() : columns;
+    }
+
+    private static List<ColumnDiff> add(List<ColumnDiff> columns, ColumnDiff column) {
+        List<ColumnDiff> list = columns == null ? new ArrayList<>() : columns;
+        list.add(column);
+        return list;
+    }
+
+    private boolean isCompared(String column) {
+        if (ignoredColumns.contains(column)) {
+            return false;
+        }
+        for (String keyColumn : keyColumns) {
+            if (keyColumn.equals(column)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean valuesEqual(Object expected, Object actual) {
+        if (Objects.equals(expected, actual)) {
+            return true;
+        }
+        return expected instanceof BigDecimal left && actual instanceof BigDecimal right && left.compareTo(right) == 0;
+    }
+
+    private static final class Counts {
+        private final Consumer<RowDiff> listener;
+        private long expectedRows;
+        private long actualRows;
+        private long added;
+        private long removed;
+        private long changed;
+        private long duplicates;
+        private long spilledRows;
+
+        Counts(Consumer<RowDiff> listener) {
+            this.listener = listener;
+        }
+
+        void report(RowDiff diff) {
+            switch (diff.type()) {
+                case ADDED -> added++;
+                case REMOVED -> removed++;
+                case CHANGED -> changed++;
+            }
+            listener.accept(diff);
+        }
+
+        DiffResult result(long elapsedNanos) {
+            return new DiffResult(expectedRows, actualRows, added, removed, changed, duplicates, spilledRows, elapsedNanos, List.of());
+        }
+    }
+
+    private record CountingIterator(Iterator<Map<String, Object>> rows, Counts counts) implements Iterator<Map<String, Object>> {
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            counts.actualRows++;
+            return rows.next();
+        }
+    }
+
+    /**
+     * Diffs the partitions one at a time, partitioning those with too many expected rows again.
+     */
+    private void diff(PartitionSpiller partitioned, int depth, Counts counts) {
+        counts.spilledRows += partitioned.finish();
+        for (int p = 0; p < partitions; p++) {
+            long expectedCount = partitioned.getRowCount(PartitionSpiller.BUILD, p);
+            if (expectedCount > memoryRows && depth < MAX_DEPTH) {
+                try (PartitionSpiller split = newPartitions(depth + 1)) {
+                    partitioned.forEachRow(PartitionSpiller.BUILD, p, row -> split.add(PartitionSpiller.BUILD, keyColumns, row));
+                    partitioned.forEachRow(PartitionSpiller.PROBE, p, row -> split.add(PartitionSpiller.PROBE, keyColumns, row));
+                    diff(split, depth + 1, counts);
+                }
+            } else {
+                Map<CompositeKey, Map<String, Object>> build = new HashMap<>((int) (expectedCount * 4 / 3 + 1));
+                partitioned.forEachRow(PartitionSpiller.BUILD, p, row -> {
+                    if (build.putIfAbsent(CompositeKey.fromRow(row, keyColumns), row) != null) {
+                        counts.duplicates++;
+                    }
+                });
+                try (BinaryRowReader reader = partitioned.open(PartitionSpiller.PROBE, p)) {
+                    probe(build, reader == null ? Collections.emptyIterator() : reader, counts);
+                }
+            }
+            partitioned.delete(p);
+        }
+    }
+
+    private PartitionSpiller newPartitions(int depth) {
+        return new PartitionSpiller("diff-", tempDirectory, partitions, depth);
+    }
+}
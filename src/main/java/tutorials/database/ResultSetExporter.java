@@ -0,0 +1,50 @@
+package tutorials.database;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ResultSetExporter writes an open ResultSet row by row to a file, without materializing it as a list.
+ * Implementations are {@link CsvExporter} and {@link BinaryExporter}; use them with {@link DBConnector#export}.
+ */
+public interface ResultSetExporter {
+
+    /**
+     * Writes all remaining rows of the result set. The result set is not closed.
+     *
+     * @param resultSet the open result set
+     * @return the export statistics
+     * @throws SQLException if the result set cannot be read
+     */
+    ExportStats export(ResultSet resultSet) throws SQLException;
+
+    /**
+     * Opens the target file for writing, replacing an existing file.
+     *
+     * @param target the file
+     * @param gzip   true to compress the written bytes with gzip
+     * @return the channel
+     * @throws IOException if the file cannot be opened
+     */
+    static WritableByteChannel openChannel(Path target, boolean gzip) throws IOException {
+        if (!gzip) {
+            return FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+        OutputStream out = Files.newOutputStream(target);
+        try {
+            return Channels.newChannel(new GZIPOutputStream(out, 1 << 16));
+        } catch (IOException ex) {
+            out.close();
+            throw ex;
+        }
+    }
+}
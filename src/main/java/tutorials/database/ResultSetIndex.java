@@ -0,0 +1,137 @@
+package tutorials.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * ResultSetIndex is a hash index over one or more columns of a result set, built once and then queried many times.
+ * It replaces repeated linear scans like {@link DBConnector#findLineWithDataInResultSet} in loops.
+ * <p>
+ * The index stores one map entry per distinct key and a single int per row: rows with the same key are chained
+ * through an int array in row order, so several hundred thousand rows can be indexed without per-row objects.
+ * Single-column indexes use the column value itself as key, multi-column indexes a {@link CompositeKey}.
+ * Null values are indexed like any other value. The index does not follow later changes of the result set.
+ */
+public class ResultSetIndex {
+
+    private static final int END = -1;
+
+    private final List<Map<String, Object>> rows;
+    private final String[] columns;
+    private final Map<Object, Integer> firstRowByKey;
+    private final int[] nextRow;
+
+    private ResultSetIndex(List<Map<String, Object>> rows, String[] columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.firstRowByKey = new HashMap<>();
+        this.nextRow = new int[rows.size()];
+        // walk backwards, so every chain ends up in ascending row order
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            Integer head = firstRowByKey.put(keyOf(rows.get(i)), i);
+            nextRow[i] = head == null ? END : head;
+        }
+    }
+
+    /**
+     * Builds an index over the given columns of the result set.
+     *
+     * @param rows    the result set to be indexed; lists without random access are copied once
+     * @param columns the key columns, at least one
+     * @return the index
+     */
+    public static ResultSetIndex on(List<Map<String, Object>> rows, String... columns) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("At least one key column is required");
+        }
+        return new ResultSetIndex(rows instanceof RandomAccess ? rows : new ArrayList<>(rows), columns.clone());
+    }
+
+    /**
+     * Returns all rows with the given key values, in result set order.
+     *
+     * @param values the key values, one per indexed column
+     * @return the matching rows, empty if there is none
+     */
+    public List<Map<String, Object>> lookup(Object... values) {
+        int row = firstRow(values);
+        if (row == END) {
+            return Collections.emptyList();
+        }
+        List<Map<String, Object>> matches = new ArrayList<>(2);
+        for (; row != END; row = nextRow[row]) {
+            matches.add(rows.get(row));
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the first row with the given key values, like {@link DBConnector#findLineWithDataInResultSet}.
+     *
+     * @param values the key values, one per indexed column
+     * @return the first matching row, or an empty map if there is none
+     */
+    public Map<String, Object> first(Object... values) {
+        int row = firstRow(values);
+        return row == END ? Collections.emptyMap() : rows.get(row);
+    }
+
+    /**
+     * Returns whether a row with the given key values exists.
+     *
+     * @param values the key values, one per indexed column
+     * @return true if there is at least one matching row
+     */
+    public boolean contains(Object... values) {
+        return firstRow(values) != END;
+    }
+
+    /**
+     * Returns the number of rows with the given key values.
+     *
+     * @param values the key values, one per indexed column
+     * @return the number of matching rows
+     */
+    public int count(Object... values) {
+        int count = 0;
+        for (int row = firstRow(values); row != END; row = nextRow[row]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of distinct keys.
+     *
+     * @return the number of distinct keys
+     */
+    public int distinctKeys() {
+        return firstRowByKey.size();
+    }
+
+    /**
+     * Returns the indexed columns.
+     *
+     * @return the key columns
+     */
+    public List<String> getColumns() {
+        return List.of(columns);
+    }
+
+    private int firstRow(Object[] values) {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " key values for " + Arrays.toString(columns) + ", got " + values.length);
+        }
+        Integer row = firstRowByKey.get(columns.length == 1 ? values[0] : CompositeKey.of(values));
+        return row == null ? END : row;
+    }
+
+    private Object keyOf(Map<String, Object> row) {
+        return columns.length == 1 ? row.get(columns[0]) : CompositeKey.fromRow(row, columns);
+    }
+}
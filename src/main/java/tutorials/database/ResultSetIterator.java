@@ -0,0 +1,134 @@
+package tutorials.database;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * ResultSetIterator walks over an open ResultSet one row at a time, so only the current row is held in memory.
+ * Rows are returned as maps like in {@link DefaultDBHelper#executeSQL}, but the column names are read only once.
+ * <p>
+ * The iterator owns the statement and the result set: closing it closes both. The connection stays open.
+ */
+public class ResultSetIterator implements Iterator<Map<String, Object>>, AutoCloseable {
+
+    private final Statement statement;
+    private final ResultSet resultSet;
+    private final String[] columnNames;
+    private boolean hasNextRow;
+    private boolean advanced;
+    private boolean closed;
+
+    /**
+     * Creates an iterator over the given result set.
+     *
+     * @param statement the statement that produced the result set, closed together with the iterator
+     * @param resultSet the result set to be iterated
+     * @throws SQLException if the result set metadata cannot be read
+     */
+    public ResultSetIterator(Statement statement, ResultSet resultSet) throws SQLException {
+        this.statement = statement;
+        this.resultSet = resultSet;
+        ResultSetMetaData rsmd = resultSet.getMetaData();
+        this.columnNames = new String[rsmd.getColumnCount()];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = rsmd.getColumnName(i + 1);
+        }
+    }
+
+    /**
+     * Returns the column names of the result set in select order.
+     *
+     * @return the column names
+     */
+    public String[] getColumnNames() {
+        return columnNames.clone();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (!advanced) {
+            try {
+                hasNextRow = resultSet.next();
+            } catch (SQLException ex) {
+                close();
+                throw new RuntimeException("Exception while fetching next row! " + ex.getMessage(), ex);
+            }
+            advanced = true;
+            if (!hasNextRow) {
+                close();
+            }
+        }
+        return hasNextRow;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        advanced = false;
+        LinkedHashMap<String, Object> row = new LinkedHashMap<>(columnNames.length * 4 / 3 + 1);
+        try {
+            for (int i = 0; i < columnNames.length; i++) {
+                row.put(columnNames[i], resultSet.getString(i + 1));
+            }
+        } catch (SQLException ex) {
+            close();
+            throw new RuntimeException("Exception while reading row! " + ex.getMessage(), ex);
+        }
+        return row;
+    }
+
+    /**
+     * Returns a sequential stream over the remaining rows. Closing the stream closes this iterator.
+     *
+     * @return a stream of rows
+     */
+    public Stream<Map<String, Object>> stream() {
+        Spliterator<Map<String, Object>> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * Closes the result set and the statement. Calling it more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // result set first, like try-with-resources would
+        SQLException failure = null;
+        try {
+            resultSet.close();
+        } catch (SQLException ex) {
+            failure = ex;
+        }
+        try {
+            statement.close();
+        } catch (SQLException ex) {
+            if (failure == null) {
+                failure = ex;
+            } else {
+                failure.addSuppressed(ex);
+            }
+        }
+        if (failure != null) {
+            throw new RuntimeException("Exception while closing result set! " + failure.getMessage(), failure);
+        }
+    }
+}
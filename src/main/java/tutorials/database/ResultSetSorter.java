@@ -0,0 +1,506 @@
+package tutorials.database;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * ResultSetSorter sorts result sets by one or more {@link SortKey}s, like ORDER BY in SQL, but on rows already fetched.
+ * <p>
+ * The comparator is compiled once per sort instead of looking up every key column in both maps per comparison:
+ * the key values are extracted once per row into arrays, numeric keys into a double[], and the int, long and double
+ * columns of a {@link ColumnarResultSet} are compared directly. The rows are then ordered by sorting an int[] of row
+ * positions, so no row is copied. {@link #top} keeps only the best rows and their keys in a bounded heap, and
+ * {@link #sort(Stream)} sorts inputs larger than the memory limit by writing sorted runs to temporary files with
+ * {@link BinaryRowWriter} and merging them.
+ * <p>
+ * Values are compared as Comparables if they have the same class and as Strings otherwise. Nulls are larger than any
+ * value, so they come last in ascending and first in descending order, as in Oracle. Rows with equal keys keep
+ * their input order. The sorter is immutable and thread-safe; the with methods return changed copies.
+ */
+public class ResultSetSorter {
+
+    /**
+     * The default number of rows sorted in memory before {@link #sort(Stream)} writes a sorted run to disk.
+     */
+    public static final int DEFAULT_MEMORY_ROWS = 1_000_000;
+
+    private static final int MAX_FAN_IN = 64;
+    private static final LoggerManager loggerManager = new LoggerManager(ResultSetSorter.class);
+
+    private final SortKey[] keys;
+    private final int memoryRows;
+    private final Path tempDirectory;
+
+    /**
+     * Creates a sorter by the given keys, holding up to {@link #DEFAULT_MEMORY_ROWS} rows in memory.
+     *
+     * @param keys the sort keys, most significant first
+     */
+    public ResultSetSorter(SortKey... keys) {
+        this(keys.clone(), DEFAULT_MEMORY_ROWS, null);
+    }
+
+    private ResultSetSorter(SortKey[] keys, int memoryRows, Path tempDirectory) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("At least one sort key is required");
+        }
+        if (memoryRows < 1) {
+            throw new IllegalArgumentException("memoryRows must be positive: " + memoryRows);
+        }
+        this.keys = keys;
+        this.memoryRows = memoryRows;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Returns a copy with another memory limit.
+     *
+     * @param memoryRows the number of rows sorted in memory before a sorted run is written to disk
+     * @return the changed sorter
+     */
+    public ResultSetSorter withMemoryRows(int memoryRows) {
+        return new ResultSetSorter(keys, memoryRows, tempDirectory);
+    }
+
+    /**
+     * Returns a copy that writes its run files into the given directory.
+     *
+     * @param tempDirectory the directory, null for the default temporary directory
+     * @return the changed sorter
+     */
+    public ResultSetSorter withTempDirectory(Path tempDirectory) {
+        return new ResultSetSorter(keys, memoryRows, tempDirectory);
+    }
+
+    /**
+     * Sorts the given rows in memory. The input is not changed.
+     *
+     * @param rows the result set, e.g. from {@link DBConnector#execute(String)} or {@link DBConnector#executeColumnar}
+     * @return the same rows in sorted order
+     * @throws IllegalArgumentException if a numeric key column holds a value that is not a number
+     */
+    public List<Map<String, Object>> sort(List<Map<String, Object>> rows) {
+        List<Map<String, Object>> source = rows instanceof RandomAccess ? rows : new ArrayList<>(rows);
+        int[] positions = new int[source.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        sort(positions, positions.length, compile(source));
+        return new Reordered(source, positions, positions.length);
+    }
+
+    /**
+     * Returns the first n rows in sorted order without sorting the whole input. A heap keeps the best n rows seen
+     * with their key values, which are extracted per row into a reused array and only kept for rows entering the
+     * heap, so this costs O(rows log n) and memory for n rows.
+     *
+     * @param rows the result set
+     * @param n    the number of rows
+     * @return the first n rows in sorted order, or all rows if there are fewer
+     */
+    public List<Map<String, Object>> top(List<Map<String, Object>> rows, int n) {
+        return top(rows.iterator(), n);
+    }
+
+    /**
+     * Returns the first n rows of a row stream, e.g. from {@link DBConnector#stream(String)}, holding only n rows
+     * in memory. The stream is not closed.
+     *
+     * @param rows the rows
+     * @param n    the number of rows
+     * @return the first n rows in sorted order, or all rows if there are fewer
+     */
+    public List<Map<String, Object>> top(Stream<Map<String, Object>> rows, int n) {
+        return top(rows.iterator(), n);
+    }
+
+    private List<Map<String, Object>> top(Iterator<Map<String, Object>> rows, int n) {
+        Comparator<Keyed> order = keyedOrder();
+        PriorityQueue<Keyed> heap = new PriorityQueue<>(Math.max(1, Math.min(n, 1 << 16)), order.reversed());
+        Object[] key = new Object[keys.length];
+        for (long sequence = 0; n > 0 && rows.hasNext(); sequence++) {
+            Map<String, Object> row = rows.next();
+            keyOf(row, key);
+            // a later row with an equal key is not better, since ties keep the input order
+            if (heap.size() < n || compareKeys(key, heap.peek().key()) < 0) {
+                if (heap.size() == n) {
+                    heap.poll();
+                }
+                heap.add(new Keyed(key, sequence, row));
+                key = new Object[keys.length];
+            }
+        }
+        List<Keyed> best = new ArrayList<>(heap);
+        best.sort(order);
+        return best.stream().map(Keyed::row).toList();
+    }
+
+    /**
+     * Sorts a row stream of any length. Up to the memory limit the rows are sorted in memory; beyond it every
+     * memory load is sorted and written to a run file, and the runs are merged while the returned stream is read.
+     * The returned stream must be closed, e.g. with try-with-resources, to delete the run files; the input stream
+     * is not closed. Rows merged from run files have the value types of {@link BinaryRowReader}.
+     *
+     * @param rows the rows
+     * @return the rows in sorted order
+     * @throws UncheckedIOException if the run files cannot be written or read
+     */
+    public Stream<Map<String, Object>> sort(Stream<Map<String, Object>> rows) {
+        Iterator<Map<String, Object>> iterator = rows.iterator();
+        List<Map<String, Object>> buffer = new ArrayList<>();
+        List<Path> runs = new ArrayList<>();
+        try {
+            while (iterator.hasNext()) {
+                buffer.add(iterator.next());
+                if (buffer.size() == memoryRows) {
+                    runs.add(writeRun(sort(buffer).iterator()));
+                    buffer = new ArrayList<>();
+                }
+            }
+            if (runs.isEmpty()) {
+                return sort(buffer).stream();
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(writeRun(sort(buffer).iterator()));
+            }
+            buffer = null;
+            loggerManager.info("Rows exceed " + memoryRows + ", merging " + runs.size() + " sorted runs from disk");
+            while (runs.size() > MAX_FAN_IN) {
+                runs = mergePass(runs);
+            }
+            MergedRuns merged = new MergedRuns(runs);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(merged::close);
+        } catch (RuntimeException ex) {
+            runs.forEach(ResultSetSorter::delete);
+            throw ex;
+        }
+    }
+
+    private List<Path> mergePass(List<Path> runs) {
+        List<Path> merged = new ArrayList<>();
+        for (int from = 0; from < runs.size(); from += MAX_FAN_IN) {
+            List<Path> group = runs.subList(from, Math.min(runs.size(), from + MAX_FAN_IN));
+            try (MergedRuns rows = new MergedRuns(new ArrayList<>(group))) {
+                merged.add(writeRun(rows));
+            }
+        }
+        return merged;
+    }
+
+    private Path writeRun(Iterator<Map<String, Object>> rows) {
+        Path file = null;
+        try {
+            file = tempDirectory == null ? Files.createTempFile("sort-", ".rows") : Files.createTempFile(tempDirectory, "sort-", ".rows");
+            BinaryRowWriter writer = null;
+            try {
+                while (rows.hasNext()) {
+                    Map<String, Object> row = rows.next();
+                    if (writer == null) {
+                        writer = new BinaryRowWriter(FileChannel.open(file, StandardOpenOption.WRITE),
+                                new ColumnSchema(row.keySet().toArray(new String[0])));
+                    }
+                    writer.write(row);
+                }
+            } finally {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+            return file;
+        } catch (IOException ex) {
+            delete(file);
+            throw new UncheckedIOException("Exception while writing sorted run! " + ex.getMessage(), ex);
+        } catch (RuntimeException ex) {
+            delete(file);
+            throw ex;
+        }
+    }
+
+    private static void delete(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            loggerManager.warn("Exception while deleting run file " + file + "! " + ex.getMessage());
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * Compiles the comparator of row positions: the key values are extracted once, and ties fall back to the
+     * position, which makes every sort stable.
+     */
+    private IntComparator compile(List<Map<String, Object>> rows) {
+        IntComparator[] columns = new IntComparator[keys.length];
+        for (int k = 0; k < keys.length; k++) {
+            IntComparator column = compileColumn(rows, keys[k]);
+            columns[k] = keys[k].descending() ? (a, b) -> column.compare(b, a) : column;
+        }
+        if (columns.length == 1) {
+            IntComparator column = columns[0];
+            return (a, b) -> {
+                int comparison = column.compare(a, b);
+                return comparison != 0 ? comparison : Integer.compare(a, b);
+            };
+        }
+        return (a, b) -> {
+            for (IntComparator column : columns) {
+                int comparison = column.compare(a, b);
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return Integer.compare(a, b);
+        };
+    }
+
+    private static IntComparator compileColumn(List<Map<String, Object>> rows, SortKey key) {
+        int size = rows.size();
+        IntFunction<Object> valueOf = row -> rows.get(row).get(key.column());
+        if (rows instanceof ColumnarResultSet columnar) {
+            ResultColumn column = columnar.getColumn(key.column());
+            valueOf = column::get;
+            if (column instanceof ResultColumn.IntColumn ints) {
+                return (a, b) -> ints.isNull(a) || ints.isNull(b) ? compareNulls(ints.isNull(a), ints.isNull(b))
+                        : Integer.compare(ints.getInt(a), ints.getInt(b));
+            }
+            if (column instanceof ResultColumn.LongColumn longs) {
+                return (a, b) -> longs.isNull(a) || longs.isNull(b) ? compareNulls(longs.isNull(a), longs.isNull(b))
+                        : Long.compare(longs.getLong(a), longs.getLong(b));
+            }
+            if (column instanceof ResultColumn.DoubleColumn doubles) {
+                return (a, b) -> doubles.isNull(a) || doubles.isNull(b) ? compareNulls(doubles.isNull(a), doubles.isNull(b))
+                        : Double.compare(doubles.getDouble(a), doubles.getDouble(b));
+            }
+        }
+        if (key.numeric()) {
+            double[] values = new double[size];
+            boolean[] nulls = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                Object value = valueOf.apply(i);
+                nulls[i] = value == null;
+                values[i] = value == null ? 0 : numberOf(value, key.column());
+            }
+            return (a, b) -> nulls[a] || nulls[b] ? compareNulls(nulls[a], nulls[b]) : Double.compare(values[a], values[b]);
+        }
+        Object[] values = new Object[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = valueOf.apply(i);
+        }
+        return (a, b) -> compareValues(values[a], values[b]);
+    }
+
+    private static double numberOf(Object value, String column) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return Double.parseDouble(value.toString().strip());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Value of " + column + " is not a number: " + value, ex);
+        }
+    }
+
+    private static int compareNulls(boolean leftNull, boolean rightNull) {
+        return leftNull == rightNull ? 0 : leftNull ? 1 : -1;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object left, Object right) {
+        if (left == null || right == null) {
+            return compareNulls(left == null, right == null);
+        }
+        if (left instanceof Comparable comparable && left.getClass() == right.getClass()) {
+            return comparable.compareTo(right);
+        }
+        return String.valueOf(left).compareTo(String.valueOf(right));
+    }
+
+    /**
+     * Extracts the key values of a row for the comparisons of rows without positions, numeric keys as Doubles.
+     */
+    private Object[] keyOf(Map<String, Object> row) {
+        return keyOf(row, new Object[keys.length]);
+    }
+
+    private Object[] keyOf(Map<String, Object> row, Object[] values) {
+        for (int k = 0; k < keys.length; k++) {
+            Object value = row.get(keys[k].column());
+            values[k] = value != null && keys[k].numeric() ? (Object) numberOf(value, keys[k].column()) : value;
+        }
+        return values;
+    }
+
+    private int compareKeys(Object[] left, Object[] right) {
+        for (int k = 0; k < keys.length; k++) {
+            int comparison = compareValues(left[k], right[k]);
+            if (comparison != 0) {
+                return keys[k].descending() ? -comparison : comparison;
+            }
+        }
+        return 0;
+    }
+
+    private Comparator<Keyed> keyedOrder() {
+        return (left, right) -> {
+            int comparison = compareKeys(left.key(), right.key());
+            return comparison != 0 ? comparison : Long.compare(left.sequence(), right.sequence());
+        };
+    }
+
+    private static void sort(int[] positions, int size, IntComparator comparator) {
+        if (size < 2) {
+            return;
+        }
+        int[] buffer = new int[size];
+        mergeSort(positions, buffer, 0, size, comparator);
+    }
+
+    private static void mergeSort(int[] positions, int[] buffer, int from, int to, IntComparator comparator) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int position = positions[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(positions[j], position) > 0) {
+                    positions[j + 1] = positions[j];
+                    j--;
+                }
+                positions[j + 1] = position;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(positions, buffer, from, middle, comparator);
+        mergeSort(positions, buffer, middle, to, comparator);
+        if (comparator.compare(positions[middle - 1], positions[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(positions, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || left < middle && comparator.compare(buffer[left], buffer[right]) <= 0) {
+                positions[i] = buffer[left++];
+            } else {
+                positions[i] = buffer[right++];
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntComparator {
+        int compare(int left, int right);
+    }
+
+    /**
+     * A row with its extracted key values and its input position, which breaks ties.
+     */
+    private record Keyed(Object[] key, long sequence, Map<String, Object> row) {
+    }
+
+    /**
+     * The rows of a result set in the order of a position array.
+     */
+    private static final class Reordered extends AbstractList<Map<String, Object>> implements RandomAccess {
+        private final List<Map<String, Object>> rows;
+        private final int[] positions;
+        private final int size;
+
+        Reordered(List<Map<String, Object>> rows, int[] positions, int size) {
+            this.rows = rows;
+            this.positions = positions;
+            this.size = size;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            return rows.get(positions[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Merges sorted run files, taking the smallest head row of all runs; equal rows are taken from the earlier run.
+     * The files are deleted when the merge is closed.
+     */
+    private final class MergedRuns implements Iterator<Map<String, Object>>, AutoCloseable {
+        private final List<Path> files;
+        private final BinaryRowReader[] readers;
+        private final PriorityQueue<Keyed> heads;
+
+        MergedRuns(List<Path> files) {
+            this.files = files;
+            this.readers = new BinaryRowReader[files.size()];
+            this.heads = new PriorityQueue<>(Math.max(1, files.size()), keyedOrder());
+            try {
+                for (int run = 0; run < readers.length; run++) {
+                    readers[run] = BinaryRowReader.open(files.get(run));
+                    advance(run);
+                }
+            } catch (RuntimeException ex) {
+                close();
+                throw ex;
+            }
+        }
+
+        private void advance(int run) {
+            if (readers[run].hasNext()) {
+                Map<String, Object> row = readers[run].next();
+                heads.add(new Keyed(keyOf(row), run, row));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            Keyed head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance((int) head.sequence());
+            return head.row();
+        }
+
+        @Override
+        public void close() {
+            for (BinaryRowReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+            files.forEach(ResultSetSorter::delete);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package tutorials.database;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * RowGroups groups the rows of a result set by one or more key columns into {@link CompositeKey} maps.
+ * <p>
+ * Grouping is a counting sort: every row gets a group number in one pass, then every group gets an array of exactly
+ * its number of rows, which the rows are copied into in a second pass. So a group costs one map entry and one array,
+ * and a row costs one int while grouping and one array slot instead of a list node. The groups are unmodifiable and
+ * do not depend on the grouped list afterwards.
+ */
+final class RowGroups {
+
+    private RowGroups() {
+    }
+
+    /**
+     * Maps every row by its key values, later rows replace earlier ones with the same key.
+     *
+     * @param rows    the result set
+     * @param columns the key columns
+     * @return the rows by key
+     */
+    static Map<CompositeKey, Map<String, Object>> unique(List<Map<String, Object>> rows, String... columns) {
+        Map<CompositeKey, Map<String, Object>> map = new HashMap<>(capacity(rows.size()));
+        for (Map<String, Object> row : rows) {
+            map.put(CompositeKey.fromRow(row, columns), row);
+        }
+        return map;
+    }
+
+    /**
+     * Groups the rows by their key values. Every group keeps the result set order.
+     *
+     * @param rows    the result set
+     * @param columns the key columns
+     * @return unmodifiable lists of rows by key, independent of the given list
+     */
+    static Map<CompositeKey, List<Map<String, Object>>> group(List<Map<String, Object>> rows, String... columns) {
+        Map<CompositeKey, Integer> groupByKey = new HashMap<>();
+        List<CompositeKey> keys = new ArrayList<>();
+        int[] groupOfRow = new int[rows.size()];
+        int[] groupSize = new int[16];
+        int i = 0;
+        for (Map<String, Object> row : rows) {
+            CompositeKey key = CompositeKey.fromRow(row, columns);
+            Integer group = groupByKey.putIfAbsent(key, keys.size());
+            if (group == null) {
+                group = keys.size();
+                keys.add(key);
+                if (group == groupSize.length) {
+                    groupSize = Arrays.copyOf(groupSize, group * 2);
+                }
+            }
+            groupOfRow[i++] = group;
+            groupSize[group]++;
+        }
+        int groups = keys.size();
+        Group[] members = new Group[groups];
+        for (int g = 0; g < groups; g++) {
+            members[g] = new Group(groupSize[g]);
+        }
+        i = 0;
+        for (Map<String, Object> row : rows) {
+            members[groupOfRow[i++]].append(row);
+        }
+        Map<CompositeKey, List<Map<String, Object>>> map = new HashMap<>(capacity(groups));
+        for (int g = 0; g < groups; g++) {
+            map.put(keys.get(g), members[g]);
+        }
+        return map;
+    }
+
+    private static int capacity(int entries) {
+        return (int) Math.min(Integer.MAX_VALUE, entries * 4L / 3 + 1);
+    }
+
+    /**
+     * The rows of one group in an array of exactly their number, filled once while grouping.
+     */
+    private static final class Group extends AbstractList<Map<String, Object>> implements RandomAccess {
+        private final Object[] rows;
+        private int size;
+
+        Group(int capacity) {
+            this.rows = new Object[capacity];
+        }
+
+        void append(Map<String, Object> row) {
+            rows[size++] = row;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            return (Map<String, Object>) rows[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
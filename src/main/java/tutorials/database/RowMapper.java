@@ -0,0 +1,234 @@
+package tutorials.database;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RowMapper turns the current row of a result set into an instance of a record or POJO.
+ * <p>
+ * A mapper is compiled once per query shape, i.e. per target type and list of column labels: columns are matched to
+ * record components, setters or fields by name, ignoring case and underscores (FIRST_NAME matches firstName), and
+ * every matched column gets a {@link ColumnReader} for the Java type it is assigned to. The canonical constructor of
+ * a record, or the constructor, setters and fields of a POJO, are bound once into {@link MethodHandle}s, so mapping a
+ * row involves no reflective call. Compiled mappers are cached per type, at most {@value #MAX_SHAPES_PER_TYPE} shapes
+ * each, so repeated queries only pay for reading the values. Columns without a matching property are ignored.
+ *
+ * @param <T> the target type
+ */
+public final class RowMapper<T> {
+
+    /**
+     * The maximum number of cached shapes per target type; arbitrary ones are dropped beyond it.
+     */
+    public static final int MAX_SHAPES_PER_TYPE = 64;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType CONSTRUCT_RECORD = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType CONSTRUCT_POJO = MethodType.methodType(Object.class);
+    private static final MethodType ASSIGN = MethodType.methodType(void.class, Object.class, Object.class);
+
+    // a ClassValue does not keep the classes of its keys from being unloaded
+    private static final ClassValue<Map<List<String>, RowMapper<?>>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected Map<List<String>, RowMapper<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Class<T> type;
+    private final int[] columnIndexes;
+    private final ColumnReader[] readers;
+    private final Class<?>[] parameterTypes;
+    private final MethodHandle construct;
+    private final MethodHandle[] assigners;
+
+    private RowMapper(Class<T> type, int[] columnIndexes, ColumnReader[] readers, Class<?>[] parameterTypes,
+                      MethodHandle construct, MethodHandle[] assigners) {
+        this.type = type;
+        this.columnIndexes = columnIndexes;
+        this.readers = readers;
+        this.parameterTypes = parameterTypes;
+        this.construct = construct;
+        this.assigners = assigners;
+    }
+
+    /**
+     * Returns the mapper for the given type and result set shape, compiling it on first use.
+     *
+     * @param type the record or POJO class; POJOs need a no-argument constructor
+     * @param rsmd the metadata of the result set
+     * @param <T>  the target type
+     * @return the mapper
+     * @throws SQLException if the metadata cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> forShape(Class<T> type, ResultSetMetaData rsmd) throws SQLException {
+        List<String> labels = new ArrayList<>(rsmd.getColumnCount());
+        for (int i = 1; i <= rsmd.getColumnCount(); i++) {
+            labels.add(rsmd.getColumnLabel(i));
+        }
+        Map<List<String>, RowMapper<?>> shapes = MAPPERS.get(type);
+        RowMapper<?> mapper = shapes.get(labels);
+        if (mapper == null) {
+            mapper = shapes.computeIfAbsent(labels, key -> compile(type, key));
+            Iterator<List<String>> keys = shapes.keySet().iterator();
+            while (shapes.size() > MAX_SHAPES_PER_TYPE && keys.hasNext()) {
+                if (!keys.next().equals(labels)) {
+                    keys.remove();
+                }
+            }
+        }
+        return (RowMapper<T>) mapper;
+    }
+
+    /**
+     * Returns the number of cached shapes of the given type.
+     *
+     * @param type the record or POJO class
+     * @return the number of compiled mappers for the type
+     */
+    public static int cachedShapes(Class<?> type) {
+        return MAPPERS.get(type).size();
+    }
+
+    /**
+     * Maps the current row.
+     *
+     * @param resultSet the result set positioned on a row
+     * @return the new instance
+     * @throws SQLException if a value cannot be read
+     */
+    public T map(ResultSet resultSet) throws SQLException {
+        Object[] values = new Object[readers.length];
+        for (int i = 0; i < readers.length; i++) {
+            values[i] = columnIndexes[i] < 0 ? defaultValue(parameterTypes[i]) : nullSafe(readers[i].read(resultSet, columnIndexes[i]), parameterTypes[i]);
+        }
+        try {
+            if (assigners == null) {
+                return type.cast((Object) construct.invokeExact(values));
+            }
+            Object instance = (Object) construct.invokeExact();
+            for (int i = 0; i < assigners.length; i++) {
+                assigners[i].invokeExact(instance, values[i]);
+            }
+            return type.cast(instance);
+        } catch (Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new RuntimeException("Exception while mapping row to " + type.getName() + "! " + ex.getMessage(), ex);
+        }
+    }
+
+    private static <T> RowMapper<T> compile(Class<T> type, List<String> labels) {
+        Map<String, Integer> columnByName = new HashMap<>();
+        for (int i = 0; i < labels.size(); i++) {
+            columnByName.putIfAbsent(normalize(labels.get(i)), i + 1);
+        }
+        try {
+            return type.isRecord() ? compileRecord(type, columnByName) : compilePojo(type, columnByName);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalArgumentException("Cannot map rows to " + type.getName() + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    private static <T> RowMapper<T> compileRecord(Class<T> type, Map<String, Integer> columnByName) throws ReflectiveOperationException {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        int[] columnIndexes = new int[components.length];
+        ColumnReader[] readers = new ColumnReader[components.length];
+        for (int i = 0; i < components.length; i++) {
+            parameterTypes[i] = components[i].getType();
+            columnIndexes[i] = columnByName.getOrDefault(normalize(components[i].getName()), -1);
+            readers[i] = ColumnReader.forJavaType(parameterTypes[i]);
+        }
+        Constructor<T> constructor = type.getDeclaredConstructor(parameterTypes);
+        constructor.trySetAccessible();
+        MethodHandle construct = LOOKUP.unreflectConstructor(constructor).asSpreader(Object[].class, components.length).asType(CONSTRUCT_RECORD);
+        return new RowMapper<>(type, columnIndexes, readers, parameterTypes, construct, null);
+    }
+
+    private static <T> RowMapper<T> compilePojo(Class<T> type, Map<String, Integer> columnByName) throws ReflectiveOperationException {
+        Constructor<T> constructor = type.getDeclaredConstructor();
+        constructor.trySetAccessible();
+        Map<String, Method> settersByName = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            if (method.getName().startsWith("set") && method.getParameterCount() == 1) {
+                settersByName.putIfAbsent(normalize(method.getName().substring(3)), method);
+            }
+        }
+        Map<String, Field> fieldsByName = new HashMap<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                    fieldsByName.putIfAbsent(normalize(field.getName()), field);
+                }
+            }
+        }
+        List<Integer> columnIndexes = new ArrayList<>();
+        List<MethodHandle> assigners = new ArrayList<>();
+        List<Class<?>> types = new ArrayList<>();
+        for (Map.Entry<String, Integer> column : columnByName.entrySet()) {
+            Method setter = settersByName.get(column.getKey());
+            Field field = setter == null ? fieldsByName.get(column.getKey()) : null;
+            if (setter != null) {
+                setter.trySetAccessible();
+                assigners.add(LOOKUP.unreflect(setter).asType(ASSIGN));
+            } else if (field != null && field.trySetAccessible()) {
+                assigners.add(LOOKUP.unreflectSetter(field).asType(ASSIGN));
+            } else {
+                continue;
+            }
+            columnIndexes.add(column.getValue());
+            types.add(setter != null ? setter.getParameterTypes()[0] : field.getType());
+        }
+        ColumnReader[] readers = types.stream().map(ColumnReader::forJavaType).toArray(ColumnReader[]::new);
+        MethodHandle construct = LOOKUP.unreflectConstructor(constructor).asType(CONSTRUCT_POJO);
+        return new RowMapper<>(type, columnIndexes.stream().mapToInt(Integer::intValue).toArray(), readers,
+                types.toArray(new Class<?>[0]), construct, assigners.toArray(new MethodHandle[0]));
+    }
+
+    private static Object nullSafe(Object value, Class<?> type) {
+        return value == null ? defaultValue(type) : value;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0d;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,89 @@
+package tutorials.database;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * RowView is a read-only {@code Map<String, Object>} over one row of a {@link ColumnarResultSet}.
+ * It holds only the result set and the row index; keys and values are resolved through the shared schema and columns.
+ * Iteration follows the select order of the columns, like the LinkedHashMap rows of {@link DefaultDBHelper}; a column
+ * with the name of an earlier one is left out, as it would be by the map.
+ */
+public final class RowView extends AbstractMap<String, Object> {
+
+    private final ColumnarResultSet resultSet;
+    private final int row;
+
+    RowView(ColumnarResultSet resultSet, int row) {
+        this.resultSet = resultSet;
+        this.row = row;
+    }
+
+    /**
+     * Returns the index of this row in its result set.
+     *
+     * @return the zero-based row index
+     */
+    public int getRowIndex() {
+        return row;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int column = resultSet.getSchema().indexOf(key);
+        return column < 0 ? null : resultSet.getValue(row, column);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return resultSet.getSchema().indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return resultSet.getSchema().distinctSize();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        ColumnSchema schema = resultSet.getSchema();
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int column = skipShadowed(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return column < schema.size();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int current = column;
+                        column = skipShadowed(column + 1);
+                        return new SimpleImmutableEntry<>(schema.name(current), resultSet.getValue(row, current));
+                    }
+
+                    private int skipShadowed(int from) {
+                        while (from < schema.size() && schema.isShadowed(from)) {
+                            from++;
+                        }
+                        return from;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return schema.distinctSize();
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package tutorials.database;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * SQLScript is a .sql file that has been read and split into statements once by the {@link SQLScriptParser}.
+ *
+ * @param path         the file the script was read from
+ * @param lastModified the modification time of the file when it was read
+ * @param content      the raw file content
+ * @param statements   the parsed statements, in file order
+ */
+public record SQLScript(Path path, FileTime lastModified, String content, List<String> statements) {
+
+    public SQLScript {
+        statements = List.copyOf(statements);
+    }
+
+    /**
+     * Returns the number of statements.
+     *
+     * @return the number of statements
+     */
+    public int size() {
+        return statements.size();
+    }
+}
@@ -0,0 +1,138 @@
+package tutorials.database;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQLScriptCache keeps parsed {@link SQLScript}s keyed by file path, so a script that is run or read repeatedly
+ * is only read from disk and parsed again after the file has been modified. Files that are only {@link #read(Path) read}
+ * as a whole are cached unparsed.
+ * <p>
+ * A lookup costs one stat call for the modification time. Files are decoded with the default charset and
+ * malformed bytes are replaced, like {@code new String(bytes)}, so scripts in Latin-1 or Windows-1252 still load.
+ * The cache is thread-safe.
+ */
+public class SQLScriptCache {
+
+    private static final LoggerManager loggerManager = new LoggerManager(SQLScriptCache.class);
+
+    private final SQLScriptParser parser;
+    private final Map<Path, SQLScript> scripts = new ConcurrentHashMap<>();
+    private final Map<Path, Content> contents = new ConcurrentHashMap<>();
+
+    private record Content(FileTime lastModified, String text) {
+    }
+
+    /**
+     * Creates a cache that parses scripts with ";" as delimiter.
+     */
+    public SQLScriptCache() {
+        this(new SQLScriptParser());
+    }
+
+    /**
+     * Creates a cache that parses scripts with the given parser.
+     *
+     * @param parser the parser
+     */
+    public SQLScriptCache(SQLScriptParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Returns the parsed script for the given file, reading and parsing it only if it is not cached
+     * or has been modified since.
+     *
+     * @param path the .sql file
+     * @return the parsed script
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws RuntimeException     if the script cannot be split into statements, e.g. for an unterminated quote
+     */
+    public SQLScript load(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        try {
+            FileTime lastModified = Files.getLastModifiedTime(key);
+            SQLScript cached = scripts.get(key);
+            if (cached != null && cached.lastModified().equals(lastModified)) {
+                return cached;
+            }
+            String content = new String(Files.readAllBytes(key));
+            SQLScript script = new SQLScript(key, lastModified, content, parse(key, content));
+            scripts.put(key, script);
+            loggerManager.debug(() -> "Parsed " + script.size() + " statements from " + key);
+            return script;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error reading the SQL file: " + path, ex);
+        }
+    }
+
+    /**
+     * Returns the content of the given file as it is, without splitting it into statements, reading it only if it
+     * is not cached or has been modified since.
+     *
+     * @param path the .sql file
+     * @return the file content
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public String read(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        try {
+            FileTime lastModified = Files.getLastModifiedTime(key);
+            SQLScript script = scripts.get(key);
+            if (script != null && script.lastModified().equals(lastModified)) {
+                return script.content();
+            }
+            Content cached = contents.get(key);
+            if (cached != null && cached.lastModified().equals(lastModified)) {
+                return cached.text();
+            }
+            String text = new String(Files.readAllBytes(key));
+            contents.put(key, new Content(lastModified, text));
+            return text;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error reading the SQL file: " + path, ex);
+        }
+    }
+
+    private List<String> parse(Path path, String content) {
+        try {
+            return parser.parse(content);
+        } catch (IllegalArgumentException ex) {
+            throw new RuntimeException("Exception while parsing SQL script! Cannot parse " + path + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Removes the given file from the cache.
+     *
+     * @param path the .sql file
+     */
+    public void invalidate(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        scripts.remove(key);
+        contents.remove(key);
+    }
+
+    /**
+     * Removes all scripts from the cache.
+     */
+    public void clear() {
+        scripts.clear();
+        contents.clear();
+    }
+
+    /**
+     * Returns the number of cached parsed scripts.
+     *
+     * @return the number of cached parsed scripts
+     */
+    public int size() {
+        return scripts.size();
+    }
+}
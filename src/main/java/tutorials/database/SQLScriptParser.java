@@ -0,0 +1,163 @@
+package tutorials.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQLScriptParser splits the content of a .sql file into single statements.
+ * <p>
+ * Statements end with the delimiter, ";" by default. Delimiters inside quoted strings ('...', "..." and `...`,
+ * with doubled quotes as escape) and inside comments are ignored. Line comments (--) and block comments are removed,
+ * except optimizer hints written as /*+ ... *&#47;. A line starting with {@code DELIMITER xx} between two statements,
+ * as known from the MySQL client, switches the delimiter for the following statements, e.g. to $$ for procedure
+ * bodies.
+ * <p>
+ * A one-character delimiter like ";" ends a statement wherever it stands. Delimiters of more than one character only end a statement at the end of
+ * a line, and "/" only on a line of its own like in SQL*Plus, so {@code SELECT a / b} is not split.
+ */
+public class SQLScriptParser {
+
+    /**
+     * The default statement delimiter.
+     */
+    public static final String DEFAULT_DELIMITER = ";";
+
+    private static final String DELIMITER_DIRECTIVE = "DELIMITER ";
+
+    private final String initialDelimiter;
+
+    /**
+     * Creates a parser using ";" as delimiter.
+     */
+    public SQLScriptParser() {
+        this(DEFAULT_DELIMITER);
+    }
+
+    /**
+     * Creates a parser using the given delimiter.
+     *
+     * @param delimiter the statement delimiter, e.g. ";" or "/"
+     */
+    public SQLScriptParser(String delimiter) {
+        if (delimiter == null || delimiter.isBlank()) {
+            throw new IllegalArgumentException("Delimiter must not be blank");
+        }
+        this.initialDelimiter = delimiter;
+    }
+
+    /**
+     * Splits the given script into statements.
+     *
+     * @param script the script content
+     * @return the trimmed, non-empty statements without their delimiters
+     */
+    public List<String> parse(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String delimiter = initialDelimiter;
+        boolean lineStart = true;
+        int length = script.length();
+        int i = 0;
+        while (i < length) {
+            char c = script.charAt(i);
+            if (lineStart && isDelimiterDirective(script, i) && current.toString().isBlank()) {
+                int end = lineEnd(script, i);
+                delimiter = script.substring(i + DELIMITER_DIRECTIVE.length(), end).trim();
+                if (delimiter.isEmpty()) {
+                    throw new IllegalArgumentException("DELIMITER directive without delimiter");
+                }
+                i = end;
+                continue;
+            }
+            if (c == '\n') {
+                lineStart = true;
+                current.append(c);
+                i++;
+                continue;
+            }
+            boolean firstOnLine = lineStart;
+            if (!Character.isWhitespace(c)) {
+                lineStart = false;
+            }
+            if (script.startsWith("--", i)) {
+                i = lineEnd(script, i);
+            } else if (script.startsWith("/*", i) && !script.startsWith("/*+", i)) {
+                int end = script.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                current.append(' ');
+            } else if (c == '\'' || c == '"' || c == '`') {
+                i = copyQuoted(script, i, c, current);
+            } else if (isDelimiter(script, i, delimiter, firstOnLine)) {
+                addStatement(statements, current);
+                i += delimiter.length();
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    /**
+     * Checks for the delimiter at the index; a longer delimiter has to end the line, and "/" has to stand alone on it.
+     */
+    private static boolean isDelimiter(String script, int index, String delimiter, boolean firstOnLine) {
+        if (!script.startsWith(delimiter, index)) {
+            return false;
+        }
+        if (delimiter.equals("/")) {
+            if (!firstOnLine) {
+                return false;
+            }
+        } else if (delimiter.length() == 1) {
+            return true;
+        }
+        for (int i = index + delimiter.length(); i < script.length() && script.charAt(i) != '\n'; i++) {
+            if (!Character.isWhitespace(script.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDelimiterDirective(String script, int index) {
+        int i = index;
+        while (i < script.length() && (script.charAt(i) == ' ' || script.charAt(i) == '\t')) {
+            i++;
+        }
+        return script.regionMatches(true, i, DELIMITER_DIRECTIVE, 0, DELIMITER_DIRECTIVE.length());
+    }
+
+    private static int lineEnd(String script, int index) {
+        int end = script.indexOf('\n', index);
+        return end < 0 ? script.length() : end;
+    }
+
+    private static int copyQuoted(String script, int start, char quote, StringBuilder current) {
+        current.append(quote);
+        int i = start + 1;
+        while (i < script.length()) {
+            char c = script.charAt(i);
+            current.append(c);
+            i++;
+            if (c == quote) {
+                if (i < script.length() && script.charAt(i) == quote) {
+                    current.append(quote);
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unterminated quoted string starting at offset " + start);
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String statement = current.toString().trim();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+}
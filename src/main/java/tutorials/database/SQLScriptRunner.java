@@ -0,0 +1,173 @@
+package tutorials.database;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * SQLScriptRunner executes all statements of an {@link SQLScript} over one connection in one transaction.
+ * <p>
+ * Consecutive statements that return no result set (DDL, INSERT, UPDATE, ...) are sent with addBatch/executeBatch in
+ * batches of a configurable size, so large setup scripts need only a few round trips. Queries are executed on their
+ * own and their results are discarded. Every round trip is timed. On failure the transaction is rolled back and the
+ * failing statement is reported.
+ * <p>
+ * The runner only manages the transaction of a connection in auto-commit mode, and switches auto-commit on again
+ * afterwards. On a connection that already has a transaction open, the statements run in that transaction and
+ * committing or rolling it back is left to the caller.
+ */
+public class SQLScriptRunner {
+
+    /**
+     * The default number of statements per executeBatch call.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final LoggerManager loggerManager = new LoggerManager(SQLScriptRunner.class);
+
+    private final int batchSize;
+
+    /**
+     * Creates a script runner with the default batch size.
+     */
+    public SQLScriptRunner() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a script runner.
+     *
+     * @param batchSize the number of statements per executeBatch call; 1 executes and times every statement on its own
+     */
+    public SQLScriptRunner(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Executes all statements of the script.
+     *
+     * @param connection the database connection
+     * @param script     the parsed script
+     * @return the script result with the timing of every round trip
+     */
+    public ScriptResult run(Connection connection, SQLScript script) {
+        long start = System.nanoTime();
+        List<String> statements = script.statements();
+        List<ScriptResult.StatementTiming> timings = new ArrayList<>();
+        int index = 0;
+        boolean managed = getAutoCommit(connection);
+        try (Statement statement = connection.createStatement()) {
+            if (managed) {
+                connection.setAutoCommit(false);
+            }
+            while (index < statements.size()) {
+                int end = index + 1;
+                if (batchSize > 1 && !returnsResultSet(statements.get(index))) {
+                    while (end < statements.size() && end - index < batchSize && !returnsResultSet(statements.get(end))) {
+                        end++;
+                    }
+                }
+                timings.add(end - index == 1 ? executeSingle(statement, statements, index) : executeBatch(statement, statements, index, end));
+                index = end;
+            }
+            if (managed) {
+                connection.commit();
+            }
+        } catch (SQLException ex) {
+            if (managed) {
+                rollback(connection);
+            }
+            String failed = index < statements.size() ? statements.get(index) : "";
+            throw new RuntimeException("Exception while executing SQL script " + script.path() + " at statement " + (index + 1) + " [" + failed + "]! " + ex.getMessage(), ex);
+        } catch (RuntimeException | Error ex) {
+            // restoring auto-commit would commit the statements run so far
+            if (managed) {
+                rollback(connection);
+            }
+            throw ex;
+        } finally {
+            if (managed) {
+                restoreAutoCommit(connection);
+            }
+        }
+        ScriptResult result = new ScriptResult(script.path(), timings, System.nanoTime() - start);
+        loggerManager.info("Script finished: " + result);
+        return result;
+    }
+
+    private ScriptResult.StatementTiming executeSingle(Statement statement, List<String> statements, int index) throws SQLException {
+        String sql = statements.get(index);
+        long start = System.nanoTime();
+        boolean isQuery = statement.execute(sql);
+        long updateCount = isQuery ? 0 : Math.max(statement.getUpdateCount(), 0);
+        ScriptResult.StatementTiming timing = new ScriptResult.StatementTiming(index, List.of(sql), updateCount, System.nanoTime() - start);
+        loggerManager.debug(() -> "Statement " + (index + 1) + " took " + timing.elapsedNanos() / 1_000 + " µs");
+        return timing;
+    }
+
+    private ScriptResult.StatementTiming executeBatch(Statement statement, List<String> statements, int from, int to) throws SQLException {
+        List<String> batch = statements.subList(from, to);
+        long start = System.nanoTime();
+        for (String sql : batch) {
+            statement.addBatch(sql);
+        }
+        long updateCount = 0;
+        try {
+            for (int count : statement.executeBatch()) {
+                updateCount += Math.max(count, 0);
+            }
+        } catch (BatchUpdateException ex) {
+            // drivers that stop at the first failure report the counts of the statements before it
+            int failed = from + ex.getUpdateCounts().length;
+            throw new SQLException("Statement " + (failed + 1) + " [" + statements.get(Math.min(failed, to - 1)) + "] failed: " + ex.getMessage(), ex);
+        } finally {
+            statement.clearBatch();
+        }
+        ScriptResult.StatementTiming timing = new ScriptResult.StatementTiming(from, batch, updateCount, System.nanoTime() - start);
+        loggerManager.debug(() -> "Statements " + (from + 1) + "-" + to + " took " + timing.elapsedNanos() / 1_000 + " µs");
+        return timing;
+    }
+
+    static boolean returnsResultSet(String sql) {
+        String head = sql.stripLeading();
+        int end = 0;
+        while (end < head.length() && Character.isLetter(head.charAt(end))) {
+            end++;
+        }
+        return switch (head.substring(0, end).toUpperCase(Locale.ROOT)) {
+            case "SELECT", "WITH", "VALUES", "SHOW", "EXPLAIN", "CALL", "TABLE" -> true;
+            default -> false;
+        };
+    }
+
+    private boolean getAutoCommit(Connection connection) {
+        try {
+            return connection.getAutoCommit();
+        } catch (SQLException ex) {
+            throw new RuntimeException("Exception while reading auto-commit! " + ex.getMessage(), ex);
+        }
+    }
+
+    private void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException ex) {
+            loggerManager.error("Exception while rolling back script! " + ex.getMessage());
+        }
+    }
+
+    private void restoreAutoCommit(Connection connection) {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException ex) {
+            loggerManager.error("Exception while restoring auto-commit! " + ex.getMessage());
+        }
+    }
+}
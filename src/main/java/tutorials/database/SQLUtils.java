@@ -1,9 +1,10 @@
 package tutorials.database;
 
 
-import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 
 /**
  * SQLUtils provides utility methods for SQL operations, such as reading SQL statements from files.
@@ -12,10 +13,14 @@ public class SQLUtils {
 
     private static final LoggerManager loggerManager = new LoggerManager(SQLUtils.class);
 
+    private static final SQLScriptCache scriptCache = new SQLScriptCache();
+
     /**
      * Retrieves an SQL statement from the given content or file name.
      *
      * If the provided string ends with ".sql", it treats the string as a file name and reads the SQL statement from the file.
+     * The file content is returned as it is, without splitting it into statements; it is cached and only read again
+     * after the file has been modified. It is decoded with the default charset, replacing malformed bytes.
      * Otherwise, it assumes the string is an SQL statement itself, provided it starts with "select".
      *
      * @param sqlContentOrFilename the SQL content or the file name containing the SQL statement
@@ -26,18 +31,44 @@ public class SQLUtils {
         String sqlStatement = sqlContentOrFilename;
         if (sqlContentOrFilename.endsWith(".sql")) {
             try {
-                sqlStatement = new String(Files.readAllBytes(Paths.get(sqlContentOrFilename)));
+                sqlStatement = scriptCache.read(Paths.get(sqlContentOrFilename));
                 if (sqlStatement.isEmpty()) {
                     loggerManager.error("Given .sql file is empty or cannot be read! File: " + sqlContentOrFilename);
                 }
-            } catch (IOException e) {
-                loggerManager.error("Error reading the SQL file: " + sqlContentOrFilename, e);
+            } catch (UncheckedIOException e) {
+                loggerManager.error("Error reading the SQL file: " + sqlContentOrFilename, e.getCause());
             }
         } else if (!sqlContentOrFilename.trim().toLowerCase().startsWith("select")) {
             loggerManager.error("Given content is neither a .sql file nor a SELECT statement");
         }
         return sqlStatement;
     }
-}
 
+    /**
+     * Reads the given .sql file and splits it into statements. Parsed scripts are cached by path and
+     * modification time, so unchanged files are neither read nor parsed again.
+     *
+     * @param filename the .sql file
+     * @return the parsed script
+     * @throws UncheckedIOException if the file cannot be read
+     * @throws RuntimeException     if the script cannot be split into statements, e.g. for an unterminated quote
+     */
+    public SQLScript getSQLScript(String filename) {
+        return scriptCache.load(Paths.get(filename));
+    }
 
+    /**
+     * Binds the given parameters to the ? placeholders of the statement, in order.
+     * Values are passed with setObject, so JDBC 4.2 types such as LocalDate are supported; null is bound
+     * as SQL NULL through setObject as well, since drivers like Oracle reject setNull with Types.NULL.
+     *
+     * @param statement the prepared statement
+     * @param params    the parameter values
+     * @throws SQLException if a parameter cannot be bound
+     */
+    public static void bindParameters(PreparedStatement statement, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+    }
+}
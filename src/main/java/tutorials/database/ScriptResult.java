@@ -0,0 +1,81 @@
+package tutorials.database;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * ScriptResult summarizes a run of an {@link SQLScript} by the {@link SQLScriptRunner}.
+ *
+ * @param path         the script file
+ * @param timings      one timing per round trip, in execution order
+ * @param elapsedNanos the total time spent, in nanoseconds
+ */
+public record ScriptResult(Path path, List<StatementTiming> timings, long elapsedNanos) {
+
+    public ScriptResult {
+        timings = List.copyOf(timings);
+    }
+
+    /**
+     * Returns the number of executed statements.
+     *
+     * @return the number of statements
+     */
+    public int statementCount() {
+        return timings.stream().mapToInt(timing -> timing.statements().size()).sum();
+    }
+
+    /**
+     * Returns the sum of all update counts reported by the driver.
+     *
+     * @return the number of affected rows
+     */
+    public long rowsAffected() {
+        return timings.stream().mapToLong(StatementTiming::updateCount).sum();
+    }
+
+    /**
+     * Returns the slowest round trip of the run.
+     *
+     * @return the slowest timing, or null if the script was empty
+     */
+    public StatementTiming slowest() {
+        StatementTiming slowest = null;
+        for (StatementTiming timing : timings) {
+            if (slowest == null || timing.elapsedNanos() > slowest.elapsedNanos()) {
+                slowest = timing;
+            }
+        }
+        return slowest;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d statements in %d round trips, %d rows affected, %.1f ms",
+                path, statementCount(), timings.size(), rowsAffected(), elapsedNanos / 1_000_000.0);
+    }
+
+    /**
+     * StatementTiming is the time of one round trip: a single statement, or several statements sent as one batch.
+     *
+     * @param firstIndex   the zero-based index of the first statement in the script
+     * @param statements   the executed statements
+     * @param updateCount  the number of affected rows, 0 for queries and DDL
+     * @param elapsedNanos the time spent, in nanoseconds
+     */
+    public record StatementTiming(int firstIndex, List<String> statements, long updateCount, long elapsedNanos) {
+
+        public StatementTiming {
+            statements = List.copyOf(statements);
+        }
+
+        /**
+         * Returns whether the statements were sent as a batch.
+         *
+         * @return true for a batch of more than one statement
+         */
+        public boolean isBatch() {
+            return statements.size() > 1;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package tutorials.database;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * SimpleDatePattern parses and formats with a {@link SimpleDateFormat} pattern and gives the results of
+ * SimpleDateFormat, without compiling a SimpleDateFormat per value.
+ * <p>
+ * The pattern is compiled once into a prototype. Since SimpleDateFormat is not thread-safe, every thread parses and
+ * formats with its own clone of the prototype, which is created on first use and then reused. So lenient parsing,
+ * two-digit years, time zone names and every other pattern letter behave exactly as with a new SimpleDateFormat.
+ * <p>
+ * The SimpleDatePattern is thread-safe.
+ */
+final class SimpleDatePattern {
+
+    private final ThreadLocal<SimpleDateFormat> formats;
+    private final TimeZone zone;
+    private final boolean parsesZone;
+
+    private SimpleDatePattern(SimpleDateFormat prototype) {
+        this.formats = ThreadLocal.withInitial(() -> (SimpleDateFormat) prototype.clone());
+        this.zone = prototype.getTimeZone();
+        String pattern = prototype.toPattern();
+        this.parsesZone = pattern.indexOf('z') >= 0 || pattern.indexOf('Z') >= 0 || pattern.indexOf('X') >= 0;
+    }
+
+    /**
+     * Compiles a pattern.
+     *
+     * @param pattern the SimpleDateFormat pattern, e.g. "dd.MM.yyyy HH:mm"
+     * @param locale  the locale for month and day names
+     * @return the compiled pattern
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    static SimpleDatePattern compile(String pattern, Locale locale) {
+        return new SimpleDatePattern(new SimpleDateFormat(pattern, locale));
+    }
+
+    /**
+     * Parses the text; trailing text after the pattern is ignored.
+     *
+     * @param text the text
+     * @return the date time in the system zone
+     * @throws DateTimeException if the text does not match the pattern or the date is out of range
+     */
+    ZonedDateTime parse(String text) {
+        SimpleDateFormat format = formats.get();
+        try {
+            return Instant.ofEpochMilli(format.parse(text).getTime()).atZone(ZoneId.systemDefault());
+        } catch (ParseException ex) {
+            throw new DateTimeParseException(ex.getMessage(), text, ex.getErrorOffset(), ex);
+        } finally {
+            if (parsesZone) {
+                // parsing a zone name sets it on the format, the next call has to start in the zone of the prototype
+                format.setTimeZone(zone);
+            }
+        }
+    }
+
+    /**
+     * Formats a date or time. Values with a zone or offset are formatted in the system zone, like SimpleDateFormat
+     * formats a Date; local values are formatted as they are.
+     *
+     * @param temporal the date or time
+     * @return the formatted text
+     * @throws DateTimeException if the value is neither a date nor a date time nor a time, or out of range
+     */
+    String format(TemporalAccessor temporal) {
+        ZoneId systemZone = ZoneId.systemDefault();
+        ZonedDateTime dateTime = switch (temporal) {
+            case ZonedDateTime zoned -> zoned;
+            case OffsetDateTime offset -> offset.toZonedDateTime();
+            case Instant instant -> instant.atZone(systemZone);
+            case LocalDateTime local -> local.atZone(systemZone);
+            case LocalDate date -> date.atStartOfDay(systemZone);
+            case LocalTime time -> time.atDate(LocalDate.EPOCH).atZone(systemZone);
+            default -> ZonedDateTime.from(temporal);
+        };
+        long millis;
+        try {
+            millis = dateTime.toInstant().toEpochMilli();
+        } catch (ArithmeticException ex) {
+            throw new DateTimeException("Date out of range: " + temporal, ex);
+        }
+        return formats.get().format(new Date(millis));
+    }
+}
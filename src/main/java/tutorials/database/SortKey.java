@@ -0,0 +1,51 @@
+package tutorials.database;
+
+import java.util.Objects;
+
+/**
+ * SortKey describes one column of a {@link ResultSetSorter}, like one entry of ORDER BY in SQL.
+ *
+ * @param column     the column to sort by
+ * @param descending whether the column is sorted from the largest to the smallest value
+ * @param numeric    whether the values are compared as numbers, e.g. the Strings of {@link DBConnector#execute(String)}
+ */
+public record SortKey(String column, boolean descending, boolean numeric) {
+
+    public SortKey {
+        Objects.requireNonNull(column, "column");
+    }
+
+    /**
+     * Sorts by the given column from the smallest to the largest value.
+     *
+     * @param column the column
+     * @return the sort key
+     */
+    public static SortKey asc(String column) {
+        return new SortKey(column, false, false);
+    }
+
+    /**
+     * Sorts by the given column from the largest to the smallest value.
+     *
+     * @param column the column
+     * @return the sort key
+     */
+    public static SortKey desc(String column) {
+        return new SortKey(column, true, false);
+    }
+
+    /**
+     * Returns a copy that compares the values as numbers, so "9" sorts before "10".
+     *
+     * @return the numeric sort key
+     */
+    public SortKey asNumbers() {
+        return new SortKey(column, descending, true);
+    }
+
+    @Override
+    public String toString() {
+        return column + (descending ? " DESC" : " ASC") + (numeric ? " NUMERIC" : "");
+    }
+}
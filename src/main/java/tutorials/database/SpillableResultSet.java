@@ -0,0 +1,285 @@
+package tutorials.database;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * SpillableResultSet holds a result set that may be larger than the heap: the first rows are kept in memory as maps,
+ * all further rows are written to a temporary file with a {@link BinaryRowWriter}.
+ * <p>
+ * Iterating returns the in-memory rows first and then reads the spilled rows back through a memory-mapped
+ * {@link BinaryRowReader}, so only the current spilled row is on the heap. The container can be iterated several
+ * times. Closing it deletes the temporary file.
+ * <p>
+ * An iterator keeps the spill file mapped until it is exhausted or closed. When an iteration may stop early,
+ * e.g. with break, close the {@link RowIterator}, or use {@link #stream()} in try-with-resources, which closes it
+ * with the stream; closing the container closes the iterators that are still open.
+ * Rows can be added as long as no iteration is running.
+ */
+public class SpillableResultSet implements Iterable<Map<String, Object>>, AutoCloseable {
+
+    /**
+     * The default number of rows kept in memory.
+     */
+    public static final int DEFAULT_MEMORY_ROWS = 100_000;
+
+    private static final LoggerManager loggerManager = new LoggerManager(SpillableResultSet.class);
+
+    private final ColumnSchema schema;
+    private final int memoryRows;
+    private final Path tempDirectory;
+    private final List<Map<String, Object>> rows = new ArrayList<>();
+    private final Set<BinaryRowReader> openReaders = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    private Path spillFile;
+    private BinaryRowWriter spillWriter;
+    private long spilledRows;
+
+    /**
+     * Creates an empty container that spills into the default temporary directory.
+     *
+     * @param schema     the columns of the rows
+     * @param memoryRows the number of rows kept in memory before spilling
+     */
+    public SpillableResultSet(ColumnSchema schema, int memoryRows) {
+        this(schema, memoryRows, null);
+    }
+
+    /**
+     * Creates an empty container.
+     *
+     * @param schema        the columns of the rows
+     * @param memoryRows    the number of rows kept in memory before spilling
+     * @param tempDirectory the directory for the spill file, null for the default temporary directory
+     */
+    public SpillableResultSet(ColumnSchema schema, int memoryRows, Path tempDirectory) {
+        if (memoryRows < 0) {
+            throw new IllegalArgumentException("memoryRows must not be negative: " + memoryRows);
+        }
+        this.schema = schema;
+        this.memoryRows = memoryRows;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Reads all rows of the result set, with the values as strings like {@link DefaultDBHelper#executeSQL}.
+     *
+     * @param resultSet  the open result set, read to its end but not closed
+     * @param memoryRows the number of rows kept in memory before spilling
+     * @return the filled container
+     * @throws SQLException if the result set cannot be read
+     */
+    public static SpillableResultSet from(ResultSet resultSet, int memoryRows) throws SQLException {
+        ResultSetMetaData rsmd = resultSet.getMetaData();
+        String[] names = new String[rsmd.getColumnCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = rsmd.getColumnName(i + 1);
+        }
+        SpillableResultSet result = new SpillableResultSet(new ColumnSchema(names), memoryRows);
+        try {
+            while (resultSet.next()) {
+                Map<String, Object> row = new LinkedHashMap<>(names.length * 4 / 3 + 1);
+                for (int i = 0; i < names.length; i++) {
+                    row.put(names[i], resultSet.getString(i + 1));
+                }
+                result.add(row);
+            }
+        } catch (SQLException | RuntimeException ex) {
+            result.close();
+            throw ex;
+        }
+        return result;
+    }
+
+    /**
+     * Adds a row, spilling it to disk if the in-memory rows are full.
+     *
+     * @param row the row, with the values of the schema columns
+     * @throws UncheckedIOException if the spill file cannot be written
+     */
+    public void add(Map<String, Object> row) {
+        if (rows.size() < memoryRows) {
+            rows.add(row);
+            return;
+        }
+        if (spillWriter == null) {
+            openSpillFile();
+        }
+        spillWriter.write(row);
+        spilledRows++;
+    }
+
+    /**
+     * Returns the columns of the rows.
+     *
+     * @return the schema
+     */
+    public ColumnSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns the total number of rows.
+     *
+     * @return the number of rows
+     */
+    public long size() {
+        return rows.size() + spilledRows;
+    }
+
+    /**
+     * Returns the rows kept in memory.
+     *
+     * @return an unmodifiable view of the in-memory rows
+     */
+    public List<Map<String, Object>> getMemoryRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Returns the number of rows written to disk.
+     *
+     * @return the number of spilled rows
+     */
+    public long getSpilledCount() {
+        return spilledRows;
+    }
+
+    /**
+     * Returns the number of bytes written to disk.
+     *
+     * @return the size of the spill data
+     */
+    public long getSpilledBytes() {
+        return spillWriter == null ? 0 : spillWriter.getBytesWritten();
+    }
+
+    /**
+     * Returns an iterator over all rows. If rows were spilled, close it when it is not read to the end.
+     *
+     * @return the iterator over the rows
+     */
+    @Override
+    public RowIterator iterator() {
+        Iterator<Map<String, Object>> memory = rows.iterator();
+        BinaryRowReader spilled;
+        if (spillWriter == null) {
+            spilled = null;
+        } else {
+            spillWriter.flush();
+            spilled = BinaryRowReader.open(spillFile);
+            openReaders.add(spilled);
+        }
+        return new RowIterator() {
+            private boolean open = spilled != null;
+
+            @Override
+            public boolean hasNext() {
+                if (memory.hasNext()) {
+                    return true;
+                }
+                if (open && spilled.hasNext()) {
+                    return true;
+                }
+                close();
+                return false;
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                if (memory.hasNext()) {
+                    return memory.next();
+                }
+                if (!open || !spilled.advance()) {
+                    close();
+                    throw new NoSuchElementException();
+                }
+                return spilled.getRow();
+            }
+
+            @Override
+            public void close() {
+                if (open) {
+                    open = false;
+                    openReaders.remove(spilled);
+                    spilled.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns all rows as a sequential stream that releases the spill file when it is closed.
+     *
+     * @return the stream of rows
+     */
+    public Stream<Map<String, Object>> stream() {
+        RowIterator iterator = iterator();
+        return StreamSupport.stream(Spliterators.spliterator(iterator, size(), Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Releases the in-memory rows, closes the iterators that are still open and deletes the spill file.
+     */
+    @Override
+    public void close() {
+        rows.clear();
+        synchronized (openReaders) {
+            openReaders.forEach(BinaryRowReader::close);
+            openReaders.clear();
+        }
+        if (spillWriter != null) {
+            try {
+                spillWriter.close();
+                Files.deleteIfExists(spillFile);
+            } catch (IOException | UncheckedIOException ex) {
+                loggerManager.warn("Exception while deleting spill file " + spillFile + "! " + ex.getMessage());
+                spillFile.toFile().deleteOnExit();
+            }
+            spillWriter = null;
+            spilledRows = 0;
+        }
+    }
+
+    /**
+     * An iterator over the rows that keeps the spill file mapped until it is exhausted or closed.
+     */
+    public interface RowIterator extends Iterator<Map<String, Object>>, AutoCloseable {
+
+        /**
+         * Releases the spill file; does nothing if the iterator is exhausted or closed already.
+         */
+        @Override
+        void close();
+    }
+
+    private void openSpillFile() {
+        try {
+            spillFile = tempDirectory == null ? Files.createTempFile("resultset-", ".rows") : Files.createTempFile(tempDirectory, "resultset-", ".rows");
+            spillWriter = new BinaryRowWriter(FileChannel.open(spillFile, StandardOpenOption.WRITE), schema);
+            loggerManager.info("Result set exceeds " + memoryRows + " rows, spilling to " + spillFile);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Exception while creating spill file! " + ex.getMessage(), ex);
+        }
+    }
+}
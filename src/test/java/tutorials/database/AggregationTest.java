@@ -0,0 +1,122 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregationTest {
+
+    private static Map<String, Object> row(Object... keysAndValues) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            row.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return row;
+    }
+
+    private static final List<Map<String, Object>> ORDERS = List.of(
+            row("REGION", "EU", "CUSTOMER", "a", "AMOUNT", "10"),
+            row("REGION", "US", "CUSTOMER", "b", "AMOUNT", "2.5"),
+            row("REGION", "EU", "CUSTOMER", "a", "AMOUNT", "9"),
+            row("REGION", "EU", "CUSTOMER", "c", "AMOUNT", null),
+            row("REGION", "US", "CUSTOMER", "b", "AMOUNT", "7.5"));
+
+    @Test
+    void testGroupsStringRowsInOrderOfFirstAppearance() {
+        List<Map<String, Object>> result = new Aggregation("REGION")
+                .aggregate(Aggregate.count(), Aggregate.count("AMOUNT"), Aggregate.sum("AMOUNT"), Aggregate.avg("AMOUNT"),
+                        Aggregate.min("AMOUNT"), Aggregate.max("AMOUNT"), Aggregate.countDistinct("CUSTOMER").as("CUSTOMERS"))
+                .apply(ORDERS);
+        assertEquals(2, result.size());
+        Map<String, Object> eu = result.get(0);
+        assertEquals(List.of("REGION", "COUNT(*)", "COUNT(AMOUNT)", "SUM(AMOUNT)", "AVG(AMOUNT)", "MIN(AMOUNT)", "MAX(AMOUNT)", "CUSTOMERS"),
+                List.copyOf(eu.keySet()));
+        assertEquals("EU", eu.get("REGION"));
+        assertEquals(3L, eu.get("COUNT(*)"));
+        assertEquals(2L, eu.get("COUNT(AMOUNT)"));
+        assertEquals(19L, eu.get("SUM(AMOUNT)"));
+        assertEquals(9.5, eu.get("AVG(AMOUNT)"));
+        assertEquals("9", eu.get("MIN(AMOUNT)"), "Numbers are compared numerically, not as strings");
+        assertEquals("10", eu.get("MAX(AMOUNT)"));
+        assertEquals(2L, eu.get("CUSTOMERS"));
+        Map<String, Object> us = result.get(1);
+        assertEquals(new BigDecimal("10.0"), us.get("SUM(AMOUNT)"));
+        assertEquals(1L, us.get("CUSTOMERS"));
+    }
+
+    @Test
+    void testWithoutGroupColumnsReturnsOneRow() {
+        Aggregation total = new Aggregation().aggregate(Aggregate.count(), Aggregate.sum("AMOUNT"), Aggregate.max("CUSTOMER"));
+        assertEquals(List.of(row("COUNT(*)", 5L, "SUM(AMOUNT)", new BigDecimal("29.0"), "MAX(CUSTOMER)", "c")), total.apply(ORDERS));
+        assertEquals(List.of(row("COUNT(*)", 0L, "SUM(AMOUNT)", null, "MAX(CUSTOMER)", null)), total.apply(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new Aggregation().aggregate(Aggregate.sum("CUSTOMER")).apply(ORDERS));
+    }
+
+    @Test
+    void testSumsAndAveragesAreExact() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(row("G", "decimal", "V", i % 2 == 0 ? new BigDecimal("0.1") : "0.1"));
+        }
+        long big = (1L << 53) + 1;
+        for (int i = 0; i < 3; i++) {
+            rows.add(row("G", "long", "V", big));
+            rows.add(row("G", "overflow", "V", Long.MAX_VALUE));
+        }
+        List<Map<String, Object>> result = new Aggregation("G").aggregate(Aggregate.sum("V"), Aggregate.avg("V")).apply(rows);
+        assertEquals(row("G", "decimal", "SUM(V)", new BigDecimal("1.0"), "AVG(V)", new BigDecimal("0.1")), result.get(0));
+        assertEquals(row("G", "long", "SUM(V)", 3 * big, "AVG(V)", (double) big), result.get(1));
+        assertEquals(row("G", "overflow", "SUM(V)", BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(3)),
+                "AVG(V)", (double) Long.MAX_VALUE), result.get(2));
+    }
+
+    @Test
+    void testParallelAggregationMatchesSequential() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 4 * Aggregation.MIN_ROWS_PER_THREAD; i++) {
+            rows.add(row("CODE", "C" + (i % 97), "STATUS", i % 3 == 0 ? "OPEN" : "DONE", "AMOUNT", String.valueOf(i), "USER", i % 11));
+        }
+        Aggregation aggregation = new Aggregation("CODE", "STATUS")
+                .aggregate(Aggregate.count(), Aggregate.sum("AMOUNT"), Aggregate.min("AMOUNT"), Aggregate.max("AMOUNT"),
+                        Aggregate.countDistinct("USER"));
+        List<Map<String, Object>> sequential = aggregation.withParallelism(1).apply(rows);
+        List<Map<String, Object>> parallel = aggregation.withParallelism(4).apply(rows);
+        assertEquals(97 * 2, sequential.size());
+        assertEquals(sequential, parallel);
+        long total = parallel.stream().mapToLong(group -> (Long) group.get("SUM(AMOUNT)")).sum();
+        assertEquals((long) rows.size() * (rows.size() - 1) / 2, total);
+    }
+
+    @Test
+    void testColumnarResultReadsPrimitiveColumns() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:aggregation;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS SALES");
+            statement.execute("CREATE TABLE SALES (REGION VARCHAR(5), QTY INT, PRICE DOUBLE)");
+            statement.execute("INSERT INTO SALES VALUES ('EU', 2, 1.5), ('EU', 3, NULL), ('US', 5, 4.0)");
+        }
+        DBConnector connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", "aggregation", "");
+        connector.connect();
+        try {
+            ColumnarResultSet sales = connector.executeColumnar("SELECT REGION, QTY, PRICE FROM SALES ORDER BY QTY");
+            List<Map<String, Object>> result = new Aggregation("REGION")
+                    .aggregate(Aggregate.sum("QTY"), Aggregate.max("QTY"), Aggregate.avg("PRICE"), Aggregate.count("PRICE"))
+                    .apply(sales);
+            assertEquals(List.of(row("REGION", "EU", "SUM(QTY)", 5L, "MAX(QTY)", 3, "AVG(PRICE)", 1.5, "COUNT(PRICE)", 1L),
+                    row("REGION", "US", "SUM(QTY)", 5L, "MAX(QTY)", 5, "AVG(PRICE)", 4.0, "COUNT(PRICE)", 1L)), result);
+        } finally {
+            connector.close();
+        }
+    }
+}
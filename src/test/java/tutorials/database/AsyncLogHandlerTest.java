@@ -0,0 +1,116 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLogHandlerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRecordsAreWrittenInOrder() throws IOException {
+        Path file = tempDir.resolve("async.log");
+        AsyncLogHandler handler = new AsyncLogHandler(file, 16, AsyncLogHandler.OverflowPolicy.BLOCK);
+        for (int i = 0; i < 1000; i++) {
+            handler.publish(new LogRecord(Level.INFO, "message " + i));
+        }
+        handler.flush();
+        List<String> messages = Files.readAllLines(file).stream().filter(line -> line.contains("message ")).toList();
+        assertEquals(1000, messages.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(messages.get(i).endsWith("message " + i), messages.get(i));
+        }
+        assertEquals(0, handler.getDroppedCount());
+        handler.close();
+    }
+
+    @Test
+    void testDropPolicyKeepsWarnings() throws IOException {
+        Path file = tempDir.resolve("drop.log");
+        AsyncLogHandler handler = new AsyncLogHandler(file, 1, AsyncLogHandler.OverflowPolicy.DROP);
+        for (int i = 0; i < 10_000; i++) {
+            handler.publish(new LogRecord(Level.FINE, "debug " + i));
+        }
+        handler.publish(new LogRecord(Level.SEVERE, "error"));
+        handler.close();
+        List<String> lines = Files.readAllLines(file);
+        long written = lines.stream().filter(line -> line.contains("debug ")).count();
+        assertEquals(10_000, written + handler.getDroppedCount());
+        assertTrue(lines.stream().anyMatch(line -> line.endsWith("error")));
+    }
+
+    @Test
+    void testBlockingPublishDoesNotHangWhenTheWriterStopped() throws IOException {
+        Set<Thread> running = Thread.getAllStackTraces().keySet();
+        AsyncLogHandler handler = new AsyncLogHandler(tempDir.resolve("stopped.log"), 1, AsyncLogHandler.OverflowPolicy.BLOCK);
+        Thread writer = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("async-log-writer") && !running.contains(thread))
+                .findFirst()
+                .orElseThrow();
+        writer.interrupt();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            writer.join();
+            for (int i = 0; i < 100; i++) {
+                handler.publish(new LogRecord(Level.SEVERE, "error " + i));
+            }
+        });
+        assertEquals(100, handler.getDroppedCount());
+        handler.close();
+    }
+
+    @Test
+    void testSupplierIsNotEvaluatedWhenLevelIsDisabled() {
+        LoggerManager loggerManager = new LoggerManager(AsyncLogHandlerTest.class);
+        AtomicInteger calls = new AtomicInteger();
+        assertFalse(loggerManager.isTraceEnabled());
+        loggerManager.trace(() -> "trace " + calls.incrementAndGet());
+        assertEquals(0, calls.get());
+        loggerManager.info(() -> "info " + calls.incrementAndGet());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testLoggersWriteToNewHandlersAfterReset() {
+        LoggerManager loggerManager = new LoggerManager(AsyncLogHandlerTest.class);
+        Logger packageLogger = Logger.getLogger(LoggerManager.class.getPackageName());
+        AsyncLogHandler before = asyncHandler(packageLogger);
+
+        // what LogManager.reset() does to the package logger, without resetting the loggers of other test classes
+        for (Handler handler : packageLogger.getHandlers()) {
+            packageLogger.removeHandler(handler);
+            handler.close();
+        }
+        packageLogger.setLevel(null);
+        assertTrue(before.isClosed());
+        loggerManager.info("after reset");
+
+        AsyncLogHandler after = asyncHandler(packageLogger);
+        assertNotSame(before, after);
+        assertFalse(after.isClosed(), "The earlier logger re-attaches an open handler");
+        assertEquals(Level.INFO, packageLogger.getLevel());
+    }
+
+    private static AsyncLogHandler asyncHandler(Logger logger) {
+        return Arrays.stream(logger.getHandlers())
+                .filter(AsyncLogHandler.class::isInstance)
+                .map(AsyncLogHandler.class::cast)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,67 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncQueryExecutorTest {
+
+    private PooledDBConnectionManager pool;
+    private DBConnector connector;
+
+    @BeforeEach
+    void setUp() {
+        pool = new PooledDBConnectionManager(PoolSettings.defaults().withMaxPoolSize(4).withBorrowTimeout(Duration.ofSeconds(10)));
+        connector = new DBConnector(pool);
+        connector.setDBConfig("h2", "", "sa", "", "asynctest", "");
+        connector.setAsyncConcurrency(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testExecuteAsync() {
+        List<Map<String, Object>> rows = connector.executeAsync("SELECT 7 AS SEVEN").join();
+        assertEquals("7", rows.get(0).get("SEVEN"));
+    }
+
+    @Test
+    void testInvokeAllKeepsOrderAndRespectsPool() {
+        List<String> sqls = IntStream.range(0, 40).mapToObj(i -> "SELECT " + i + " AS N").toList();
+        List<CompletableFuture<List<Map<String, Object>>>> futures = connector.invokeAll(sqls);
+        for (int i = 0; i < sqls.size(); i++) {
+            assertEquals(String.valueOf(i), futures.get(i).join().get(0).get("N"));
+        }
+        assertEquals(0, pool.getActiveCount());
+        assertTrue(pool.getIdleCount() <= 4, "No more connections than the concurrency limit should be opened");
+    }
+
+    @Test
+    void testFailedQueryCompletesExceptionally() {
+        CompletableFuture<List<Map<String, Object>>> future = connector.executeAsync("SELECT * FROM NOT_EXISTING");
+        assertThrows(CompletionException.class, future::join);
+        assertEquals(0, pool.getActiveCount(), "Connection should be returned after a failure");
+    }
+
+    @Test
+    void testReplacedExecutorLetsRunningQueriesFinish() {
+        CompletableFuture<List<Map<String, Object>>> running = connector.executeAsync("SELECT 1 AS N");
+        connector.setAsyncConcurrency(2);
+        assertEquals("2", connector.executeAsync("SELECT 2 AS N").join().get(0).get("N"));
+        connector.close();
+        assertEquals("1", running.join().get(0).get("N"));
+        assertEquals("3", connector.executeAsync("SELECT 3 AS N").join().get(0).get("N"));
+    }
+}
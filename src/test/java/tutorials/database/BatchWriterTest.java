@@ -0,0 +1,101 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchWriterTest {
+
+    private DBConnector connector;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:batchtest;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS PEOPLE (ID INT PRIMARY KEY, NAME VARCHAR(20))");
+            statement.execute("DELETE FROM PEOPLE");
+        }
+        connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", "batchtest", "");
+        connector.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    private long countPeople() {
+        return Long.parseLong((String) connector.execute("SELECT COUNT(*) AS C FROM PEOPLE").get(0).get("C"));
+    }
+
+    @Test
+    void testInsertsAllRowsInChunks() {
+        BatchResult result = connector.executeBatch("INSERT INTO PEOPLE VALUES (?, ?)",
+                IntStream.rangeClosed(1, 2500).mapToObj(i -> new Object[]{i, "name" + i}), 1000, true);
+        assertEquals(2500, result.rowsSubmitted());
+        assertEquals(2500, result.rowsAffected());
+        assertEquals(3, result.chunks());
+        assertTrue(result.rowsPerSecond() > 0);
+        assertEquals(2500, countPeople());
+    }
+
+    @Test
+    void testUpdateWithIterable() {
+        connector.executeBatch("INSERT INTO PEOPLE VALUES (?, ?)", List.of(new Object[]{1, "a"}, new Object[]{2, "b"}));
+        BatchResult result = connector.executeBatch("UPDATE PEOPLE SET NAME = ? WHERE ID = ?", List.of(new Object[]{"x", 1}, new Object[]{"y", 3}));
+        assertEquals(2, result.rowsSubmitted());
+        assertEquals(1, result.rowsAffected());
+        assertEquals("x", connector.execute("SELECT NAME FROM PEOPLE WHERE ID = ?", 1).get(0).get("NAME"));
+    }
+
+    @Test
+    void testFailedBatchIsRolledBackWithoutPerChunkCommits() {
+        List<Object[]> rows = List.of(new Object[]{1, "a"}, new Object[]{2, "b"}, new Object[]{1, "duplicate"});
+        assertThrows(RuntimeException.class, () -> connector.executeBatch("INSERT INTO PEOPLE VALUES (?, ?)", rows, 2, false));
+        assertEquals(0, countPeople());
+    }
+
+    @Test
+    void testFailedChunkKeepsCommittedChunks() {
+        List<Object[]> rows = List.of(new Object[]{1, "a"}, new Object[]{2, "b"}, new Object[]{1, "duplicate"});
+        assertThrows(RuntimeException.class, () -> connector.executeBatch("INSERT INTO PEOPLE VALUES (?, ?)", rows, 2, true));
+        assertEquals(2, countPeople());
+    }
+
+    @Test
+    void testFailingRowSourceRollsBackTheOpenChunk() throws SQLException {
+        Iterator<Object[]> rows = IntStream.rangeClosed(1, 5).mapToObj(i -> {
+            if (i == 4) {
+                throw new IllegalStateException("source failed");
+            }
+            return new Object[]{i, "name" + i};
+        }).iterator();
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:batchtest;DB_CLOSE_DELAY=-1", "sa", "")) {
+            assertThrows(IllegalStateException.class, () -> new BatchWriter(10, false).write(connection, "INSERT INTO PEOPLE VALUES (?, ?)", rows));
+            assertTrue(connection.getAutoCommit());
+        }
+        assertEquals(0, countPeople());
+    }
+
+    @Test
+    void testCallerTransactionIsLeftToTheCaller() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:batchtest;DB_CLOSE_DELAY=-1", "sa", "")) {
+            connection.setAutoCommit(false);
+            new BatchWriter(1, true).write(connection, "INSERT INTO PEOPLE VALUES (?, ?)", List.of(new Object[]{1, "a"}, new Object[]{2, "b"}).iterator());
+            assertFalse(connection.getAutoCommit());
+            connection.rollback();
+        }
+        assertEquals(0, countPeople());
+    }
+}
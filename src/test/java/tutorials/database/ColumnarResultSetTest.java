@@ -0,0 +1,92 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarResultSetTest {
+
+    private DBConnector connector;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:columnartest;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS ACCOUNTS (ID INT, NAME VARCHAR(20), BALANCE DECIMAL(10,2), RATE DOUBLE, BIG BIGINT)");
+            statement.execute("DELETE FROM ACCOUNTS");
+            statement.execute("INSERT INTO ACCOUNTS VALUES (1, 'alice', 10.50, 0.5, 10000000000), (2, 'bob', NULL, NULL, NULL)");
+        }
+        connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", "columnartest", "");
+        connector.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    @Test
+    void testValuesAreTyped() {
+        ColumnarResultSet result = connector.executeColumnar("SELECT ID, NAME, BALANCE, RATE, BIG FROM ACCOUNTS ORDER BY ID");
+        assertEquals(2, result.size());
+        assertInstanceOf(ResultColumn.IntColumn.class, result.getColumn("ID"));
+        assertInstanceOf(ResultColumn.LongColumn.class, result.getColumn("BIG"));
+        assertInstanceOf(ResultColumn.DoubleColumn.class, result.getColumn("RATE"));
+
+        Map<String, Object> first = result.get(0);
+        assertEquals(1, first.get("ID"));
+        assertEquals("alice", first.get("NAME"));
+        assertEquals(new BigDecimal("10.50"), first.get("BALANCE"));
+        assertEquals(0.5, first.get("RATE"));
+        assertEquals(10000000000L, first.get("BIG"));
+    }
+
+    @Test
+    void testNullsArePreserved() {
+        Map<String, Object> second = connector.executeColumnar("SELECT ID, BALANCE, RATE, BIG FROM ACCOUNTS WHERE ID = 2").get(0);
+        assertTrue(second.containsKey("RATE"));
+        assertNull(second.get("BALANCE"));
+        assertNull(second.get("RATE"));
+        assertNull(second.get("BIG"));
+    }
+
+    @Test
+    void testRowViewBehavesLikeMap() {
+        Map<String, Object> row = connector.executeColumnar("SELECT ID, NAME FROM ACCOUNTS WHERE ID = 1").get(0);
+        assertEquals(List.of("ID", "NAME"), List.copyOf(row.keySet()));
+        assertEquals(Map.of("ID", 1, "NAME", "alice"), row);
+        assertThrows(UnsupportedOperationException.class, () -> row.put("ID", 3));
+    }
+
+    @Test
+    void testDuplicateLabelsAppearOnceLikeInAMap() {
+        Map<String, Object> row = connector.executeColumnar("SELECT a.ID, b.ID, a.NAME AS OWNER FROM ACCOUNTS a JOIN ACCOUNTS b ON b.ID = 2 WHERE a.ID = 1").get(0);
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("ID", 1);
+        expected.put("OWNER", "alice");
+        assertEquals(2, row.size());
+        assertEquals(List.of("ID", "OWNER"), List.copyOf(row.keySet()));
+        assertEquals(expected, row);
+        assertEquals(expected.hashCode(), row.hashCode());
+    }
+
+    @Test
+    void testExistingHelpersWorkOnColumnarResult() {
+        ColumnarResultSet result = connector.executeColumnar("SELECT ID, NAME FROM ACCOUNTS ORDER BY ID");
+        assertEquals("bob", connector.findLineWithDataInResultSet("name", "bob", result).get("NAME"));
+        Map<String, Map<String, Object>> byName = connector.fetchDBDataIntoMap("NAME", result);
+        assertEquals(1, byName.get("alice").get("ID"));
+    }
+}
@@ -0,0 +1,68 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DBConnectorStreamTest {
+
+    private DBConnector connector;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:streamtest;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS NUMBERS AS SELECT X AS ID, 'row' || X AS NAME FROM SYSTEM_RANGE(1, 5000)");
+        }
+        connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", "streamtest", "");
+        connector.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    @Test
+    void testStreamReturnsAllRowsInOrder() {
+        try (Stream<Map<String, Object>> rows = connector.stream("SELECT ID, NAME FROM NUMBERS ORDER BY ID", 100)) {
+            List<String> ids = rows.map(row -> (String) row.get("ID")).collect(Collectors.toList());
+            assertEquals(5000, ids.size());
+            assertEquals("1", ids.get(0));
+            assertEquals("5000", ids.get(4999));
+        }
+    }
+
+    @Test
+    void testStreamRowsMatchExecute() {
+        String sql = "SELECT ID, NAME FROM NUMBERS WHERE ID <= 10 ORDER BY ID";
+        List<Map<String, Object>> expected = connector.execute(sql);
+        try (Stream<Map<String, Object>> rows = connector.stream(sql)) {
+            assertEquals(expected, rows.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void testStreamCanBeClosedEarly() {
+        try (Stream<Map<String, Object>> rows = connector.stream("SELECT ID FROM NUMBERS ORDER BY ID", 50)) {
+            Iterator<Map<String, Object>> iterator = rows.iterator();
+            assertTrue(iterator.hasNext());
+            assertEquals("1", iterator.next().get("ID"));
+        }
+        // the connection is still usable after the cursor has been closed
+        assertEquals("42", connector.execute("SELECT 42 AS ANSWER").get(0).get("ANSWER"));
+    }
+}
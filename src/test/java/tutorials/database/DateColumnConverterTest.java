@@ -0,0 +1,83 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateColumnConverterTest {
+
+    private static Map<String, Object> row(Object date) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("ID", "1");
+        row.put("CREATED", date);
+        return row;
+    }
+
+    @Test
+    void testConvertsStringsAndTypedValues() {
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(row("2024-05-17 10:15:00.0"), row(null),
+                row(LocalDateTime.of(2024, 1, 2, 3, 4)), row(java.sql.Date.valueOf("2023-12-31")), row("17.05.2024")));
+
+        DateConversionResult result = new DBConnector().convertDateColumn(rows, "CREATED", "yyyy-MM-dd HH:mm:ss", "dd.MM.yyyy");
+
+        assertEquals(3, result.converted());
+        assertEquals(1, result.nulls());
+        assertEquals(1, result.failures().size());
+        assertEquals(4, result.failures().get(0).row());
+        assertEquals("17.05.2024", result.failures().get(0).value());
+        assertEquals("17.05.2024", rows.get(0).get("CREATED"));
+        assertEquals("02.01.2024", rows.get(2).get("CREATED"));
+        assertEquals("31.12.2023", rows.get(3).get("CREATED"));
+        assertEquals("17.05.2024", rows.get(4).get("CREATED"));
+    }
+
+    @Test
+    void testParallelConversionReportsFailuresInRowOrder() {
+        int size = DateColumnConverter.PARALLEL_THRESHOLD * 3;
+        List<Map<String, Object>> rows = new ArrayList<>(size);
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < size; i++) {
+            rows.add(row(i % 1000 == 0 ? "broken" : start.plusDays(i % 5000).toString()));
+        }
+
+        DateConversionResult result = new DateColumnConverter("yyyy-MM-dd", "yyyyMMdd").convert(rows, "CREATED");
+
+        assertEquals(size / 1000, result.failures().size());
+        assertEquals(size - size / 1000, result.converted());
+        for (int i = 1; i < result.failures().size(); i++) {
+            assertEquals(result.failures().get(i - 1).row() + 1000, result.failures().get(i).row());
+        }
+        assertEquals("20000102", rows.get(1).get("CREATED"));
+        assertEquals(new DateColumnConverter("yyyy-MM-dd", "yyyyMMdd").convertValue(start.plusDays(4999).toString()), rows.get(size - 1).get("CREATED"));
+    }
+
+    @Test
+    void testOutOfRangeValuesAreReported() {
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(row(LocalDate.MAX), row("99999999999-01-01"), row("2024-05-17")));
+
+        DateConversionResult result = new DateColumnConverter("yyyy-MM-dd", "dd.MM.yyyy").convert(rows, "CREATED");
+
+        assertEquals(0, result.failures().get(0).row());
+        assertEquals(LocalDate.MAX, rows.get(0).get("CREATED"));
+        assertEquals(3, result.converted() + result.failures().size());
+        assertEquals("17.05.2024", rows.get(2).get("CREATED"));
+    }
+
+    @Test
+    void testReadOnlyRowsAreRejectedBeforeAnyChange() {
+        Map<String, Object> first = row("2024-05-17");
+        List<Map<String, Object>> rows = List.of(first, Collections.unmodifiableMap(row("2024-05-18")));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new DateColumnConverter("yyyy-MM-dd", "dd.MM.yyyy").convert(rows, "CREATED"));
+        assertEquals("2024-05-17", first.get("CREATED"), "No row is converted");
+    }
+}
@@ -0,0 +1,108 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateTimeUtilsTest {
+
+    @Test
+    void testFormatSimpleDate() {
+        assertEquals("17.05.2024", DateTimeUtils.formatSimpleDate("2024-05-17", "yyyy-MM-dd", "dd.MM.yyyy"));
+        assertEquals("17 May 2024, 10:15", DateTimeUtils.formatSimpleDate("2024-05-17 10:15:00.0", "yyyy-MM-dd HH:mm:ss", "dd MMM yyyy, HH:mm"));
+        assertEquals("2024-01", DateTimeUtils.formatSimpleDate("2024", "yyyy", "yyyy-MM"));
+        assertNull(DateTimeUtils.formatSimpleDate("not a date", "yyyy-MM-dd", "dd.MM.yyyy"));
+    }
+
+    @Test
+    void testParseStringToInstantAndDate() {
+        Instant instant = DateTimeUtils.parseStringToInstant("2024-05-17T10:15:00+0200", "yyyy-MM-dd'T'HH:mm:ssZ", Locale.ENGLISH);
+        assertEquals(Instant.parse("2024-05-17T08:15:00Z"), instant);
+
+        Date date = DateTimeUtils.parseStringToDate("17 May 2024", "dd MMM yyyy");
+        assertEquals(LocalDate.of(2024, 5, 17), DateTimeUtils.convertToLocalDate(date));
+        assertEquals("2024/05/17", DateTimeUtils.formatDate(date, "yyyy/MM/dd"));
+        assertNull(DateTimeUtils.parseStringToDate("17.05.", "dd MMM yyyy"));
+    }
+
+    @Test
+    void testSqlDatesAreFormatted() {
+        java.sql.Date date = java.sql.Date.valueOf("2024-05-17");
+        assertEquals("17.05.2024", DateTimeUtils.formatDate(date, "dd.MM.yyyy"));
+        assertEquals(LocalDate.of(2024, 5, 17), DateTimeUtils.convertToLocalDate(date));
+    }
+
+    @Test
+    void testParsingMatchesSimpleDateFormat() {
+        String[][] cases = {
+                {"10:15", "hh:mm"}, {"10:15 PM", "hh:mm a"}, {"12:30 AM", "hh:mm a"}, {"24:00", "kk:mm"},
+                {"2024-05-17 10:15:30.123", "yyyy-MM-dd HH:mm:ss.S"}, {"2024-05-17 10:15:30.5", "yyyy-MM-dd HH:mm:ss.SSS"},
+                {"17.5.2024", "dd.MM.yyyy"}, {"2024-02-30", "yyyy-MM-dd"}, {"2024-13-01", "yyyy-MM-dd"},
+                {"20240517", "yyyyMMdd"}, {"2024-05-17 10:15:00.0", "yyyy-MM-dd HH:mm:ss"},
+                {"2024-05-17T10:15:00+0200", "yyyy-MM-dd'T'HH:mm:ssZ"}, {"2024-05-17T10:15:00+05:30", "yyyy-MM-dd'T'HH:mm:ssXXX"},
+                {"Fri, 17 May 2024", "EEE, dd MMM yyyy"}, {"17 January 2024", "dd MMM yyyy"}, {"17 Jan 2024", "dd MMMM yyyy"},
+                {"3 2024-05-17", "u yyyy-MM-dd"}, {"17/05/24", "dd/MM/yy"}, {"Friday", "EEEE"},
+                {"17 Foo", "dd MMM"}, {"not a date", "yyyy-MM-dd"}, {"17.05.", "dd MMM yyyy"},
+                {"2024-01-01 10:00 GMT+01:00", "yyyy-MM-dd HH:mm Z"}, {"2024-01-01 10:00 PST", "yyyy-MM-dd HH:mm z"},
+                {"2024-01-01 10:00", "yyyy-MM-dd HH:mm"}, {"99999999999-01-01", "yyyy-MM-dd"}};
+        for (String[] c : cases) {
+            assertEquals(legacyParse(c[0], c[1]), DateTimeUtils.parseStringToDate(c[0], c[1]), c[0] + " as " + c[1]);
+        }
+    }
+
+    @Test
+    void testFormattingMatchesSimpleDateFormat() {
+        Date[] dates = {Date.from(Instant.parse("2024-05-17T08:05:09.007Z")), Date.from(Instant.parse("1999-12-31T23:59:59.999Z"))};
+        String[] patterns = {"yyyy-MM-dd HH:mm:ss.SSS", "d.M.yy h:mm a", "EEEE, d MMMM yyyy", "EEE MMM dd", "yyyyMMdd'T'HHmmssZ",
+                "S", "u 'day' D", "kk:mm K", "X XX XXX", "'It''s' H 'o''clock'", "[yyyy] #"};
+        for (Date date : dates) {
+            for (String pattern : patterns) {
+                assertEquals(new SimpleDateFormat(pattern, Locale.ENGLISH).format(date), DateTimeUtils.formatDate(date, pattern), pattern);
+            }
+        }
+        assertEquals("10:15", DateTimeUtils.formatSimpleDate("10:15", "hh:mm", "HH:mm"));
+        assertEquals("01.03.2024", DateTimeUtils.formatSimpleDate("2024-02-30", "yyyy-MM-dd", "dd.MM.yyyy"));
+        assertEquals("17.05.2024 00:00:00.005", DateTimeUtils.formatSimpleDate("17.5.2024 .5", "dd.MM.yyyy .SSS", "dd.MM.yyyy HH:mm:ss.SSS"));
+        assertEquals(new SimpleDateFormat("dd.MM.yyyy", Locale.ENGLISH).format(legacyParse("99999999999-01-01", "yyyy-MM-dd")),
+                DateTimeUtils.formatSimpleDate("99999999999-01-01", "yyyy-MM-dd", "dd.MM.yyyy"));
+    }
+
+    private static Date legacyParse(String text, String pattern) {
+        try {
+            return new SimpleDateFormat(pattern, Locale.ENGLISH).parse(text);
+        } catch (ParseException ex) {
+            return null;
+        }
+    }
+
+    @Test
+    void testRegistryReturnsSharedFormatters() {
+        assertSame(DateTimeFormatterRegistry.get("yyyy-MM-dd", Locale.ENGLISH), DateTimeFormatterRegistry.get("yyyy-MM-dd", Locale.ENGLISH));
+        assertNotSame(DateTimeFormatterRegistry.get("yyyy-MM-dd", Locale.ENGLISH), DateTimeFormatterRegistry.get("yyyy-MM-dd", Locale.GERMAN));
+        assertEquals(ZoneOffset.UTC, DateTimeFormatterRegistry.get("HH:mm", Locale.ENGLISH, ZoneOffset.UTC).getZone());
+
+        for (int i = 0; i < DateTimeFormatterRegistry.MAX_ENTRIES + 10; i++) {
+            DateTimeFormatterRegistry.get("'" + i + "' yyyy", Locale.ENGLISH, ZoneId.of("UTC"));
+        }
+        assertEquals(DateTimeFormatterRegistry.MAX_ENTRIES, DateTimeFormatterRegistry.size());
+    }
+
+    @Test
+    void testParallelLookupsShareOneFormatter() {
+        DateTimeFormatter expected = DateTimeFormatterRegistry.get("dd.MM.yyyy HH:mm", Locale.ENGLISH);
+        assertTrue(IntStream.range(0, 10_000).parallel()
+                .mapToObj(i -> DateTimeFormatterRegistry.get("dd.MM.yyyy HH:mm", Locale.ENGLISH))
+                .allMatch(formatter -> formatter == expected));
+    }
+}
@@ -0,0 +1,90 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutQueryExecutorTest {
+
+    private static final List<String> SHARDS = List.of("fanout1", "fanout2", "fanout3");
+
+    private final DBConnector connector = new DBConnector();
+
+    @BeforeAll
+    static void setUpShards() throws SQLException {
+        for (int shard = 0; shard < SHARDS.size(); shard++) {
+            try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + SHARDS.get(shard) + ";DB_CLOSE_DELAY=-1", "sa", "");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS CUSTOMERS (ID INT, SHARD INT)");
+                statement.execute("DELETE FROM CUSTOMERS");
+                for (int i = 0; i <= shard; i++) {
+                    statement.execute("INSERT INTO CUSTOMERS VALUES (" + (shard * 10 + i) + ", " + shard + ")");
+                }
+                statement.execute("CREATE ALIAS IF NOT EXISTS SLEEP FOR 'java.lang.Thread.sleep(long)'");
+            }
+        }
+        // a database without the table
+        DriverManager.getConnection("jdbc:h2:mem:fanoutempty;DB_CLOSE_DELAY=-1", "sa", "").close();
+    }
+
+    private static List<DBTarget> targets(String... dbNames) {
+        return Stream.of(dbNames).map(dbName -> new DBTarget("h2", "", "sa", "", dbName, "")).toList();
+    }
+
+    @Test
+    void testConcatenatesRowsInTargetOrder() {
+        FanOutResult result = connector.fanOut(targets("fanout1", "fanout2", "fanout3"),
+                "SELECT ID, SHARD FROM CUSTOMERS ORDER BY ID", Duration.ofSeconds(10));
+        assertTrue(result.isComplete());
+        assertEquals(List.of("0", "10", "11", "20", "21", "22"), result.rows().stream().map(row -> (String) row.get("ID")).toList());
+        assertEquals(List.of(1L, 2L, 3L), result.outcomes().stream().map(FanOutResult.TargetOutcome::rows).toList());
+    }
+
+    @Test
+    void testReportsFailedTargetAndKeepsOthers() {
+        FanOutResult result = connector.fanOut(targets("fanout1", "fanoutempty", "fanout3"),
+                "SELECT ID FROM CUSTOMERS", Duration.ofSeconds(10));
+        assertFalse(result.isComplete());
+        assertEquals(4, result.rows().size());
+        assertEquals(1, result.failures().size());
+        FanOutResult.TargetOutcome failure = result.failures().get(0);
+        assertEquals("fanoutempty", failure.target().dbName());
+        assertEquals(FanOutResult.Status.FAILED, failure.status());
+        assertNotNull(failure.error());
+    }
+
+    @Test
+    void testSlowTargetTimesOut() {
+        long start = System.nanoTime();
+        FanOutResult result = connector.fanOut(targets("fanout1", "fanout2"),
+                "SELECT ID, SLEEP(CASE WHEN SHARD = 1 THEN 10000 ELSE 0 END) FROM CUSTOMERS", Duration.ofMillis(500));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos(), "The slow target should not be waited for");
+        assertEquals(1, result.rows().size());
+        assertEquals(FanOutResult.Status.COMPLETED, result.outcomes().get(0).status());
+        assertEquals(FanOutResult.Status.TIMED_OUT, result.outcomes().get(1).status());
+    }
+
+    @Test
+    void testStreamMergesAllTargets() {
+        List<FanOutResult.TargetOutcome> outcomes = new ArrayList<>();
+        try (Stream<Map<String, Object>> rows = connector.fanOutStream(targets("fanout1", "fanout2", "fanout3", "fanoutempty"),
+                "SELECT ID FROM CUSTOMERS", Duration.ofSeconds(10), outcomes::add)) {
+            assertEquals(List.of("0", "10", "11", "20", "21", "22"),
+                    rows.map(row -> (String) row.get("ID")).sorted().collect(Collectors.toList()));
+        }
+        assertEquals(4, outcomes.size());
+        assertEquals(1, outcomes.stream().filter(outcome -> !outcome.isSuccess()).count());
+    }
+}
@@ -0,0 +1,97 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashJoinTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Map<String, Object> row(Object... keyValues) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            row.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return row;
+    }
+
+    private static final List<Map<String, Object>> CUSTOMERS = List.of(
+            row("ID", "1", "NAME", "alice"),
+            row("ID", "2", "NAME", "bob"),
+            row("ID", "3", "NAME", "carol"),
+            row("ID", null, "NAME", "nobody"));
+
+    private static final List<Map<String, Object>> ORDERS = List.of(
+            row("CUSTOMER_ID", "1", "NAME", "book"),
+            row("CUSTOMER_ID", "1", "NAME", "pen"),
+            row("CUSTOMER_ID", "3", "NAME", "lamp"),
+            row("CUSTOMER_ID", "4", "NAME", "desk"),
+            row("CUSTOMER_ID", null, "NAME", "lost"));
+
+    private final HashJoin join = new HashJoin("ID").withRightKeys("CUSTOMER_ID");
+
+    @Test
+    void testInnerJoinMatchesAllPairs() {
+        List<Map<String, Object>> rows = join.join(HashJoin.Type.INNER, CUSTOMERS, ORDERS);
+        assertEquals(List.of(
+                row("ID", "1", "NAME", "alice", "CUSTOMER_ID", "1", "RIGHT_NAME", "book"),
+                row("ID", "1", "NAME", "alice", "CUSTOMER_ID", "1", "RIGHT_NAME", "pen"),
+                row("ID", "3", "NAME", "carol", "CUSTOMER_ID", "3", "RIGHT_NAME", "lamp")), sorted(rows));
+    }
+
+    @Test
+    void testLeftAndAntiJoinOnEitherBuildSide() {
+        List<Map<String, Object>> expectedLeft = List.of(
+                row("ID", "1", "NAME", "alice", "CUSTOMER_ID", "1", "RIGHT_NAME", "book"),
+                row("ID", "1", "NAME", "alice", "CUSTOMER_ID", "1", "RIGHT_NAME", "pen"),
+                row("ID", "2", "NAME", "bob", "CUSTOMER_ID", null, "RIGHT_NAME", null),
+                row("ID", "3", "NAME", "carol", "CUSTOMER_ID", "3", "RIGHT_NAME", "lamp"),
+                row("ID", null, "NAME", "nobody", "CUSTOMER_ID", null, "RIGHT_NAME", null));
+        // the customers are the smaller list, so they are the build side
+        assertEquals(expectedLeft, sorted(join.join(HashJoin.Type.LEFT, CUSTOMERS, ORDERS)));
+        assertEquals(expectedLeft, sorted(join.join(HashJoin.Type.LEFT, CUSTOMERS.stream(), ORDERS.stream())));
+
+        List<Map<String, Object>> expectedAnti = List.of(row("ID", "2", "NAME", "bob"), row("ID", null, "NAME", "nobody"));
+        assertEquals(expectedAnti, sorted(join.join(HashJoin.Type.ANTI, CUSTOMERS, ORDERS)));
+        assertEquals(expectedAnti, sorted(join.join(HashJoin.Type.ANTI, CUSTOMERS.stream(), ORDERS.stream())));
+    }
+
+    @Test
+    void testSpillsPartitionsWhenBuildSideExceedsMemory() throws IOException {
+        List<Map<String, Object>> left = new ArrayList<>();
+        List<Map<String, Object>> right = new ArrayList<>();
+        IntStream.range(0, 5000).forEach(i -> left.add(row("ID", i, "A", "a" + i)));
+        IntStream.range(0, 4000).forEach(i -> right.add(row("ID", i * 2, "B", "b" + i)));
+        HashJoin spilling = new HashJoin("ID").withMemoryRows(100).withPartitions(4).withTempDirectory(tempDir);
+
+        List<Map<String, Object>> inner = new ArrayList<>();
+        long count = spilling.join(HashJoin.Type.INNER, left.iterator(), right.iterator(), inner::add);
+        assertEquals(2500, count);
+        assertTrue(inner.stream().allMatch(row -> ("b" + (Integer) row.get("ID") / 2).equals(row.get("B"))));
+        assertEquals(2500, spilling.join(HashJoin.Type.ANTI, left, right).size());
+        assertEquals(5000, spilling.join(HashJoin.Type.LEFT, left, right).size());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "Partition files are deleted");
+        }
+    }
+
+    private static List<Map<String, Object>> sorted(List<Map<String, Object>> rows) {
+        List<Map<String, Object>> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing((Map<String, Object> row) -> String.valueOf(row.get("ID")))
+                .thenComparing(row -> String.valueOf(row.get("RIGHT_NAME"))));
+        return sorted;
+    }
+}
@@ -0,0 +1,146 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalPollerTest {
+
+    private static final String URL = "jdbc:h2:mem:polling;DB_CLOSE_DELAY=-1";
+
+    private final DBConnector connector = new DBConnector();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS JOBS");
+            statement.execute("CREATE TABLE JOBS (ID INT PRIMARY KEY, STATUS VARCHAR(20))");
+            statement.execute("INSERT INTO JOBS VALUES (1, 'DONE'), (2, 'DONE')");
+        }
+        connector.setDBConfig("h2", "", "sa", "", "polling", "");
+        connector.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    private static void execute(String... sqls) {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            for (String sql : sqls) {
+                statement.execute(sql);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static void insert(int id, String status) {
+        execute("INSERT INTO JOBS VALUES (" + id + ", '" + status + "')");
+    }
+
+    @Test
+    void testPollFetchesOnlyNewRows() {
+        try (IncrementalPoller poller = connector.createPoller("SELECT ID, STATUS FROM JOBS;", "ID")) {
+            assertEquals(List.of("1", "2"), poller.poll().stream().map(row -> (String) row.get("ID")).toList());
+            assertEquals(2, ((Number) poller.getHighWaterMark()).intValue());
+            assertTrue(poller.poll().isEmpty());
+            insert(3, "RUNNING");
+            List<Map<String, Object>> rows = poller.poll();
+            assertEquals(1, rows.size());
+            assertEquals("RUNNING", rows.get(0).get("STATUS"));
+            assertTrue(poller.poll().isEmpty());
+        }
+    }
+
+    @Test
+    void testMaxRowsPerPollSplitsBacklog() {
+        insert(3, "DONE");
+        PollSettings settings = PollSettings.defaults().withMaxRowsPerPoll(2);
+        try (IncrementalPoller poller = connector.createPoller("SELECT * FROM JOBS", "ID", settings)) {
+            assertEquals(2, poller.poll().size());
+            assertEquals(1, poller.poll().size());
+            assertTrue(poller.poll().isEmpty());
+        }
+    }
+
+    @Test
+    void testFullPollIsExtendedToTheEndOfATieGroup() {
+        execute("DROP TABLE IF EXISTS EVENTS", "CREATE TABLE EVENTS (ID INT PRIMARY KEY, UPDATED_AT INT)",
+                "INSERT INTO EVENTS VALUES (1, 10), (2, 20), (3, 20), (4, 20), (5, 20), (6, 20), (7, 30)");
+        PollSettings settings = PollSettings.defaults().withMaxRowsPerPoll(2);
+        try (IncrementalPoller poller = connector.createPoller("SELECT * FROM EVENTS", "UPDATED_AT", settings)) {
+            assertEquals(6, poller.poll().size());
+            assertEquals(20, ((Number) poller.getHighWaterMark()).intValue());
+            assertEquals(List.of("7"), poller.poll().stream().map(row -> (String) row.get("ID")).toList());
+            assertTrue(poller.poll().isEmpty());
+        }
+    }
+
+    @Test
+    void testRowsWithoutMarkAreExcluded() {
+        execute("DROP TABLE IF EXISTS EVENTS", "CREATE TABLE EVENTS (ID INT PRIMARY KEY, UPDATED_AT INT)",
+                "INSERT INTO EVENTS VALUES (1, 10), (2, NULL), (3, 20)");
+        try (IncrementalPoller poller = connector.createPoller("SELECT * FROM EVENTS", "UPDATED_AT")) {
+            assertEquals(List.of("1", "3"), poller.poll().stream().map(row -> (String) row.get("ID")).toList());
+            assertTrue(poller.poll().isEmpty());
+            execute("INSERT INTO EVENTS VALUES (4, NULL)");
+            assertTrue(poller.poll().isEmpty());
+            assertEquals(20, ((Number) poller.getHighWaterMark()).intValue());
+        }
+    }
+
+    @Test
+    void testRunStopsWhenRowWrittenByAnotherThreadMatches() {
+        PollSettings settings = PollSettings.defaults().withMinInterval(Duration.ofMillis(10))
+                .withMaxInterval(Duration.ofMillis(50)).withTimeout(Duration.ofSeconds(10));
+        List<Map<String, Object>> delivered = new ArrayList<>();
+        try (IncrementalPoller poller = connector.createPoller("SELECT * FROM JOBS", "ID", settings).startFromLatest()) {
+            CompletableFuture<Void> job = CompletableFuture.runAsync(() -> {
+                insert(3, "RUNNING");
+                insert(4, "FAILED");
+                insert(5, "FINISHED");
+            });
+            PollResult result = poller.run(delivered::addAll, row -> "FINISHED".equals(row.get("STATUS")));
+            job.join();
+            assertTrue(result.isMatched());
+            assertEquals("5", result.matchedRow().get("ID"));
+            assertEquals(3, result.rows());
+            assertEquals(List.of("3", "4", "5"), delivered.stream().map(row -> (String) row.get("ID")).toList());
+        }
+    }
+
+    @Test
+    void testRunTimesOutWithBackoff() {
+        PollSettings settings = PollSettings.defaults().withMinInterval(Duration.ofMillis(10))
+                .withMaxInterval(Duration.ofMillis(80)).withTimeout(Duration.ofMillis(300));
+        try (IncrementalPoller poller = connector.createPoller("SELECT * FROM JOBS", "ID", settings).startFrom(2)) {
+            PollResult result = poller.run(rows -> fail("No rows expected"), row -> true);
+            assertFalse(result.isMatched());
+            assertEquals(0, result.rows());
+            assertTrue(result.polls() < 15, "Polls should back off: " + result.polls());
+            assertTrue(result.elapsedNanos() >= Duration.ofMillis(300).toNanos());
+        }
+    }
+
+    @Test
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> PollSettings.defaults().withBackoffFactor(0.5));
+        assertThrows(IllegalArgumentException.class, () -> PollSettings.defaults().withMinInterval(Duration.ofMinutes(1)));
+    }
+}
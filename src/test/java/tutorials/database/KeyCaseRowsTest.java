@@ -0,0 +1,122 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyCaseRowsTest {
+
+    private final DBConnector connector = new DBConnector();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:keycase;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS USERS");
+            statement.execute("CREATE TABLE USERS (ID INT, USER_NAME VARCHAR(20))");
+            statement.execute("INSERT INTO USERS VALUES (1, 'alice'), (2, 'bob')");
+        }
+        connector.setDBConfig("h2", "", "sa", "", "keycase", "");
+        connector.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    @Test
+    void testViewConvertsKeysWithoutCopyingRows() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("ID", "1");
+        row.put("USER_NAME", "alice");
+        List<Map<String, Object>> view = connector.withKeyCase(List.of(row), KeyCase.LOWER);
+        assertEquals(connector.convertKeyTo(row, true), view.get(0));
+        assertEquals(List.of("id", "user_name"), List.copyOf(view.get(0).keySet()));
+        assertSame(view.get(0), view.get(0), "A row is wrapped once");
+        assertNull(view.get(0).get("ID"));
+        row.put("USER_NAME", "carol");
+        assertEquals("carol", view.get(0).get("user_name"), "The view reads through to the row");
+        assertThrows(UnsupportedOperationException.class, () -> view.get(0).put("id", "2"));
+    }
+
+    @Test
+    void testNamesCollidingAfterConversionAppearOnce() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("ID", "1");
+        row.put("id", "2");
+        Map<String, Object> view = connector.withKeyCase(List.of(row), KeyCase.LOWER).get(0);
+        assertEquals(Map.of("id", "1"), view);
+        assertEquals(1, view.size());
+    }
+
+    @Test
+    void testIgnoreCaseLooksUpAnyCase() {
+        Map<String, Object> row = connector.ignoreKeyCase(Map.of("USER_NAME", "alice"));
+        assertEquals("alice", row.get("user_name"));
+        assertEquals("alice", row.get("User_Name"));
+        assertTrue(row.containsKey("user_NAME"));
+        assertEquals(Map.of("USER_NAME", "alice"), row);
+    }
+
+    @Test
+    void testConnectorKeyCaseAppliesToResults() {
+        connector.setKeyCase(KeyCase.LOWER);
+        List<Map<String, Object>> rows = connector.execute("SELECT ID, USER_NAME FROM USERS ORDER BY ID");
+        assertEquals("alice", rows.get(0).get("user_name"));
+        assertEquals("bob", connector.findLineWithDataInResultSet("user_name", "bob", rows).get("user_name"));
+
+        ColumnarResultSet columnar = connector.executeColumnar("SELECT ID, USER_NAME FROM USERS ORDER BY ID");
+        assertEquals(List.of("id", "user_name"), columnar.getSchema().names());
+        assertEquals(2, columnar.get(1).get("id"));
+
+        connector.setKeyCase(KeyCase.IGNORE);
+        ColumnarResultSet ignoring = connector.executeColumnar("SELECT ID, USER_NAME FROM USERS ORDER BY ID");
+        assertEquals("bob", ignoring.get(1).get("user_name"));
+        assertEquals("bob", ignoring.getColumn("User_Name").get(1));
+        assertEquals(1, connector.findLineWithDataInResultSet("user_name", "alice", ignoring).get("ID"));
+    }
+
+    @Test
+    void testRowsWithOtherKeysOfTheSameSizeGetTheirOwnNames() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("ID", "1");
+        first.put("USER_NAME", "alice");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("ID", "2");
+        second.put("EMAIL", "bob@example.com");
+        List<Map<String, Object>> view = connector.withKeyCase(List.of(first, second), KeyCase.LOWER);
+        assertEquals("alice", view.get(0).get("user_name"));
+        assertEquals(Map.of("id", "2", "email", "bob@example.com"), view.get(1));
+    }
+
+    @Test
+    void testKeyCaseAppliesWithQueryMetrics() {
+        connector.setQueryMetrics(new QueryMetrics());
+        connector.setKeyCase(KeyCase.LOWER);
+        List<Map<String, Object>> rows = connector.connectExecuteClose("h2", "", "sa", "", "keycase", "", "SELECT ID, USER_NAME FROM USERS ORDER BY ID");
+        assertEquals("alice", rows.get(0).get("user_name"));
+    }
+
+    @Test
+    void testSchemaKeyCaseSharesColumns() {
+        ColumnSchema schema = new ColumnSchema("ID", "USER_NAME");
+        assertSame(schema, schema.withKeyCase(KeyCase.PRESERVE));
+        assertSame(schema, schema.withKeyCase(KeyCase.UPPER));
+        assertEquals(List.of("id", "user_name"), schema.withKeyCase(KeyCase.LOWER).names());
+        assertEquals(-1, schema.indexOf("user_name"));
+        assertEquals(1, schema.indexOfIgnoreCase("user_name"));
+        assertEquals(1, schema.withKeyCase(KeyCase.IGNORE).indexOf("user_name"));
+        assertNotEquals(schema, schema.withKeyCase(KeyCase.IGNORE));
+    }
+}
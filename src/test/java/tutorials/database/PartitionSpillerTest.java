@@ -0,0 +1,70 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionSpillerTest {
+
+    private static final String[] KEYS = {"ID"};
+
+    @TempDir
+    Path tempDir;
+
+    private static Map<String, Object> row(int id, String side) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("ID", id);
+        row.put("SIDE", side);
+        return row;
+    }
+
+    private long fileCount() throws IOException {
+        try (var files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testRowsOfOneKeyShareAPartitionOnBothSides() throws IOException {
+        try (PartitionSpiller spiller = new PartitionSpiller("test-", tempDir, 4, 0)) {
+            for (int id = 0; id < 100; id++) {
+                spiller.add(PartitionSpiller.BUILD, KEYS, row(id, "build"));
+                spiller.add(PartitionSpiller.PROBE, KEYS, row(id, "probe"));
+            }
+            assertEquals(200, spiller.finish());
+            long rows = 0;
+            for (int p = 0; p < 4; p++) {
+                List<Object> buildIds = new ArrayList<>();
+                List<Object> probeIds = new ArrayList<>();
+                spiller.forEachRow(PartitionSpiller.BUILD, p, row -> buildIds.add(row.get("ID")));
+                spiller.forEachRow(PartitionSpiller.PROBE, p, row -> probeIds.add(row.get("ID")));
+                assertEquals(buildIds, probeIds);
+                assertEquals(buildIds.size(), spiller.getRowCount(PartitionSpiller.BUILD, p));
+                rows += buildIds.size();
+                spiller.delete(p);
+            }
+            assertEquals(100, rows);
+            assertEquals(0, fileCount(), "Read partitions are deleted");
+        }
+    }
+
+    @Test
+    void testCloseDeletesFilesLeftAfterAFailure() throws IOException {
+        try (PartitionSpiller spiller = new PartitionSpiller("test-", tempDir, 4, 0)) {
+            for (int id = 0; id < 20; id++) {
+                spiller.add(PartitionSpiller.BUILD, KEYS, row(id, "build"));
+            }
+            assertTrue(fileCount() > 0);
+        }
+        assertEquals(0, fileCount());
+    }
+}
@@ -0,0 +1,123 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledDBConnectionManagerTest {
+
+    private PooledDBConnectionManager pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new PooledDBConnectionManager(PoolSettings.defaults()
+                .withMaxPoolSize(2)
+                .withBorrowTimeout(Duration.ofMillis(200)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private Connection borrow() {
+        return pool.createConnection("h2", "", "sa", "", "pooltest", "");
+    }
+
+    @Test
+    void testReturnedConnectionIsReused() throws SQLException {
+        Connection first = borrow();
+        Connection physical = first.unwrap(Connection.class);
+        pool.closeConnection(first);
+        assertTrue(first.isClosed(), "Returned proxy should report closed");
+        assertEquals(1, pool.getIdleCount());
+
+        Connection second = borrow();
+        assertSame(physical, second.unwrap(Connection.class), "Physical connection should be reused");
+        assertEquals(1, pool.getActiveCount());
+        assertEquals(0, pool.getIdleCount());
+        second.close();
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void testPoolIsBounded() {
+        Connection first = borrow();
+        Connection second = borrow();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(borrow(), "Third borrow should time out");
+        pool.closeConnection(first);
+        Connection third = borrow();
+        assertNotNull(third);
+        pool.closeConnection(second);
+        pool.closeConnection(third);
+    }
+
+    @Test
+    void testNonPositiveHousekeepingIntervalIsRejected() {
+        PoolSettings defaults = PoolSettings.defaults();
+        assertThrows(IllegalArgumentException.class, () -> defaults.withHousekeepingInterval(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> defaults.withHousekeepingInterval(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> defaults.withHousekeepingInterval(Duration.ofNanos(1)));
+        assertThrows(IllegalArgumentException.class, () -> defaults.withHousekeepingInterval(null));
+        assertEquals(Duration.ofMillis(1), defaults.withHousekeepingInterval(Duration.ofMillis(1)).housekeepingInterval());
+    }
+
+    @Test
+    void testInvalidDurationsAreRejected() {
+        PoolSettings defaults = PoolSettings.defaults();
+        assertThrows(IllegalArgumentException.class, () -> defaults.withBorrowTimeout(null));
+        assertThrows(IllegalArgumentException.class, () -> defaults.withBorrowTimeout(Duration.ofMillis(-1)));
+        assertThrows(IllegalArgumentException.class, () -> defaults.withIdleTimeout(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> defaults.withMaxLifetime(null));
+        assertThrows(IllegalArgumentException.class, () -> defaults.withLeakDetectionThreshold(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> new PoolSettings(1, Duration.ZERO, Duration.ofMinutes(1),
+                Duration.ofMinutes(1), null, Duration.ZERO, Duration.ofSeconds(1)));
+        assertEquals(Duration.ZERO, defaults.withBorrowTimeout(Duration.ZERO).borrowTimeout());
+        assertEquals(Duration.ZERO, defaults.withLeakDetectionThreshold(Duration.ZERO).leakDetectionThreshold());
+    }
+
+    @Test
+    void testStaleProxyCannotBeUsedAfterReturn() {
+        Connection first = borrow();
+        pool.closeConnection(first);
+        Connection second = borrow();
+        assertThrows(SQLException.class, first::createStatement);
+        pool.closeConnection(second);
+    }
+
+    @Test
+    void testUncommittedWorkIsRolledBackOnReturn() throws SQLException {
+        Connection connection = borrow();
+        connection.createStatement().execute("CREATE TABLE IF NOT EXISTS ROLLBACK_TEST (ID INT)");
+        connection.setAutoCommit(false);
+        connection.createStatement().execute("INSERT INTO ROLLBACK_TEST VALUES (1)");
+        connection.close();
+
+        Connection next = borrow();
+        assertTrue(next.getAutoCommit());
+        var resultSet = next.createStatement().executeQuery("SELECT COUNT(*) FROM ROLLBACK_TEST");
+        resultSet.next();
+        assertEquals(0, resultSet.getInt(1));
+        next.close();
+    }
+
+    @Test
+    void testDBConnectorUsesPool() {
+        DBConnector connector = new DBConnector(pool);
+        List<Map<String, Object>> rows = connector.connectExecuteClose("h2", "", "sa", "", "pooltest", "", "SELECT 1 AS ONE");
+        assertEquals("1", rows.get(0).get("ONE"));
+        connector.connectExecuteClose("h2", "", "sa", "", "pooltest", "", "SELECT 1 AS ONE");
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+    }
+}
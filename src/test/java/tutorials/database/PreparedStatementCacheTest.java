@@ -0,0 +1,79 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreparedStatementCacheTest {
+
+    private DBConnector connector;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:pscachetest;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS COUNTRIES AS SELECT X AS ID, 'country' || X AS NAME FROM SYSTEM_RANGE(1, 100)");
+        }
+        connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", "pscachetest", "");
+        connector.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    @Test
+    void testParameterizedLookupsReuseStatement() {
+        for (int id = 1; id <= 10; id++) {
+            assertEquals("country" + id, connector.execute("SELECT NAME FROM COUNTRIES WHERE ID = ?", id).get(0).get("NAME"));
+        }
+        PreparedStatementCache cache = connector.getStatementCache();
+        assertEquals(1, cache.getMissCount());
+        assertEquals(9, cache.getHitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testNullParameterIsBound() {
+        assertTrue(connector.execute("SELECT NAME FROM COUNTRIES WHERE ID = ?", (Object) null).isEmpty());
+    }
+
+    @Test
+    void testLeastRecentlyUsedStatementIsEvictedAndClosed() throws SQLException {
+        connector.setStatementCacheSize(2);
+        connector.execute("SELECT NAME FROM COUNTRIES WHERE ID = ?", 1);
+        connector.execute("SELECT ID FROM COUNTRIES WHERE NAME = ?", "country2");
+        connector.execute("SELECT NAME FROM COUNTRIES WHERE ID = ?", 3);
+        connector.execute("SELECT COUNT(*) AS C FROM COUNTRIES WHERE ID > ?", 50);
+
+        PreparedStatementCache cache = connector.getStatementCache();
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testCloseClosesCachedStatements() throws SQLException {
+        connector.execute("SELECT NAME FROM COUNTRIES WHERE ID = ?", 1);
+        PreparedStatementCache cache = connector.getStatementCache();
+        PreparedStatement statement = cache.prepare("SELECT NAME FROM COUNTRIES WHERE ID = ?");
+        connector.close();
+        assertTrue(statement.isClosed());
+        assertEquals(0, cache.size());
+
+        connector.connect();
+        connector.execute("SELECT NAME FROM COUNTRIES WHERE ID = ?", 1);
+        assertEquals(2, cache.getMissCount(), "A new connection needs a new statement");
+    }
+}
@@ -0,0 +1,130 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryMetricsTest {
+
+    private DBConnector connector;
+    private QueryMetrics metrics;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:metricstest;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS ORDERS (ID INT, NAME VARCHAR(20))");
+            statement.execute("DELETE FROM ORDERS");
+            statement.execute("INSERT INTO ORDERS VALUES (1, 'abc'), (2, 'de'), (3, NULL)");
+        }
+        metrics = new QueryMetrics();
+        connector = new DBConnector();
+        connector.setQueryMetrics(metrics);
+        connector.setDBConfig("h2", "", "sa", "", "metricstest", "");
+        connector.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+        metrics.unregisterMBean();
+    }
+
+    @Test
+    void testFingerprintReplacesLiterals() {
+        assertEquals("SELECT * FROM T WHERE ID = ? AND NAME = ? AND C1 IN (?)",
+                QueryMetrics.fingerprint("SELECT *  FROM T\n WHERE ID = 42 AND NAME = 'it''s' AND C1 IN ( 1, 2 ,3 );"));
+        assertEquals("SELECT \"COL 1\" FROM T2", QueryMetrics.fingerprint("SELECT \"COL 1\" FROM T2"));
+    }
+
+    @Test
+    void testRecordsRowsBytesAndPhasesPerFingerprint() {
+        connector.execute("SELECT * FROM ORDERS WHERE ID > 0");
+        connector.execute("SELECT * FROM ORDERS WHERE ID > 1");
+        connector.execute("SELECT * FROM ORDERS WHERE ID > ?", 2);
+
+        // literals and placeholders share one fingerprint
+        QueryMetrics.QueryStatistics statistics = metrics.snapshot("SELECT * FROM ORDERS WHERE ID > 5");
+        assertEquals(3, statistics.executions());
+        assertEquals(6, statistics.rows());
+        // "1", "abc", "2", "de", "3", then "2", "de", "3", then "3" as UTF-16
+        assertEquals(2 * 13, statistics.bytes());
+        assertEquals(3, statistics.phases().get(QueryPhase.EXECUTE).count());
+        assertEquals(3, statistics.phases().get(QueryPhase.FETCH).count());
+        assertEquals(0, statistics.phases().get(QueryPhase.CONNECT).count());
+        assertEquals(1, metrics.snapshot().size());
+        assertEquals(3, metrics.getQueryCount());
+    }
+
+    @Test
+    void testConnectExecuteCloseRecordsAllPhases() {
+        connector.connectExecuteClose("h2", "", "sa", "", "metricstest", "", "SELECT NAME FROM ORDERS");
+        QueryMetrics.QueryStatistics statistics = metrics.snapshot("SELECT NAME FROM ORDERS");
+        for (QueryPhase phase : QueryPhase.values()) {
+            assertEquals(1, statistics.phases().get(phase).count(), phase.name());
+        }
+        assertEquals(3, statistics.rows());
+        connector.connect();
+    }
+
+    @Test
+    void testFailuresAndSlowQueries() {
+        metrics.setSlowQueryThreshold(Duration.ZERO);
+        assertThrows(RuntimeException.class, () -> connector.execute("SELECT * FROM MISSING"));
+        QueryMetrics.QueryStatistics statistics = metrics.snapshot("SELECT * FROM MISSING");
+        assertEquals(1, statistics.failures());
+        assertEquals(1, metrics.getSlowQueryCount());
+    }
+
+    @Test
+    void testFingerprintsAreBounded() {
+        QueryMetrics bounded = new QueryMetrics(Duration.ofHours(1), 2);
+        for (String table : List.of("A", "B", "C", "D")) {
+            bounded.record(bounded.start("SELECT * FROM " + table));
+        }
+        assertEquals(3, bounded.snapshot().size());
+        assertEquals(2, bounded.snapshot(QueryMetrics.OTHER).executions());
+    }
+
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(1000, snapshot.minNanos());
+        assertEquals(1_000_000, snapshot.maxNanos());
+        assertEquals(500_000, snapshot.p50Nanos(), 500_000 * 0.125);
+        assertEquals(990_000, snapshot.p99Nanos(), 990_000 * 0.125);
+        for (long value : new long[]{0, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < value);
+        }
+    }
+
+    @Test
+    void testMBeanExposesQueries() throws Exception {
+        connector.execute("SELECT ID FROM ORDERS");
+        ObjectName name = metrics.registerMBean("metricstest");
+        CompositeData[] queries = (CompositeData[]) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Queries");
+        assertEquals(1, queries.length);
+        assertEquals("SELECT ID FROM ORDERS", queries[0].get("fingerprint"));
+        assertEquals(3L, queries[0].get("rows"));
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "QueryCount"));
+    }
+}
@@ -0,0 +1,101 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResultCacheTest {
+
+    private static final List<Map<String, Object>> ROWS = List.of(Map.of("CODE", "DE"), Map.of("CODE", "FR"));
+
+    @Test
+    void testKeyIgnoresFormatting() {
+        assertEquals(QueryResultCache.key("t", "SELECT  *\n FROM COUNTRY;"), QueryResultCache.key("t", "SELECT * FROM COUNTRY"));
+        assertNotEquals(QueryResultCache.key("t", "SELECT 'a  b'"), QueryResultCache.key("t", "SELECT 'a b'"));
+        assertNotEquals(QueryResultCache.key("t", "SELECT * FROM C WHERE ID = ?", 1), QueryResultCache.key("t", "SELECT * FROM C WHERE ID = ?", 2));
+        assertNotEquals(QueryResultCache.key("a", "SELECT 1"), QueryResultCache.key("b", "SELECT 1"));
+    }
+
+    @Test
+    void testHitMissAndUnmodifiableRows() {
+        QueryResultCache cache = new QueryResultCache(1_000_000, Duration.ofMinutes(1));
+        QueryResultCache.CacheKey key = QueryResultCache.key("t", "SELECT CODE FROM COUNTRY");
+        assertNull(cache.get(key));
+        cache.put(key, ROWS);
+        List<Map<String, Object>> cached = cache.get(key);
+        assertEquals(ROWS, cached);
+        assertThrows(UnsupportedOperationException.class, () -> cached.get(0).put("CODE", "IT"));
+        assertEquals(1, cache.getStatistics().hitCount());
+        assertEquals(1, cache.getStatistics().missCount());
+    }
+
+    @Test
+    void testEntryExpires() throws InterruptedException {
+        QueryResultCache cache = new QueryResultCache(1_000_000, Duration.ofMinutes(1));
+        QueryResultCache.CacheKey key = QueryResultCache.key("t", "SELECT CODE FROM COUNTRY");
+        cache.put(key, ROWS, Duration.ofMillis(1));
+        Thread.sleep(5);
+        assertNull(cache.get(key));
+        assertEquals(1, cache.getStatistics().expirationCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvictedByWeight() {
+        QueryResultCache.CacheKey first = QueryResultCache.key("t", "SELECT CODE FROM A");
+        QueryResultCache.CacheKey second = QueryResultCache.key("t", "SELECT CODE FROM B");
+        QueryResultCache.CacheKey third = QueryResultCache.key("t", "SELECT CODE FROM C");
+        QueryResultCache probe = new QueryResultCache(Long.MAX_VALUE, Duration.ofMinutes(1));
+        probe.put(first, ROWS);
+        long entryWeight = probe.getStatistics().weight();
+
+        QueryResultCache cache = new QueryResultCache(2 * entryWeight, Duration.ofMinutes(1));
+        cache.put(first, ROWS);
+        cache.put(second, ROWS);
+        cache.get(first);
+        cache.put(third, ROWS);
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertEquals(1, cache.getStatistics().evictionCount());
+    }
+
+    @Test
+    void testInvalidateByTable() {
+        QueryResultCache cache = new QueryResultCache(1_000_000, Duration.ofMinutes(1));
+        QueryResultCache.CacheKey country = QueryResultCache.key("t", "SELECT * FROM ref.COUNTRY c JOIN CURRENCY x ON c.CUR = x.CODE");
+        QueryResultCache.CacheKey currency = QueryResultCache.key("t", "SELECT * FROM CURRENCY");
+        cache.put(country, ROWS);
+        cache.put(currency, ROWS);
+        assertEquals(Set.of("COUNTRY", "CURRENCY"), QueryResultCache.tablesOf(country.sql()));
+
+        assertEquals(1, cache.invalidateTable("country"));
+        assertNull(cache.get(country));
+        assertNotNull(cache.get(currency));
+        cache.invalidateTablesOf("UPDATE currency SET NAME = ?");
+        assertNull(cache.get(currency));
+        assertEquals(0, cache.getStatistics().entryCount());
+    }
+
+    @Test
+    void testDBConnectorUsesCache() {
+        DBConnector connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", "resultcachetest", "");
+        connector.setResultCache(new QueryResultCache(1_000_000, Duration.ofMinutes(1)));
+        connector.connect();
+        try {
+            connector.execute("SELECT 1 AS ONE");
+            connector.execute("SELECT 1  AS ONE");
+            connector.execute("SELECT ? AS P", 5);
+            assertEquals("5", connector.execute("SELECT ? AS P", 5).get(0).get("P"));
+            assertEquals(2, connector.getResultCache().getStatistics().hitCount());
+            assertEquals(2, connector.getResultCache().getStatistics().missCount());
+        } finally {
+            connector.close();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultSetDiffTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Map<String, Object> row(Object... keyValues) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            row.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return row;
+    }
+
+    @Test
+    void testReportsAddedRemovedAndChangedRows() {
+        List<Map<String, Object>> expected = List.of(
+                row("ID", "1", "REGION", "EU", "NAME", "a", "LOADED", "x"),
+                row("ID", "2", "REGION", "EU", "NAME", "b", "LOADED", "x"),
+                row("ID", "1", "REGION", "US", "NAME", "c", "LOADED", "x"));
+        List<Map<String, Object>> actual = List.of(
+                row("ID", "1", "REGION", "US", "NAME", "C", "LOADED", "y"),
+                row("ID", "1", "REGION", "EU", "NAME", "a", "LOADED", "y"),
+                row("ID", "3", "REGION", "EU", "NAME", "d", "LOADED", "y"));
+
+        DiffResult result = new ResultSetDiff("ID", "REGION").ignoring("LOADED").diff(expected, actual);
+
+        assertFalse(result.isEqual());
+        assertEquals(1, result.added());
+        assertEquals(1, result.removed());
+        assertEquals(1, result.changed());
+        assertEquals(3, result.differences().size());
+        DiffResult.RowDiff changed = result.differences().stream().filter(diff -> diff.type() == DiffResult.Type.CHANGED).findFirst().orElseThrow();
+        assertEquals(CompositeKey.of("1", "US"), changed.key());
+        assertEquals(List.of(new DiffResult.ColumnDiff("NAME", "c", "C")), changed.columns());
+    }
+
+    @Test
+    void testMissingColumnsAndDuplicates() {
+        List<Map<String, Object>> expected = List.of(row("ID", 1, "A", null), row("ID", 1, "A", null));
+        List<Map<String, Object>> actual = List.of(row("ID", 1, "B", "x"));
+
+        DiffResult result = new ResultSetDiff("ID").diff(expected, actual);
+
+        assertEquals(1, result.duplicates());
+        assertEquals(List.of(new DiffResult.ColumnDiff("B", null, "x")), result.differences().get(0).columns());
+    }
+
+    @Test
+    void testEqualStreams() {
+        Stream<Map<String, Object>> expected = IntStream.range(0, 1000).mapToObj(i -> row("ID", i, "V", "v" + i));
+        Stream<Map<String, Object>> actual = IntStream.range(0, 1000).map(i -> 999 - i).mapToObj(i -> row("ID", i, "V", "v" + i));
+        DiffResult result = new ResultSetDiff("ID").diff(expected, actual);
+        assertTrue(result.isEqual());
+        assertEquals(1000, result.actualRows());
+        assertEquals(0, result.spilledRows());
+    }
+
+    @Test
+    void testPartitionsToDiskWhenExpectedExceedsMemory() throws IOException {
+        int rows = 20_000;
+        List<Map<String, Object>> expected = new ArrayList<>();
+        List<Map<String, Object>> actual = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            expected.add(row("ID", i, "V", "v" + i));
+            if (i % 100 != 0) {
+                actual.add(row("ID", i, "V", i % 1000 == 1 ? "changed" : "v" + i));
+            }
+        }
+        actual.add(row("ID", rows, "V", "new"));
+
+        // two partitions per level with a 1000 row limit force a second level of partitioning
+        ResultSetDiff diff = new ResultSetDiff("ID").withMemoryRows(1000).withPartitions(2).withTempDirectory(tempDir);
+        List<DiffResult.RowDiff> differences = new ArrayList<>();
+        DiffResult result = diff.diff(expected.iterator(), actual.iterator(), differences::add);
+
+        assertEquals(rows, result.expectedRows());
+        assertEquals(rows - rows / 100 + 1, result.actualRows());
+        assertEquals(1, result.added());
+        assertEquals(rows / 100, result.removed());
+        assertEquals(rows / 1000, result.changed());
+        assertEquals(result.added() + result.removed() + result.changed(), differences.size());
+        assertTrue(result.spilledRows() > expected.size() + actual.size());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "Partition files should be deleted");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultSetExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DBConnector connector;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:exporttest;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS ITEMS (ID INT, NAME VARCHAR(40), PRICE DECIMAL(10,2), DUE DATE)");
+            statement.execute("DELETE FROM ITEMS");
+            statement.execute("INSERT INTO ITEMS VALUES (1, 'plain', 1.50, DATE '2024-05-17'), (2, 'with, comma', NULL, NULL), "
+                    + "(3, 'say \"hi\"', 3.00, DATE '2024-01-01'), (4, NULL, 4.00, NULL)");
+        }
+        connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", "exporttest", "");
+        connector.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    @Test
+    void testCsvWithMinimalQuoting() throws IOException {
+        Path file = tempDir.resolve("items.csv");
+        ExportStats stats = connector.export("SELECT ID, NAME FROM ITEMS ORDER BY ID", new CsvExporter(file));
+        assertEquals(4, stats.rows());
+        assertEquals(Files.size(file), stats.bytes());
+        assertEquals("ID,NAME\r\n1,plain\r\n2,\"with, comma\"\r\n3,\"say \"\"hi\"\"\"\r\n4,\r\n", Files.readString(file));
+    }
+
+    @Test
+    void testGzipCsvWithCustomFormat() throws IOException {
+        Path file = tempDir.resolve("items.csv.gz");
+        CsvFormat format = CsvFormat.defaults().withDelimiter(';').withQuoteMode(CsvFormat.QuoteMode.ALL)
+                .withLineSeparator("\n").withHeader(false).withNullValue("NULL");
+        connector.export("SELECT ID, PRICE FROM ITEMS ORDER BY ID", new CsvExporter(file, format, true));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals("\"1\";\"1.50\"\n\"2\";NULL\n\"3\";\"3.00\"\n\"4\";\"4.00\"\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testBinaryExportKeepsTypes() {
+        for (boolean gzip : new boolean[]{false, true}) {
+            Path file = tempDir.resolve("items-" + gzip + ".rows");
+            ExportStats stats = connector.export("SELECT * FROM ITEMS ORDER BY ID", new BinaryExporter(file, gzip));
+            assertEquals(4, stats.rows());
+            try (Stream<Map<String, Object>> rows = BinaryExporter.read(file)) {
+                List<Map<String, Object>> list = rows.collect(Collectors.toList());
+                assertEquals(4, list.size());
+                assertEquals(1, list.get(0).get("ID"));
+                assertEquals(new BigDecimal("1.50"), list.get(0).get("PRICE"));
+                assertEquals(LocalDate.of(2024, 5, 17), list.get(0).get("DUE"));
+                assertNull(list.get(3).get("NAME"));
+            }
+        }
+    }
+}
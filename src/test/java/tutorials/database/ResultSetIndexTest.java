@@ -0,0 +1,62 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultSetIndexTest {
+
+    private static Map<String, Object> row(Object id, Object first, Object second) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("ID", id);
+        row.put("A", first);
+        row.put("B", second);
+        return row;
+    }
+
+    private final List<Map<String, Object>> rows = List.of(
+            row("1", "ab", "c"),
+            row("2", "a", "bc"),
+            row("3", "ab", "c"),
+            row("4", null, "x"));
+
+    @Test
+    void testSingleColumnLookup() {
+        ResultSetIndex index = ResultSetIndex.on(rows, "A");
+        assertEquals(List.of(rows.get(0), rows.get(2)), index.lookup("ab"));
+        assertEquals(rows.get(1), index.first("a"));
+        assertEquals(Map.of(), index.first("zz"));
+        assertTrue(index.lookup("zz").isEmpty());
+        assertEquals(rows.get(3), index.first((Object) null));
+        assertEquals(3, index.distinctKeys());
+    }
+
+    @Test
+    void testMultiColumnLookupDoesNotCollide() {
+        ResultSetIndex index = ResultSetIndex.on(rows, "A", "B");
+        assertEquals(2, index.count("ab", "c"));
+        assertEquals(1, index.count("a", "bc"));
+        assertFalse(index.contains("abc", ""));
+        assertThrows(IllegalArgumentException.class, () -> index.lookup("ab"));
+    }
+
+    @Test
+    void testFirstMatchesLinearSearch() {
+        List<Map<String, Object>> many = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            many.add(row(String.valueOf(i), String.valueOf(i % 1000), "x"));
+        }
+        DefaultDBHelper helper = new DefaultDBHelper();
+        ResultSetIndex index = ResultSetIndex.on(new LinkedList<>(many), "A");
+        for (int i = 0; i < 1000; i += 97) {
+            assertEquals(helper.findLineWithDataInResultSet("a", String.valueOf(i), many), index.first(String.valueOf(i)));
+        }
+        assertEquals(100, index.count("7"));
+    }
+}
@@ -0,0 +1,110 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultSetSorterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Map<String, Object> row(Object... keyValues) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            row.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return row;
+    }
+
+    private static final List<Map<String, Object>> ORDERS = List.of(
+            row("ID", "1", "REGION", "US", "AMOUNT", "10"),
+            row("ID", "2", "REGION", "EU", "AMOUNT", "9"),
+            row("ID", "3", "REGION", "EU", "AMOUNT", null),
+            row("ID", "4", "REGION", "US", "AMOUNT", "100"),
+            row("ID", "5", "REGION", "EU", "AMOUNT", "9"));
+
+    private static List<String> ids(List<Map<String, Object>> rows) {
+        return rows.stream().map(row -> String.valueOf(row.get("ID"))).toList();
+    }
+
+    @Test
+    void testSortsByMultipleColumnsStably() {
+        ResultSetSorter sorter = new ResultSetSorter(SortKey.asc("REGION"), SortKey.desc("AMOUNT").asNumbers());
+        assertEquals(List.of("3", "2", "5", "4", "1"), ids(sorter.sort(ORDERS)));
+        assertEquals(List.of("2", "5", "1", "4", "3"), ids(new ResultSetSorter(SortKey.asc("AMOUNT").asNumbers()).sort(ORDERS)));
+        assertEquals(List.of("1", "4", "2", "5", "3"), ids(new ResultSetSorter(SortKey.asc("AMOUNT")).sort(ORDERS)),
+                "Without numeric the values compare as strings");
+        assertThrows(IllegalArgumentException.class, () -> new ResultSetSorter(SortKey.asc("REGION").asNumbers()).sort(ORDERS));
+    }
+
+    @Test
+    void testTopMatchesFullSort() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            rows.add(row("ID", i, "SCORE", random.nextInt(500), "NAME", "n" + random.nextInt(50)));
+        }
+        ResultSetSorter sorter = new ResultSetSorter(SortKey.desc("SCORE"), SortKey.asc("NAME"));
+        List<Map<String, Object>> sorted = sorter.sort(rows);
+        assertEquals(sorted.subList(0, 25), sorter.top(rows, 25));
+        assertEquals(sorted.subList(0, 25), sorter.top(rows.stream(), 25));
+        assertEquals(sorted, sorter.top(rows, 20_000));
+        assertTrue(sorter.top(rows, 0).isEmpty());
+    }
+
+    @Test
+    void testExternalSortMergesRunsFromDisk() throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            rows.add(row("ID", i, "KEY", random.nextInt(1000)));
+        }
+        ResultSetSorter sorter = new ResultSetSorter(SortKey.asc("KEY")).withMemoryRows(50).withTempDirectory(tempDir);
+        List<Map<String, Object>> expected = new ArrayList<>(rows);
+        expected.sort(Comparator.comparing((Map<String, Object> row) -> (Integer) row.get("KEY")));
+        try (Stream<Map<String, Object>> sorted = sorter.sort(rows.stream())) {
+            assertEquals(expected, sorted.toList(), "Equal keys keep their input order across runs");
+        }
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count(), "Run files are deleted");
+        }
+    }
+
+    @Test
+    void testColumnarResultComparesPrimitiveColumns() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:sorting;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS SCORES");
+            statement.execute("CREATE TABLE SCORES (NAME VARCHAR(10), POINTS INT)");
+            statement.execute("INSERT INTO SCORES VALUES ('a', 10), ('b', NULL), ('c', 9), ('d', 100)");
+        }
+        DBConnector connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", "sorting", "");
+        connector.connect();
+        try {
+            ColumnarResultSet scores = connector.executeColumnar("SELECT NAME, POINTS FROM SCORES");
+            List<Map<String, Object>> sorted = new ResultSetSorter(SortKey.desc("POINTS")).sort(scores);
+            assertEquals(List.of("b", "d", "a", "c"), sorted.stream().map(row -> row.get("NAME")).toList());
+            assertEquals(List.of("c", "a"), new ResultSetSorter(SortKey.asc("POINTS")).top(scores, 2).stream().map(row -> row.get("NAME")).toList());
+        } finally {
+            connector.close();
+        }
+    }
+}
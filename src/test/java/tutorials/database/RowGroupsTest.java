@@ -0,0 +1,71 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowGroupsTest {
+
+    private final DefaultDBHelper helper = new DefaultDBHelper();
+
+    private static Map<String, Object> row(Object id, Object first, Object second) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("ID", id);
+        row.put("A", first);
+        row.put("B", second);
+        return row;
+    }
+
+    private final List<Map<String, Object>> rows = List.of(
+            row("1", "ab", "c"),
+            row("2", "a", "bc"),
+            row("3", "ab", "c"),
+            row("4", null, "x"));
+
+    @Test
+    void testCompositeKeyMapDoesNotCollide() {
+        Map<String, Map<String, Object>> concatenated = helper.fetchDBDataIntoMapWithCombKeys(rows, "A", "B");
+        Map<CompositeKey, Map<String, Object>> tuples = helper.fetchDBDataIntoMapWithCompositeKey(rows, "A", "B");
+        assertEquals(2, concatenated.size(), "Concatenated keys collide");
+        assertEquals(3, tuples.size());
+        assertEquals(rows.get(2), tuples.get(CompositeKey.of("ab", "c")));
+        assertEquals(rows.get(1), tuples.get(CompositeKey.of("a", "bc")));
+        assertEquals(rows.get(3), tuples.get(CompositeKey.of(null, "x")));
+    }
+
+    @Test
+    void testGroupsKeepResultSetOrder() {
+        Map<CompositeKey, List<Map<String, Object>>> groups = helper.fetchDBDataIntoMapListWithCompositeKey(new LinkedList<>(rows), "A", "B");
+        assertEquals(3, groups.size());
+        assertEquals(List.of(rows.get(0), rows.get(2)), groups.get(CompositeKey.of("ab", "c")));
+        assertEquals(List.of(rows.get(1)), groups.get(CompositeKey.of("a", "bc")));
+        assertThrows(UnsupportedOperationException.class, () -> groups.get(CompositeKey.of("a", "bc")).add(rows.get(0)));
+        assertThrows(IndexOutOfBoundsException.class, () -> groups.get(CompositeKey.of("a", "bc")).get(1));
+    }
+
+    @Test
+    void testGroupsAreIndependentOfTheSourceList() {
+        List<Map<String, Object>> source = new ArrayList<>(rows);
+        Map<CompositeKey, List<Map<String, Object>>> groups = helper.fetchDBDataIntoMapListWithCompositeKey(source, "A", "B");
+        source.clear();
+        assertEquals(List.of(rows.get(0), rows.get(2)), groups.get(CompositeKey.of("ab", "c")));
+    }
+
+    @Test
+    void testGroupsMatchSingleKeyGrouping() {
+        List<Map<String, Object>> many = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            many.add(row(String.valueOf(i), String.valueOf(i % 1000), "x"));
+        }
+        Map<String, List<Map<String, Object>>> expected = helper.fetchDBDataIntoMapListWithKey("A", many);
+        Map<CompositeKey, List<Map<String, Object>>> groups = helper.fetchDBDataIntoMapListWithCompositeKey(many, "A");
+        assertEquals(expected.size(), groups.size());
+        expected.forEach((key, list) -> assertEquals(list, groups.get(CompositeKey.of(key))));
+    }
+}
@@ -0,0 +1,112 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowMapperTest {
+
+    record Order(long orderId, String customerName, BigDecimal amount, LocalDateTime createdAt, int quantity) {
+    }
+
+    static class OrderBean {
+        private long orderId;
+        private String customerName;
+        BigDecimal amount;
+
+        public void setOrderId(long orderId) {
+            this.orderId = orderId;
+        }
+
+        public void setCustomerName(String customerName) {
+            this.customerName = customerName;
+        }
+    }
+
+    private DBConnector connector;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:rowmappertest;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS ORDERS (ORDER_ID BIGINT, CUSTOMER_NAME VARCHAR(20), AMOUNT DECIMAL(10,2), "
+                    + "CREATED_AT TIMESTAMP, DUE DATE, QUANTITY INT)");
+            statement.execute("DELETE FROM ORDERS");
+            statement.execute("INSERT INTO ORDERS VALUES (1, 'alice', 12.30, TIMESTAMP '2024-05-17 10:15:00', DATE '2024-06-01', 3), "
+                    + "(2, 'bob', NULL, NULL, NULL, NULL)");
+        }
+        connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", "rowmappertest", "");
+        connector.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    @Test
+    void testExecuteTypedUsesJdbcTypes() {
+        List<Map<String, Object>> rows = connector.executeTyped("SELECT * FROM ORDERS ORDER BY ORDER_ID");
+        Map<String, Object> first = rows.get(0);
+        assertEquals(1L, first.get("ORDER_ID"));
+        assertEquals(new BigDecimal("12.30"), first.get("AMOUNT"));
+        assertEquals(LocalDateTime.of(2024, 5, 17, 10, 15), first.get("CREATED_AT"));
+        assertEquals(LocalDate.of(2024, 6, 1), first.get("DUE"));
+        assertEquals(3, first.get("QUANTITY"));
+        assertNull(rows.get(1).get("QUANTITY"));
+    }
+
+    @Test
+    void testMapToRecord() {
+        List<Order> orders = connector.query("SELECT * FROM ORDERS ORDER BY ORDER_ID", Order.class);
+        assertEquals(new Order(1, "alice", new BigDecimal("12.30"), LocalDateTime.of(2024, 5, 17, 10, 15), 3), orders.get(0));
+        assertEquals(new Order(2, "bob", null, null, 0), orders.get(1));
+    }
+
+    @Test
+    void testMapToPojoWithSettersAndFields() {
+        List<OrderBean> orders = connector.query("SELECT ORDER_ID, CUSTOMER_NAME, AMOUNT, DUE FROM ORDERS ORDER BY ORDER_ID", OrderBean.class);
+        assertEquals(1L, orders.get(0).orderId);
+        assertEquals("alice", orders.get(0).customerName);
+        assertEquals(new BigDecimal("12.30"), orders.get(0).amount);
+    }
+
+    @Test
+    void testMapperIsCompiledOncePerShape() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:rowmappertest;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            RowMapper<Order> first = RowMapper.forShape(Order.class, statement.executeQuery("SELECT * FROM ORDERS").getMetaData());
+            RowMapper<Order> second = RowMapper.forShape(Order.class, statement.executeQuery("SELECT * FROM ORDERS WHERE ORDER_ID = 1").getMetaData());
+            RowMapper<Order> other = RowMapper.forShape(Order.class, statement.executeQuery("SELECT ORDER_ID FROM ORDERS").getMetaData());
+            assertSame(first, second);
+            assertNotSame(first, other);
+        }
+    }
+
+    @Test
+    void testCachedShapesAreBoundedPerType() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:rowmappertest;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            for (int i = 0; i < RowMapper.MAX_SHAPES_PER_TYPE + 10; i++) {
+                RowMapper<Order> mapper = RowMapper.forShape(Order.class, statement.executeQuery("SELECT ORDER_ID AS C" + i + " FROM ORDERS").getMetaData());
+                assertNotNull(mapper);
+            }
+            assertEquals(RowMapper.MAX_SHAPES_PER_TYPE, RowMapper.cachedShapes(Order.class));
+            RowMapper.forShape(OrderBean.class, statement.executeQuery("SELECT ORDER_ID FROM ORDERS").getMetaData());
+            assertEquals(1, RowMapper.cachedShapes(OrderBean.class));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SQLScriptRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DBConnector connector;
+
+    @BeforeEach
+    void setUp() {
+        connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", "scriptrunnertest", "");
+        connector.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    @Test
+    void testParserHandlesCommentsQuotesAndDelimiters() {
+        String script = """
+                -- setup; not a statement
+                CREATE TABLE T (ID INT, NAME VARCHAR(20)); /* block; comment */
+                INSERT INTO T VALUES (1, 'semi;colon'), (2, 'it''s');
+                SELECT /*+ INDEX(T) */ * FROM T;
+                DELIMITER $$
+                CREATE ALIAS F AS 'int f() { return 1; }' $$
+                DELIMITER ;
+                SELECT "a;b" FROM T;
+                """;
+        List<String> statements = new SQLScriptParser().parse(script);
+        assertEquals(5, statements.size());
+        assertEquals("CREATE TABLE T (ID INT, NAME VARCHAR(20))", statements.get(0));
+        assertEquals("INSERT INTO T VALUES (1, 'semi;colon'), (2, 'it''s')", statements.get(1));
+        assertEquals("SELECT /*+ INDEX(T) */ * FROM T", statements.get(2));
+        assertEquals("CREATE ALIAS F AS 'int f() { return 1; }'", statements.get(3));
+        assertEquals("SELECT \"a;b\" FROM T", statements.get(4));
+    }
+
+    @Test
+    void testParserWithCustomDelimiter() {
+        List<String> statements = new SQLScriptParser("/").parse("INSERT INTO T VALUES (1);\n/\nSELECT 1 FROM DUAL\n/\n");
+        assertEquals(List.of("INSERT INTO T VALUES (1);", "SELECT 1 FROM DUAL"), statements);
+    }
+
+    @Test
+    void testLongerDelimitersOnlyEndALine() {
+        assertEquals(List.of("SELECT a / b FROM T", "SELECT c /\nd FROM T"),
+                new SQLScriptParser("/").parse("SELECT a / b FROM T\n  /  \nSELECT c /\nd FROM T\n/"));
+        assertEquals(List.of("SELECT '$$' || x$$y FROM T", "SELECT 1 FROM DUAL"),
+                new SQLScriptParser("$$").parse("SELECT '$$' || x$$y FROM T $$\nSELECT 1 FROM DUAL $$"));
+    }
+
+    @Test
+    void testDelimiterDirectiveOnlyBetweenStatements() {
+        String script = """
+                INSERT INTO T (NAME) VALUES (
+                delimiter);
+                DELIMITER $$
+                SELECT 1 FROM DUAL $$
+                """;
+        assertEquals(List.of("INSERT INTO T (NAME) VALUES (\ndelimiter)", "SELECT 1 FROM DUAL"), new SQLScriptParser().parse(script));
+    }
+
+    @Test
+    void testRunScriptBatchesStatements() throws IOException {
+        StringBuilder script = new StringBuilder("DROP TABLE IF EXISTS ITEMS;\nCREATE TABLE ITEMS (ID INT PRIMARY KEY, NAME VARCHAR(20));\n");
+        for (int i = 0; i < 250; i++) {
+            script.append("INSERT INTO ITEMS VALUES (").append(i).append(", 'item ").append(i).append("');\n");
+        }
+        script.append("SELECT COUNT(*) FROM ITEMS;\nUPDATE ITEMS SET NAME = 'x' WHERE ID < 10;\n");
+        Path file = Files.writeString(tempDir.resolve("setup.sql"), script);
+
+        ScriptResult result = connector.runScript(file.toString(), 100);
+        assertEquals(254, result.statementCount());
+        assertEquals(260, result.rowsAffected());
+        // 100 + 100 + 52 statements before the SELECT, then the SELECT and the UPDATE on their own
+        assertEquals(5, result.timings().size());
+        assertTrue(result.timings().get(0).isBatch());
+        assertFalse(result.timings().get(3).isBatch());
+        assertEquals(252, result.timings().get(3).firstIndex());
+
+        List<Map<String, Object>> rows = connector.execute("SELECT COUNT(*) AS CNT FROM ITEMS");
+        assertEquals("250", rows.get(0).get("CNT"));
+    }
+
+    @Test
+    void testFailingScriptIsRolledBack() throws IOException {
+        Path setup = Files.writeString(tempDir.resolve("setup.sql"), "DROP TABLE IF EXISTS LOGS; CREATE TABLE LOGS (ID INT PRIMARY KEY);");
+        connector.runScript(setup.toString());
+        Path failing = Files.writeString(tempDir.resolve("failing.sql"), "INSERT INTO LOGS VALUES (1); INSERT INTO LOGS VALUES (1);");
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> connector.runScript(failing.toString(), 1));
+        assertTrue(ex.getMessage().contains("statement 2"));
+        assertEquals("0", connector.execute("SELECT COUNT(*) AS CNT FROM LOGS").get(0).get("CNT"));
+    }
+
+    @Test
+    void testScriptCacheReparsesModifiedFiles() throws IOException {
+        SQLScriptCache cache = new SQLScriptCache();
+        Path file = Files.writeString(tempDir.resolve("cached.sql"), "SELECT 1;");
+        SQLScript first = cache.load(file);
+        assertSame(first, cache.load(file));
+
+        Files.writeString(file, "SELECT 1; SELECT 2;");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(first.lastModified().toMillis() + 2000));
+        SQLScript second = cache.load(file);
+        assertNotSame(first, second);
+        assertEquals(2, second.size());
+    }
+
+    @Test
+    void testScriptsAreDecodedLeniently() throws IOException {
+        Path file = Files.write(tempDir.resolve("latin1.sql"), "SELECT 'Gr\u00fc\u00dfe' FROM DUAL; SELECT 1 FROM DUAL;".getBytes(StandardCharsets.ISO_8859_1));
+        assertEquals(2, new SQLScriptCache().load(file).size());
+        assertTrue(new SQLUtils().getSQLStatement(file.toString()).startsWith("SELECT 'Gr"));
+    }
+
+    @Test
+    void testSQLStatementIsReadWithoutParsing() throws IOException {
+        String content = "# it's a MySQL comment\nCREATE FUNCTION F() RETURNS INT AS $$ SELECT 1 $$;";
+        Path file = Files.writeString(tempDir.resolve("raw.sql"), content);
+        assertEquals(content, new SQLUtils().getSQLStatement(file.toString()));
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> new SQLUtils().getSQLScript(file.toString()));
+        assertTrue(ex.getMessage().startsWith("Exception while parsing SQL script!"));
+    }
+
+    @Test
+    void testParserErrorsAreWrapped() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("broken.sql"), "SELECT 'unterminated FROM DUAL;");
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> connector.runScript(file.toString()));
+        assertEquals(RuntimeException.class, ex.getClass());
+        assertTrue(ex.getMessage().startsWith("Exception while parsing SQL script!"));
+        assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+    }
+
+    @Test
+    void testCallerTransactionIsLeftToTheCaller() throws IOException, SQLException {
+        connector.runScript(Files.writeString(tempDir.resolve("setup.sql"), "DROP TABLE IF EXISTS TX; CREATE TABLE TX (ID INT);").toString());
+        SQLScript script = new SQLScriptCache().load(Files.writeString(tempDir.resolve("insert.sql"), "INSERT INTO TX VALUES (1); INSERT INTO TX VALUES (2);"));
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:scriptrunnertest;DB_CLOSE_DELAY=-1", "sa", "")) {
+            connection.setAutoCommit(false);
+            new SQLScriptRunner().run(connection, script);
+            assertFalse(connection.getAutoCommit());
+            connection.rollback();
+        }
+        assertEquals("0", connector.execute("SELECT COUNT(*) AS CNT FROM TX").get(0).get("CNT"));
+    }
+}
@@ -0,0 +1,180 @@
+package tutorials.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillableResultSetTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DBConnector connector;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:spilltest;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS NUMBERS AS SELECT X AS ID, 'row ' || X AS NAME, NULL AS EMPTY FROM SYSTEM_RANGE(1, 20000)");
+        }
+        connector = new DBConnector();
+        connector.setDBConfig("h2", "", "sa", "", "spilltest", "");
+        connector.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    @Test
+    void testSpilledRowsMatchExecute() {
+        List<Map<String, Object>> expected = connector.execute("SELECT ID, NAME, EMPTY FROM NUMBERS ORDER BY ID");
+        try (SpillableResultSet rows = connector.executeSpillable("SELECT ID, NAME, EMPTY FROM NUMBERS ORDER BY ID", 1000)) {
+            assertEquals(20000, rows.size());
+            assertEquals(1000, rows.getMemoryRows().size());
+            assertEquals(19000, rows.getSpilledCount());
+            assertTrue(rows.getSpilledBytes() > 0);
+            // iterable more than once
+            for (int pass = 0; pass < 2; pass++) {
+                int i = 0;
+                for (Map<String, Object> row : rows) {
+                    assertEquals(expected.get(i++), row);
+                }
+                assertEquals(20000, i);
+            }
+        }
+    }
+
+    @Test
+    void testNothingIsSpilledBelowLimit() {
+        try (SpillableResultSet rows = connector.executeSpillable("SELECT ID FROM NUMBERS WHERE ID <= 10", 100)) {
+            assertEquals(10, rows.size());
+            assertEquals(0, rows.getSpilledCount());
+            assertEquals(10, rows.stream().count());
+        }
+    }
+
+    @Test
+    void testBinaryRowsRoundTripTypedValues() throws Exception {
+        Path file = tempDir.resolve("typed.rows");
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("S", "grüße");
+        row.put("I", 42);
+        row.put("L", 1L << 40);
+        row.put("D", 1.5);
+        row.put("B", true);
+        row.put("DEC", new BigDecimal("12.30"));
+        row.put("DATE", LocalDate.of(2024, 5, 17));
+        row.put("TS", LocalDateTime.of(2024, 5, 17, 10, 15, 0, 123_000_000));
+        row.put("TIME", LocalTime.of(23, 59));
+        row.put("INST", Instant.parse("2024-05-17T08:15:00Z"));
+        row.put("NUL", null);
+        ColumnSchema schema = new ColumnSchema(row.keySet().toArray(new String[0]));
+        try (BinaryRowWriter writer = new BinaryRowWriter(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE), schema)) {
+            writer.write(row);
+            writer.write(new Object[]{"x", null, null, null, null, null, null, null, null, null, new byte[]{1, 2, 3}});
+        }
+
+        try (BinaryRowReader reader = BinaryRowReader.open(file)) {
+            assertEquals(schema, reader.getSchema());
+            assertEquals(row, reader.next());
+            assertTrue(reader.advance());
+            assertTrue(reader.isNull(1));
+            assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) reader.get(10));
+            assertEquals(1 + 4 + 1, reader.getRaw(0).remaining());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    void testReaderMovesMappedWindowAcrossRows() {
+        Path file = tempDir.resolve("window.rows");
+        try (BinaryRowWriter writer = new BinaryRowWriter(open(file), new ColumnSchema("ID", "NAME"))) {
+            for (int i = 0; i < 1000; i++) {
+                writer.write(new Object[]{i, "name " + "x".repeat(i % 100)});
+            }
+        }
+        try (BinaryRowReader reader = BinaryRowReader.open(file, 64)) {
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(reader.advance());
+                assertEquals(i, reader.get(0));
+                assertEquals("name " + "x".repeat(i % 100), reader.get(1));
+            }
+            assertFalse(reader.advance());
+        }
+    }
+
+    @Test
+    void testCloseDeletesSpillFile() throws Exception {
+        SpillableResultSet rows = new SpillableResultSet(new ColumnSchema("ID"), 1, tempDir);
+        rows.add(Map.of("ID", "1"));
+        rows.add(Map.of("ID", "2"));
+        Iterator<Map<String, Object>> iterator = rows.iterator();
+        assertEquals("1", iterator.next().get("ID"));
+        assertEquals("2", iterator.next().get("ID"));
+        assertFalse(iterator.hasNext());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+        rows.close();
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testEarlyTerminationReleasesTheSpillFile() throws Exception {
+        SpillableResultSet rows = new SpillableResultSet(new ColumnSchema("ID"), 1, tempDir);
+        for (int i = 0; i < 100; i++) {
+            rows.add(Map.of("ID", String.valueOf(i)));
+        }
+        try (Stream<Map<String, Object>> stream = rows.stream()) {
+            assertEquals("5", stream.skip(5).findFirst().orElseThrow().get("ID"));
+        }
+        SpillableResultSet.RowIterator iterator = rows.iterator();
+        assertEquals("0", iterator.next().get("ID"));
+        assertEquals("1", iterator.next().get("ID"));
+        iterator.close();
+        assertFalse(iterator.hasNext());
+        SpillableResultSet.RowIterator open = rows.iterator();
+        open.next();
+        open.next();
+        rows.close();
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static FileChannel open(Path file) {
+        try {
+            return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}